@@ -7,12 +7,19 @@ import cn.misection.cvac.codegen.bst.bclas.TargetClass;
 import cn.misection.cvac.config.DebugMacro;
 import cn.misection.cvac.config.Macro;
 import cn.misection.cvac.config.VersionMacro;
+import cn.misection.cvac.constant.LexerCommon;
 import cn.misection.cvac.constant.UserInterfaceCommon;
-import cn.misection.cvac.io.BufferedHandler;
+import cn.misection.cvac.diagnostic.Diagnostic;
+import cn.misection.cvac.diagnostic.Diagnostics;
+import cn.misection.cvac.diagnostic.EnumCompilePhase;
+import cn.misection.cvac.io.AstCache;
 import cn.misection.cvac.io.IBufferedQueue;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.io.StreamingBufferedHandler;
 import cn.misection.cvac.optimize.Optimizer;
 import cn.misection.cvac.parser.Parser;
 import cn.misection.cvac.semantic.SemanticVisitor;
+import cn.misection.cvac.symbol.SymbolTable;
 
 import java.io.*;
 
@@ -53,8 +60,15 @@ public final class CvaCompiler
         {
             fName = DebugMacro.DEBUG_FILE;
         }
-        IBufferedQueue fStream = readStream(fName);
-        AbstractProgram program = grammarAnalysis(fStream);
+        Diagnostics diagnostics = Diagnostics.toStderr();
+        AbstractProgram program = grammarAnalysis(fName, diagnostics);
+        // 只有命令行入口才退出进程, 各阶段报完错都会接着走;
+        if (program == null)
+        {
+            System.err.printf("ERROR: %d error(s), compilation aborted%n",
+                    diagnostics.errorCount());
+            System.exit(1);
+        }
         geneCode(program);
     }
 
@@ -89,12 +103,49 @@ public final class CvaCompiler
         System.out.println("\nwell down!\n");
     }
 
-    private static AbstractProgram grammarAnalysis(IBufferedQueue fStream)
+    /**
+     * @param fName 源文件;
+     * @param diagnostics 本文件的报错都收在这里;
+     * @return 有错时为 null, 已经报过的错都在 diagnostics 里;
+     */
+    private static AbstractProgram grammarAnalysis(String fName, Diagnostics diagnostics)
     {
         System.out.println("\nstart grammar analysis");
-        Parser parser = new Parser(fStream);
-        AbstractProgram program = parser.parse();
-        doCheck(program);
+        // 一次编译一张新符号表, 上一次的名字不留, 缓存里读出来的树也在这张表上取 id;
+        SymbolTable.open();
+        AstCache cache = Macro.AST_CACHE_FLAG ? openCache(fName) : null;
+        AbstractProgram program = cache == null ? null : cache.load();
+        if (program == null)
+        {
+            IBufferedQueue fStream = readStream(fName, diagnostics);
+            if (fStream == null)
+            {
+                return null;
+            }
+            // 语法分析提前停下时流式读入的后台线程还堵着, 要关掉;
+            try (IBufferedQueue source = fStream)
+            {
+                program = new Parser(source, diagnostics).parse();
+            }
+            // 语法有错就不往下检查了, 残缺的树也不缓存;
+            if (diagnostics.hasErrors())
+            {
+                return null;
+            }
+            // 语义分析会往树上写类型, 要在那之前存;
+            if (cache != null)
+            {
+                cache.store(program);
+            }
+        }
+        else
+        {
+            System.out.printf("hit ast cache %s\n", cache.getCachePath());
+        }
+        if (!doCheck(program, diagnostics))
+        {
+            return null;
+        }
         System.out.println("finish grammar analysis\n");
         return program;
     }
@@ -104,19 +155,21 @@ public final class CvaCompiler
         System.out.println("start optimize");
         Optimizer optimizer = new Optimizer();
         optimizer.optimize(program);
+        System.out.print(optimizer.getStatistics());
         System.out.println("finish optimize\n");
     }
 
-    private static void doCheck(AbstractProgram program)
+    private static boolean doCheck(AbstractProgram program, Diagnostics diagnostics)
     {
-        SemanticVisitor checker = new SemanticVisitor();
+        SemanticVisitor checker = new SemanticVisitor(diagnostics);
         checker.visit(program);
         // if the program is correct, we generate code for it
         if (!checker.isOkay())
         {
             System.err.println("ERROE: check failed");
-            System.exit(1);
+            return false;
         }
+        return true;
     }
 
     private static String release(String[] args)
@@ -202,18 +255,35 @@ public final class CvaCompiler
         }
     }
 
-    private static IBufferedQueue readStream(String fName)
+    private static AstCache openCache(String fName)
     {
         try
         {
-            return new BufferedHandler(fName);
+            return new AstCache(fName);
         }
         catch (IOException e)
         {
-            System.err.printf("Cannot find the file: %s%n", fName);
-            System.exit(1);
+            // 源文件读不了, 交给 readStream 报错;
+            return null;
+        }
+    }
+
+    private static IBufferedQueue readStream(String fName, Diagnostics diagnostics)
+    {
+        try
+        {
+            // 特别大的文件流式读入, 内存有界;
+            if (new File(fName).length() > LexerCommon.STREAMING_SOURCE_THRESHOLD)
+            {
+                return new StreamingBufferedHandler(fName);
+            }
+            return new MappedBufferedHandler(fName);
+        }
+        catch (IOException e)
+        {
+            diagnostics.report(EnumCompilePhase.INPUT, Diagnostic.NO_LINE,
+                    String.format("Cannot find the file: %s", fName));
+            return null;
         }
-        // 不可达;
-        return null;
     }
 }
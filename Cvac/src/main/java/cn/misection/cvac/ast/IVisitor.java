@@ -6,6 +6,7 @@ import cn.misection.cvac.ast.decl.*;
 import cn.misection.cvac.ast.entry.*;
 import cn.misection.cvac.ast.expr.*;
 import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.*;
 import cn.misection.cvac.ast.expr.unary.*;
 import cn.misection.cvac.ast.method.*;
 import cn.misection.cvac.ast.program.AbstractProgram;
@@ -15,7 +16,6 @@ import cn.misection.cvac.ast.type.*;
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
 import cn.misection.cvac.ast.type.reference.CvaClassType;
 import cn.misection.cvac.ast.type.advance.CvaStringType;
-import cn.misection.cvac.constant.CvaExprClassName;
 
 /**
  * Created by MI6 root 1/7.
@@ -84,84 +84,143 @@ public interface IVisitor
     void visit(CvaDeclaration decl);
 
     /**
-     * 做成map之后, 可以精简代码分散, 但是这里要用反射, 算了;
+     * 按 toEnum() 分派, 编译成 tableswitch, 不必取类名再算字符串 hash;
      * @param expr e;
      */
     default void visit(AbstractExpression expr)
     {
-        // 用typeCode代替, 可以避免反射以及改名麻烦;
-        switch (expr.getClass().getSimpleName())
+        switch (expr.toEnum())
         {
-            case CvaExprClassName.CVA_ADD_EXPR:
+            case ADD:
             {
                 visit((CvaAddExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_AND_AND_EXPR:
+            case AND_AND:
             {
                 visit((CvaAndAndExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_CALL_EXPR:
+            case CALL:
             {
                 visit((CvaCallExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_CONST_FALSE_EXPR:
+            case CONST_FALSE:
             {
                 visit((CvaConstFalseExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_IDENTIFIER_EXPR:
+            case IDENTIFIER:
             {
                 visit((CvaIdentifierExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_LESS_THAN_EXPR:
+            case LESS_THAN:
             {
                 visit((CvaLessThanExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_NEW_EXPR:
+            case NEW:
             {
                 visit((CvaNewExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_NEGATE_EXPR:
+            case NEGATE:
             {
                 visit((CvaNegateExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_CONST_INT_EXPR:
+            case CONST_INT:
             {
                 visit((CvaConstIntExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_CONST_STRING_EXPR:
+            case CONST_STRING:
             {
                 visit((CvaConstStringExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_SUB_EXPR:
+            case SUB:
             {
                 visit((CvaSubExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_THIS_EXPR:
+            case THIS:
             {
                 visit((CvaThisExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_MUL_EXPR:
+            case MUL:
             {
                 visit((CvaMulExpr) expr);
                 break;
             }
-            case CvaExprClassName.CVA_CONST_TRUE_EXPR:
+            case CONST_TRUE:
             {
                 visit((CvaConstTrueExpr) expr);
                 break;
             }
+            case DIV:
+            {
+                visit((CvaDivExpr) expr);
+                break;
+            }
+            case REMAINDER:
+            {
+                visit((CvaRemainderExpr) expr);
+                break;
+            }
+            case BIT_AND:
+            {
+                visit((CvaBitAndExpr) expr);
+                break;
+            }
+            case BIT_OR:
+            {
+                visit((CvaBitOrExpr) expr);
+                break;
+            }
+            case BIT_XOR:
+            {
+                visit((CvaXorExpr) expr);
+                break;
+            }
+            case LEFT_SHIFT:
+            {
+                visit((CvaLeftShiftExpr) expr);
+                break;
+            }
+            case RIGHT_SHIFT:
+            {
+                visit((CvaRightShiftExpr) expr);
+                break;
+            }
+            case UNSIGNED_RIGHT_SHIFT:
+            {
+                visit((CvaUnsignedRightShiftExpr) expr);
+                break;
+            }
+            case MORE_THAN:
+            {
+                visit((CvaMoreThanExpr) expr);
+                break;
+            }
+            case OR_OR:
+            {
+                visit((CvaOrOrExpr) expr);
+                break;
+            }
+            case BIT_NEGATE:
+            {
+                visit((CvaBitNegateExpr) expr);
+                break;
+            }
+            case CONDITION_CALC:
+            {
+                visit((CvaConditionCalcExpr) expr);
+                break;
+            }
             default:
             {
                 System.err.println("unknown expr");
@@ -198,6 +257,30 @@ public interface IVisitor
 
     void visit(CvaConstTrueExpr expr);
 
+    void visit(CvaDivExpr expr);
+
+    void visit(CvaRemainderExpr expr);
+
+    void visit(CvaBitAndExpr expr);
+
+    void visit(CvaBitOrExpr expr);
+
+    void visit(CvaXorExpr expr);
+
+    void visit(CvaLeftShiftExpr expr);
+
+    void visit(CvaRightShiftExpr expr);
+
+    void visit(CvaUnsignedRightShiftExpr expr);
+
+    void visit(CvaMoreThanExpr expr);
+
+    void visit(CvaOrOrExpr expr);
+
+    void visit(CvaBitNegateExpr expr);
+
+    void visit(CvaConditionCalcExpr expr);
+
     // Stm
     default void visit(AbstractStatement abstStm)
     {
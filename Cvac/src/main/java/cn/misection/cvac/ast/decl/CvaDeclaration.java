@@ -1,6 +1,7 @@
 package cn.misection.cvac.ast.decl;
 
 import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.symbol.SymbolTable;
 
 /**
  * @author Military Intelligence 6 root
@@ -13,12 +14,15 @@ public final class CvaDeclaration extends AbstractDeclaration
 {
     private final String literal;
 
+    private final int symbol;
+
     private final ICvaType type;
 
     public CvaDeclaration(int lineNum, String literal, ICvaType type)
     {
         super(lineNum);
         this.literal = literal;
+        this.symbol = SymbolTable.getInstance().intern(literal);
         this.type = type;
     }
 
@@ -28,6 +32,12 @@ public final class CvaDeclaration extends AbstractDeclaration
         return literal;
     }
 
+    @Override
+    public int symbol()
+    {
+        return symbol;
+    }
+
     @Override
     public ICvaType type()
     {
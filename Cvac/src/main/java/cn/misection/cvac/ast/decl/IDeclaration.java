@@ -19,6 +19,12 @@ public interface IDeclaration extends ASTree
      */
     String literal();
 
+    /**
+     * 字面量在 SymbolTable 中的 id;
+     * @return id;
+     */
+    int symbol();
+
     /**
      * 类型;
      * @return t;
@@ -1,5 +1,6 @@
 package cn.misection.cvac.ast.expr.ternary;
 
+import cn.misection.cvac.ast.expr.AbstractExpression;
 import cn.misection.cvac.ast.expr.EnumCvaExpr;
 import cn.misection.cvac.ast.expr.ternary.AbstractTernaryExpr;
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
@@ -8,21 +9,32 @@ import cn.misection.cvac.ast.type.basic.EnumCvaType;
  * @author Military Intelligence 6 root
  * @version 1.0.0
  * @ClassName CvaConditionalExpr
- * @Description TODO
+ * @Description cond ? trueExpr : falseExpr;
  * @CreateTime 2021年02月20日 20:17:00
  */
 public class CvaConditionCalcExpr extends AbstractTernaryExpr
 {
-    protected CvaConditionCalcExpr(int lineNum)
+    private AbstractExpression condition;
+
+    private AbstractExpression trueExpr;
+
+    private AbstractExpression falseExpr;
+
+    public CvaConditionCalcExpr(int lineNum,
+                                AbstractExpression condition,
+                                AbstractExpression trueExpr,
+                                AbstractExpression falseExpr)
     {
         super(lineNum);
+        this.condition = condition;
+        this.trueExpr = trueExpr;
+        this.falseExpr = falseExpr;
     }
 
     @Override
     public EnumCvaType resType()
     {
-        // FIXME;
-        return null;
+        return trueExpr.resType();
     }
 
     @Override
@@ -30,4 +42,34 @@ public class CvaConditionCalcExpr extends AbstractTernaryExpr
     {
         return EnumCvaExpr.CONDITION_CALC;
     }
+
+    public AbstractExpression getCondition()
+    {
+        return condition;
+    }
+
+    public void setCondition(AbstractExpression condition)
+    {
+        this.condition = condition;
+    }
+
+    public AbstractExpression getTrueExpr()
+    {
+        return trueExpr;
+    }
+
+    public void setTrueExpr(AbstractExpression trueExpr)
+    {
+        this.trueExpr = trueExpr;
+    }
+
+    public AbstractExpression getFalseExpr()
+    {
+        return falseExpr;
+    }
+
+    public void setFalseExpr(AbstractExpression falseExpr)
+    {
+        this.falseExpr = falseExpr;
+    }
 }
@@ -1,5 +1,6 @@
 package cn.misection.cvac.ast.expr.unary;
 
+import cn.misection.cvac.ast.expr.AbstractExpression;
 import cn.misection.cvac.ast.expr.BitOperable;
 import cn.misection.cvac.ast.expr.EnumCvaExpr;
 
@@ -7,15 +8,18 @@ import cn.misection.cvac.ast.expr.EnumCvaExpr;
  * @author Military Intelligence 6 root
  * @version 1.0.0
  * @ClassName CvaBitNegateExpr
- * @Description TODO
+ * @Description 按位取反 ~;
  * @CreateTime 2021年02月20日 20:15:00
  */
 public class CvaBitNegateExpr
         extends AbstractUnaryExpr implements BitOperable
 {
-    protected CvaBitNegateExpr(int lineNum)
+    private AbstractExpression expr;
+
+    public CvaBitNegateExpr(int lineNum, AbstractExpression expr)
     {
         super(lineNum);
+        this.expr = expr;
     }
 
     @Override
@@ -23,4 +27,14 @@ public class CvaBitNegateExpr
     {
         return EnumCvaExpr.BIT_NEGATE;
     }
+
+    public AbstractExpression getExpr()
+    {
+        return expr;
+    }
+
+    public void setExpr(AbstractExpression expr)
+    {
+        this.expr = expr;
+    }
 }
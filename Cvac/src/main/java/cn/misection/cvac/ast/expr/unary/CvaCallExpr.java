@@ -4,6 +4,7 @@ import cn.misection.cvac.ast.expr.AbstractExpression;
 import cn.misection.cvac.ast.expr.EnumCvaExpr;
 import cn.misection.cvac.ast.type.ICvaType;
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.symbol.SymbolTable;
 
 import java.util.List;
 
@@ -18,6 +19,8 @@ public final class CvaCallExpr extends AbstractExpression
 {
     private String funcName;
 
+    private int funcSymbol;
+
     private AbstractExpression expr;
 
     /**
@@ -43,7 +46,7 @@ public final class CvaCallExpr extends AbstractExpression
                        List<AbstractExpression> args)
     {
         super(lineNum);
-        this.funcName = funcName;
+        setFuncName(funcName);
         this.expr = expr;
         this.args = args;
         init();
@@ -71,6 +74,11 @@ public final class CvaCallExpr extends AbstractExpression
         return funcName;
     }
 
+    public int getFuncSymbol()
+    {
+        return funcSymbol;
+    }
+
     public AbstractExpression getExpr()
     {
         return expr;
@@ -99,6 +107,7 @@ public final class CvaCallExpr extends AbstractExpression
     public void setFuncName(String funcName)
     {
         this.funcName = funcName;
+        this.funcSymbol = SymbolTable.getInstance().intern(funcName);
     }
 
     public void setExpr(AbstractExpression expr)
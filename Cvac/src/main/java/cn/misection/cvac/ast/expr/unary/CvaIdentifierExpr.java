@@ -3,6 +3,7 @@ package cn.misection.cvac.ast.expr.unary;
 import cn.misection.cvac.ast.expr.EnumCvaExpr;
 import cn.misection.cvac.ast.type.ICvaType;
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.symbol.SymbolTable;
 
 /**
  * @author Military Intelligence 6 root
@@ -15,6 +16,11 @@ public final class CvaIdentifierExpr extends AbstractUnaryExpr
 {
     private String literal;
 
+    /**
+     * literal 在 SymbolTable 中的 id;
+     */
+    private int symbol;
+
     private ICvaType type;
 
     /**
@@ -25,13 +31,13 @@ public final class CvaIdentifierExpr extends AbstractUnaryExpr
     public CvaIdentifierExpr(int lineNum, String literal)
     {
         super(lineNum);
-        this.literal = literal;
+        setLiteral(literal);
     }
 
     public CvaIdentifierExpr(int lineNum, String literal, ICvaType type, boolean fieldFlag)
     {
         super(lineNum);
-        this.literal = literal;
+        setLiteral(literal);
         this.type = type;
         this.fieldFlag = fieldFlag;
     }
@@ -53,6 +59,11 @@ public final class CvaIdentifierExpr extends AbstractUnaryExpr
         return literal;
     }
 
+    public int getSymbol()
+    {
+        return symbol;
+    }
+
     public ICvaType getType()
     {
         return type;
@@ -66,6 +77,7 @@ public final class CvaIdentifierExpr extends AbstractUnaryExpr
     public void setLiteral(String literal)
     {
         this.literal = literal;
+        this.symbol = SymbolTable.getInstance().intern(literal);
     }
 
     public void setType(ICvaType type)
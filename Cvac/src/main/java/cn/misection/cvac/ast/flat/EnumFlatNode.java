@@ -0,0 +1,163 @@
+package cn.misection.cvac.ast.flat;
+
+import cn.misection.cvac.ast.expr.EnumCvaExpr;
+import cn.misection.cvac.ast.statement.EnumCvaStatement;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName EnumFlatNode
+ * @Description 扁平 AST 的结点种类, 存成 byte, 各种类的孩子布局见 FlatAst;
+ * 表达式部分与 EnumCvaExpr 同名;
+ * @CreateTime 2026年10月17日 19:10:00
+ */
+public enum EnumFlatNode
+{
+    /**
+     * 结构;
+     */
+    PROGRAM,
+
+    ENTRY_CLASS,
+
+    CLASS,
+
+    METHOD,
+
+    MAIN_METHOD,
+
+    DECLARATION,
+
+    /**
+     * 类型;
+     */
+    BASIC_TYPE,
+
+    STRING_TYPE,
+
+    CLASS_TYPE,
+
+    /**
+     * 语句;
+     */
+    ASSIGN_STATEMENT,
+
+    BLOCK_STATEMENT,
+
+    IF_STATEMENT,
+
+    WHILE_STATEMENT,
+
+    WRITE_STATEMENT,
+
+    INCREMENT_STATEMENT,
+
+    /**
+     * 表达式;
+     */
+    CALL,
+
+    NEGATE,
+
+    BIT_NEGATE,
+
+    CONST_NULL,
+
+    CONST_TRUE,
+
+    CONST_FALSE,
+
+    CONST_INT,
+
+    CONST_STRING,
+
+    IDENTIFIER,
+
+    NEW,
+
+    THIS,
+
+    ADD,
+
+    SUB,
+
+    MUL,
+
+    DIV,
+
+    REMAINDER,
+
+    BIT_AND,
+
+    BIT_OR,
+
+    BIT_XOR,
+
+    LEFT_SHIFT,
+
+    RIGHT_SHIFT,
+
+    UNSIGNED_RIGHT_SHIFT,
+
+    LESS_THAN,
+
+    MORE_THAN,
+
+    AND_AND,
+
+    OR_OR,
+
+    CONDITION_CALC,
+    ;
+
+    private static final EnumFlatNode[] VALUES = values();
+
+    /**
+     * 按 EnumCvaExpr 的 ordinal 查, 没有对应结点的是 null;
+     */
+    private static final EnumFlatNode[] OF_EXPR = new EnumFlatNode[EnumCvaExpr.values().length];
+
+    static
+    {
+        for (EnumFlatNode node : VALUES)
+        {
+            if (node.ordinal() >= CALL.ordinal())
+            {
+                OF_EXPR[EnumCvaExpr.valueOf(node.name()).ordinal()] = node;
+            }
+        }
+    }
+
+    public static EnumFlatNode valueOf(byte code)
+    {
+        return VALUES[code];
+    }
+
+    public static EnumFlatNode ofExpr(EnumCvaExpr expr)
+    {
+        return OF_EXPR[expr.ordinal()];
+    }
+
+    public static EnumFlatNode ofStatement(EnumCvaStatement statement)
+    {
+        // 语句段与 EnumCvaStatement 顺序一致;
+        return VALUES[ASSIGN_STATEMENT.ordinal() + statement.ordinal()];
+    }
+
+    public static boolean isStatement(EnumFlatNode node)
+    {
+        return node.ordinal() >= ASSIGN_STATEMENT.ordinal()
+                && node.ordinal() <= INCREMENT_STATEMENT.ordinal();
+    }
+
+    public static boolean isExpr(EnumFlatNode node)
+    {
+        return node.ordinal() >= CALL.ordinal();
+    }
+
+    public static boolean isType(EnumFlatNode node)
+    {
+        return node.ordinal() >= BASIC_TYPE.ordinal()
+                && node.ordinal() <= CLASS_TYPE.ordinal();
+    }
+}
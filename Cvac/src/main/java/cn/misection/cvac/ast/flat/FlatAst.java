@@ -0,0 +1,239 @@
+package cn.misection.cvac.ast.flat;
+
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName FlatAst
+ * @Description 扁平的 AST, 所有结点存在几条平行的基本类型数组里, 结点就是下标;
+ * 结点按后序编号, 孩子下标总比父亲小, 同一结点的孩子在 children 里连续;
+ * 孩子布局:
+ * PROGRAM [entry?, class*]; ENTRY_CLASS [main]; CLASS [field*, method*], value 是父类符号;
+ * METHOD/MAIN_METHOD [retType, retExpr?, formal*, local*, statement*], value 是形参个数;
+ * DECLARATION [type]; BASIC_TYPE value 是 EnumCvaType 序号;
+ * ASSIGN [expr]; BLOCK [statement*]; IF [cond, then, else?]; WHILE [cond, body];
+ * WRITE [expr], value 是 writeMode; INCREMENT [], value 是方向;
+ * CALL [receiver, arg*]; 单目 [expr]; 双目 [left, right]; CONDITION_CALC [cond, true, false];
+ * CONST_INT value 是值; 带名字的结点 symbol 是 SymbolTable 里的 id; ? 表示可能是 NO_NODE;
+ * @CreateTime 2026年10月17日 19:20:00
+ */
+public final class FlatAst
+{
+    /**
+     * 缺省的孩子;
+     */
+    public static final int NO_NODE = -1;
+
+    /**
+     * 估算 footprint 时每个数组的对象头;
+     */
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private static final int INIT_CAPACITY = 64;
+
+    private byte[] kinds;
+
+    private int[] lines;
+
+    private int[] symbols;
+
+    private int[] values;
+
+    /**
+     * 结点 n 的孩子是 children[firstChild[n], firstChild[n + 1]);
+     */
+    private int[] firstChild;
+
+    private int[] children;
+
+    private int size;
+
+    private int childSize;
+
+    private int root = NO_NODE;
+
+    FlatAst()
+    {
+        this(INIT_CAPACITY);
+    }
+
+    FlatAst(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        this.kinds = new byte[capacity];
+        this.lines = new int[capacity];
+        this.symbols = new int[capacity];
+        this.values = new int[capacity];
+        this.firstChild = new int[capacity + 1];
+        this.children = new int[capacity];
+    }
+
+    /**
+     * 把对象树压平;
+     * @param program 对象树;
+     * @return 扁平树;
+     */
+    public static FlatAst of(AbstractProgram program)
+    {
+        return new FlatAstBuilder().build(program);
+    }
+
+    /**
+     * 追加一个结点, 孩子必须已经在表里;
+     * @return 新结点下标;
+     */
+    int add(EnumFlatNode kind, int lineNum, int symbol, int value,
+            int[] childIds, int childFrom, int count)
+    {
+        if (size == kinds.length)
+        {
+            int capacity = size << 1;
+            kinds = Arrays.copyOf(kinds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+            values = Arrays.copyOf(values, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity + 1);
+        }
+        if (childSize + count > children.length)
+        {
+            children = Arrays.copyOf(children, Math.max(children.length << 1, childSize + count));
+        }
+        for (int i = 0; i < count; i++)
+        {
+            int child = childIds[childFrom + i];
+            if (child >= size)
+            {
+                throw new IllegalArgumentException(String.format(
+                        "child %d of node %d is not added yet", child, size));
+            }
+            children[childSize++] = child;
+        }
+        int node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        lines[node] = lineNum;
+        symbols[node] = symbol;
+        values[node] = value;
+        firstChild[size] = childSize;
+        return node;
+    }
+
+    void setRoot(int root)
+    {
+        this.root = root;
+    }
+
+    /**
+     * 建完以后把多余容量裁掉;
+     */
+    void trim()
+    {
+        kinds = Arrays.copyOf(kinds, size);
+        lines = Arrays.copyOf(lines, size);
+        symbols = Arrays.copyOf(symbols, size);
+        values = Arrays.copyOf(values, size);
+        firstChild = Arrays.copyOf(firstChild, size + 1);
+        children = Arrays.copyOf(children, childSize);
+    }
+
+    /**
+     * 还原成对象树, 给还没改成走扁平树的 pass 用;
+     * @return 对象树;
+     */
+    public CvaProgram inflate()
+    {
+        return new FlatAstInflater(this).inflate();
+    }
+
+    /**
+     * @return 从根开始的游标;
+     */
+    public FlatCursor cursor()
+    {
+        return new FlatCursor(this, root);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int root()
+    {
+        return root;
+    }
+
+    public EnumFlatNode kind(int node)
+    {
+        return EnumFlatNode.valueOf(kinds[node]);
+    }
+
+    public int lineNum(int node)
+    {
+        return lines[node];
+    }
+
+    public int symbol(int node)
+    {
+        return symbols[node];
+    }
+
+    /**
+     * @param node 结点;
+     * @return symbol 对应的名字, 没有就是 null;
+     */
+    public String literal(int node)
+    {
+        int symbol = symbols[node];
+        return symbol == SymbolTable.NO_SYMBOL
+                ? null
+                : SymbolTable.getInstance().name(symbol);
+    }
+
+    public int value(int node)
+    {
+        return values[node];
+    }
+
+    public int childCount(int node)
+    {
+        return firstChild[node + 1] - firstChild[node];
+    }
+
+    /**
+     * @param node 结点;
+     * @param index 第几个孩子;
+     * @return 孩子下标, 可能是 NO_NODE;
+     */
+    public int child(int node, int index)
+    {
+        if (index < 0 || index >= childCount(node))
+        {
+            throw new IndexOutOfBoundsException(String.format(
+                    "node %d has %d children, index %d", node, childCount(node), index));
+        }
+        return children[firstChild[node] + index];
+    }
+
+    /**
+     * @return 各数组实际占用的字节数, 含数组头;
+     */
+    public long footprint()
+    {
+        return kinds.length
+                + 4L * (lines.length + symbols.length + values.length
+                + firstChild.length + children.length)
+                + 6L * ARRAY_HEADER_BYTES;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("FlatAst{size=%d, children=%d, footprint=%d}",
+                size, childSize, footprint());
+    }
+}
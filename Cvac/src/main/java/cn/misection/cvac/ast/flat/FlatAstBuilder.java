@@ -0,0 +1,380 @@
+package cn.misection.cvac.ast.flat;
+
+import cn.misection.cvac.ast.clas.AbstractCvaClass;
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.entry.AbstractEntryClass;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.AbstractMethod;
+import cn.misection.cvac.ast.method.CvaMainMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.advance.CvaStringType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName FlatAstBuilder
+ * @Description 把对象树后序压进 FlatAst, 用显式栈, 很深的树也不会爆栈;
+ * @CreateTime 2026年10月17日 19:35:00
+ */
+final class FlatAstBuilder
+{
+    /**
+     * 一个还没出栈的对象结点;
+     */
+    private static final class Frame
+    {
+        private final Object node;
+
+        private final List<Object> children;
+
+        private int next;
+
+        private int[] childIds;
+
+        private int childCount;
+
+        private Frame(Object node, List<Object> children)
+        {
+            this.node = node;
+            this.children = children;
+            this.childIds = new int[Math.max(children.size(), 1)];
+        }
+
+        private void addChild(int id)
+        {
+            if (childCount == childIds.length)
+            {
+                childIds = Arrays.copyOf(childIds, childCount << 1);
+            }
+            childIds[childCount++] = id;
+        }
+    }
+
+    private final FlatAst ast = new FlatAst();
+
+    private final SymbolTable symbolTable = SymbolTable.getInstance();
+
+    FlatAst build(AbstractProgram program)
+    {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(program, childrenOf(program)));
+        int root = FlatAst.NO_NODE;
+        while (!stack.isEmpty())
+        {
+            Frame frame = stack.peek();
+            if (frame.next < frame.children.size())
+            {
+                Object child = frame.children.get(frame.next++);
+                if (child == null)
+                {
+                    frame.addChild(FlatAst.NO_NODE);
+                }
+                else
+                {
+                    stack.push(new Frame(child, childrenOf(child)));
+                }
+                continue;
+            }
+            stack.pop();
+            int id = emit(frame);
+            if (stack.isEmpty())
+            {
+                root = id;
+            }
+            else
+            {
+                stack.peek().addChild(id);
+            }
+        }
+        ast.setRoot(root);
+        ast.trim();
+        return ast;
+    }
+
+    /**
+     * @param node 对象结点;
+     * @return 按 FlatAst 布局排好的孩子, 缺省的是 null;
+     */
+    private List<Object> childrenOf(Object node)
+    {
+        List<Object> children = new ArrayList<>();
+        if (node instanceof AbstractProgram)
+        {
+            AbstractProgram program = (AbstractProgram) node;
+            children.add(program.getEntryClass());
+            children.addAll(program.getClassList());
+        }
+        else if (node instanceof AbstractEntryClass)
+        {
+            children.add(((AbstractEntryClass) node).getMainMethod());
+        }
+        else if (node instanceof AbstractCvaClass)
+        {
+            AbstractCvaClass clazz = (AbstractCvaClass) node;
+            children.addAll(clazz.getFieldList());
+            children.addAll(clazz.getMethodList());
+        }
+        else if (node instanceof AbstractMethod)
+        {
+            AbstractMethod method = (AbstractMethod) node;
+            children.add(method.getRetType());
+            children.add(method.getRetExpr());
+            children.addAll(method.getArgumentList());
+            children.addAll(method.getLocalVarList());
+            children.addAll(method.getStatementList());
+        }
+        else if (node instanceof AbstractDeclaration)
+        {
+            children.add(((AbstractDeclaration) node).type());
+        }
+        else if (node instanceof AbstractStatement)
+        {
+            addStatementChildren((AbstractStatement) node, children);
+        }
+        else if (node instanceof AbstractExpression)
+        {
+            addExprChildren((AbstractExpression) node, children);
+        }
+        else
+        {
+            // 类型没有孩子;
+            return Collections.emptyList();
+        }
+        return children;
+    }
+
+    private void addStatementChildren(AbstractStatement stm, List<Object> children)
+    {
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                children.add(((CvaAssignStatement) stm).getExpr());
+                break;
+            }
+            case BLOCK:
+            {
+                children.addAll(((CvaBlockStatement) stm).getStatementList());
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                children.add(ifStm.getCondition());
+                children.add(ifStm.getThenStatement());
+                children.add(ifStm.getElseStatement());
+                break;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                children.add(whileStm.getCondition());
+                children.add(whileStm.getBody());
+                break;
+            }
+            case WRITE:
+            {
+                children.add(((CvaWriteStatement) stm).getExpr());
+                break;
+            }
+            default:
+            {
+                // 自增没有孩子;
+                break;
+            }
+        }
+    }
+
+    private void addExprChildren(AbstractExpression expr, List<Object> children)
+    {
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            children.add(((AbstractBinaryExpr) expr).getLeft());
+            children.add(((AbstractBinaryExpr) expr).getRight());
+            return;
+        }
+        switch (expr.toEnum())
+        {
+            case CALL:
+            {
+                children.add(((CvaCallExpr) expr).getExpr());
+                children.addAll(((CvaCallExpr) expr).getArgs());
+                break;
+            }
+            case NEGATE:
+            {
+                children.add(((CvaNegateExpr) expr).getExpr());
+                break;
+            }
+            case BIT_NEGATE:
+            {
+                children.add(((CvaBitNegateExpr) expr).getExpr());
+                break;
+            }
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                children.add(condExpr.getCondition());
+                children.add(condExpr.getTrueExpr());
+                children.add(condExpr.getFalseExpr());
+                break;
+            }
+            default:
+            {
+                // 叶子;
+                break;
+            }
+        }
+    }
+
+    private int emit(Frame frame)
+    {
+        Object node = frame.node;
+        EnumFlatNode kind;
+        int lineNum = 0;
+        int symbol = SymbolTable.NO_SYMBOL;
+        int value = 0;
+        if (node instanceof AbstractProgram)
+        {
+            kind = EnumFlatNode.PROGRAM;
+        }
+        else if (node instanceof AbstractEntryClass)
+        {
+            kind = EnumFlatNode.ENTRY_CLASS;
+            symbol = symbolTable.intern(((AbstractEntryClass) node).name());
+        }
+        else if (node instanceof AbstractCvaClass)
+        {
+            AbstractCvaClass clazz = (AbstractCvaClass) node;
+            kind = EnumFlatNode.CLASS;
+            symbol = symbolTable.intern(clazz.name());
+            value = clazz.parent() == null
+                    ? SymbolTable.NO_SYMBOL
+                    : symbolTable.intern(clazz.parent());
+        }
+        else if (node instanceof AbstractMethod)
+        {
+            AbstractMethod method = (AbstractMethod) node;
+            kind = node instanceof CvaMainMethod
+                    ? EnumFlatNode.MAIN_METHOD
+                    : EnumFlatNode.METHOD;
+            symbol = symbolTable.intern(method.name());
+            value = method.getArgumentList().size();
+        }
+        else if (node instanceof AbstractDeclaration)
+        {
+            AbstractDeclaration decl = (AbstractDeclaration) node;
+            kind = EnumFlatNode.DECLARATION;
+            lineNum = decl.getLineNum();
+            symbol = decl.symbol();
+        }
+        else if (node instanceof EnumCvaType)
+        {
+            kind = EnumFlatNode.BASIC_TYPE;
+            value = ((EnumCvaType) node).ordinal();
+        }
+        else if (node instanceof CvaStringType)
+        {
+            kind = EnumFlatNode.STRING_TYPE;
+        }
+        else if (node instanceof CvaClassType)
+        {
+            kind = EnumFlatNode.CLASS_TYPE;
+            symbol = ((CvaClassType) node).getSymbol();
+        }
+        else if (node instanceof AbstractStatement)
+        {
+            AbstractStatement stm = (AbstractStatement) node;
+            kind = EnumFlatNode.ofStatement(stm.toEnum());
+            lineNum = stm.getLineNum();
+            switch (stm.toEnum())
+            {
+                case ASSIGN:
+                {
+                    symbol = ((CvaAssignStatement) stm).getSymbol();
+                    break;
+                }
+                case WRITE:
+                {
+                    value = ((CvaWriteStatement) stm).getWriteMode();
+                    break;
+                }
+                case INCREMENT:
+                {
+                    CvaIncreStatement increStm = (CvaIncreStatement) stm;
+                    symbol = increStm.getSymbol();
+                    value = increStm.getDirection().direction();
+                    break;
+                }
+                default:
+                {
+                    break;
+                }
+            }
+        }
+        else if (node instanceof AbstractExpression)
+        {
+            AbstractExpression expr = (AbstractExpression) node;
+            kind = EnumFlatNode.ofExpr(expr.toEnum());
+            if (kind == null)
+            {
+                throw new IllegalArgumentException(String.format(
+                        "unsupported expr %s at line %d", expr.toEnum(), expr.getLineNum()));
+            }
+            lineNum = expr.getLineNum();
+            switch (expr.toEnum())
+            {
+                case CALL:
+                {
+                    symbol = ((CvaCallExpr) expr).getFuncSymbol();
+                    break;
+                }
+                case CONST_INT:
+                {
+                    value = ((CvaConstIntExpr) expr).getValue();
+                    break;
+                }
+                case CONST_STRING:
+                {
+                    symbol = symbolTable.intern(((CvaConstStringExpr) expr).getLiteral());
+                    break;
+                }
+                case IDENTIFIER:
+                {
+                    symbol = ((CvaIdentifierExpr) expr).getSymbol();
+                    break;
+                }
+                case NEW:
+                {
+                    symbol = symbolTable.intern(((CvaNewExpr) expr).getNewClassName());
+                    break;
+                }
+                default:
+                {
+                    break;
+                }
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException(String.format(
+                    "unsupported node %s", node.getClass().getSimpleName()));
+        }
+        return ast.add(kind, lineNum, symbol, value,
+                frame.childIds, 0, frame.childCount);
+    }
+}
@@ -0,0 +1,218 @@
+package cn.misection.cvac.ast.flat;
+
+import cn.misection.cvac.symbol.IntIntMap;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName FlatAstCodec
+ * @Description FlatAst 的二进制格式, 整数都用变长编码;
+ * 符号 id 只在进程内有效, 所以写出文件自己的名字表, 读入时重新 intern;
+ * 孩子存成与父结点的距离, 后序编号下这个距离总是正的, 0 留给缺省孩子;
+ * @CreateTime 2026年10月17日 20:55:00
+ */
+public final class FlatAstCodec
+{
+    /**
+     * 格式改了就加一, 旧缓存自然失效;
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int NONE = -1;
+
+    private static final int READ_INIT_CAPACITY = 1 << 16;
+
+    private FlatAstCodec() {}
+
+    public static void write(FlatAst ast, DataOutput out) throws IOException
+    {
+        // 先收集用到的符号, 本地编号从 0 开始;
+        IntIntMap localOf = new IntIntMap();
+        List<String> names = new ArrayList<>();
+        int[] localSymbols = new int[ast.size()];
+        int[] localValues = new int[ast.size()];
+        for (int node = 0; node < ast.size(); node++)
+        {
+            localSymbols[node] = localize(ast.symbol(node), localOf, names);
+            localValues[node] = ast.kind(node) == EnumFlatNode.CLASS
+                    // 类结点的 value 是父类符号;
+                    ? localize(ast.value(node), localOf, names)
+                    : ast.value(node);
+        }
+
+        out.writeInt(FORMAT_VERSION);
+        writeVarInt(out, names.size());
+        for (String name : names)
+        {
+            out.writeUTF(name);
+        }
+        writeVarInt(out, ast.size());
+        writeVarInt(out, ast.root());
+        for (int node = 0; node < ast.size(); node++)
+        {
+            int count = ast.childCount(node);
+            out.writeByte(ast.kind(node).ordinal());
+            writeVarInt(out, ast.lineNum(node));
+            writeVarInt(out, localSymbols[node] + 1);
+            writeVarInt(out, zigZag(localValues[node]));
+            writeVarInt(out, count);
+            for (int i = 0; i < count; i++)
+            {
+                int child = ast.child(node, i);
+                writeVarInt(out, child == FlatAst.NO_NODE ? 0 : node - child);
+            }
+        }
+    }
+
+    /**
+     * @param in 输入;
+     * @return 读到的树;
+     * @throws IOException 读失败或者格式不对;
+     */
+    public static FlatAst read(DataInput in) throws IOException
+    {
+        int format = in.readInt();
+        if (format != FORMAT_VERSION)
+        {
+            throw new IOException(String.format("unknown ast format %d", format));
+        }
+        SymbolTable symbolTable = SymbolTable.getInstance();
+        int symbolCount = readCount(in);
+        int[] globalOf = new int[Math.min(symbolCount, READ_INIT_CAPACITY)];
+        for (int i = 0; i < symbolCount; i++)
+        {
+            if (i == globalOf.length)
+            {
+                globalOf = Arrays.copyOf(globalOf, i << 1);
+            }
+            globalOf[i] = symbolTable.intern(in.readUTF());
+        }
+        globalOf = Arrays.copyOf(globalOf, symbolCount);
+        int size = readCount(in);
+        int root = readVarInt(in);
+        EnumFlatNode[] kinds = EnumFlatNode.values();
+        // 坏文件的 size 可能很离谱, 先不按它分配;
+        FlatAst ast = new FlatAst(Math.min(size, READ_INIT_CAPACITY));
+        int[] childIds = new int[4];
+        for (int node = 0; node < size; node++)
+        {
+            int code = in.readUnsignedByte();
+            if (code >= kinds.length)
+            {
+                throw new IOException(String.format("bad node kind %d", code));
+            }
+            EnumFlatNode kind = kinds[code];
+            int lineNum = readVarInt(in);
+            int symbol = globalize(readVarInt(in) - 1, globalOf);
+            int value = unZigZag(readVarInt(in));
+            if (kind == EnumFlatNode.CLASS)
+            {
+                value = globalize(value, globalOf);
+            }
+            int count = readCount(in);
+            if (count > childIds.length)
+            {
+                childIds = new int[count];
+            }
+            for (int i = 0; i < count; i++)
+            {
+                int distance = readVarInt(in);
+                if (distance < 0 || distance > node)
+                {
+                    throw new IOException(String.format("bad child of node %d", node));
+                }
+                childIds[i] = distance == 0 ? FlatAst.NO_NODE : node - distance;
+            }
+            ast.add(kind, lineNum, symbol, value, childIds, 0, count);
+        }
+        if (root < 0 || root >= size)
+        {
+            throw new IOException(String.format("bad root %d", root));
+        }
+        ast.setRoot(root);
+        ast.trim();
+        return ast;
+    }
+
+    private static int localize(int symbol, IntIntMap localOf, List<String> names)
+    {
+        if (symbol == SymbolTable.NO_SYMBOL)
+        {
+            return NONE;
+        }
+        int local = localOf.get(symbol, NONE);
+        if (local == NONE)
+        {
+            local = names.size();
+            localOf.put(symbol, local);
+            names.add(SymbolTable.getInstance().name(symbol));
+        }
+        return local;
+    }
+
+    private static int globalize(int local, int[] globalOf) throws IOException
+    {
+        if (local == NONE)
+        {
+            return SymbolTable.NO_SYMBOL;
+        }
+        if (local < 0 || local >= globalOf.length)
+        {
+            throw new IOException(String.format("bad symbol %d", local));
+        }
+        return globalOf[local];
+    }
+
+    private static int zigZag(int value)
+    {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private static int readCount(DataInput in) throws IOException
+    {
+        int count = readVarInt(in);
+        if (count < 0)
+        {
+            throw new IOException(String.format("bad count %d", count));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,333 @@
+package cn.misection.cvac.ast.flat;
+
+import cn.misection.cvac.ast.clas.AbstractCvaClass;
+import cn.misection.cvac.ast.clas.CvaClass;
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.decl.CvaDeclaration;
+import cn.misection.cvac.ast.entry.AbstractEntryClass;
+import cn.misection.cvac.ast.entry.CvaEntryClass;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.AbstractMethod;
+import cn.misection.cvac.ast.method.CvaMainMethod;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.advance.CvaStringType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.constant.EnumIncDirection;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName FlatAstInflater
+ * @Description 把 FlatAst 还原成对象树, 后序编号保证孩子先建好, 一遍顺序扫描, 不递归;
+ * @CreateTime 2026年10月17日 19:50:00
+ */
+final class FlatAstInflater
+{
+    private static final EnumCvaType[] BASIC_TYPES = EnumCvaType.values();
+
+    private final FlatAst ast;
+
+    /**
+     * 下标与结点一一对应;
+     */
+    private final Object[] built;
+
+    FlatAstInflater(FlatAst ast)
+    {
+        this.ast = ast;
+        this.built = new Object[ast.size()];
+    }
+
+    CvaProgram inflate()
+    {
+        for (int node = 0; node < ast.size(); node++)
+        {
+            built[node] = build(node);
+        }
+        return (CvaProgram) built[ast.root()];
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T childAt(int node, int index)
+    {
+        int child = ast.child(node, index);
+        return child == FlatAst.NO_NODE ? null : (T) built[child];
+    }
+
+    private <T> List<T> childList(int node, int from, int to)
+    {
+        List<T> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++)
+        {
+            list.add(childAt(node, i));
+        }
+        return list;
+    }
+
+    private Object build(int node)
+    {
+        EnumFlatNode kind = ast.kind(node);
+        int lineNum = ast.lineNum(node);
+        int count = ast.childCount(node);
+        switch (kind)
+        {
+            case PROGRAM:
+            {
+                AbstractEntryClass entryClass = childAt(node, 0);
+                List<AbstractCvaClass> classList = childList(node, 1, count);
+                return new CvaProgram(entryClass, classList);
+            }
+            case ENTRY_CLASS:
+            {
+                return new CvaEntryClass.Builder()
+                        .putName(ast.literal(node))
+                        .putEntryMethod(childAt(node, 0))
+                        .build();
+            }
+            case CLASS:
+            {
+                int fieldCount = 0;
+                while (fieldCount < count
+                        && ast.kind(ast.child(node, fieldCount)) == EnumFlatNode.DECLARATION)
+                {
+                    fieldCount++;
+                }
+                int parentSymbol = ast.value(node);
+                String parent = parentSymbol == SymbolTable.NO_SYMBOL
+                        ? null
+                        : SymbolTable.getInstance().name(parentSymbol);
+                List<AbstractDeclaration> fieldList = childList(node, 0, fieldCount);
+                List<AbstractMethod> methodList = childList(node, fieldCount, count);
+                return new CvaClass(ast.literal(node),
+                        parent,
+                        fieldList,
+                        methodList);
+            }
+            case METHOD:
+            case MAIN_METHOD:
+            {
+                return buildMethod(node, kind, count);
+            }
+            case DECLARATION:
+            {
+                return new CvaDeclaration(lineNum, ast.literal(node), childAt(node, 0));
+            }
+            case BASIC_TYPE:
+            {
+                return BASIC_TYPES[ast.value(node)];
+            }
+            case STRING_TYPE:
+            {
+                return new CvaStringType();
+            }
+            case CLASS_TYPE:
+            {
+                return new CvaClassType(ast.literal(node));
+            }
+            case ASSIGN_STATEMENT:
+            {
+                return new CvaAssignStatement(lineNum, ast.literal(node), childAt(node, 0));
+            }
+            case BLOCK_STATEMENT:
+            {
+                return new CvaBlockStatement(lineNum, childList(node, 0, count));
+            }
+            case IF_STATEMENT:
+            {
+                return new CvaIfStatement(lineNum,
+                        childAt(node, 0), childAt(node, 1), childAt(node, 2));
+            }
+            case WHILE_STATEMENT:
+            {
+                return new CvaWhileStatement(lineNum, childAt(node, 0), childAt(node, 1));
+            }
+            case WRITE_STATEMENT:
+            {
+                return new CvaWriteStatement(lineNum, childAt(node, 0), (byte) ast.value(node));
+            }
+            case INCREMENT_STATEMENT:
+            {
+                return new CvaIncreStatement(lineNum, ast.literal(node),
+                        ast.value(node) == EnumIncDirection.INCREMENT.direction()
+                                ? EnumIncDirection.INCREMENT
+                                : EnumIncDirection.DECREMENT);
+            }
+            default:
+            {
+                return buildExpr(node, kind, lineNum, count);
+            }
+        }
+    }
+
+    private AbstractMethod buildMethod(int node, EnumFlatNode kind, int count)
+    {
+        ICvaType retType = childAt(node, 0);
+        AbstractExpression retExpr = childAt(node, 1);
+        int formalEnd = 2 + ast.value(node);
+        int localEnd = formalEnd;
+        while (localEnd < count
+                && ast.kind(ast.child(node, localEnd)) == EnumFlatNode.DECLARATION)
+        {
+            localEnd++;
+        }
+        List<AbstractDeclaration> argumentList = childList(node, 2, formalEnd);
+        List<AbstractDeclaration> localVarList = childList(node, formalEnd, localEnd);
+        List<AbstractStatement> statementList = childList(node, localEnd, count);
+        if (kind == EnumFlatNode.MAIN_METHOD)
+        {
+            return new CvaMainMethod.Builder()
+                    .putRetType(retType)
+                    .putRetExpr(retExpr)
+                    .putMainArgList(argumentList)
+                    .putLocalVarList(localVarList)
+                    .putStatementList(statementList)
+                    .build();
+        }
+        return new CvaMethod(ast.literal(node), retType, retExpr,
+                argumentList, localVarList, statementList);
+    }
+
+    private AbstractExpression buildExpr(int node, EnumFlatNode kind, int lineNum, int count)
+    {
+        switch (kind)
+        {
+            case CALL:
+            {
+                return new CvaCallExpr(lineNum, ast.literal(node),
+                        childAt(node, 0), childList(node, 1, count));
+            }
+            case NEGATE:
+            {
+                return new CvaNegateExpr(lineNum, childAt(node, 0));
+            }
+            case BIT_NEGATE:
+            {
+                return new CvaBitNegateExpr(lineNum, childAt(node, 0));
+            }
+            case CONST_NULL:
+            {
+                return new CvaConstNullExpr(lineNum);
+            }
+            case CONST_TRUE:
+            {
+                return new CvaConstTrueExpr(lineNum);
+            }
+            case CONST_FALSE:
+            {
+                return new CvaConstFalseExpr(lineNum);
+            }
+            case CONST_INT:
+            {
+                return new CvaConstIntExpr(lineNum, ast.value(node));
+            }
+            case CONST_STRING:
+            {
+                return new CvaConstStringExpr(lineNum, ast.literal(node));
+            }
+            case IDENTIFIER:
+            {
+                return new CvaIdentifierExpr(lineNum, ast.literal(node));
+            }
+            case NEW:
+            {
+                return new CvaNewExpr(lineNum, ast.literal(node));
+            }
+            case THIS:
+            {
+                return new CvaThisExpr(lineNum);
+            }
+            case CONDITION_CALC:
+            {
+                return new CvaConditionCalcExpr(lineNum,
+                        childAt(node, 0), childAt(node, 1), childAt(node, 2));
+            }
+            default:
+            {
+                return buildBinary(kind, lineNum, childAt(node, 0), childAt(node, 1));
+            }
+        }
+    }
+
+    private AbstractExpression buildBinary(EnumFlatNode kind, int lineNum,
+                                           AbstractExpression left, AbstractExpression right)
+    {
+        switch (kind)
+        {
+            case ADD:
+            {
+                return new CvaAddExpr(lineNum, left, right);
+            }
+            case SUB:
+            {
+                return new CvaSubExpr(lineNum, left, right);
+            }
+            case MUL:
+            {
+                return new CvaMulExpr(lineNum, left, right);
+            }
+            case DIV:
+            {
+                return new CvaDivExpr(lineNum, left, right);
+            }
+            case REMAINDER:
+            {
+                return new CvaRemainderExpr(lineNum, left, right);
+            }
+            case BIT_AND:
+            {
+                return new CvaBitAndExpr(lineNum, left, right);
+            }
+            case BIT_OR:
+            {
+                return new CvaBitOrExpr(lineNum, left, right);
+            }
+            case BIT_XOR:
+            {
+                return new CvaXorExpr(lineNum, left, right);
+            }
+            case LEFT_SHIFT:
+            {
+                return new CvaLeftShiftExpr(lineNum, left, right);
+            }
+            case RIGHT_SHIFT:
+            {
+                return new CvaRightShiftExpr(lineNum, left, right);
+            }
+            case UNSIGNED_RIGHT_SHIFT:
+            {
+                return new CvaUnsignedRightShiftExpr(lineNum, left, right);
+            }
+            case LESS_THAN:
+            {
+                return new CvaLessThanExpr(lineNum, left, right);
+            }
+            case MORE_THAN:
+            {
+                return new CvaMoreThanExpr(lineNum, left, right);
+            }
+            case AND_AND:
+            {
+                return new CvaAndAndExpr(lineNum, left, right);
+            }
+            case OR_OR:
+            {
+                return new CvaOrOrExpr(lineNum, left, right);
+            }
+            default:
+            {
+                throw new IllegalStateException(String.format("not an expr node: %s", kind));
+            }
+        }
+    }
+}
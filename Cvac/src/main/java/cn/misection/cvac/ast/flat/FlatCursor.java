@@ -0,0 +1,159 @@
+package cn.misection.cvac.ast.flat;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName FlatCursor
+ * @Description FlatAst 上的游标, 记着从根下来的路径, 可以上下移动也可以先序遍历, 移动不分配对象;
+ * @CreateTime 2026年10月17日 20:05:00
+ */
+public final class FlatCursor
+{
+    private static final int INIT_DEPTH = 32;
+
+    private final FlatAst ast;
+
+    /**
+     * path[0] 是起点, path[depth] 是当前结点;
+     */
+    private int[] path = new int[INIT_DEPTH];
+
+    /**
+     * slot[d] 是 path[d] 在 path[d - 1] 中的孩子序号;
+     */
+    private int[] slot = new int[INIT_DEPTH];
+
+    private int depth;
+
+    FlatCursor(FlatAst ast, int start)
+    {
+        this.ast = ast;
+        this.path[0] = start;
+    }
+
+    public int node()
+    {
+        return path[depth];
+    }
+
+    public EnumFlatNode kind()
+    {
+        return ast.kind(node());
+    }
+
+    public int lineNum()
+    {
+        return ast.lineNum(node());
+    }
+
+    public int symbol()
+    {
+        return ast.symbol(node());
+    }
+
+    public String literal()
+    {
+        return ast.literal(node());
+    }
+
+    public int value()
+    {
+        return ast.value(node());
+    }
+
+    public int childCount()
+    {
+        return ast.childCount(node());
+    }
+
+    public boolean hasChild(int index)
+    {
+        return ast.child(node(), index) != FlatAst.NO_NODE;
+    }
+
+    /**
+     * @return 相对起点的深度;
+     */
+    public int depth()
+    {
+        return depth;
+    }
+
+    /**
+     * 移到第 index 个孩子;
+     * @param index 孩子序号;
+     * @return 孩子缺省时不动, 返回 false;
+     */
+    public boolean down(int index)
+    {
+        int child = ast.child(node(), index);
+        if (child == FlatAst.NO_NODE)
+        {
+            return false;
+        }
+        if (++depth == path.length)
+        {
+            path = Arrays.copyOf(path, depth << 1);
+            slot = Arrays.copyOf(slot, depth << 1);
+        }
+        path[depth] = child;
+        slot[depth] = index;
+        return true;
+    }
+
+    /**
+     * @return 已经在起点时返回 false;
+     */
+    public boolean up()
+    {
+        if (depth == 0)
+        {
+            return false;
+        }
+        depth--;
+        return true;
+    }
+
+    /**
+     * 先序的下一个结点, 跳过缺省孩子;
+     * @return 遍历完起点的子树时返回 false, 游标回到起点;
+     */
+    public boolean next()
+    {
+        if (downFrom(0))
+        {
+            return true;
+        }
+        while (depth > 0)
+        {
+            int index = slot[depth];
+            depth--;
+            if (downFrom(index + 1))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean downFrom(int index)
+    {
+        int count = childCount();
+        for (int i = index; i < count; i++)
+        {
+            if (down(i))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("FlatCursor{node=%d, kind=%s, depth=%d}", node(), kind(), depth);
+    }
+}
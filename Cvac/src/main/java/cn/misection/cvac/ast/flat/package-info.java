@@ -0,0 +1,8 @@
+/**
+ * @ClassName package-info
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @Description 扁平 AST, 结点存在基本类型数组里, 用下标和游标访问;
+ * @CreateTime 2026年10月17日 19:05:00
+ */
+package cn.misection.cvac.ast.flat;
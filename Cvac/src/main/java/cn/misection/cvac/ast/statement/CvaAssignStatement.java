@@ -2,7 +2,7 @@ package cn.misection.cvac.ast.statement;
 
 import cn.misection.cvac.ast.expr.AbstractExpression;
 import cn.misection.cvac.ast.type.ICvaType;
-import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.symbol.SymbolTable;
 
 /**
  * @author Military Intelligence 6 root
@@ -15,6 +15,11 @@ public final class CvaAssignStatement extends AbstractStatement
 {
     private String literal;
 
+    /**
+     * literal 在 SymbolTable 中的 id;
+     */
+    private int symbol;
+
     private AbstractExpression expr;
 
     private ICvaType type;
@@ -22,7 +27,7 @@ public final class CvaAssignStatement extends AbstractStatement
     public CvaAssignStatement(int lineNum, String literal, AbstractExpression expr)
     {
         super(lineNum);
-        this.literal = literal;
+        setLiteral(literal);
         this.expr = expr;
         init();
     }
@@ -43,6 +48,11 @@ public final class CvaAssignStatement extends AbstractStatement
         return literal;
     }
 
+    public int getSymbol()
+    {
+        return symbol;
+    }
+
     public AbstractExpression getExpr()
     {
         return expr;
@@ -56,6 +66,7 @@ public final class CvaAssignStatement extends AbstractStatement
     public void setLiteral(String literal)
     {
         this.literal = literal;
+        this.symbol = SymbolTable.getInstance().intern(literal);
     }
 
     public void setExpr(AbstractExpression expr)
@@ -2,6 +2,7 @@ package cn.misection.cvac.ast.statement;
 
 
 import cn.misection.cvac.constant.EnumIncDirection;
+import cn.misection.cvac.symbol.SymbolTable;
 
 /**
  * @author Military Intelligence 6 root
@@ -14,6 +15,8 @@ public final class CvaIncreStatement extends AbstractStatement
 {
     private final String literal;
 
+    private final int symbol;
+
     private final EnumIncDirection direction;
 
     public CvaIncreStatement(int lineNum,
@@ -22,6 +25,7 @@ public final class CvaIncreStatement extends AbstractStatement
     {
         super(lineNum);
         this.literal = literal;
+        this.symbol = SymbolTable.getInstance().intern(literal);
         this.direction = direction;
     }
 
@@ -30,6 +34,11 @@ public final class CvaIncreStatement extends AbstractStatement
         return literal;
     }
 
+    public int getSymbol()
+    {
+        return symbol;
+    }
+
     public EnumIncDirection getDirection()
     {
         return direction;
@@ -1,6 +1,7 @@
 package cn.misection.cvac.ast.type.reference;
 
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.symbol.SymbolTable;
 
 /**
  * @author Military Intelligence 6 root
@@ -17,9 +18,12 @@ public final class CvaClassType extends AbstractReferenceType
 
     private final String name;
 
+    private final int symbol;
+
     public CvaClassType(String name)
     {
         this.name = name;
+        this.symbol = SymbolTable.getInstance().intern(name);
     }
 
     @Override
@@ -38,4 +42,9 @@ public final class CvaClassType extends AbstractReferenceType
     {
         return name;
     }
+
+    public int getSymbol()
+    {
+        return symbol;
+    }
 }
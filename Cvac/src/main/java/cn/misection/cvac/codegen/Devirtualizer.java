@@ -0,0 +1,67 @@
+package cn.misection.cvac.codegen;
+
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.optimize.ClassHierarchy;
+import cn.misection.cvac.symbol.SymbolTable;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName Devirtualizer
+ * @Description 全程序的类层次分析交给生成代码用: 源文件就是整个程序, 没有子类的类和子类里没被覆盖的方法都可以是 final;
+ * 接收者是 this 的调用, 按当前类只有一个可能目标时不用查虚表, 用 invokespecial 直接调;
+ * 静态调用要改方法签名和所有调用处, 接收者还可能是 null, 这里不做;
+ * @CreateTime 2026年10月18日 06:10:00
+ */
+public final class Devirtualizer
+{
+    private final ClassHierarchy hierarchy;
+
+    private Devirtualizer(ClassHierarchy hierarchy)
+    {
+        this.hierarchy = hierarchy;
+    }
+
+    public static Devirtualizer of(AbstractProgram program)
+    {
+        return new Devirtualizer(ClassHierarchy.of(program));
+    }
+
+    /**
+     * @param className 类名;
+     * @return 有没有别的类继承它;
+     */
+    public boolean isFinalClass(String className)
+    {
+        int classSymbol = SymbolTable.getInstance().lookup(className);
+        return hierarchy.classOf(classSymbol) != null && !hierarchy.hasSubclass(classSymbol);
+    }
+
+    /**
+     * @param className 声明方法的类;
+     * @param methodName 方法名;
+     * @return 子类里有没有覆盖它;
+     */
+    public boolean isFinalMethod(String className, String methodName)
+    {
+        int classSymbol = SymbolTable.getInstance().lookup(className);
+        return hierarchy.classOf(classSymbol) != null
+                && !hierarchy.isOverridden(classSymbol, SymbolTable.getInstance().lookup(methodName));
+    }
+
+    /**
+     * invokespecial 只能用在当前类的实例上, 指名当前类时从它往上找到的实现就是要调的;
+     * @param className 当前类;
+     * @param receiverType 接收者的静态类型;
+     * @param funcSymbol 方法;
+     * @return 接收者是 this 的调用能不能直接调;
+     */
+    public boolean isDirectCall(String className, String receiverType, int funcSymbol)
+    {
+        if (className == null || !className.equals(receiverType))
+        {
+            return false;
+        }
+        return hierarchy.targetsOf(SymbolTable.getInstance().lookup(className), funcSymbol).size() == 1;
+    }
+}
@@ -159,6 +159,16 @@ public final class IntermLangGenerator implements IBackendVisitor
         writeln();
     }
 
+    @Override
+    public void visit(InvokeSpecial instructor)
+    {
+        iwritef("invokespecial %s/%s(", instructor.getFirstFieldType(), instructor.getFuncName());
+        instructor.getArgTypeList().forEach(this::visit);
+        write(")");
+        visit(instructor.getRetType());
+        writeln();
+    }
+
     @Override
     public void visit(IStore instructor)
     {
@@ -210,7 +220,7 @@ public final class IntermLangGenerator implements IBackendVisitor
     @Override
     public void visit(TargetMethod targetMethod)
     {
-        writef(".method public %s(", targetMethod.getName());
+        writef(".method public %s%s(", targetMethod.isFinal() ? "final " : "", targetMethod.getName());
         targetMethod.getFormalList().forEach(f -> visit(f.getType()));
         write(")");
         visit(targetMethod.getRetType());
@@ -226,7 +236,7 @@ public final class IntermLangGenerator implements IBackendVisitor
     public void visit(TargetClass targetClass)
     {
         initWriter(String.format("%s.il", targetClass.getLiteral()));
-        writef(".class public %s\n", targetClass.getLiteral());
+        writef(".class public %s%s\n", targetClass.isFinal() ? "final " : "", targetClass.getLiteral());
         if (targetClass.getParent() == null)
         {
             writeln(".super java/lang/Object");
@@ -295,8 +305,8 @@ public final class IntermLangGenerator implements IBackendVisitor
         }
         catch (FileNotFoundException e)
         {
-            e.printStackTrace();
-            System.exit(1);
+            // 写不了 il 不是源码的错, 交给调用者;
+            throw new UncheckedIOException(e);
         }
         writeln("; This file is automatically generated by the compiler");
         writeln("; Do Not Modify!\n");
@@ -312,8 +322,7 @@ public final class IntermLangGenerator implements IBackendVisitor
         }
         catch (IOException e)
         {
-            e.printStackTrace();
-            System.exit(1);
+            throw new UncheckedIOException(e);
         }
     }
 
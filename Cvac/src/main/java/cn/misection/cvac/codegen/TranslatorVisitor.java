@@ -6,6 +6,7 @@ import cn.misection.cvac.ast.decl.CvaDeclaration;
 import cn.misection.cvac.ast.entry.CvaEntryClass;
 import cn.misection.cvac.ast.expr.AbstractExpression;
 import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.*;
 import cn.misection.cvac.ast.expr.unary.*;
 import cn.misection.cvac.ast.method.CvaMainMethod;
 import cn.misection.cvac.ast.method.CvaMethod;
@@ -27,12 +28,16 @@ import cn.misection.cvac.codegen.bst.btype.advance.TargetStringType;
 import cn.misection.cvac.codegen.bst.btype.basic.EnumTargetType;
 import cn.misection.cvac.codegen.bst.btype.reference.TargetClassType;
 import cn.misection.cvac.codegen.bst.instructor.*;
-import cn.misection.cvac.constant.CvaExprClassName;
+import cn.misection.cvac.config.Macro;
+import cn.misection.cvac.ir.IrBuilder;
+import cn.misection.cvac.ir.IrEmitter;
+import cn.misection.cvac.ir.IrMethod;
+import cn.misection.cvac.ir.SsaBuilder;
+
+import cn.misection.cvac.symbol.IntIntMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author MI6 root;
@@ -43,7 +48,12 @@ public final class TranslatorVisitor implements IVisitor
     private String className;
     private int index;
 
-    private Map<String, Integer> indexMap;
+    private static final int NOT_LOCAL = -1;
+
+    /**
+     * 局部变量 symbol 到槽位;
+     */
+    private IntIntMap indexMap;
 
     private ITargetType targetType;
     private TargetDeclaration targetDecl;
@@ -53,6 +63,11 @@ public final class TranslatorVisitor implements IVisitor
     private TargetEntryClass targetEntryClass;
     private TargetProgram targetProgram;
 
+    /**
+     * 从整个程序开始翻译才有, 否则全按虚调用;
+     */
+    private Devirtualizer devirtualizer;
+
     public TranslatorVisitor()
     {
         this.className = null;
@@ -114,7 +129,7 @@ public final class TranslatorVisitor implements IVisitor
         // if it is field;
         if (indexMap != null)
         {
-            indexMap.put(decl.literal(), index++);
+            indexMap.put(decl.symbol(), index++);
         }
     }
 
@@ -157,6 +172,16 @@ public final class TranslatorVisitor implements IVisitor
             visit(argType);
             argTypeList.add(this.targetType);
         });
+        if (devirtualizer != null && expr.getExpr() instanceof CvaThisExpr
+                && devirtualizer.isDirectCall(this.className, expr.getType(), expr.getFuncSymbol()))
+        {
+            emit(new InvokeSpecial(
+                    expr.getFuncName(),
+                    expr.getType(),
+                    argTypeList,
+                    retType));
+            return;
+        }
         emit(new InvokeVirtual(
                 expr.getFuncName(),
                 expr.getType(),
@@ -190,11 +215,12 @@ public final class TranslatorVisitor implements IVisitor
         }
         else
         {
-            int index = this.indexMap.get(expr.getLiteral());
+            int index = this.indexMap.get(expr.getSymbol(), NOT_LOCAL);
             switch (expr.getType().toEnum())
             {
                 // 后面其他类型也一样;
                 case CVA_INT:
+                case CVA_BOOLEAN:
                 {
                     emit(new ILoad(index));
                     break;
@@ -235,12 +261,13 @@ public final class TranslatorVisitor implements IVisitor
         Label f = new Label();
         Label r = new Label();
         visit(expr.getExpr());
+        // 小于 1 就是假, 取反得真;
         emit(new Ldc<>(1));
         emit(new IfICmpLt(f));
-        emit(new Ldc<>(1));
+        emit(new Ldc<>(0));
         emit(new Goto(r));
         emit(new LabelJ(f));
-        emit(new Ldc<>(0));
+        emit(new Ldc<>(1));
         emit(new LabelJ(r));
     }
 
@@ -285,6 +312,126 @@ public final class TranslatorVisitor implements IVisitor
         emit(new Ldc<>(1));
     }
 
+    @Override
+    public void visit(CvaDivExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_DIV);
+    }
+
+    @Override
+    public void visit(CvaRemainderExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_REM);
+    }
+
+    @Override
+    public void visit(CvaBitAndExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_AND);
+    }
+
+    @Override
+    public void visit(CvaBitOrExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_OR);
+    }
+
+    @Override
+    public void visit(CvaXorExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_XOR);
+    }
+
+    @Override
+    public void visit(CvaLeftShiftExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_SHL);
+    }
+
+    @Override
+    public void visit(CvaRightShiftExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_SHR);
+    }
+
+    @Override
+    public void visit(CvaUnsignedRightShiftExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        emit(EnumInstructor.I_USHR);
+    }
+
+    @Override
+    public void visit(CvaMoreThanExpr expr)
+    {
+        Label t = new Label();
+        Label r = new Label();
+        visit(expr.getLeft());
+        visit(expr.getRight());
+        // a > b 就是 b < a;
+        emit(EnumInstructor.SWAP);
+        emit(new IfICmpLt(t));
+        emit(new Ldc<>(0));
+        emit(new Goto(r));
+        emit(new LabelJ(t));
+        emit(new Ldc<>(1));
+        emit(new LabelJ(r));
+    }
+
+    @Override
+    public void visit(CvaOrOrExpr expr)
+    {
+        Label f = new Label();
+        Label r = new Label();
+        visit(expr.getLeft());
+        emit(new Ldc<>(1));
+        emit(new IfICmpLt(f));
+        emit(new Ldc<>(1));
+        emit(new Goto(r));
+        emit(new LabelJ(f));
+        // 左边为假, 结果就是右边;
+        visit(expr.getRight());
+        emit(new LabelJ(r));
+    }
+
+    @Override
+    public void visit(CvaBitNegateExpr expr)
+    {
+        visit(expr.getExpr());
+        emit(new Ldc<>(-1));
+        emit(EnumInstructor.I_XOR);
+    }
+
+    @Override
+    public void visit(CvaConditionCalcExpr expr)
+    {
+        Label f = new Label();
+        Label r = new Label();
+        visit(expr.getCondition());
+        emit(new Ldc<>(1));
+        emit(new IfICmpLt(f));
+        visit(expr.getTrueExpr());
+        emit(new Goto(r));
+        emit(new LabelJ(f));
+        visit(expr.getFalseExpr());
+        emit(new LabelJ(r));
+    }
+
     /**
      * @param stm statement;
      * @FIXME 类型添加String是1, 二是要用前面写的switch方法替换;
@@ -293,9 +440,9 @@ public final class TranslatorVisitor implements IVisitor
     @Override
     public void visit(CvaAssignStatement stm)
     {
-        try
+        int index = this.indexMap.get(stm.getSymbol(), NOT_LOCAL);
+        if (index != NOT_LOCAL)
         {
-            int index = this.indexMap.get(stm.getLiteral());
             visit(stm.getExpr());
             // todo 用枚举;
             if (stm.getType() instanceof AbstractReferenceType)
@@ -307,8 +454,9 @@ public final class TranslatorVisitor implements IVisitor
                 emit(new IStore(index));
             }
         }
-        catch (NullPointerException e)
+        else
         {
+            // 不是局部变量就是字段;
             emit(new ALoad(0));
             visit(stm.getExpr());
             if (stm.getType() instanceof CvaClassType)
@@ -363,25 +511,25 @@ public final class TranslatorVisitor implements IVisitor
         byte mode = stm.getWriteMode();
         AbstractExpression expr = stm.getExpr();
         visit(expr);
-        switch (expr.getClass().getSimpleName())
+        switch (expr.toEnum())
         {
-            case CvaExprClassName.CVA_CONST_INT_EXPR:
+            case CONST_INT:
             {
                 emit(new WriteInstructor(mode, EnumCvaType.CVA_INT));
                 break;
             }
-            case CvaExprClassName.CVA_CONST_STRING_EXPR:
+            case CONST_STRING:
             {
                 emit(new WriteInstructor(mode, EnumCvaType.CVA_STRING));
                 break;
             }
-            case CvaExprClassName.CVA_IDENTIFIER_EXPR:
+            case IDENTIFIER:
             {
                 EnumCvaType type = ((CvaIdentifierExpr) expr).getType().toEnum();
                 emit(new WriteInstructor(mode, type));
                 break;
             }
-            case CvaExprClassName.CVA_CALL_EXPR:
+            case CALL:
             {
                 EnumCvaType type = ((CvaCallExpr) expr).getRetType().toEnum();
                 emit(new WriteInstructor(mode, type));
@@ -417,7 +565,7 @@ public final class TranslatorVisitor implements IVisitor
     @Override
     public void visit(CvaIncreStatement stm)
     {
-        emit(new IInc(indexMap.get(stm.getLiteral()),
+        emit(new IInc(indexMap.get(stm.getSymbol(), NOT_LOCAL),
                 stm.getDirection()));
     }
 
@@ -425,7 +573,7 @@ public final class TranslatorVisitor implements IVisitor
     public void visit(CvaMethod cvaMethod)
     {
         index = 1;
-        indexMap = new HashMap<>();
+        indexMap = new IntIntMap();
         visit(cvaMethod.getRetType());
         ITargetType theRetType = this.targetType;
 
@@ -441,18 +589,29 @@ public final class TranslatorVisitor implements IVisitor
             visit(l);
             localList.add(this.targetDecl);
         });
-        setLinearInstrList(new ArrayList<>());
-        // 方法内的;
-        cvaMethod.getStatementList().forEach(this::visit);
-
-        visit(cvaMethod.getRetExpr());
-        if (cvaMethod.getRetType() instanceof AbstractReferenceType)
+        if (Macro.SSA_CODEGEN_FLAG)
         {
-            emit(EnumInstructor.A_RETURN);
+            IrMethod irMethod = IrBuilder.build(cvaMethod, this.className);
+            SsaBuilder.build(irMethod);
+            IrEmitter emitter = new IrEmitter(irMethod, devirtualizer);
+            setLinearInstrList(emitter.emit());
+            this.index = emitter.getSlotCount();
         }
         else
         {
-            emit(EnumInstructor.I_RETURN);
+            setLinearInstrList(new ArrayList<>());
+            // 方法内的;
+            cvaMethod.getStatementList().forEach(this::visit);
+
+            visit(cvaMethod.getRetExpr());
+            if (cvaMethod.getRetType() instanceof AbstractReferenceType)
+            {
+                emit(EnumInstructor.A_RETURN);
+            }
+            else
+            {
+                emit(EnumInstructor.I_RETURN);
+            }
         }
         targetMethod = new TargetMethod(
                 cvaMethod.name(),
@@ -463,13 +622,15 @@ public final class TranslatorVisitor implements IVisitor
                 this.linearInstrList,
                 0,
                 this.index);
+        targetMethod.setFinal(devirtualizer != null
+                && devirtualizer.isFinalMethod(this.className, cvaMethod.name()));
     }
 
     @Override
     public void visit(CvaMainMethod mainMethod)
     {
         this.index = 1;
-        this.indexMap = new HashMap<>();
+        this.indexMap = new IntIntMap();
         visit(mainMethod.getRetType());
         ITargetType theRetType = this.targetType;
 
@@ -522,6 +683,7 @@ public final class TranslatorVisitor implements IVisitor
                 fieldList,
                 methodList
         );
+        targetClass.setFinal(devirtualizer != null && devirtualizer.isFinalClass(cvaClass.name()));
     }
 
     @Override
@@ -538,6 +700,7 @@ public final class TranslatorVisitor implements IVisitor
     @Override
     public void visit(CvaProgram program)
     {
+        this.devirtualizer = Macro.DEVIRTUALIZE_FLAG ? Devirtualizer.of(program) : null;
         visit(program.getEntryClass());
         List<TargetClass> classList = new ArrayList<>();
         program.getClassList().forEach(c ->
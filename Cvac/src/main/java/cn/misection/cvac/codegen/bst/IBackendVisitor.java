@@ -103,6 +103,11 @@ public interface IBackendVisitor
                 visit((InvokeVirtual) instructor);
                 break;
             }
+            case Operator.INVOKE_SPECIAL:
+            {
+                visit((InvokeSpecial) instructor);
+                break;
+            }
             case Operator.ISTORE:
             {
                 visit((IStore) instructor);
@@ -162,6 +167,8 @@ public interface IBackendVisitor
 
     void visit(InvokeVirtual instructor);
 
+    void visit(InvokeSpecial instructor);
+
     void visit(IStore instructor);
 
     void visit(LabelJ instructor);
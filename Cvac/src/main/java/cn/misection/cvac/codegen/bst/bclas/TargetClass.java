@@ -22,6 +22,11 @@ public final class TargetClass extends BaseClass
 
     private List<TargetMethod> methodList;
 
+    /**
+     * 没有子类, 生成 final 类;
+     */
+    private boolean finalFlag;
+
     public TargetClass(String literal, String parent, List<TargetDeclaration> fieldList, List<TargetMethod> methodList)
     {
         this.literal = literal;
@@ -69,4 +74,14 @@ public final class TargetClass extends BaseClass
     {
         this.methodList = methodList;
     }
+
+    public boolean isFinal()
+    {
+        return finalFlag;
+    }
+
+    public void setFinal(boolean finalFlag)
+    {
+        this.finalFlag = finalFlag;
+    }
 }
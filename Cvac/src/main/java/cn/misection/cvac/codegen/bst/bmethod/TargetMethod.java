@@ -40,6 +40,11 @@ public final class TargetMethod extends BaseMethod
 
     private int retExpr;
 
+    /**
+     * 子类里没有覆盖, 生成 final 方法;
+     */
+    private boolean finalFlag;
+
     /**
      * 顺序很多, 注意!;
      * @param name name;
@@ -152,4 +157,14 @@ public final class TargetMethod extends BaseMethod
     {
         this.retExpr = retExpr;
     }
+
+    public boolean isFinal()
+    {
+        return finalFlag;
+    }
+
+    public void setFinal(boolean finalFlag)
+    {
+        this.finalFlag = finalFlag;
+    }
 }
@@ -38,6 +38,24 @@ public enum EnumInstructor implements IInstructor, Instructable
 
     I_SUB("isub"),
 
+    I_DIV("idiv"),
+
+    I_REM("irem"),
+
+    I_AND("iand"),
+
+    I_OR("ior"),
+
+    I_XOR("ixor"),
+
+    I_SHL("ishl"),
+
+    I_SHR("ishr"),
+
+    I_USHR("iushr"),
+
+    SWAP("swap"),
+
     LABEL_J,
 
     /**
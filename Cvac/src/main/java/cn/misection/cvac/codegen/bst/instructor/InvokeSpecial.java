@@ -0,0 +1,77 @@
+package cn.misection.cvac.codegen.bst.instructor;
+
+import cn.misection.cvac.codegen.bst.btype.ITargetType;
+
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName InvokeSpecial
+ * @Description 不查虚表直接调, 只用在接收者是 this, 类层次分析确定只有一个目标的调用上;
+ * @CreateTime 2026年10月18日 06:05:00
+ */
+public final class InvokeSpecial extends BaseInstructor
+{
+    private String funcName;
+
+    /**
+     * 当前类, 从它往上找实现;
+     */
+    private String firstFieldType;
+
+    private List<ITargetType> argTypeList;
+
+    private ITargetType retType;
+
+    public InvokeSpecial(String funcName,
+                         String firstFieldType,
+                         List<ITargetType> argTypeList,
+                         ITargetType retType)
+    {
+        this.funcName = funcName;
+        this.firstFieldType = firstFieldType;
+        this.argTypeList = argTypeList;
+        this.retType = retType;
+    }
+
+    public String getFuncName()
+    {
+        return funcName;
+    }
+
+    public void setFuncName(String funcName)
+    {
+        this.funcName = funcName;
+    }
+
+    public String getFirstFieldType()
+    {
+        return firstFieldType;
+    }
+
+    public void setFirstFieldType(String firstFieldType)
+    {
+        this.firstFieldType = firstFieldType;
+    }
+
+    public List<ITargetType> getArgTypeList()
+    {
+        return argTypeList;
+    }
+
+    public void setArgTypeList(List<ITargetType> argTypeList)
+    {
+        this.argTypeList = argTypeList;
+    }
+
+    public ITargetType getRetType()
+    {
+        return retType;
+    }
+
+    public void setRetType(ITargetType retType)
+    {
+        this.retType = retType;
+    }
+}
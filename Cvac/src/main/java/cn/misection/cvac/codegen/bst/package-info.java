@@ -60,6 +60,11 @@ final class Operator
      */
     public static final String INVOKE_VIRTUAL = "InvokeVirtual";
 
+    /**
+     * InvokeSpecial
+     */
+    public static final String INVOKE_SPECIAL = "InvokeSpecial";
+
     /**
      * IReturn
      */
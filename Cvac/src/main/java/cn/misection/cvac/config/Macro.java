@@ -1,5 +1,8 @@
 package cn.misection.cvac.config;
 
+import cn.misection.cvac.lexer.EnumLexerMode;
+import cn.misection.cvac.parser.EnumParseMode;
+
 /**
  * @author Military Intelligence 6 root
  * @version 1.0.0
@@ -17,5 +20,40 @@ public final class Macro
 
     public static final boolean DEBUG_OPTIMIZE_FLAG = false;
 
+    /**
+     * 词法分析器, LEGACY 为旧的手写 Lexer, 可切回去对照 token 流;
+     */
+    public static final EnumLexerMode LEXER_MODE = EnumLexerMode.TABLE;
+
+    /**
+     * 先把 token 全部读进 TokenBuffer, 否则 Parser 边读边分析;
+     */
+    public static final boolean TOKEN_BUFFER_FLAG = true;
+
+    /**
+     * 表达式和嵌套语句的解析方式, 深层生成代码用 EXPLICIT_STACK;
+     */
+    public static final EnumParseMode PARSE_MODE = EnumParseMode.RECURSIVE;
+
+    /**
+     * 源码没变时直接读输出目录里的语法树缓存, 跳过 lexer 和 parser;
+     */
+    public static final boolean AST_CACHE_FLAG = true;
+
+    /**
+     * 方法足够多时, 语义分析在 ForkJoin 池里按方法并行检查;
+     */
+    public static final boolean PARALLEL_SEMANTIC_FLAG = true;
+
+    /**
+     * 类方法先降成控制流图和 SSA, 再由 IrEmitter 生成指令, 否则直接翻译语法树;
+     */
+    public static final boolean SSA_CODEGEN_FLAG = false;
+
+    /**
+     * 按全程序的类层次, 没有子类的类和没被覆盖的方法生成 final, this 上只有一个目标的调用用 invokespecial;
+     */
+    public static final boolean DEVIRTUALIZE_FLAG = true;
+
     public Macro() {}
 }
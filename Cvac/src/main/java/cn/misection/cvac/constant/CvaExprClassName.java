@@ -1,82 +0,0 @@
-package cn.misection.cvac.constant;
-
-/**
- * @author Military Intelligence 6 root
- * @version 1.0.0
- * @ClassName CvaExprClassName
- * @Description TODO
- * @CreateTime 2021年02月18日 22:35:00
- */
-public final class CvaExprClassName
-{
-    /**
-     * CvaAddExpr
-     */
-    public static final String CVA_ADD_EXPR = "CvaAddExpr";
-
-    /**
-     * CvaAndAndExpr
-     */
-    public static final String CVA_AND_AND_EXPR = "CvaAndAndExpr";
-
-    /**
-     * CvaCallExpr
-     */
-    public static final String CVA_CALL_EXPR = "CvaCallExpr";
-
-    /**
-     * CvaIdentifier
-     */
-    public static final String CVA_IDENTIFIER_EXPR = "CvaIdentifierExpr";
-
-    /**
-     * CvaLTExpr
-     */
-    public static final String CVA_LESS_THAN_EXPR = "CvaLessThanExpr";
-
-    /**
-     * CvaNewExpr
-     */
-    public static final String CVA_NEW_EXPR = "CvaNewExpr";
-
-    /**
-     * CvaNegateExpr
-     */
-    public static final String CVA_NEGATE_EXPR = "CvaNegateExpr";
-
-    /**
-     * CvaSubExpr
-     */
-    public static final String CVA_SUB_EXPR = "CvaSubExpr";
-
-    /**
-     * CvaThisExpr
-     */
-    public static final String CVA_THIS_EXPR = "CvaThisExpr";
-
-    /**
-     * CvaMuliExpr
-     */
-    public static final String CVA_MUL_EXPR = "CvaMulExpr";
-
-    /**
-     * true
-     */
-    public static final String CVA_CONST_TRUE_EXPR = "CvaConstTrueExpr";
-
-    /**
-     * CvaFalseExpr
-     */
-    public static final String CVA_CONST_FALSE_EXPR = "CvaConstFalseExpr";
-
-    /**
-     * CvaNumberIntExpr
-     */
-    public static final String CVA_CONST_INT_EXPR = "CvaConstIntExpr";
-
-    /**
-     * string;
-     */
-    public static final String CVA_CONST_STRING_EXPR = "CvaConstStringExpr";
-
-}
@@ -16,6 +16,11 @@ public final class LexerCommon
 
     public static final char NEW_LINE = '\n';
 
+    /**
+     * 超过这个字节数的源文件改用流式读入, 不再整体载入内存;
+     */
+    public static final long STREAMING_SOURCE_THRESHOLD = 64L << 20;
+
     public static final String DEFAULT_MAIN_CLASS_NAME = "Application";
 
     private LexerCommon() {}
@@ -0,0 +1,50 @@
+package cn.misection.cvac.diagnostic;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName Diagnostic
+ * @Description 一条报错, message 是排好版的整行文字;
+ * @CreateTime 2026年10月17日 22:42:00
+ */
+public final class Diagnostic
+{
+    /**
+     * 类声明等没有行号的报错;
+     */
+    public static final int NO_LINE = -1;
+
+    private final EnumCompilePhase phase;
+
+    private final int lineNum;
+
+    private final String message;
+
+    public Diagnostic(EnumCompilePhase phase, int lineNum, String message)
+    {
+        this.phase = phase;
+        this.lineNum = lineNum;
+        this.message = message;
+    }
+
+    public EnumCompilePhase getPhase()
+    {
+        return phase;
+    }
+
+    public int getLineNum()
+    {
+        return lineNum;
+    }
+
+    public String getMessage()
+    {
+        return message;
+    }
+
+    @Override
+    public String toString()
+    {
+        return message;
+    }
+}
@@ -0,0 +1,115 @@
+package cn.misection.cvac.diagnostic;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName Diagnostics
+ * @Description 一个编译单元的报错, lexer, parser 和语义分析都往这里报, 报完接着往下走;
+ * 要不要继续下一阶段由调用者看 hasErrors 决定, 一个进程可以连着编译多个文件;
+ * @CreateTime 2026年10月17日 22:45:00
+ */
+public final class Diagnostics
+{
+    private final List<Diagnostic> diagnosticList = new ArrayList<>();
+
+    /**
+     * 报一条就立刻打印一条, 为 null 时只收集;
+     */
+    private final PrintStream echo;
+
+    /**
+     * 打印时才取 System.err, 跟着 System.setErr 走;
+     */
+    private final boolean echoStderr;
+
+    public Diagnostics()
+    {
+        this(null);
+    }
+
+    public Diagnostics(PrintStream echo)
+    {
+        this(echo, false);
+    }
+
+    private Diagnostics(PrintStream echo, boolean echoStderr)
+    {
+        this.echo = echo;
+        this.echoStderr = echoStderr;
+    }
+
+    /**
+     * 命令行的默认行为, 报错照旧打到 stderr;
+     * @return 回显到 System.err 的收集器;
+     */
+    public static Diagnostics toStderr()
+    {
+        return new Diagnostics(null, true);
+    }
+
+    public synchronized void report(EnumCompilePhase phase, int lineNum, String message)
+    {
+        add(new Diagnostic(phase, lineNum, message));
+    }
+
+    /**
+     * 按原来的次序并入另一个收集器的报错;
+     * @param other 比如并行检查时单个方法的报错;
+     */
+    public synchronized void addAll(Diagnostics other)
+    {
+        for (Diagnostic diagnostic : other.getDiagnosticList())
+        {
+            add(diagnostic);
+        }
+    }
+
+    private void add(Diagnostic diagnostic)
+    {
+        diagnosticList.add(diagnostic);
+        PrintStream out = echoStderr ? System.err : echo;
+        if (out != null)
+        {
+            out.println(diagnostic);
+        }
+    }
+
+    public synchronized boolean hasErrors()
+    {
+        return !diagnosticList.isEmpty();
+    }
+
+    public synchronized int errorCount()
+    {
+        return diagnosticList.size();
+    }
+
+    /**
+     * @param phase 阶段;
+     * @return 该阶段报了几条;
+     */
+    public synchronized int errorCount(EnumCompilePhase phase)
+    {
+        int count = 0;
+        for (Diagnostic diagnostic : diagnosticList)
+        {
+            if (diagnostic.getPhase() == phase)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return 报错的快照, 按报告顺序;
+     */
+    public synchronized List<Diagnostic> getDiagnosticList()
+    {
+        return new ArrayList<>(diagnosticList);
+    }
+}
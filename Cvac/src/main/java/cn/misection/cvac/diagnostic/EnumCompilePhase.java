@@ -0,0 +1,23 @@
+package cn.misection.cvac.diagnostic;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName EnumCompilePhase
+ * @Description 报错来自哪个阶段;
+ * @CreateTime 2026年10月17日 22:40:00
+ */
+public enum EnumCompilePhase
+{
+    /**
+     * 读源文件;
+     */
+    INPUT,
+
+    LEXER,
+
+    PARSER,
+
+    SEMANTIC,
+    ;
+}
@@ -0,0 +1,8 @@
+/**
+ * @ClassName package-info
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @Description 编译报错的收集, 各阶段报错后继续, 不再直接退出进程;
+ * @CreateTime 2026年10月17日 22:40:00
+ */
+package cn.misection.cvac.diagnostic;
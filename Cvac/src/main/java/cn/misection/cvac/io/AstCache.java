@@ -0,0 +1,161 @@
+package cn.misection.cvac.io;
+
+import cn.misection.cvac.ast.flat.FlatAst;
+import cn.misection.cvac.ast.flat.FlatAstCodec;
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.config.VersionMacro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName AstCache
+ * @Description 语法树的二进制缓存, 和 il 一起写在输出目录;
+ * 键是源码内容和编译器版本的 SHA-256, 对得上就直接读出语法树, 跳过 lexer 和 parser;
+ * 缓存只是加速, 读写失败都当作没有缓存;
+ * @CreateTime 2026年10月17日 21:10:00
+ */
+public final class AstCache
+{
+    public static final String CACHE_SUFFIX = ".cvast";
+
+    /**
+     * "CVAS";
+     */
+    private static final int MAGIC = 0x43564153;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final int READ_CHUNK = 1 << 16;
+
+    private final Path cachePath;
+
+    private final byte[] key;
+
+    /**
+     * @param sourcePath 源文件, 会完整读一遍算键;
+     * @throws IOException 源文件读不了;
+     */
+    public AstCache(String sourcePath) throws IOException
+    {
+        this(sourcePath, Paths.get(""));
+    }
+
+    public AstCache(String sourcePath, Path outputDir) throws IOException
+    {
+        Path source = Paths.get(sourcePath);
+        this.cachePath = outputDir.resolve(source.getFileName() + CACHE_SUFFIX);
+        this.key = keyOf(source);
+    }
+
+    private static byte[] keyOf(Path source) throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // 每个 JRE 都必须有 SHA-256;
+            throw new IllegalStateException(e);
+        }
+        digest.update(VersionMacro.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((byte) FlatAstCodec.FORMAT_VERSION);
+        byte[] buffer = new byte[READ_CHUNK];
+        try (InputStream in = Files.newInputStream(source))
+        {
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * @return 命中时是还原出的语法树, 否则 null;
+     */
+    public CvaProgram load()
+    {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(cachePath))))
+        {
+            if (in.readInt() != MAGIC)
+            {
+                return null;
+            }
+            byte[] stored = new byte[key.length];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, key))
+            {
+                return null;
+            }
+            return FlatAstCodec.read(in).inflate();
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            System.err.printf("WARNING: ignore broken ast cache %s: %s%n", cachePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * 先写临时文件再换名, 中途失败不会留下半个缓存;
+     * @param program 刚解析出的语法树, 要在语义分析改动它之前存;
+     */
+    public void store(AbstractProgram program)
+    {
+        Path temp = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                out.writeInt(MAGIC);
+                out.write(key);
+                FlatAstCodec.write(FlatAst.of(program), out);
+            }
+            Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            System.err.printf("WARNING: cannot write ast cache %s: %s%n", cachePath, e);
+            try
+            {
+                Files.deleteIfExists(temp);
+            }
+            catch (IOException ignored)
+            {
+                // 删不掉也不影响编译;
+            }
+        }
+    }
+
+    public Path getCachePath()
+    {
+        return cachePath;
+    }
+}
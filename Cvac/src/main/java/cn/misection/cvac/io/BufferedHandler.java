@@ -10,7 +10,8 @@ import java.io.IOException;
  * @author Military Intelligence 6 root
  * @version 1.0.0
  * @ClassName BufferedHandler
- * @Description TODO
+ * @Description 旧的整文件 StringBuffer 队列, 每次 poll 都要 delete, 是 O(n^2) 的;
+ * 编译器已改用 MappedBufferedHandler, 这里只留作 BufferedHandlerTest 中的对照;
  * @TODO 后面把int改回char;
  * @CreateTime 2021年02月14日 14:10:00
  */
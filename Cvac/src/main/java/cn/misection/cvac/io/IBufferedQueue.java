@@ -7,7 +7,7 @@ package cn.misection.cvac.io;
  * @Description TODO
  * @CreateTime 2021年02月14日 14:34:00
  */
-public interface IBufferedQueue
+public interface IBufferedQueue extends AutoCloseable
 {
     /**
      * 查看;
@@ -53,4 +53,10 @@ public interface IBufferedQueue
      * @return bool;
      */
     boolean isEmpty();
+
+    /**
+     * 读完或不读了都要关, 放掉后台线程和文件;
+     */
+    @Override
+    default void close() {}
 }
@@ -0,0 +1,182 @@
+package cn.misection.cvac.io;
+
+import cn.misection.cvac.constant.LexerCommon;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName MappedBufferedHandler
+ * @Description 基于内存映射和游标的源码队列, peek/poll/hasNext 均为 O(1) 且不分配;
+ * 行尾与 BufferedHandler 保持一致, 统一成 '\n', 末尾补一个 EOF;
+ * @CreateTime 2026年10月17日 10:20:00
+ */
+public final class MappedBufferedHandler implements IBufferedQueue
+{
+    /**
+     * 归一化后的源码, 最后一位是 EOF;
+     */
+    private final char[] source;
+
+    /**
+     * 有效长度, 包括末尾的 EOF;
+     */
+    private final int limit;
+
+    /**
+     * 当前队头;
+     */
+    private int cursor;
+
+    public MappedBufferedHandler(String filePath) throws IOException
+    {
+        // 与 FileReader 一致, 用平台默认编码;
+        this(filePath, Charset.defaultCharset());
+    }
+
+    public MappedBufferedHandler(String filePath, Charset charset) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(
+                Paths.get(filePath), StandardOpenOption.READ))
+        {
+            MappedByteBuffer mapped = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CharBuffer decoded = charset.decode(mapped);
+            this.source = new char[decoded.remaining() + 2];
+            this.limit = normalize(decoded, source);
+        }
+    }
+
+    private MappedBufferedHandler(CharBuffer decoded)
+    {
+        this.source = new char[decoded.remaining() + 2];
+        this.limit = normalize(decoded, source);
+    }
+
+    /**
+     * 直接从内存中的源码构造, 不经过文件;
+     * @param text 源码;
+     * @return 队列;
+     */
+    public static MappedBufferedHandler ofText(CharSequence text)
+    {
+        return new MappedBufferedHandler(CharBuffer.wrap(text));
+    }
+
+    /**
+     * 把 \r\n 和 \r 都换成 \n, 末行补 \n, 最后装载 EOF;
+     * @param in 解码后的字符;
+     * @param out 目标数组, 至少比 in 长 2;
+     * @return 有效长度;
+     */
+    private static int normalize(CharBuffer in, char[] out)
+    {
+        int len = 0;
+        boolean lastIsCr = false;
+        while (in.hasRemaining())
+        {
+            char ch = in.get();
+            if (ch == '\r')
+            {
+                out[len++] = LexerCommon.NEW_LINE;
+                lastIsCr = true;
+                continue;
+            }
+            if (ch == LexerCommon.NEW_LINE && lastIsCr)
+            {
+                // \r\n 只算一次换行;
+                lastIsCr = false;
+                continue;
+            }
+            lastIsCr = false;
+            out[len++] = ch;
+        }
+        if (len > 0 && out[len - 1] != LexerCommon.NEW_LINE)
+        {
+            out[len++] = LexerCommon.NEW_LINE;
+        }
+        out[len++] = LexerCommon.EOF;
+        return len;
+    }
+
+    @Override
+    public char peek()
+    {
+        return cursor < limit ? source[cursor] : LexerCommon.EOF;
+    }
+
+    @Override
+    public char peek(int advance)
+    {
+        // 与 BufferedHandler 一致, 1 就是队头;
+        int pos = cursor + advance - 1;
+        return pos < limit ? source[pos] : LexerCommon.EOF;
+    }
+
+    @Override
+    public char poll()
+    {
+        if (cursor < limit)
+        {
+            return source[cursor++];
+        }
+        return LexerCommon.EOF;
+    }
+
+    @Override
+    public String poll(int advance)
+    {
+        int end = Math.min(cursor + advance, limit);
+        String polled = new String(source, cursor, end - cursor);
+        cursor = end;
+        return polled;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        // 末尾是 EOF, 所以至少剩 2;
+        return limit - cursor > 1;
+    }
+
+    @Override
+    public boolean hasNext(int advance)
+    {
+        return limit - cursor > advance;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return cursor >= limit;
+    }
+
+    /**
+     * @return 当前游标在源码中的下标;
+     */
+    public int position()
+    {
+        return cursor;
+    }
+
+    /**
+     * @return 归一化后的源码长度, 包括 EOF;
+     */
+    public int length()
+    {
+        return limit;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("MappedBufferedHandler{cursor=%d, limit=%d}", cursor, limit);
+    }
+}
@@ -0,0 +1,296 @@
+package cn.misection.cvac.io;
+
+import cn.misection.cvac.constant.LexerCommon;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName StreamingBufferedHandler
+ * @Description 分块流式读入的源码队列, 内存占用与文件大小无关;
+ * 后台线程按块解码并归一化行尾, 通过有界队列交给环形缓冲, lexer 边读边分析;
+ * @CreateTime 2026年10月17日 11:05:00
+ */
+public final class StreamingBufferedHandler implements IBufferedQueue
+{
+    /**
+     * 每次从文件解码的字符数;
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * 预读的块数, 决定后台线程最多领先多少;
+     */
+    private static final int PREFETCH_CHUNKS = 4;
+
+    /**
+     * 环形缓冲容量, 必须是 2 的幂;
+     */
+    private static final int RING_CAPACITY = 4 * CHUNK_SIZE;
+
+    private static final int RING_MASK = RING_CAPACITY - 1;
+
+    /**
+     * peek 和 hasNext 允许的最大前瞻, hasNext 要多看一个, 缓冲里实际最多攒 MAX_LOOKAHEAD + 1;
+     * poll 不受限, 多的分几次取;
+     */
+    public static final int MAX_LOOKAHEAD = RING_CAPACITY - 2 * CHUNK_SIZE;
+
+    /**
+     * 块流结束标记;
+     */
+    private static final char[] END_OF_CHUNKS = new char[0];
+
+    private final char[] ring = new char[RING_CAPACITY];
+
+    /**
+     * 队头和已填充末尾的绝对位置, 取模后才是 ring 下标;
+     */
+    private long head;
+
+    private long tail;
+
+    /**
+     * 已经收到结束标记;
+     */
+    private boolean drained;
+
+    private final BlockingQueue<char[]> chunkQueue =
+            new ArrayBlockingQueue<>(PREFETCH_CHUNKS);
+
+    private final Thread readerThread;
+
+    /**
+     * 后台线程中的读错误, 交给 lexer 线程抛出;
+     */
+    private volatile IOException readError;
+
+    public StreamingBufferedHandler(String filePath) throws IOException
+    {
+        // 与 FileReader 一致, 用平台默认编码;
+        this(filePath, Charset.defaultCharset());
+    }
+
+    public StreamingBufferedHandler(String filePath, Charset charset) throws IOException
+    {
+        // 在当前线程打开, 找不到文件时照常抛给调用者;
+        Reader reader = new InputStreamReader(new FileInputStream(filePath), charset);
+        this.readerThread = new Thread(() -> produce(reader), "cva-source-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * 后台线程, 按块读入并归一化, 与 BufferedHandler 一样把 \r\n 和 \r 变成 \n,
+     * 末行补 \n, 最后一块带上 EOF;
+     * @param reader 源;
+     */
+    private void produce(Reader reader)
+    {
+        char[] in = new char[CHUNK_SIZE];
+        boolean lastIsCr = false;
+        char last = LexerCommon.NEW_LINE;
+        boolean empty = true;
+        try (Reader source = reader)
+        {
+            int read;
+            while ((read = source.read(in)) != -1)
+            {
+                char[] out = new char[read];
+                int len = 0;
+                for (int i = 0; i < read; i++)
+                {
+                    char ch = in[i];
+                    if (ch == '\r')
+                    {
+                        out[len++] = LexerCommon.NEW_LINE;
+                        lastIsCr = true;
+                        continue;
+                    }
+                    if (ch == LexerCommon.NEW_LINE && lastIsCr)
+                    {
+                        // \r\n 跨块也只算一次换行;
+                        lastIsCr = false;
+                        continue;
+                    }
+                    lastIsCr = false;
+                    out[len++] = ch;
+                }
+                if (len == 0)
+                {
+                    continue;
+                }
+                empty = false;
+                last = out[len - 1];
+                chunkQueue.put(len == read ? out : Arrays.copyOf(out, len));
+            }
+            chunkQueue.put(!empty && last != LexerCommon.NEW_LINE
+                    ? new char[] {LexerCommon.NEW_LINE, LexerCommon.EOF}
+                    : new char[] {LexerCommon.EOF});
+        }
+        catch (IOException e)
+        {
+            readError = e;
+        }
+        catch (InterruptedException e)
+        {
+            // close() 了, 直接退出;
+            return;
+        }
+        try
+        {
+            chunkQueue.put(END_OF_CHUNKS);
+        }
+        catch (InterruptedException ignored)
+        {
+            // close() 了, 没人再读;
+        }
+    }
+
+    private static void checkLookahead(int advance)
+    {
+        if (advance > MAX_LOOKAHEAD)
+        {
+            throw new IllegalArgumentException(String.format(
+                    "lookahead %d exceeds %d", advance, MAX_LOOKAHEAD));
+        }
+    }
+
+    /**
+     * 保证至少有 need 个字符可读, 除非已经到了末尾;
+     * need 不超过 MAX_LOOKAHEAD + 1, 再加一块也放得下;
+     * @param need 需要的字符数;
+     * @return 实际可读的字符数;
+     */
+    private int ensure(int need)
+    {
+        while (tail - head < need && !drained)
+        {
+            fill();
+        }
+        return (int) (tail - head);
+    }
+
+    private void fill()
+    {
+        char[] chunk;
+        try
+        {
+            chunk = chunkQueue.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("source reading interrupted"));
+        }
+        if (chunk == END_OF_CHUNKS)
+        {
+            drained = true;
+            if (readError != null)
+            {
+                throw new UncheckedIOException(readError);
+            }
+            return;
+        }
+        // 容量留了两块余量, 这里不会覆盖未读部分;
+        int start = (int) (tail & RING_MASK);
+        int first = Math.min(chunk.length, RING_CAPACITY - start);
+        System.arraycopy(chunk, 0, ring, start, first);
+        System.arraycopy(chunk, first, ring, 0, chunk.length - first);
+        tail += chunk.length;
+    }
+
+    @Override
+    public char peek()
+    {
+        return ensure(1) > 0 ? ring[(int) (head & RING_MASK)] : LexerCommon.EOF;
+    }
+
+    @Override
+    public char peek(int advance)
+    {
+        // 与 BufferedHandler 一致, 1 就是队头;
+        checkLookahead(advance);
+        return ensure(advance) >= advance
+                ? ring[(int) ((head + advance - 1) & RING_MASK)]
+                : LexerCommon.EOF;
+    }
+
+    @Override
+    public char poll()
+    {
+        if (ensure(1) > 0)
+        {
+            return ring[(int) (head++ & RING_MASK)];
+        }
+        return LexerCommon.EOF;
+    }
+
+    @Override
+    public String poll(int advance)
+    {
+        // 超过前瞻的分段取, 和 MappedBufferedHandler 一样取到末尾为止;
+        StringBuilder polled = new StringBuilder(Math.min(advance, MAX_LOOKAHEAD));
+        int rest = advance;
+        while (rest > 0)
+        {
+            int count = Math.min(ensure(Math.min(rest, MAX_LOOKAHEAD)), rest);
+            if (count == 0)
+            {
+                break;
+            }
+            for (int i = 0; i < count; i++)
+            {
+                polled.append(ring[(int) (head++ & RING_MASK)]);
+            }
+            rest -= count;
+        }
+        return polled.toString();
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        // 末尾是 EOF, 所以至少剩 2;
+        return ensure(2) > 1;
+    }
+
+    @Override
+    public boolean hasNext(int advance)
+    {
+        checkLookahead(advance);
+        return ensure(advance + 1) > advance;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return ensure(1) == 0;
+    }
+
+    /**
+     * 提前结束时停掉后台线程;
+     */
+    @Override
+    public void close()
+    {
+        readerThread.interrupt();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("StreamingBufferedHandler{head=%d, tail=%d, drained=%s}",
+                head, tail, drained);
+    }
+}
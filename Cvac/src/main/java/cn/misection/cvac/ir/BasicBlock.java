@@ -0,0 +1,211 @@
+package cn.misection.cvac.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName BasicBlock
+ * @Description 基本块, phi 都在开头, 最后一条是跳转;
+ * 前驱的顺序就是 phi 操作数的顺序, 增删前驱要走这里的方法;
+ * @CreateTime 2026年10月18日 00:45:00
+ */
+public final class BasicBlock
+{
+    private final int id;
+
+    private final List<IrInstruction> instructionList = new ArrayList<>();
+
+    private final List<BasicBlock> predList = new ArrayList<>(2);
+
+    private final List<BasicBlock> succList = new ArrayList<>(2);
+
+    /**
+     * 直接支配者, 入口块为 null, 由 Dominators 填;
+     */
+    private BasicBlock idom;
+
+    private final List<BasicBlock> domChildList = new ArrayList<>(2);
+
+    /**
+     * 逆后序编号, 走不到的块为 -1;
+     */
+    private int order = -1;
+
+    BasicBlock(int id)
+    {
+        this.id = id;
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public String name()
+    {
+        return String.format("B%d", id);
+    }
+
+    public List<IrInstruction> getInstructionList()
+    {
+        return instructionList;
+    }
+
+    public List<BasicBlock> getPredList()
+    {
+        return predList;
+    }
+
+    public List<BasicBlock> getSuccList()
+    {
+        return succList;
+    }
+
+    public IrInstruction getTerminator()
+    {
+        if (instructionList.isEmpty())
+        {
+            return null;
+        }
+        IrInstruction last = instructionList.get(instructionList.size() - 1);
+        return last.getOp().isTerminator() ? last : null;
+    }
+
+    public boolean isTerminated()
+    {
+        return getTerminator() != null;
+    }
+
+    public void append(IrInstruction instruction)
+    {
+        instruction.setBlock(this);
+        instructionList.add(instruction);
+    }
+
+    /**
+     * 插到跳转前面;
+     * @param instruction 指令;
+     */
+    public void insertBeforeTerminator(IrInstruction instruction)
+    {
+        instruction.setBlock(this);
+        int at = isTerminated() ? instructionList.size() - 1 : instructionList.size();
+        instructionList.add(at, instruction);
+    }
+
+    /**
+     * 插到所有 phi 后面;
+     * @param instruction 指令;
+     */
+    public void insertAfterPhis(IrInstruction instruction)
+    {
+        instruction.setBlock(this);
+        instructionList.add(phiCount(), instruction);
+    }
+
+    public void insertPhi(IrInstruction phi)
+    {
+        phi.setBlock(this);
+        instructionList.add(0, phi);
+    }
+
+    public int phiCount()
+    {
+        int count = 0;
+        while (count < instructionList.size()
+                && instructionList.get(count).getOp() == EnumIrOp.PHI)
+        {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 删掉一条指令, 它必须已经没有使用者;
+     * @param instruction 指令;
+     */
+    public void remove(IrInstruction instruction)
+    {
+        instruction.dropOperands();
+        instructionList.remove(instruction);
+        instruction.setBlock(null);
+    }
+
+    public void addSucc(BasicBlock succ)
+    {
+        succList.add(succ);
+        succ.predList.add(this);
+    }
+
+    /**
+     * 删掉到 succ 的边, 顺带删掉 succ 里 phi 对应的操作数;
+     * @param succ 后继;
+     */
+    public void removeSucc(BasicBlock succ)
+    {
+        succList.remove(succ);
+        succ.removePred(this);
+    }
+
+    private void removePred(BasicBlock pred)
+    {
+        int index = predList.indexOf(pred);
+        predList.remove(index);
+        for (IrInstruction instruction : instructionList)
+        {
+            if (instruction.getOp() != EnumIrOp.PHI)
+            {
+                break;
+            }
+            instruction.removeOperand(index);
+        }
+    }
+
+    public BasicBlock getIdom()
+    {
+        return idom;
+    }
+
+    void setIdom(BasicBlock idom)
+    {
+        this.idom = idom;
+    }
+
+    public List<BasicBlock> getDomChildList()
+    {
+        return domChildList;
+    }
+
+    public int getOrder()
+    {
+        return order;
+    }
+
+    void setOrder(int order)
+    {
+        this.order = order;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder(name()).append(':');
+        if (!predList.isEmpty())
+        {
+            builder.append(" ; preds");
+            predList.forEach(pred -> builder.append(' ').append(pred.name()));
+        }
+        builder.append('\n');
+        instructionList.forEach(instruction ->
+                builder.append("    ").append(instruction).append('\n'));
+        if (!succList.isEmpty())
+        {
+            builder.append("    ->");
+            succList.forEach(succ -> builder.append(' ').append(succ.name()));
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
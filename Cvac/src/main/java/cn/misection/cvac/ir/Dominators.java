@@ -0,0 +1,176 @@
+package cn.misection.cvac.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName Dominators
+ * @Description 支配树和支配边界, 用 Cooper, Harvey, Kennedy 的迭代算法;
+ * 块的 order 是逆后序号, 入口为 0, 走不到的块保持 -1;
+ * @CreateTime 2026年10月18日 01:10:00
+ */
+public final class Dominators
+{
+    private Dominators() {}
+
+    /**
+     * 算出每个块的 idom 和支配树孩子;
+     * @param method 方法;
+     * @return 逆后序排好的块;
+     */
+    public static List<BasicBlock> compute(IrMethod method)
+    {
+        List<BasicBlock> order = reversePostOrder(method);
+        for (BasicBlock block : method.getBlockList())
+        {
+            block.setIdom(null);
+            block.getDomChildList().clear();
+        }
+        BasicBlock entry = method.getEntry();
+        entry.setIdom(entry);
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (int i = 1; i < order.size(); i++)
+            {
+                BasicBlock block = order.get(i);
+                BasicBlock newIdom = null;
+                for (BasicBlock pred : block.getPredList())
+                {
+                    if (pred.getIdom() == null)
+                    {
+                        continue;
+                    }
+                    newIdom = newIdom == null ? pred : intersect(pred, newIdom);
+                }
+                if (newIdom != block.getIdom())
+                {
+                    block.setIdom(newIdom);
+                    changed = true;
+                }
+            }
+        }
+        for (int i = 1; i < order.size(); i++)
+        {
+            BasicBlock block = order.get(i);
+            block.getIdom().getDomChildList().add(block);
+        }
+        // 入口的 idom 指向自己只是算法需要;
+        entry.setIdom(null);
+        return order;
+    }
+
+    private static BasicBlock intersect(BasicBlock left, BasicBlock right)
+    {
+        while (left != right)
+        {
+            while (left.getOrder() > right.getOrder())
+            {
+                left = left.getIdom();
+            }
+            while (right.getOrder() > left.getOrder())
+            {
+                right = right.getIdom();
+            }
+        }
+        return left;
+    }
+
+    private static List<BasicBlock> reversePostOrder(IrMethod method)
+    {
+        for (BasicBlock block : method.getBlockList())
+        {
+            block.setOrder(-1);
+        }
+        List<BasicBlock> postOrder = new ArrayList<>(method.getBlockList().size());
+        // 显式栈, 深的循环嵌套也不会爆栈;
+        boolean[] visited = new boolean[method.blockIdCount()];
+        List<BasicBlock> stack = new ArrayList<>();
+        List<Integer> nextSucc = new ArrayList<>();
+        stack.add(method.getEntry());
+        nextSucc.add(0);
+        visited[method.getEntry().getId()] = true;
+        while (!stack.isEmpty())
+        {
+            int top = stack.size() - 1;
+            BasicBlock block = stack.get(top);
+            int next = nextSucc.get(top);
+            if (next < block.getSuccList().size())
+            {
+                nextSucc.set(top, next + 1);
+                BasicBlock succ = block.getSuccList().get(next);
+                if (!visited[succ.getId()])
+                {
+                    visited[succ.getId()] = true;
+                    stack.add(succ);
+                    nextSucc.add(0);
+                }
+                continue;
+            }
+            stack.remove(top);
+            nextSucc.remove(top);
+            postOrder.add(block);
+        }
+        List<BasicBlock> order = new ArrayList<>(postOrder.size());
+        for (int i = postOrder.size() - 1; i >= 0; i--)
+        {
+            BasicBlock block = postOrder.get(i);
+            block.setOrder(order.size());
+            order.add(block);
+        }
+        return order;
+    }
+
+    /**
+     * 支配边界, 要先调过 compute;
+     * @param method 方法;
+     * @return 按块 id 下标的边界, 走不到的块是空表;
+     */
+    public static List<List<BasicBlock>> frontiers(IrMethod method)
+    {
+        List<List<BasicBlock>> frontiers = new ArrayList<>(method.blockIdCount());
+        for (int i = 0; i < method.blockIdCount(); i++)
+        {
+            frontiers.add(new ArrayList<>(2));
+        }
+        for (BasicBlock block : method.getBlockList())
+        {
+            if (block.getOrder() < 0 || block.getPredList().size() < 2)
+            {
+                continue;
+            }
+            for (BasicBlock pred : block.getPredList())
+            {
+                BasicBlock runner = pred;
+                while (runner != null && runner != block.getIdom())
+                {
+                    List<BasicBlock> frontier = frontiers.get(runner.getId());
+                    if (!frontier.contains(block))
+                    {
+                        frontier.add(block);
+                    }
+                    runner = runner.getIdom();
+                }
+            }
+        }
+        return frontiers;
+    }
+
+    /**
+     * @return a 是否支配 b, 要先调过 compute;
+     */
+    public static boolean dominates(BasicBlock a, BasicBlock b)
+    {
+        for (BasicBlock runner = b; runner != null; runner = runner.getIdom())
+        {
+            if (runner == a)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,179 @@
+package cn.misection.cvac.ir;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName EnumIrOp
+ * @Description 中间表示的操作, 每条指令至多产生一个值;
+ * @CreateTime 2026年10月18日 00:35:00
+ */
+public enum EnumIrOp
+{
+    /**
+     * 整数常量, boolean 也用 0/1, 值在 value;
+     */
+    CONST_INT,
+
+    /**
+     * 字符串常量, 值在 literal;
+     */
+    CONST_STRING,
+
+    /**
+     * 没有赋过值的变量, 也用于不支持的常量;
+     */
+    UNDEF,
+
+    THIS,
+
+    /**
+     * 第 value 个形参的初值, 只在入口块;
+     */
+    PARAM,
+
+    ADD,
+
+    SUB,
+
+    MUL,
+
+    DIV,
+
+    REM,
+
+    AND,
+
+    OR,
+
+    XOR,
+
+    SHL,
+
+    SHR,
+
+    USHR,
+
+    /**
+     * 小于, 结果是 boolean;
+     */
+    LT,
+
+    /**
+     * 大于, 左边先求值, 不能换成交换操作数的 LT;
+     */
+    GT,
+
+    /**
+     * 逻辑非;
+     */
+    NOT,
+
+    /**
+     * 操作数是接收者和实参, 方法信息在 call;
+     */
+    CALL,
+
+    /**
+     * 类名在 literal;
+     */
+    NEW,
+
+    /**
+     * 读 this 的字段, 字段名在 literal, 符号在 value;
+     */
+    GET_FIELD,
+
+    /**
+     * 写 this 的字段, 操作数是新值;
+     */
+    PUT_FIELD,
+
+    /**
+     * 输出, 模式在 value, 类型在 writeType;
+     */
+    WRITE,
+
+    /**
+     * 读写局部变量, 变量号在 value, 建 SSA 后全部消失;
+     */
+    LOAD_VAR,
+
+    STORE_VAR,
+
+    /**
+     * 操作数和所在块的前驱一一对应;
+     */
+    PHI,
+
+    /**
+     * 以下是块的最后一条, 跳转目标是块的后继;
+     */
+    JUMP,
+
+    /**
+     * 条件为真到后继 0, 否则到后继 1;
+     */
+    BRANCH,
+
+    RETURN,
+    ;
+
+    public boolean isTerminator()
+    {
+        return this == JUMP || this == BRANCH || this == RETURN;
+    }
+
+    /**
+     * @return 是否不产生值;
+     */
+    public boolean isVoid()
+    {
+        return this == PUT_FIELD || this == WRITE || this == STORE_VAR || isTerminator();
+    }
+
+    /**
+     * @return 只由操作数决定结果, 没有副作用也不读内存, 可以随意删除和移动;
+     * 除法和取余会抛除零异常, 不算;
+     */
+    public boolean isPure()
+    {
+        switch (this)
+        {
+            case CONST_INT:
+            case CONST_STRING:
+            case UNDEF:
+            case THIS:
+            case PARAM:
+            case ADD:
+            case SUB:
+            case MUL:
+            case AND:
+            case OR:
+            case XOR:
+            case SHL:
+            case SHR:
+            case USHR:
+            case LT:
+            case GT:
+            case NOT:
+            case PHI:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return 有没有可见的副作用, 写内存, 输出或者调用;
+     */
+    public boolean hasSideEffect()
+    {
+        return this == CALL || this == PUT_FIELD || this == WRITE
+                || this == STORE_VAR || this == DIV || this == REM;
+    }
+
+    public boolean isBinary()
+    {
+        return this.ordinal() >= ADD.ordinal() && this.ordinal() <= GT.ordinal();
+    }
+}
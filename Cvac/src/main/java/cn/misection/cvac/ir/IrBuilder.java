@@ -0,0 +1,578 @@
+package cn.misection.cvac.ir;
+
+import cn.misection.cvac.ast.IVisitor;
+import cn.misection.cvac.ast.clas.CvaClass;
+import cn.misection.cvac.ast.decl.CvaDeclaration;
+import cn.misection.cvac.ast.entry.CvaEntryClass;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.CvaMainMethod;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.advance.CvaStringType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.symbol.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IrBuilder
+ * @Description 把一个类方法降成控制流图, 变量先用 LOAD_VAR/STORE_VAR;
+ * 条件直接降成跳转, &&, || 和 ?: 求值时用临时变量, 建 SSA 后变成 phi;
+ * 求值顺序和 TranslatorVisitor 一样, 左边先算;
+ * @CreateTime 2026年10月18日 01:00:00
+ */
+public final class IrBuilder implements IVisitor
+{
+    private static final int NOT_LOCAL = -1;
+
+    private final IrMethod method;
+
+    /**
+     * 符号到变量号, 字段不在里面;
+     */
+    private final IntIntMap varOf = new IntIntMap();
+
+    /**
+     * 块按进入的先后排, 就是 TranslatorVisitor 的布局;
+     */
+    private final List<BasicBlock> layout = new ArrayList<>();
+
+    private BasicBlock current;
+
+    /**
+     * 可以为 null, 不用回头改语法树时不记;
+     */
+    private final IrOrigins origins;
+
+    private IrInstruction lastValue;
+
+    private IrBuilder(CvaMethod source, String className, IrOrigins origins)
+    {
+        this.method = new IrMethod(source, className);
+        this.origins = origins;
+    }
+
+    /**
+     * @param source 检查过的方法;
+     * @param className 所在类;
+     * @return 还没建 SSA 的控制流图;
+     */
+    public static IrMethod build(CvaMethod source, String className)
+    {
+        return build(source, className, null);
+    }
+
+    /**
+     * @param origins 记下表达式的值和分支的块;
+     */
+    public static IrMethod build(CvaMethod source, String className, IrOrigins origins)
+    {
+        IrBuilder builder = new IrBuilder(source, className, origins);
+        builder.visit(source);
+        return builder.method;
+    }
+
+    private void enter(BasicBlock block)
+    {
+        layout.add(block);
+        current = block;
+    }
+
+    private IrInstruction emit(EnumIrOp op, ICvaType type, IrInstruction... operands)
+    {
+        IrInstruction instruction = method.newInstruction(op, type);
+        for (IrInstruction operand : operands)
+        {
+            instruction.addOperand(operand);
+        }
+        current.append(instruction);
+        return instruction;
+    }
+
+    private IrInstruction emitConst(int value, ICvaType type)
+    {
+        IrInstruction constant = method.newConstInt(value, type);
+        current.append(constant);
+        return constant;
+    }
+
+    private IrInstruction load(int var)
+    {
+        IrInstruction load = emit(EnumIrOp.LOAD_VAR, method.varType(var));
+        load.setValue(var);
+        return load;
+    }
+
+    private void store(int var, IrInstruction value)
+    {
+        emit(EnumIrOp.STORE_VAR, null, value).setValue(var);
+    }
+
+    private void jump(BasicBlock target)
+    {
+        emit(EnumIrOp.JUMP, null);
+        current.addSucc(target);
+    }
+
+    private void branch(IrInstruction condition, BasicBlock whenTrue, BasicBlock whenFalse)
+    {
+        emit(EnumIrOp.BRANCH, null, condition);
+        current.addSucc(whenTrue);
+        current.addSucc(whenFalse);
+    }
+
+    private IrInstruction valueOf(AbstractExpression expr)
+    {
+        visit(expr);
+        if (origins != null)
+        {
+            origins.recordValue(expr, lastValue);
+        }
+        return lastValue;
+    }
+
+    private void binary(EnumIrOp op, AbstractBinaryExpr expr, ICvaType type)
+    {
+        IrInstruction left = valueOf(expr.getLeft());
+        IrInstruction right = valueOf(expr.getRight());
+        lastValue = emit(op, type, left, right);
+    }
+
+    /**
+     * 条件为真跳到 whenTrue, 否则跳到 whenFalse, 短路运算不产生中间值;
+     */
+    private void condition(AbstractExpression expr, BasicBlock whenTrue, BasicBlock whenFalse)
+    {
+        switch (expr.toEnum())
+        {
+            case CONST_TRUE:
+            {
+                jump(whenTrue);
+                break;
+            }
+            case CONST_FALSE:
+            {
+                jump(whenFalse);
+                break;
+            }
+            case AND_AND:
+            {
+                BasicBlock right = method.newBlock();
+                condition(((CvaAndAndExpr) expr).getLeft(), right, whenFalse);
+                enter(right);
+                condition(((CvaAndAndExpr) expr).getRight(), whenTrue, whenFalse);
+                break;
+            }
+            case OR_OR:
+            {
+                BasicBlock right = method.newBlock();
+                condition(((CvaOrOrExpr) expr).getLeft(), whenTrue, right);
+                enter(right);
+                condition(((CvaOrOrExpr) expr).getRight(), whenTrue, whenFalse);
+                break;
+            }
+            case NEGATE:
+            {
+                condition(((CvaNegateExpr) expr).getExpr(), whenFalse, whenTrue);
+                break;
+            }
+            default:
+            {
+                branch(valueOf(expr), whenTrue, whenFalse);
+                break;
+            }
+        }
+    }
+
+    /**
+     * 求值时要分支的表达式, 两边各存一个临时变量, 汇合后读出;
+     */
+    private void conditionValue(AbstractExpression expr)
+    {
+        int temp = method.addVar(String.format("$t%d", method.varCount()), EnumCvaType.CVA_BOOLEAN);
+        BasicBlock whenTrue = method.newBlock();
+        BasicBlock whenFalse = method.newBlock();
+        BasicBlock join = method.newBlock();
+        condition(expr, whenTrue, whenFalse);
+        enter(whenTrue);
+        store(temp, emitConst(1, EnumCvaType.CVA_BOOLEAN));
+        jump(join);
+        enter(whenFalse);
+        store(temp, emitConst(0, EnumCvaType.CVA_BOOLEAN));
+        jump(join);
+        enter(join);
+        lastValue = load(temp);
+    }
+
+    @Override
+    public void visit(EnumCvaType basicType) {}
+
+    @Override
+    public void visit(CvaStringType type) {}
+
+    @Override
+    public void visit(CvaClassType type) {}
+
+    @Override
+    public void visit(CvaDeclaration decl) {}
+
+    @Override
+    public void visit(CvaAddExpr expr)
+    {
+        binary(EnumIrOp.ADD, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaAndAndExpr expr)
+    {
+        conditionValue(expr);
+    }
+
+    @Override
+    public void visit(CvaCallExpr expr)
+    {
+        IrInstruction call = method.newInstruction(EnumIrOp.CALL, expr.getRetType());
+        call.setCall(expr);
+        call.addOperand(valueOf(expr.getExpr()));
+        expr.getArgs().forEach(arg -> call.addOperand(valueOf(arg)));
+        current.append(call);
+        lastValue = call;
+    }
+
+    @Override
+    public void visit(CvaConstFalseExpr expr)
+    {
+        lastValue = emitConst(0, EnumCvaType.CVA_BOOLEAN);
+    }
+
+    @Override
+    public void visit(CvaIdentifierExpr expr)
+    {
+        int var = varOf.get(expr.getSymbol(), NOT_LOCAL);
+        if (var != NOT_LOCAL)
+        {
+            lastValue = load(var);
+            return;
+        }
+        lastValue = emit(EnumIrOp.GET_FIELD, expr.getType());
+        lastValue.setLiteral(expr.getLiteral());
+        lastValue.setValue(expr.getSymbol());
+    }
+
+    @Override
+    public void visit(CvaLessThanExpr expr)
+    {
+        binary(EnumIrOp.LT, expr, EnumCvaType.CVA_BOOLEAN);
+    }
+
+    @Override
+    public void visit(CvaNewExpr expr)
+    {
+        lastValue = emit(EnumIrOp.NEW, new CvaClassType(expr.getNewClassName()));
+        lastValue.setLiteral(expr.getNewClassName());
+    }
+
+    @Override
+    public void visit(CvaNegateExpr expr)
+    {
+        lastValue = emit(EnumIrOp.NOT, EnumCvaType.CVA_BOOLEAN, valueOf(expr.getExpr()));
+    }
+
+    @Override
+    public void visit(CvaConstIntExpr expr)
+    {
+        lastValue = emitConst(expr.getValue(), EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaConstStringExpr expr)
+    {
+        lastValue = emit(EnumIrOp.CONST_STRING, new CvaStringType());
+        lastValue.setLiteral(expr.getLiteral());
+    }
+
+    @Override
+    public void visit(CvaSubExpr expr)
+    {
+        binary(EnumIrOp.SUB, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaThisExpr expr)
+    {
+        lastValue = emit(EnumIrOp.THIS, new CvaClassType(method.getClassName()));
+    }
+
+    @Override
+    public void visit(CvaMulExpr expr)
+    {
+        binary(EnumIrOp.MUL, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaConstTrueExpr expr)
+    {
+        lastValue = emitConst(1, EnumCvaType.CVA_BOOLEAN);
+    }
+
+    @Override
+    public void visit(CvaDivExpr expr)
+    {
+        binary(EnumIrOp.DIV, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaRemainderExpr expr)
+    {
+        binary(EnumIrOp.REM, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaBitAndExpr expr)
+    {
+        binary(EnumIrOp.AND, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaBitOrExpr expr)
+    {
+        binary(EnumIrOp.OR, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaXorExpr expr)
+    {
+        binary(EnumIrOp.XOR, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaLeftShiftExpr expr)
+    {
+        binary(EnumIrOp.SHL, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaRightShiftExpr expr)
+    {
+        binary(EnumIrOp.SHR, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaUnsignedRightShiftExpr expr)
+    {
+        binary(EnumIrOp.USHR, expr, EnumCvaType.CVA_INT);
+    }
+
+    @Override
+    public void visit(CvaMoreThanExpr expr)
+    {
+        binary(EnumIrOp.GT, expr, EnumCvaType.CVA_BOOLEAN);
+    }
+
+    @Override
+    public void visit(CvaOrOrExpr expr)
+    {
+        conditionValue(expr);
+    }
+
+    @Override
+    public void visit(CvaBitNegateExpr expr)
+    {
+        IrInstruction operand = valueOf(expr.getExpr());
+        lastValue = emit(EnumIrOp.XOR, EnumCvaType.CVA_INT, operand, emitConst(-1, EnumCvaType.CVA_INT));
+    }
+
+    @Override
+    public void visit(CvaConditionCalcExpr expr)
+    {
+        BasicBlock whenTrue = method.newBlock();
+        BasicBlock whenFalse = method.newBlock();
+        BasicBlock join = method.newBlock();
+        condition(expr.getCondition(), whenTrue, whenFalse);
+        enter(whenTrue);
+        IrInstruction trueValue = valueOf(expr.getTrueExpr());
+        int temp = method.addVar(String.format("$t%d", method.varCount()), trueValue.getType());
+        store(temp, trueValue);
+        jump(join);
+        enter(whenFalse);
+        store(temp, valueOf(expr.getFalseExpr()));
+        jump(join);
+        enter(join);
+        lastValue = load(temp);
+    }
+
+    @Override
+    public void visit(CvaAssignStatement stm)
+    {
+        IrInstruction value = valueOf(stm.getExpr());
+        int var = varOf.get(stm.getSymbol(), NOT_LOCAL);
+        if (var != NOT_LOCAL)
+        {
+            store(var, value);
+            return;
+        }
+        // 字段的类型记在 type 上, 生成描述符用;
+        IrInstruction put = emit(EnumIrOp.PUT_FIELD, stm.getType(), value);
+        put.setLiteral(stm.getLiteral());
+        put.setValue(stm.getSymbol());
+    }
+
+    @Override
+    public void visit(CvaBlockStatement stm)
+    {
+        stm.getStatementList().forEach(this::visit);
+    }
+
+    @Override
+    public void visit(CvaIfStatement stm)
+    {
+        // 没有 else 也单独开一个块, 两个分支各有入口;
+        BasicBlock thenBlock = method.newBlock();
+        BasicBlock elseBlock = method.newBlock();
+        BasicBlock join = method.newBlock();
+        if (origins != null)
+        {
+            origins.recordArms(stm, thenBlock, elseBlock);
+        }
+        condition(stm.getCondition(), thenBlock, elseBlock);
+        enter(thenBlock);
+        visit(stm.getThenStatement());
+        jump(join);
+        enter(elseBlock);
+        if (stm.getElseStatement() != null)
+        {
+            visit(stm.getElseStatement());
+        }
+        jump(join);
+        enter(join);
+    }
+
+    @Override
+    public void visit(CvaWriteStatement stm)
+    {
+        AbstractExpression expr = stm.getExpr();
+        IrInstruction write = emit(EnumIrOp.WRITE, null, valueOf(expr));
+        write.setValue(stm.getWriteMode());
+        write.setWriteType(writeTypeOf(expr));
+    }
+
+    /**
+     * 和 TranslatorVisitor 判定输出类型的办法一样;
+     */
+    private static EnumCvaType writeTypeOf(AbstractExpression expr)
+    {
+        switch (expr.toEnum())
+        {
+            case CONST_STRING:
+                return EnumCvaType.CVA_STRING;
+            case IDENTIFIER:
+                return ((CvaIdentifierExpr) expr).getType().toEnum();
+            case CALL:
+                return ((CvaCallExpr) expr).getRetType().toEnum();
+            default:
+                return EnumCvaType.CVA_INT;
+        }
+    }
+
+    @Override
+    public void visit(CvaWhileStatement stm)
+    {
+        BasicBlock head = method.newBlock();
+        BasicBlock body = method.newBlock();
+        BasicBlock exit = method.newBlock();
+        if (origins != null)
+        {
+            origins.recordArms(stm, body, exit);
+        }
+        jump(head);
+        enter(head);
+        condition(stm.getCondition(), body, exit);
+        enter(body);
+        visit(stm.getBody());
+        jump(head);
+        enter(exit);
+    }
+
+    @Override
+    public void visit(CvaIncreStatement stm)
+    {
+        int var = varOf.get(stm.getSymbol(), NOT_LOCAL);
+        IrInstruction step = method.newConstInt(stm.getDirection().direction());
+        if (var != NOT_LOCAL)
+        {
+            IrInstruction old = load(var);
+            current.append(step);
+            store(var, emit(EnumIrOp.ADD, EnumCvaType.CVA_INT, old, step));
+            return;
+        }
+        IrInstruction old = emit(EnumIrOp.GET_FIELD, EnumCvaType.CVA_INT);
+        old.setLiteral(stm.getLiteral());
+        old.setValue(stm.getSymbol());
+        current.append(step);
+        IrInstruction put = emit(EnumIrOp.PUT_FIELD, EnumCvaType.CVA_INT,
+                emit(EnumIrOp.ADD, EnumCvaType.CVA_INT, old, step));
+        put.setLiteral(stm.getLiteral());
+        put.setValue(stm.getSymbol());
+    }
+
+    @Override
+    public void visit(CvaMethod m)
+    {
+        enter(method.newBlock());
+        m.getArgumentList().forEach(formal ->
+        {
+            CvaDeclaration decl = (CvaDeclaration) formal;
+            varOf.put(decl.symbol(), method.addVar(decl.literal(), decl.type()));
+        });
+        method.setFormalCount(method.varCount());
+        m.getLocalVarList().forEach(local ->
+        {
+            CvaDeclaration decl = (CvaDeclaration) local;
+            varOf.put(decl.symbol(), method.addVar(decl.literal(), decl.type()));
+        });
+        for (int var = 0; var < method.varCount(); var++)
+        {
+            IrInstruction initial;
+            if (var < method.getFormalCount())
+            {
+                initial = emit(EnumIrOp.PARAM, method.varType(var));
+                initial.setValue(var);
+            }
+            else
+            {
+                // 局部变量没有初值, 读到的是 UNDEF;
+                initial = emit(EnumIrOp.UNDEF, method.varType(var));
+            }
+            store(var, initial);
+        }
+        m.getStatementList().forEach(this::visit);
+        emit(EnumIrOp.RETURN, null, valueOf(m.getRetExpr()));
+        method.getBlockList().clear();
+        method.getBlockList().addAll(layout);
+        method.removeUnreachableBlocks();
+    }
+
+    @Override
+    public void visit(CvaMainMethod entryMethod)
+    {
+        // 主方法还是走 TranslatorVisitor;
+    }
+
+    @Override
+    public void visit(CvaClass cvaClass) {}
+
+    @Override
+    public void visit(CvaEntryClass entryClass) {}
+
+    @Override
+    public void visit(CvaProgram program) {}
+}
@@ -0,0 +1,768 @@
+package cn.misection.cvac.ir;
+
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.advance.CvaStringType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ast.type.reference.AbstractReferenceType;
+import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.codegen.Devirtualizer;
+import cn.misection.cvac.codegen.bst.Label;
+import cn.misection.cvac.codegen.bst.btype.ITargetType;
+import cn.misection.cvac.codegen.bst.btype.advance.TargetStringType;
+import cn.misection.cvac.codegen.bst.btype.basic.EnumTargetType;
+import cn.misection.cvac.codegen.bst.btype.reference.TargetClassType;
+import cn.misection.cvac.codegen.bst.instructor.*;
+import cn.misection.cvac.constant.EnumIncDirection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IrEmitter
+ * @Description 把 SSA 形式的方法排成 TargetMethod 的指令序列;
+ * 只用一次, 又紧挨着使用者的值直接留在操作数栈上, 其余的值按活跃区间分槽位, 不冲突的槽位复用;
+ * phi 在前驱末尾做并行拷贝, 先全部压栈再倒序存, 分到同一槽位的拷贝省掉;
+ * @CreateTime 2026年10月18日 01:40:00
+ */
+public final class IrEmitter
+{
+    private static final int NO_SLOT = -1;
+
+    /**
+     * 槽位 0 是 this;
+     */
+    private static final int FIRST_SLOT = 1;
+
+    private final IrMethod method;
+
+    /**
+     * 为 null 时全按虚调用;
+     */
+    private final Devirtualizer devirtualizer;
+
+    private final List<IInstructor> instrList = new ArrayList<>();
+
+    private boolean[] inlined;
+
+    private int[] slotOf;
+
+    private Label[] labelOf;
+
+    private int slotCount;
+
+    public IrEmitter(IrMethod method)
+    {
+        this(method, null);
+    }
+
+    public IrEmitter(IrMethod method, Devirtualizer devirtualizer)
+    {
+        this.method = method;
+        this.devirtualizer = devirtualizer;
+    }
+
+    /**
+     * @return 方法体的指令, 调完以后 getSlotCount 才有意义;
+     */
+    public List<IInstructor> emit()
+    {
+        splitCriticalEdges();
+        List<BasicBlock> order = Dominators.compute(method);
+        inlined = new boolean[method.valueCount()];
+        for (BasicBlock block : method.getBlockList())
+        {
+            markInlined(block);
+        }
+        allocateSlots(order);
+        labelOf = new Label[method.blockIdCount()];
+        List<BasicBlock> layout = method.getBlockList();
+        for (int i = 0; i < layout.size(); i++)
+        {
+            BasicBlock block = layout.get(i);
+            if (i > 0)
+            {
+                instrList.add(new LabelJ(labelOf(block)));
+            }
+            emitBlock(block, i + 1 < layout.size() ? layout.get(i + 1) : null);
+        }
+        return instrList;
+    }
+
+    /**
+     * @return 用到的槽位数, 含 this 和形参;
+     */
+    public int getSlotCount()
+    {
+        return slotCount;
+    }
+
+    /**
+     * 有 phi 的块的前驱若有多个后继, 拷贝没地方放, 中间插一个块;
+     */
+    private void splitCriticalEdges()
+    {
+        for (BasicBlock block : new ArrayList<>(method.getBlockList()))
+        {
+            if (block.phiCount() == 0)
+            {
+                continue;
+            }
+            for (BasicBlock pred : new ArrayList<>(block.getPredList()))
+            {
+                if (pred.getSuccList().size() > 1)
+                {
+                    method.splitEdge(pred, block);
+                }
+            }
+        }
+    }
+
+    private static boolean isRematerialized(IrInstruction value)
+    {
+        switch (value.getOp())
+        {
+            case CONST_INT:
+            case CONST_STRING:
+            case THIS:
+                return true;
+            case UNDEF:
+                return isIntLike(value.getType());
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 在自己位置上什么也不生成的指令, 找栈上操作数时可以跨过去;
+     */
+    private boolean isTransparent(IrInstruction instruction)
+    {
+        EnumIrOp op = instruction.getOp();
+        return isRematerialized(instruction)
+                || op == EnumIrOp.PARAM
+                || op == EnumIrOp.UNDEF
+                || (op.isPure() && op != EnumIrOp.PHI && !instruction.hasUsers());
+    }
+
+    private void markInlined(BasicBlock block)
+    {
+        List<IrInstruction> instructions = block.getInstructionList();
+        for (int at = instructions.size() - 1; at >= 0; )
+        {
+            at = matchTree(instructions, at) - 1;
+        }
+    }
+
+    /**
+     * 从使用者往前, 最后一个操作数起逐个看紧挨着的指令是不是它;
+     * 只收紧挨着的, 所以留在栈上的值和原来的求值顺序一样;
+     * @return 这棵树最前面一条的下标;
+     */
+    private int matchTree(List<IrInstruction> instructions, int at)
+    {
+        IrInstruction user = instructions.get(at);
+        // 不生成的指令不能带着操作数;
+        if (user.getOp() == EnumIrOp.PHI || isTransparent(user))
+        {
+            return at;
+        }
+        int cursor = at;
+        for (int k = user.operandCount() - 1; k >= 0; k--)
+        {
+            IrInstruction operand = user.getOperand(k);
+            while (cursor > 0 && isTransparent(instructions.get(cursor - 1)))
+            {
+                cursor--;
+            }
+            if (cursor > 0 && instructions.get(cursor - 1) == operand && canInline(operand))
+            {
+                inlined[operand.getId()] = true;
+                cursor = matchTree(instructions, cursor - 1);
+            }
+        }
+        return cursor;
+    }
+
+    private static boolean canInline(IrInstruction value)
+    {
+        EnumIrOp op = value.getOp();
+        return !op.isVoid()
+                && op != EnumIrOp.PHI
+                && op != EnumIrOp.PARAM
+                && op != EnumIrOp.UNDEF
+                && value.getUserList().size() == 1
+                && value.getUserList().get(0).getOp() != EnumIrOp.PHI;
+    }
+
+    private boolean needsSlot(IrInstruction value)
+    {
+        EnumIrOp op = value.getOp();
+        if (op.isVoid() || inlined[value.getId()] || isRematerialized(value))
+        {
+            return false;
+        }
+        // 没人用的纯值不生成;
+        return value.hasUsers() || !op.isPure() || op == EnumIrOp.PARAM;
+    }
+
+    /**
+     * 先算每块出口活跃的值, 再按逆后序给值分槽位;
+     * 定义支配使用, 逆后序里入口活跃的值都已经分过了;
+     */
+    private void allocateSlots(List<BasicBlock> order)
+    {
+        List<BitSet> liveOut = liveOut(order);
+        slotOf = new int[method.valueCount()];
+        Arrays.fill(slotOf, NO_SLOT);
+        int[] lastUseAt = new int[method.valueCount()];
+        slotCount = FIRST_SLOT + method.getFormalCount();
+        for (BasicBlock block : order)
+        {
+            BitSet busy = new BitSet();
+            BitSet live = liveIn(block, liveOut.get(block.getOrder()));
+            for (int v = live.nextSetBit(0); v >= 0; v = live.nextSetBit(v + 1))
+            {
+                busy.set(slotOf[v]);
+            }
+            if (block == method.getEntry())
+            {
+                // 形参的槽位是固定的;
+                busy.set(FIRST_SLOT, FIRST_SLOT + method.getFormalCount());
+            }
+            List<IrInstruction> instructions = block.getInstructionList();
+            for (int i = 0; i < instructions.size(); i++)
+            {
+                for (IrInstruction operand : instructions.get(i).getOperandList())
+                {
+                    lastUseAt[operand.getId()] = i;
+                }
+            }
+            BitSet out = liveOut.get(block.getOrder());
+            for (int i = 0; i < instructions.size(); i++)
+            {
+                IrInstruction instruction = instructions.get(i);
+                if (instruction.getOp() != EnumIrOp.PHI)
+                {
+                    for (IrInstruction operand : instruction.getOperandList())
+                    {
+                        int slot = slotOf[operand.getId()];
+                        if (slot != NO_SLOT && lastUseAt[operand.getId()] == i && !out.get(operand.getId()))
+                        {
+                            busy.clear(slot);
+                        }
+                    }
+                }
+                if (!needsSlot(instruction))
+                {
+                    continue;
+                }
+                int slot = instruction.getOp() == EnumIrOp.PARAM
+                        ? FIRST_SLOT + instruction.getValue()
+                        : pickSlot(instruction, busy);
+                slotOf[instruction.getId()] = slot;
+                slotCount = Math.max(slotCount, slot + 1);
+                busy.set(slot);
+                if (!instruction.hasUsers())
+                {
+                    busy.clear(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * 尽量和 phi 的操作数或者用它的 phi 同槽位, 这样拷贝就省了;
+     */
+    private int pickSlot(IrInstruction value, BitSet busy)
+    {
+        if (value.getOp() == EnumIrOp.PHI)
+        {
+            for (IrInstruction operand : value.getOperandList())
+            {
+                int slot = slotOf[operand.getId()];
+                if (slot != NO_SLOT && !busy.get(slot))
+                {
+                    return slot;
+                }
+            }
+        }
+        for (IrInstruction user : value.getUserList())
+        {
+            int slot = slotOf[user.getId()];
+            if (user.getOp() == EnumIrOp.PHI && slot != NO_SLOT && !busy.get(slot))
+            {
+                return slot;
+            }
+        }
+        return busy.nextClearBit(FIRST_SLOT);
+    }
+
+    private boolean isSlotUse(IrInstruction operand)
+    {
+        return needsSlot(operand);
+    }
+
+    private List<BitSet> liveOut(List<BasicBlock> order)
+    {
+        List<BitSet> liveOut = new ArrayList<>(order.size());
+        List<BitSet> liveIn = new ArrayList<>(order.size());
+        for (int i = 0; i < order.size(); i++)
+        {
+            liveOut.add(new BitSet());
+            liveIn.add(new BitSet());
+        }
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (int i = order.size() - 1; i >= 0; i--)
+            {
+                BasicBlock block = order.get(i);
+                BitSet out = new BitSet();
+                for (BasicBlock succ : block.getSuccList())
+                {
+                    BitSet in = (BitSet) liveIn.get(succ.getOrder()).clone();
+                    List<BasicBlock> preds = succ.getPredList();
+                    for (IrInstruction phi : succ.getInstructionList())
+                    {
+                        if (phi.getOp() != EnumIrOp.PHI)
+                        {
+                            break;
+                        }
+                        in.clear(phi.getId());
+                        for (int index = 0; index < preds.size(); index++)
+                        {
+                            IrInstruction incoming = phi.getOperand(index);
+                            if (preds.get(index) == block && isSlotUse(incoming))
+                            {
+                                out.set(incoming.getId());
+                            }
+                        }
+                    }
+                    out.or(in);
+                }
+                liveOut.set(i, out);
+                BitSet in = liveIn(block, out);
+                if (!in.equals(liveIn.get(i)))
+                {
+                    liveIn.set(i, in);
+                    changed = true;
+                }
+            }
+        }
+        return liveOut;
+    }
+
+    /**
+     * 倒着走一遍块, 得到入口活跃的值, phi 本身算在入口定义;
+     */
+    private BitSet liveIn(BasicBlock block, BitSet out)
+    {
+        BitSet live = (BitSet) out.clone();
+        List<IrInstruction> instructions = block.getInstructionList();
+        for (int i = instructions.size() - 1; i >= 0; i--)
+        {
+            IrInstruction instruction = instructions.get(i);
+            live.clear(instruction.getId());
+            if (instruction.getOp() == EnumIrOp.PHI)
+            {
+                continue;
+            }
+            for (IrInstruction operand : instruction.getOperandList())
+            {
+                if (isSlotUse(operand))
+                {
+                    live.set(operand.getId());
+                }
+            }
+        }
+        return live;
+    }
+
+    private Label labelOf(BasicBlock block)
+    {
+        if (labelOf[block.getId()] == null)
+        {
+            labelOf[block.getId()] = new Label();
+        }
+        return labelOf[block.getId()];
+    }
+
+    private void emit(IInstructor instruction)
+    {
+        instrList.add(instruction);
+    }
+
+    private void emitBlock(BasicBlock block, BasicBlock next)
+    {
+        for (IrInstruction instruction : block.getInstructionList())
+        {
+            switch (instruction.getOp())
+            {
+                case PHI:
+                {
+                    break;
+                }
+                case PUT_FIELD:
+                {
+                    emit(new ALoad(0));
+                    push(instruction.getOperand(0));
+                    emit(new PutField(fieldSpec(instruction), descriptor(instruction.getType())));
+                    break;
+                }
+                case WRITE:
+                {
+                    push(instruction.getOperand(0));
+                    emit(new WriteInstructor((byte) instruction.getValue(), instruction.getWriteType()));
+                    break;
+                }
+                case RETURN:
+                {
+                    push(instruction.getOperand(0));
+                    emit(method.getSource().getRetType() instanceof AbstractReferenceType
+                            ? EnumInstructor.A_RETURN
+                            : EnumInstructor.I_RETURN);
+                    break;
+                }
+                case JUMP:
+                {
+                    BasicBlock succ = block.getSuccList().get(0);
+                    emitPhiCopies(block, succ);
+                    if (succ != next)
+                    {
+                        emit(new Goto(labelOf(succ)));
+                    }
+                    break;
+                }
+                case BRANCH:
+                {
+                    emitBranch(instruction.getOperand(0),
+                            block.getSuccList().get(0), block.getSuccList().get(1), next);
+                    break;
+                }
+                default:
+                {
+                    int slot = slotOf[instruction.getId()];
+                    if (slot == NO_SLOT || isTransparent(instruction))
+                    {
+                        break;
+                    }
+                    if (!emitIncrement(instruction, slot))
+                    {
+                        compute(instruction);
+                        store(slot, instruction.getType());
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 同一槽位上加减 1, 用 iinc;
+     */
+    private boolean emitIncrement(IrInstruction value, int slot)
+    {
+        EnumIrOp op = value.getOp();
+        if (op != EnumIrOp.ADD && op != EnumIrOp.SUB)
+        {
+            return false;
+        }
+        IrInstruction left = value.getOperand(0);
+        IrInstruction right = value.getOperand(1);
+        if (op == EnumIrOp.ADD && left.isConstInt() && !right.isConstInt())
+        {
+            IrInstruction swap = left;
+            left = right;
+            right = swap;
+        }
+        if (slotOf[left.getId()] != slot || !right.isConstInt()
+                || Math.abs(right.getValue()) != 1)
+        {
+            return false;
+        }
+        int step = op == EnumIrOp.ADD ? right.getValue() : -right.getValue();
+        emit(new IInc(slot, step > 0 ? EnumIncDirection.INCREMENT : EnumIncDirection.DECREMENT));
+        return true;
+    }
+
+    /**
+     * 前驱末尾的并行拷贝, 先把来源全部压栈, 再倒序存到 phi 的槽位;
+     */
+    private void emitPhiCopies(BasicBlock pred, BasicBlock succ)
+    {
+        int index = succ.getPredList().indexOf(pred);
+        List<IrInstruction> targets = new ArrayList<>();
+        for (IrInstruction phi : succ.getInstructionList())
+        {
+            if (phi.getOp() != EnumIrOp.PHI)
+            {
+                break;
+            }
+            IrInstruction incoming = phi.getOperand(index);
+            int slot = slotOf[phi.getId()];
+            if (slot == NO_SLOT || slot == slotOf[incoming.getId()]
+                    || incoming.getOp() == EnumIrOp.UNDEF)
+            {
+                continue;
+            }
+            push(incoming);
+            targets.add(phi);
+        }
+        for (int i = targets.size() - 1; i >= 0; i--)
+        {
+            IrInstruction phi = targets.get(i);
+            store(slotOf[phi.getId()], phi.getType());
+        }
+    }
+
+    private void emitBranch(IrInstruction condition, BasicBlock whenTrue, BasicBlock whenFalse, BasicBlock next)
+    {
+        while (condition.getOp() == EnumIrOp.NOT && inlined[condition.getId()])
+        {
+            condition = condition.getOperand(0);
+            BasicBlock swap = whenTrue;
+            whenTrue = whenFalse;
+            whenFalse = swap;
+        }
+        EnumIrOp op = condition.getOp();
+        if (condition.isConstInt())
+        {
+            BasicBlock target = condition.getValue() != 0 ? whenTrue : whenFalse;
+            if (target != next)
+            {
+                emit(new Goto(labelOf(target)));
+            }
+            return;
+        }
+        if ((op == EnumIrOp.LT || op == EnumIrOp.GT) && inlined[condition.getId()])
+        {
+            push(condition.getOperand(0));
+            push(condition.getOperand(1));
+            if (op == EnumIrOp.GT)
+            {
+                emit(EnumInstructor.SWAP);
+            }
+            emit(new IfICmpLt(labelOf(whenTrue)));
+            if (whenFalse != next)
+            {
+                emit(new Goto(labelOf(whenFalse)));
+            }
+            return;
+        }
+        // 布尔值小于 1 就是假;
+        push(condition);
+        emit(new Ldc<>(1));
+        emit(new IfICmpLt(labelOf(whenFalse)));
+        if (whenTrue != next)
+        {
+            emit(new Goto(labelOf(whenTrue)));
+        }
+    }
+
+    /**
+     * 把一个值放到栈顶: 留在栈上的就地算, 常量重新生成, 其余从槽位读;
+     */
+    private void push(IrInstruction value)
+    {
+        if (inlined[value.getId()] || isRematerialized(value))
+        {
+            compute(value);
+            return;
+        }
+        load(slotOf[value.getId()], value.getType());
+    }
+
+    private void compute(IrInstruction value)
+    {
+        switch (value.getOp())
+        {
+            case CONST_INT:
+            {
+                emit(new Ldc<>(value.getValue()));
+                break;
+            }
+            case UNDEF:
+            {
+                emit(new Ldc<>(0));
+                break;
+            }
+            case CONST_STRING:
+            {
+                emit(new Ldc<>(String.format("\"%s\"", value.getLiteral())));
+                break;
+            }
+            case THIS:
+            {
+                emit(new ALoad(0));
+                break;
+            }
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case REM:
+            case AND:
+            case OR:
+            case XOR:
+            case SHL:
+            case SHR:
+            case USHR:
+            {
+                push(value.getOperand(0));
+                push(value.getOperand(1));
+                emit(arithmetic(value.getOp()));
+                break;
+            }
+            case LT:
+            case GT:
+            {
+                Label t = new Label();
+                Label r = new Label();
+                push(value.getOperand(0));
+                push(value.getOperand(1));
+                if (value.getOp() == EnumIrOp.GT)
+                {
+                    emit(EnumInstructor.SWAP);
+                }
+                emit(new IfICmpLt(t));
+                emit(new Ldc<>(0));
+                emit(new Goto(r));
+                emit(new LabelJ(t));
+                emit(new Ldc<>(1));
+                emit(new LabelJ(r));
+                break;
+            }
+            case NOT:
+            {
+                push(value.getOperand(0));
+                emit(new Ldc<>(1));
+                emit(EnumInstructor.I_XOR);
+                break;
+            }
+            case CALL:
+            {
+                value.getOperandList().forEach(this::push);
+                List<ITargetType> argTypeList = new ArrayList<>();
+                value.getCall().getArgTypeList().forEach(argType -> argTypeList.add(targetTypeOf(argType)));
+                if (isDirectCall(value))
+                {
+                    emit(new InvokeSpecial(
+                            value.getCall().getFuncName(),
+                            value.getCall().getType(),
+                            argTypeList,
+                            targetTypeOf(value.getCall().getRetType())));
+                    break;
+                }
+                emit(new InvokeVirtual(
+                        value.getCall().getFuncName(),
+                        value.getCall().getType(),
+                        argTypeList,
+                        targetTypeOf(value.getCall().getRetType())));
+                break;
+            }
+            case NEW:
+            {
+                emit(new New(value.getLiteral()));
+                break;
+            }
+            case GET_FIELD:
+            {
+                emit(new ALoad(0));
+                emit(new GetField(fieldSpec(value), descriptor(value.getType())));
+                break;
+            }
+            default:
+            {
+                throw new IllegalStateException(String.format("cannot emit %s", value));
+            }
+        }
+    }
+
+    private static EnumInstructor arithmetic(EnumIrOp op)
+    {
+        switch (op)
+        {
+            case ADD:
+                return EnumInstructor.I_ADD;
+            case SUB:
+                return EnumInstructor.I_SUB;
+            case MUL:
+                return EnumInstructor.I_MUL;
+            case DIV:
+                return EnumInstructor.I_DIV;
+            case REM:
+                return EnumInstructor.I_REM;
+            case AND:
+                return EnumInstructor.I_AND;
+            case OR:
+                return EnumInstructor.I_OR;
+            case XOR:
+                return EnumInstructor.I_XOR;
+            case SHL:
+                return EnumInstructor.I_SHL;
+            case SHR:
+                return EnumInstructor.I_SHR;
+            default:
+                return EnumInstructor.I_USHR;
+        }
+    }
+
+    /**
+     * 接收者是 this 而且只有一个目标的调用;
+     */
+    private boolean isDirectCall(IrInstruction call)
+    {
+        return devirtualizer != null
+                && call.getOperand(0).getOp() == EnumIrOp.THIS
+                && devirtualizer.isDirectCall(method.getClassName(),
+                        call.getCall().getType(), call.getCall().getFuncSymbol());
+    }
+
+    private String fieldSpec(IrInstruction field)
+    {
+        return String.format("%s/%s", method.getClassName(), field.getLiteral());
+    }
+
+    /**
+     * 和 TranslatorVisitor 一样, 类类型以外都按 int 写;
+     */
+    private static String descriptor(ICvaType type)
+    {
+        return type instanceof CvaClassType
+                ? String.format("L%s;", ((CvaClassType) type).getName())
+                : "I";
+    }
+
+    private static boolean isIntLike(ICvaType type)
+    {
+        return type == EnumCvaType.CVA_INT || type == EnumCvaType.CVA_BOOLEAN;
+    }
+
+    private void load(int slot, ICvaType type)
+    {
+        emit(isIntLike(type) ? new ILoad(slot) : new ALoad(slot));
+    }
+
+    private void store(int slot, ICvaType type)
+    {
+        emit(isIntLike(type) ? new IStore(slot) : new AStore(slot));
+    }
+
+    static ITargetType targetTypeOf(ICvaType type)
+    {
+        if (type instanceof CvaClassType)
+        {
+            return new TargetClassType(((CvaClassType) type).getName());
+        }
+        if (type instanceof CvaStringType)
+        {
+            return new TargetStringType();
+        }
+        return EnumTargetType.TARGET_INT;
+    }
+}
@@ -0,0 +1,286 @@
+package cn.misection.cvac.ir;
+
+import cn.misection.cvac.ast.expr.unary.CvaCallExpr;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IrInstruction
+ * @Description 一条中间指令, 也就是它产生的值;
+ * 操作数和使用者两边都记着, 改操作数要走 setOperand, 才能保持 def-use 链;
+ * @CreateTime 2026年10月18日 00:40:00
+ */
+public final class IrInstruction
+{
+    private final EnumIrOp op;
+
+    /**
+     * 值的类型, 不产生值的指令为 null;
+     */
+    private final ICvaType type;
+
+    private final List<IrInstruction> operandList = new ArrayList<>(2);
+
+    /**
+     * 每用一次记一次, 同一个使用者用两次就出现两次;
+     */
+    private final List<IrInstruction> userList = new ArrayList<>(2);
+
+    private BasicBlock block;
+
+    private final int id;
+
+    /**
+     * 常量值, 形参序号, 变量号, 字段符号或输出模式;
+     */
+    private int value;
+
+    /**
+     * 字符串常量, 类名或字段名;
+     */
+    private String literal;
+
+    /**
+     * CALL 的方法信息;
+     */
+    private CvaCallExpr call;
+
+    /**
+     * WRITE 的输出类型;
+     */
+    private EnumCvaType writeType;
+
+    /**
+     * 被 replaceAllUsesWith 换掉以后指向替代值, 外面记着旧值的可以顺着找;
+     */
+    private IrInstruction forward;
+
+    IrInstruction(int id, EnumIrOp op, ICvaType type)
+    {
+        this.id = id;
+        this.op = op;
+        this.type = type;
+    }
+
+    public EnumIrOp getOp()
+    {
+        return op;
+    }
+
+    public ICvaType getType()
+    {
+        return type;
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public BasicBlock getBlock()
+    {
+        return block;
+    }
+
+    void setBlock(BasicBlock block)
+    {
+        this.block = block;
+    }
+
+    public int operandCount()
+    {
+        return operandList.size();
+    }
+
+    public IrInstruction getOperand(int index)
+    {
+        return operandList.get(index);
+    }
+
+    public List<IrInstruction> getOperandList()
+    {
+        return operandList;
+    }
+
+    public void addOperand(IrInstruction operand)
+    {
+        operandList.add(operand);
+        operand.userList.add(this);
+    }
+
+    public void setOperand(int index, IrInstruction operand)
+    {
+        IrInstruction old = operandList.set(index, operand);
+        old.userList.remove(this);
+        operand.userList.add(this);
+    }
+
+    public void removeOperand(int index)
+    {
+        operandList.remove(index).userList.remove(this);
+    }
+
+    /**
+     * 删除前断开和操作数的联系;
+     */
+    public void dropOperands()
+    {
+        operandList.forEach(operand -> operand.userList.remove(this));
+        operandList.clear();
+    }
+
+    public List<IrInstruction> getUserList()
+    {
+        return userList;
+    }
+
+    public boolean hasUsers()
+    {
+        return !userList.isEmpty();
+    }
+
+    /**
+     * 把所有对本值的使用换成 replacement;
+     * @param replacement 新值;
+     */
+    public void replaceAllUsesWith(IrInstruction replacement)
+    {
+        if (replacement == this)
+        {
+            return;
+        }
+        List<IrInstruction> users = new ArrayList<>(userList);
+        for (IrInstruction user : users)
+        {
+            List<IrInstruction> operands = user.operandList;
+            for (int i = 0; i < operands.size(); i++)
+            {
+                if (operands.get(i) == this)
+                {
+                    operands.set(i, replacement);
+                    replacement.userList.add(user);
+                }
+            }
+        }
+        userList.clear();
+        forward = replacement;
+    }
+
+    /**
+     * @return 顺着替换找到的现在的值, 没被换过就是自己;
+     */
+    public IrInstruction resolve()
+    {
+        IrInstruction current = this;
+        while (current.forward != null)
+        {
+            current = current.forward;
+        }
+        return current;
+    }
+
+    public boolean isConstInt()
+    {
+        return op == EnumIrOp.CONST_INT;
+    }
+
+    public int getValue()
+    {
+        return value;
+    }
+
+    void setValue(int value)
+    {
+        this.value = value;
+    }
+
+    public String getLiteral()
+    {
+        return literal;
+    }
+
+    void setLiteral(String literal)
+    {
+        this.literal = literal;
+    }
+
+    public CvaCallExpr getCall()
+    {
+        return call;
+    }
+
+    void setCall(CvaCallExpr call)
+    {
+        this.call = call;
+    }
+
+    public EnumCvaType getWriteType()
+    {
+        return writeType;
+    }
+
+    void setWriteType(EnumCvaType writeType)
+    {
+        this.writeType = writeType;
+    }
+
+    public String name()
+    {
+        return String.format("%%%d", id);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        if (!op.isVoid())
+        {
+            builder.append(name()).append(" = ");
+        }
+        builder.append(op.name().toLowerCase());
+        switch (op)
+        {
+            case CONST_INT:
+            case PARAM:
+            case LOAD_VAR:
+            case STORE_VAR:
+            case WRITE:
+            {
+                builder.append(' ').append(value);
+                break;
+            }
+            case CONST_STRING:
+            case NEW:
+            case GET_FIELD:
+            case PUT_FIELD:
+            {
+                builder.append(' ').append(literal);
+                break;
+            }
+            case CALL:
+            {
+                builder.append(' ').append(call.getFuncName());
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+        for (int i = 0; i < operandList.size(); i++)
+        {
+            builder.append(i == 0 ? " " : ", ");
+            if (op == EnumIrOp.PHI)
+            {
+                builder.append('[').append(block.getPredList().get(i).name()).append("] ");
+            }
+            builder.append(operandList.get(i).name());
+        }
+        return builder.toString();
+    }
+}
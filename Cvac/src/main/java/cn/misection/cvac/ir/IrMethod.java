@@ -0,0 +1,224 @@
+package cn.misection.cvac.ir;
+
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IrMethod
+ * @Description 一个方法的控制流图, 第一个块是入口;
+ * 变量是形参, 局部变量和降级时引入的临时变量, 按变量号稠密编号, 建 SSA 前用 LOAD_VAR/STORE_VAR 读写;
+ * @CreateTime 2026年10月18日 00:50:00
+ */
+public final class IrMethod
+{
+    private final CvaMethod source;
+
+    private final String className;
+
+    private final List<BasicBlock> blockList = new ArrayList<>();
+
+    private final List<ICvaType> varTypeList = new ArrayList<>();
+
+    private final List<String> varNameList = new ArrayList<>();
+
+    private int formalCount;
+
+    private int nextBlockId;
+
+    private int nextValueId;
+
+    private boolean inSsa;
+
+    public IrMethod(CvaMethod source, String className)
+    {
+        this.source = source;
+        this.className = className;
+    }
+
+    public CvaMethod getSource()
+    {
+        return source;
+    }
+
+    public String getClassName()
+    {
+        return className;
+    }
+
+    public List<BasicBlock> getBlockList()
+    {
+        return blockList;
+    }
+
+    public BasicBlock getEntry()
+    {
+        return blockList.get(0);
+    }
+
+    public BasicBlock newBlock()
+    {
+        BasicBlock block = new BasicBlock(nextBlockId++);
+        blockList.add(block);
+        return block;
+    }
+
+    public IrInstruction newInstruction(EnumIrOp op, ICvaType type)
+    {
+        return new IrInstruction(nextValueId++, op, type);
+    }
+
+    public IrInstruction newConstInt(int value, ICvaType type)
+    {
+        IrInstruction constant = newInstruction(EnumIrOp.CONST_INT, type);
+        constant.setValue(value);
+        return constant;
+    }
+
+    public IrInstruction newConstInt(int value)
+    {
+        return newConstInt(value, EnumCvaType.CVA_INT);
+    }
+
+    /**
+     * @return 指令编号的上界, 可以用来开数组;
+     */
+    public int valueCount()
+    {
+        return nextValueId;
+    }
+
+    public int blockIdCount()
+    {
+        return nextBlockId;
+    }
+
+    /**
+     * @param name 变量名, 临时变量带 $;
+     * @param type 类型;
+     * @return 变量号;
+     */
+    int addVar(String name, ICvaType type)
+    {
+        varNameList.add(name);
+        varTypeList.add(type);
+        return varTypeList.size() - 1;
+    }
+
+    public int varCount()
+    {
+        return varTypeList.size();
+    }
+
+    public ICvaType varType(int var)
+    {
+        return varTypeList.get(var);
+    }
+
+    public String varName(int var)
+    {
+        return varNameList.get(var);
+    }
+
+    /**
+     * @return 形参个数, 形参是变量 0 到 formalCount - 1;
+     */
+    public int getFormalCount()
+    {
+        return formalCount;
+    }
+
+    void setFormalCount(int formalCount)
+    {
+        this.formalCount = formalCount;
+    }
+
+    public boolean isInSsa()
+    {
+        return inSsa;
+    }
+
+    void setInSsa(boolean inSsa)
+    {
+        this.inSsa = inSsa;
+    }
+
+    /**
+     * 在 pred 到 succ 的边上插一个空块, succ 的 phi 操作数顺序不变;
+     * @return 新块;
+     */
+    public BasicBlock splitEdge(BasicBlock pred, BasicBlock succ)
+    {
+        BasicBlock middle = newBlock();
+        pred.getSuccList().set(pred.getSuccList().indexOf(succ), middle);
+        succ.getPredList().set(succ.getPredList().indexOf(pred), middle);
+        middle.getPredList().add(pred);
+        middle.getSuccList().add(succ);
+        middle.append(newInstruction(EnumIrOp.JUMP, null));
+        return middle;
+    }
+
+    /**
+     * 删掉从入口走不到的块, 顺带删掉它们在可达块 phi 里的操作数;
+     * @return 删了没有;
+     */
+    public boolean removeUnreachableBlocks()
+    {
+        boolean[] reached = new boolean[nextBlockId];
+        List<BasicBlock> work = new ArrayList<>();
+        work.add(getEntry());
+        reached[getEntry().getId()] = true;
+        while (!work.isEmpty())
+        {
+            BasicBlock block = work.remove(work.size() - 1);
+            for (BasicBlock succ : block.getSuccList())
+            {
+                if (!reached[succ.getId()])
+                {
+                    reached[succ.getId()] = true;
+                    work.add(succ);
+                }
+            }
+        }
+        List<BasicBlock> dead = new ArrayList<>();
+        for (BasicBlock block : blockList)
+        {
+            if (!reached[block.getId()])
+            {
+                dead.add(block);
+            }
+        }
+        if (dead.isEmpty())
+        {
+            return false;
+        }
+        for (BasicBlock block : dead)
+        {
+            for (BasicBlock succ : new ArrayList<>(block.getSuccList()))
+            {
+                block.removeSucc(succ);
+            }
+        }
+        for (BasicBlock block : dead)
+        {
+            // 死块里的值只会被死块用到, 断开就行;
+            block.getInstructionList().forEach(IrInstruction::dropOperands);
+            block.getInstructionList().clear();
+        }
+        blockList.removeAll(dead);
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder(String.format("method %s.%s%n", className, source.name()));
+        blockList.forEach(builder::append);
+        return builder.toString();
+    }
+}
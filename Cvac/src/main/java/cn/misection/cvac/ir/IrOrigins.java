@@ -0,0 +1,54 @@
+package cn.misection.cvac.ir;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IrOrigins
+ * @Description 降级时记下语法树结点对应的值和块, 在 IR 上分析完可以回头改语法树;
+ * 按结点身份查, 值被替换过的顺着 resolve 找;
+ * @CreateTime 2026年10月18日 02:20:00
+ */
+public final class IrOrigins
+{
+    private final Map<AbstractExpression, IrInstruction> valueOf = new IdentityHashMap<>();
+
+    /**
+     * if 的 then 和 else 入口, while 的循环体和出口;
+     */
+    private final Map<AbstractStatement, BasicBlock[]> armsOf = new IdentityHashMap<>();
+
+    void recordValue(AbstractExpression expr, IrInstruction value)
+    {
+        valueOf.put(expr, value);
+    }
+
+    void recordArms(AbstractStatement stm, BasicBlock whenTrue, BasicBlock whenFalse)
+    {
+        armsOf.put(stm, new BasicBlock[] {whenTrue, whenFalse});
+    }
+
+    /**
+     * @param expr 按值降级过的表达式, 短路降成跳转的条件没有值;
+     * @return 它现在的值, 没记过是 null;
+     */
+    public IrInstruction valueOf(AbstractExpression expr)
+    {
+        IrInstruction value = valueOf.get(expr);
+        return value == null ? null : value.resolve();
+    }
+
+    /**
+     * @param stm if 或 while;
+     * @return 条件为真和为假时的入口块, 没记过是 null;
+     */
+    public BasicBlock[] armsOf(AbstractStatement stm)
+    {
+        return armsOf.get(stm);
+    }
+}
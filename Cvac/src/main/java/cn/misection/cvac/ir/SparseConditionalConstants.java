@@ -0,0 +1,346 @@
+package cn.misection.cvac.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName SparseConditionalConstants
+ * @Description Wegman-Zadeck 的稀疏条件常量传播, 在 SSA 上同时求常量和可执行的边;
+ * 值的格是 未定 > 常量 > 不是常量, 只往下走, 所以每个值最多变两次;
+ * 只从可执行的边进 phi, 条件是常量的分支只走一边, 走不到的分支里的定义不会拉低汇合处的值;
+ * @CreateTime 2026年10月18日 02:30:00
+ */
+public final class SparseConditionalConstants
+{
+    private static final byte TOP = 0;
+
+    private static final byte CONSTANT = 1;
+
+    private static final byte BOTTOM = 2;
+
+    private final IrMethod method;
+
+    private final byte[] state;
+
+    private final int[] constant;
+
+    private final boolean[] reachable;
+
+    /**
+     * 按块 id 和后继下标记边是否可执行;
+     */
+    private final boolean[][] executable;
+
+    private final List<IrInstruction> valueWork = new ArrayList<>();
+
+    private final List<BasicBlock> edgeWorkFrom = new ArrayList<>();
+
+    private final List<Integer> edgeWorkIndex = new ArrayList<>();
+
+    private SparseConditionalConstants(IrMethod method)
+    {
+        this.method = method;
+        this.state = new byte[method.valueCount()];
+        this.constant = new int[method.valueCount()];
+        this.reachable = new boolean[method.blockIdCount()];
+        this.executable = new boolean[method.blockIdCount()][];
+        for (BasicBlock block : method.getBlockList())
+        {
+            executable[block.getId()] = new boolean[block.getSuccList().size()];
+        }
+    }
+
+    /**
+     * @param method SSA 形式的方法;
+     * @return 分析结果;
+     */
+    public static SparseConditionalConstants analyze(IrMethod method)
+    {
+        if (!method.isInSsa())
+        {
+            throw new IllegalStateException("sccp needs ssa form");
+        }
+        SparseConditionalConstants analysis = new SparseConditionalConstants(method);
+        analysis.run();
+        return analysis;
+    }
+
+    private void run()
+    {
+        markReachable(method.getEntry());
+        while (!valueWork.isEmpty() || !edgeWorkFrom.isEmpty())
+        {
+            while (!edgeWorkFrom.isEmpty())
+            {
+                int last = edgeWorkFrom.size() - 1;
+                BasicBlock from = edgeWorkFrom.remove(last);
+                BasicBlock to = from.getSuccList().get(edgeWorkIndex.remove(last));
+                if (!reachable[to.getId()])
+                {
+                    markReachable(to);
+                    continue;
+                }
+                // 块已经走过, 新边只影响 phi;
+                for (IrInstruction phi : to.getInstructionList())
+                {
+                    if (phi.getOp() != EnumIrOp.PHI)
+                    {
+                        break;
+                    }
+                    visit(phi);
+                }
+            }
+            while (!valueWork.isEmpty())
+            {
+                IrInstruction instruction = valueWork.remove(valueWork.size() - 1);
+                if (instruction.getBlock() != null && reachable[instruction.getBlock().getId()])
+                {
+                    visit(instruction);
+                }
+            }
+        }
+    }
+
+    private void markReachable(BasicBlock block)
+    {
+        reachable[block.getId()] = true;
+        block.getInstructionList().forEach(this::visit);
+    }
+
+    private void markEdge(BasicBlock from, int index)
+    {
+        if (!executable[from.getId()][index])
+        {
+            executable[from.getId()][index] = true;
+            edgeWorkFrom.add(from);
+            edgeWorkIndex.add(index);
+        }
+    }
+
+    private void visit(IrInstruction instruction)
+    {
+        switch (instruction.getOp())
+        {
+            case JUMP:
+            {
+                markEdge(instruction.getBlock(), 0);
+                return;
+            }
+            case BRANCH:
+            {
+                IrInstruction condition = instruction.getOperand(0);
+                byte conditionState = state[condition.getId()];
+                if (conditionState == BOTTOM)
+                {
+                    markEdge(instruction.getBlock(), 0);
+                    markEdge(instruction.getBlock(), 1);
+                }
+                else if (conditionState == CONSTANT)
+                {
+                    markEdge(instruction.getBlock(), constant[condition.getId()] != 0 ? 0 : 1);
+                }
+                return;
+            }
+            default:
+            {
+                break;
+            }
+        }
+        if (instruction.getOp().isVoid())
+        {
+            return;
+        }
+        int id = instruction.getId();
+        byte oldState = state[id];
+        int oldConstant = constant[id];
+        evaluate(instruction);
+        if (state[id] != oldState || (state[id] == CONSTANT && constant[id] != oldConstant))
+        {
+            valueWork.addAll(instruction.getUserList());
+        }
+    }
+
+    private void setConstant(IrInstruction value, int result)
+    {
+        state[value.getId()] = CONSTANT;
+        constant[value.getId()] = result;
+    }
+
+    private void setBottom(IrInstruction value)
+    {
+        state[value.getId()] = BOTTOM;
+    }
+
+    private void evaluate(IrInstruction value)
+    {
+        switch (value.getOp())
+        {
+            case CONST_INT:
+            {
+                setConstant(value, value.getValue());
+                return;
+            }
+            case UNDEF:
+            {
+                // 没赋过值就读是未定义行为, 按最乐观的算;
+                return;
+            }
+            case PHI:
+            {
+                evaluatePhi(value);
+                return;
+            }
+            case NOT:
+            {
+                IrInstruction operand = value.getOperand(0);
+                if (state[operand.getId()] == CONSTANT)
+                {
+                    setConstant(value, constant[operand.getId()] == 0 ? 1 : 0);
+                }
+                else if (state[operand.getId()] == BOTTOM)
+                {
+                    setBottom(value);
+                }
+                return;
+            }
+            default:
+            {
+                break;
+            }
+        }
+        if (!value.getOp().isBinary())
+        {
+            // 字符串, this, 形参, 调用, new, 字段读;
+            setBottom(value);
+            return;
+        }
+        IrInstruction left = value.getOperand(0);
+        IrInstruction right = value.getOperand(1);
+        if (state[left.getId()] == BOTTOM || state[right.getId()] == BOTTOM)
+        {
+            setBottom(value);
+            return;
+        }
+        if (state[left.getId()] == TOP || state[right.getId()] == TOP)
+        {
+            return;
+        }
+        int l = constant[left.getId()];
+        int r = constant[right.getId()];
+        if ((value.getOp() == EnumIrOp.DIV || value.getOp() == EnumIrOp.REM) && r == 0)
+        {
+            // 除零留到运行时抛;
+            setBottom(value);
+            return;
+        }
+        setConstant(value, fold(value.getOp(), l, r));
+    }
+
+    private void evaluatePhi(IrInstruction phi)
+    {
+        BasicBlock block = phi.getBlock();
+        List<BasicBlock> preds = block.getPredList();
+        boolean seen = false;
+        int value = 0;
+        for (int k = 0; k < preds.size(); k++)
+        {
+            if (!isExecutable(preds.get(k), block))
+            {
+                continue;
+            }
+            IrInstruction incoming = phi.getOperand(k);
+            byte incomingState = state[incoming.getId()];
+            if (incomingState == TOP)
+            {
+                continue;
+            }
+            if (incomingState == BOTTOM
+                    || (seen && constant[incoming.getId()] != value))
+            {
+                setBottom(phi);
+                return;
+            }
+            seen = true;
+            value = constant[incoming.getId()];
+        }
+        if (seen)
+        {
+            setConstant(phi, value);
+        }
+    }
+
+    /**
+     * 和 ConstantFolder 的算法一致, 比较结果是 0/1;
+     */
+    static int fold(EnumIrOp op, int l, int r)
+    {
+        switch (op)
+        {
+            case ADD:
+                return l + r;
+            case SUB:
+                return l - r;
+            case MUL:
+                return l * r;
+            case DIV:
+                return l / r;
+            case REM:
+                return l % r;
+            case AND:
+                return l & r;
+            case OR:
+                return l | r;
+            case XOR:
+                return l ^ r;
+            case SHL:
+                return l << r;
+            case SHR:
+                return l >> r;
+            case USHR:
+                return l >>> r;
+            case LT:
+                return l < r ? 1 : 0;
+            case GT:
+                return l > r ? 1 : 0;
+            default:
+                throw new IllegalArgumentException(op.name());
+        }
+    }
+
+    public boolean isReachable(BasicBlock block)
+    {
+        return reachable[block.getId()];
+    }
+
+    /**
+     * @return from 到 to 的某条边可执行;
+     */
+    public boolean isExecutable(BasicBlock from, BasicBlock to)
+    {
+        boolean[] edges = executable[from.getId()];
+        List<BasicBlock> succs = from.getSuccList();
+        for (int index = 0; index < succs.size(); index++)
+        {
+            if (succs.get(index) == to && edges[index])
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 在所有可执行路径上都是同一个常量;
+     */
+    public boolean isConstant(IrInstruction value)
+    {
+        return value.getId() < state.length && state[value.getId()] == CONSTANT;
+    }
+
+    public int constantOf(IrInstruction value)
+    {
+        return constant[value.getId()];
+    }
+}
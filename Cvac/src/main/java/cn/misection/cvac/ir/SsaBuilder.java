@@ -0,0 +1,385 @@
+package cn.misection.cvac.ir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName SsaBuilder
+ * @Description 把 LOAD_VAR/STORE_VAR 换成 SSA 值, Cytron 等人的做法;
+ * 先在定义块的迭代支配边界放 phi, 再沿支配树改名, 最后删掉没人用和平凡的 phi;
+ * @CreateTime 2026年10月18日 01:20:00
+ */
+public final class SsaBuilder
+{
+    private final IrMethod method;
+
+    /**
+     * 每个变量的当前值, 沿支配树进出时压栈弹栈;
+     */
+    private final List<List<IrInstruction>> stackOf;
+
+    /**
+     * 按 phi 的编号记它的变量号, 不是本类放的 phi 为 -1;
+     */
+    private int[] varOfPhi;
+
+    /**
+     * phi 的操作数先记在这里, 改名完了再按前驱顺序连上;
+     */
+    private IrInstruction[][] incomingOf;
+
+    private SsaBuilder(IrMethod method)
+    {
+        this.method = method;
+        this.stackOf = new ArrayList<>(method.varCount());
+        for (int var = 0; var < method.varCount(); var++)
+        {
+            stackOf.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * @param method IrBuilder 刚降出来的方法;
+     */
+    public static void build(IrMethod method)
+    {
+        if (method.isInSsa())
+        {
+            return;
+        }
+        SsaBuilder builder = new SsaBuilder(method);
+        Dominators.compute(method);
+        builder.placePhis();
+        builder.rename();
+        builder.connectPhis();
+        removeDeadPhis(method);
+        method.setInSsa(true);
+    }
+
+    private void placePhis()
+    {
+        List<List<BasicBlock>> frontiers = Dominators.frontiers(method);
+        List<List<BasicBlock>> defBlocksOf = new ArrayList<>(method.varCount());
+        for (int var = 0; var < method.varCount(); var++)
+        {
+            defBlocksOf.add(new ArrayList<>());
+        }
+        for (BasicBlock block : method.getBlockList())
+        {
+            for (IrInstruction instruction : block.getInstructionList())
+            {
+                if (instruction.getOp() == EnumIrOp.STORE_VAR)
+                {
+                    List<BasicBlock> defBlocks = defBlocksOf.get(instruction.getValue());
+                    if (defBlocks.isEmpty() || defBlocks.get(defBlocks.size() - 1) != block)
+                    {
+                        defBlocks.add(block);
+                    }
+                }
+            }
+        }
+        // 一个块对某变量放过 phi 就记下变量号, 免得每个变量清一遍数组;
+        int[] hasPhiFor = new int[method.blockIdCount()];
+        int[] queuedFor = new int[method.blockIdCount()];
+        Arrays.fill(hasPhiFor, -1);
+        Arrays.fill(queuedFor, -1);
+        List<IrInstruction> phis = new ArrayList<>();
+        for (int var = 0; var < method.varCount(); var++)
+        {
+            List<BasicBlock> work = new ArrayList<>(defBlocksOf.get(var));
+            for (BasicBlock block : work)
+            {
+                queuedFor[block.getId()] = var;
+            }
+            while (!work.isEmpty())
+            {
+                BasicBlock block = work.remove(work.size() - 1);
+                for (BasicBlock frontier : frontiers.get(block.getId()))
+                {
+                    if (hasPhiFor[frontier.getId()] == var)
+                    {
+                        continue;
+                    }
+                    hasPhiFor[frontier.getId()] = var;
+                    IrInstruction phi = method.newInstruction(EnumIrOp.PHI, method.varType(var));
+                    phi.setValue(var);
+                    frontier.insertPhi(phi);
+                    phis.add(phi);
+                    if (queuedFor[frontier.getId()] != var)
+                    {
+                        queuedFor[frontier.getId()] = var;
+                        work.add(frontier);
+                    }
+                }
+            }
+        }
+        varOfPhi = new int[method.valueCount()];
+        incomingOf = new IrInstruction[method.valueCount()][];
+        Arrays.fill(varOfPhi, -1);
+        for (IrInstruction phi : phis)
+        {
+            varOfPhi[phi.getId()] = phi.getValue();
+            incomingOf[phi.getId()] = new IrInstruction[phi.getBlock().getPredList().size()];
+        }
+    }
+
+    private IrInstruction current(int var)
+    {
+        List<IrInstruction> stack = stackOf.get(var);
+        if (stack.isEmpty())
+        {
+            // 只有某条路径上才赋值的临时变量会走到这里;
+            IrInstruction undef = method.newInstruction(EnumIrOp.UNDEF, method.varType(var));
+            method.getEntry().insertAfterPhis(undef);
+            stack.add(undef);
+        }
+        return stack.get(stack.size() - 1);
+    }
+
+    private boolean isOwnPhi(IrInstruction instruction)
+    {
+        return instruction.getOp() == EnumIrOp.PHI
+                && instruction.getId() < varOfPhi.length
+                && varOfPhi[instruction.getId()] >= 0;
+    }
+
+    /**
+     * 沿支配树先序走, 显式栈记着每个块压了哪些变量;
+     */
+    private void rename()
+    {
+        List<BasicBlock> blockStack = new ArrayList<>();
+        List<List<Integer>> pushedStack = new ArrayList<>();
+        List<Integer> childStack = new ArrayList<>();
+        blockStack.add(method.getEntry());
+        pushedStack.add(renameBlock(method.getEntry()));
+        childStack.add(0);
+        while (!blockStack.isEmpty())
+        {
+            int top = blockStack.size() - 1;
+            BasicBlock block = blockStack.get(top);
+            int next = childStack.get(top);
+            if (next < block.getDomChildList().size())
+            {
+                childStack.set(top, next + 1);
+                BasicBlock child = block.getDomChildList().get(next);
+                blockStack.add(child);
+                pushedStack.add(renameBlock(child));
+                childStack.add(0);
+                continue;
+            }
+            for (int var : pushedStack.get(top))
+            {
+                List<IrInstruction> stack = stackOf.get(var);
+                stack.remove(stack.size() - 1);
+            }
+            blockStack.remove(top);
+            pushedStack.remove(top);
+            childStack.remove(top);
+        }
+    }
+
+    /**
+     * @return 本块压过栈的变量, 出块时照着弹;
+     */
+    private List<Integer> renameBlock(BasicBlock block)
+    {
+        List<Integer> pushed = new ArrayList<>();
+        List<IrInstruction> instructions = block.getInstructionList();
+        for (int i = 0; i < instructions.size(); )
+        {
+            IrInstruction instruction = instructions.get(i);
+            switch (instruction.getOp())
+            {
+                case PHI:
+                {
+                    if (isOwnPhi(instruction))
+                    {
+                        stackOf.get(instruction.getValue()).add(instruction);
+                        pushed.add(instruction.getValue());
+                    }
+                    i++;
+                    break;
+                }
+                case LOAD_VAR:
+                {
+                    instruction.replaceAllUsesWith(current(instruction.getValue()));
+                    block.remove(instruction);
+                    break;
+                }
+                case STORE_VAR:
+                {
+                    stackOf.get(instruction.getValue()).add(instruction.getOperand(0));
+                    pushed.add(instruction.getValue());
+                    block.remove(instruction);
+                    break;
+                }
+                default:
+                {
+                    i++;
+                    break;
+                }
+            }
+        }
+        for (BasicBlock succ : block.getSuccList())
+        {
+            List<BasicBlock> preds = succ.getPredList();
+            for (IrInstruction phi : succ.getInstructionList())
+            {
+                if (phi.getOp() != EnumIrOp.PHI)
+                {
+                    break;
+                }
+                if (!isOwnPhi(phi))
+                {
+                    continue;
+                }
+                for (int index = 0; index < preds.size(); index++)
+                {
+                    if (preds.get(index) == block)
+                    {
+                        incomingOf[phi.getId()][index] = current(phi.getValue());
+                    }
+                }
+            }
+        }
+        return pushed;
+    }
+
+    private void connectPhis()
+    {
+        for (BasicBlock block : method.getBlockList())
+        {
+            for (IrInstruction phi : block.getInstructionList())
+            {
+                if (phi.getOp() != EnumIrOp.PHI)
+                {
+                    break;
+                }
+                if (isOwnPhi(phi))
+                {
+                    for (IrInstruction incoming : incomingOf[phi.getId()])
+                    {
+                        phi.addOperand(incoming);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 删掉只被 phi 自己用的 phi, 再把操作数全相同的 phi 换成那个值;
+     * 后面的优化改了图以后也可以再调;
+     * @param method SSA 形式的方法;
+     */
+    public static void removeDeadPhis(IrMethod method)
+    {
+        boolean[] live = new boolean[method.valueCount()];
+        List<IrInstruction> work = new ArrayList<>();
+        for (BasicBlock block : method.getBlockList())
+        {
+            for (IrInstruction instruction : block.getInstructionList())
+            {
+                if (instruction.getOp() == EnumIrOp.PHI)
+                {
+                    continue;
+                }
+                for (IrInstruction operand : instruction.getOperandList())
+                {
+                    if (operand.getOp() == EnumIrOp.PHI && !live[operand.getId()])
+                    {
+                        live[operand.getId()] = true;
+                        work.add(operand);
+                    }
+                }
+            }
+        }
+        while (!work.isEmpty())
+        {
+            IrInstruction phi = work.remove(work.size() - 1);
+            for (IrInstruction operand : phi.getOperandList())
+            {
+                if (operand.getOp() == EnumIrOp.PHI && !live[operand.getId()])
+                {
+                    live[operand.getId()] = true;
+                    work.add(operand);
+                }
+            }
+        }
+        List<IrInstruction> dead = new ArrayList<>();
+        for (BasicBlock block : method.getBlockList())
+        {
+            for (IrInstruction instruction : block.getInstructionList())
+            {
+                if (instruction.getOp() == EnumIrOp.PHI && !live[instruction.getId()])
+                {
+                    dead.add(instruction);
+                }
+            }
+        }
+        // 死 phi 之间可能互相引用, 先全部断开再删;
+        dead.forEach(IrInstruction::dropOperands);
+        dead.forEach(phi -> phi.getBlock().remove(phi));
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (BasicBlock block : method.getBlockList())
+            {
+                for (IrInstruction phi : new ArrayList<>(block.getInstructionList()))
+                {
+                    if (phi.getOp() != EnumIrOp.PHI)
+                    {
+                        break;
+                    }
+                    IrInstruction same = trivialValue(phi);
+                    if (same != null)
+                    {
+                        phi.replaceAllUsesWith(same);
+                        block.remove(phi);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        removeUnusedUndefs(method);
+    }
+
+    /**
+     * @return 除了自己以外只有一个值时就是那个值, 否则 null;
+     */
+    private static IrInstruction trivialValue(IrInstruction phi)
+    {
+        IrInstruction same = null;
+        for (IrInstruction operand : phi.getOperandList())
+        {
+            if (operand == phi || operand == same)
+            {
+                continue;
+            }
+            if (same != null)
+            {
+                return null;
+            }
+            same = operand;
+        }
+        return same;
+    }
+
+    private static void removeUnusedUndefs(IrMethod method)
+    {
+        List<IrInstruction> instructions = method.getEntry().getInstructionList();
+        for (int i = instructions.size() - 1; i >= 0; i--)
+        {
+            IrInstruction instruction = instructions.get(i);
+            if ((instruction.getOp() == EnumIrOp.UNDEF || instruction.getOp() == EnumIrOp.PARAM)
+                    && !instruction.hasUsers())
+            {
+                method.getEntry().remove(instruction);
+            }
+        }
+    }
+}
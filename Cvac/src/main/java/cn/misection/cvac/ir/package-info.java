@@ -0,0 +1,9 @@
+/**
+ * @ClassName package-info
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @Description 语法树和后端指令之间的中间表示, 每个方法一张基本块的控制流图, 建成 SSA 形式;
+ * IrBuilder 从语法树降下来, SsaBuilder 用支配边界放 phi, IrEmitter 拆掉 phi 生成 TargetMethod;
+ * @CreateTime 2026年10月18日 00:30:00
+ */
+package cn.misection.cvac.ir;
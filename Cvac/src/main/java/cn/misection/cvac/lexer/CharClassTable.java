@@ -0,0 +1,140 @@
+package cn.misection.cvac.lexer;
+
+import cn.misection.cvac.constant.LexerCommon;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName CharClassTable
+ * @Description 预先算好的 ASCII 字符类表, 非 ASCII 走 Unicode 兜底;
+ * 分类与旧 Lexer.isSpecialCharacter 一致;
+ * @CreateTime 2026年10月17日 11:45:00
+ */
+final class CharClassTable
+{
+    /**
+     * 可以出现在标识符和数字中间的其他字符, 如 _ $;
+     */
+    static final byte WORD_PART = 0;
+
+    static final byte LETTER = 1;
+
+    static final byte DIGIT = 2;
+
+    static final byte WHITE_SPACE = 3;
+
+    static final byte NEW_LINE = 4;
+
+    /**
+     * ; : ? , . { } [ ] ( ) ! 等单字符 token;
+     */
+    static final byte SINGLE = 5;
+
+    /**
+     * 运算符开头, 交给 OperatorDfa;
+     */
+    static final byte OPERATOR = 6;
+
+    static final byte APOSTROPHE = 7;
+
+    static final byte DOUBLE_QUOTE = 8;
+
+    /**
+     * @ # ` \ 这些不能出现在标识符中, 也不是 token;
+     */
+    static final byte ILLEGAL = 9;
+
+    static final byte EOF = 10;
+
+    private static final int ASCII_SIZE = 128;
+
+    private static final byte[] TABLE = new byte[ASCII_SIZE];
+
+    /**
+     * 单字符 token 的 kind, 下标是字符;
+     */
+    private static final EnumCvaToken[] SINGLE_KIND = new EnumCvaToken[ASCII_SIZE];
+
+    static
+    {
+        for (char ch = 0; ch < ASCII_SIZE; ch++)
+        {
+            byte clazz;
+            if (ch == LexerCommon.EOF)
+            {
+                clazz = EOF;
+            }
+            else if (ch == LexerCommon.NEW_LINE)
+            {
+                clazz = NEW_LINE;
+            }
+            else if (Character.isWhitespace(ch))
+            {
+                clazz = WHITE_SPACE;
+            }
+            else if (ch >= '0' && ch <= '9')
+            {
+                clazz = DIGIT;
+            }
+            else if (Character.isAlphabetic(ch))
+            {
+                clazz = LETTER;
+            }
+            else if (EnumCvaToken.containsKind(String.valueOf(ch)))
+            {
+                clazz = SINGLE;
+                SINGLE_KIND[ch] = EnumCvaToken.selectReverse(String.valueOf(ch));
+            }
+            else if (OperatorDfa.isOperatorStart(ch))
+            {
+                clazz = OPERATOR;
+            }
+            else if (ch == '\'')
+            {
+                clazz = APOSTROPHE;
+            }
+            else if (ch == '"')
+            {
+                clazz = DOUBLE_QUOTE;
+            }
+            else if (ch == '@' || ch == '#' || ch == '`' || ch == '\\')
+            {
+                clazz = ILLEGAL;
+            }
+            else
+            {
+                clazz = WORD_PART;
+            }
+            TABLE[ch] = clazz;
+        }
+    }
+
+    private CharClassTable() {}
+
+    static byte classOf(char ch)
+    {
+        if (ch < ASCII_SIZE)
+        {
+            return TABLE[ch];
+        }
+        // Unicode 兜底, 与旧 lexer 一样, 空白以外都能进标识符;
+        if (Character.isWhitespace(ch))
+        {
+            return WHITE_SPACE;
+        }
+        return Character.isAlphabetic(ch) ? LETTER : WORD_PART;
+    }
+
+    /**
+     * 能否出现在标识符或数字中间;
+     */
+    static boolean isWordPart(byte clazz)
+    {
+        return clazz <= DIGIT;
+    }
+
+    static EnumCvaToken singleKind(char ch)
+    {
+        return SINGLE_KIND[ch];
+    }
+}
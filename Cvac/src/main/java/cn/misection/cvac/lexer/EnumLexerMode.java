@@ -0,0 +1,42 @@
+package cn.misection.cvac.lexer;
+
+import cn.misection.cvac.diagnostic.Diagnostics;
+import cn.misection.cvac.io.IBufferedQueue;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName EnumLexerMode
+ * @Description 选择词法分析器实现;
+ * @CreateTime 2026年10月17日 11:42:00
+ */
+public enum EnumLexerMode
+{
+    /**
+     * 旧的手写 Lexer;
+     */
+    LEGACY,
+
+    /**
+     * 字符类表 + 运算符 DFA 的 TableLexer;
+     */
+    TABLE,
+    ;
+
+    public ILexer create(IBufferedQueue stream)
+    {
+        return create(stream, Diagnostics.toStderr());
+    }
+
+    public ILexer create(IBufferedQueue stream, Diagnostics diagnostics)
+    {
+        switch (this)
+        {
+            case LEGACY:
+                return new Lexer(stream, diagnostics);
+            case TABLE:
+            default:
+                return new TableLexer(stream, diagnostics);
+        }
+    }
+}
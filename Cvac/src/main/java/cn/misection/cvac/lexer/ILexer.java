@@ -0,0 +1,17 @@
+package cn.misection.cvac.lexer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName ILexer
+ * @Description 词法分析器, 旧的 Lexer 和表驱动的 TableLexer 都实现之, 便于对照;
+ * @CreateTime 2026年10月17日 11:40:00
+ */
+public interface ILexer
+{
+    /**
+     * 取下一个 token, 末尾一直返回 EOF;
+     * @return token;
+     */
+    CvaToken nextToken();
+}
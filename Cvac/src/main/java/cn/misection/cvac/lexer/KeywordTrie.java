@@ -0,0 +1,128 @@
+package cn.misection.cvac.lexer;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName KeywordTrie
+ * @Description 关键字 trie, 类加载时由 EnumCvaToken 中所有字母拼写的 kindLiteral 生成;
+ * 字母表压缩为 a-z 26 列, lexer 边扫描边走状态, 识别关键字不需要构造 String;
+ * @CreateTime 2026年10月17日 13:10:00
+ */
+public final class KeywordTrie
+{
+    public static final int START = 0;
+
+    public static final int DEAD = -1;
+
+    private static final int COLUMN_COUNT = 'z' - 'a' + 1;
+
+    private static final EnumCvaToken[] KINDS = EnumCvaToken.values();
+
+    /**
+     * transition[state * COLUMN_COUNT + ch - 'a'];
+     */
+    private static final int[] TRANSITION;
+
+    /**
+     * 接受状态对应的 ordinal, 非接受为 -1;
+     */
+    private static final int[] ACCEPT;
+
+    static
+    {
+        int maxStates = 1;
+        for (EnumCvaToken kind : KINDS)
+        {
+            if (isKeyword(kind.getKindLiteral()))
+            {
+                maxStates += kind.getKindLiteral().length();
+            }
+        }
+        int[] transition = new int[maxStates * COLUMN_COUNT];
+        int[] accept = new int[maxStates];
+        Arrays.fill(transition, DEAD);
+        Arrays.fill(accept, -1);
+        int stateCount = 1;
+        for (EnumCvaToken kind : KINDS)
+        {
+            String literal = kind.getKindLiteral();
+            if (!isKeyword(literal))
+            {
+                continue;
+            }
+            int state = START;
+            for (int i = 0; i < literal.length(); i++)
+            {
+                int slot = state * COLUMN_COUNT + literal.charAt(i) - 'a';
+                if (transition[slot] == DEAD)
+                {
+                    transition[slot] = stateCount++;
+                }
+                state = transition[slot];
+            }
+            // 与 EnumCvaToken 的 lookup 一致, 同拼写的后者覆盖前者;
+            accept[state] = kind.ordinal();
+        }
+        TRANSITION = Arrays.copyOf(transition, stateCount * COLUMN_COUNT);
+        ACCEPT = Arrays.copyOf(accept, stateCount);
+    }
+
+    private KeywordTrie() {}
+
+    private static boolean isKeyword(String literal)
+    {
+        if (literal == null || literal.isEmpty())
+        {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++)
+        {
+            if (literal.charAt(i) < 'a' || literal.charAt(i) > 'z')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 走一步;
+     * @param state 当前状态, DEAD 保持 DEAD;
+     * @param ch 字符;
+     * @return 下一个状态;
+     */
+    public static int step(int state, char ch)
+    {
+        if (state == DEAD || ch < 'a' || ch > 'z')
+        {
+            return DEAD;
+        }
+        return TRANSITION[state * COLUMN_COUNT + ch - 'a'];
+    }
+
+    /**
+     * @param state 走完整个词素后的状态;
+     * @return 关键字, 不是关键字为 null;
+     */
+    public static EnumCvaToken kindOf(int state)
+    {
+        return state == DEAD || ACCEPT[state] < 0 ? null : KINDS[ACCEPT[state]];
+    }
+
+    /**
+     * 对已有字符串查表;
+     * @param literal 词素;
+     * @return 关键字, 不是关键字为 null;
+     */
+    public static EnumCvaToken lookup(CharSequence literal)
+    {
+        int state = START;
+        for (int i = 0; i < literal.length() && state != DEAD; i++)
+        {
+            state = step(state, literal.charAt(i));
+        }
+        return kindOf(state);
+    }
+}
@@ -1,26 +1,37 @@
 package cn.misection.cvac.lexer;
 
 import cn.misection.cvac.constant.LexerCommon;
+import cn.misection.cvac.diagnostic.Diagnostics;
+import cn.misection.cvac.diagnostic.EnumCompilePhase;
 import cn.misection.cvac.io.IBufferedQueue;
 
 /**
  * @author MI6 root;
  */
-public final class Lexer
+public final class Lexer implements ILexer
 {
     /**
      * input stream of the file;
      */
     private final IBufferedQueue stream;
 
+    private final Diagnostics diagnostics;
+
     private int lineNum;
 
     public Lexer(IBufferedQueue stream)
+    {
+        this(stream, Diagnostics.toStderr());
+    }
+
+    public Lexer(IBufferedQueue stream, Diagnostics diagnostics)
     {
         this.stream = stream;
+        this.diagnostics = diagnostics;
         this.lineNum = 1;
     }
 
+    @Override
     public CvaToken nextToken()
     {
         return lex();
@@ -28,15 +39,14 @@ public final class Lexer
 
     private void errorLog()
     {
-        System.err.printf("line %d: unknown error occur!", lineNum);
-        System.exit(1);
+        diagnostics.report(EnumCompilePhase.LEXER, lineNum,
+                String.format("line %d: unknown error occur!", lineNum));
     }
 
     private void errorLog(String excepted, String got)
     {
-        System.err.printf("line %d: Excepted: %s, but got %s",
-                lineNum, excepted, got);
-        System.exit(1);
+        diagnostics.report(EnumCompilePhase.LEXER, lineNum,
+                String.format("line %d: Excepted: %s, but got %s", lineNum, excepted, got));
     }
 
     private CvaToken lex()
@@ -393,9 +403,10 @@ public final class Lexer
     private CvaToken handleNorPrefOrIdOrNum(char ch)
     {
         // 先看c是否是非前缀字符, 这里是 int, 必须先转成char看在不在表中;
-        if (EnumCvaToken.containsKind(String.valueOf(ch)))
+        EnumCvaToken single = EnumCvaToken.selectReverse(String.valueOf(ch));
+        if (single != null)
         {
-            return new CvaToken(EnumCvaToken.selectReverse(String.valueOf(ch)), lineNum);
+            return new CvaToken(single, lineNum);
         }
         StringBuilder builder = new StringBuilder();
         builder.append(ch);
@@ -414,10 +425,11 @@ public final class Lexer
             break;
         }
         String literal = builder.toString();
-        // 关键字;
-        if (EnumCvaToken.containsKind(literal))
+        // 关键字, 只查一次 trie;
+        EnumCvaToken keyword = KeywordTrie.lookup(literal);
+        if (keyword != null)
         {
-            return new CvaToken(EnumCvaToken.selectReverse(literal), lineNum);
+            return new CvaToken(keyword, lineNum);
         }
         else
         {
@@ -440,7 +452,8 @@ public final class Lexer
                         "an illegal identifier with illegal char");
             }
         }
-        return null;
+        // 报过错的词素, 交给 parser 去恢复;
+        return new CvaToken(EnumCvaToken.UNKNOWN_TOKEN, lineNum, literal);
     }
 
     private CvaToken handleApostrophe()
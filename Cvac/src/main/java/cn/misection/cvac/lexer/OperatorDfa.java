@@ -0,0 +1,156 @@
+package cn.misection.cvac.lexer;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName OperatorDfa
+ * @Description 运算符的 DFA, 类加载时由拼写表生成, 状态转移是一张扁平 int 表;
+ * 扫描时取最长匹配;
+ * @CreateTime 2026年10月17日 11:50:00
+ */
+final class OperatorDfa
+{
+    /**
+     * 接受状态里的注释标记, 不是 token;
+     */
+    static final int LINE_COMMENT = -2;
+
+    static final int BLOCK_COMMENT = -3;
+
+    static final int NOT_ACCEPT = -1;
+
+    static final int START = 0;
+
+    static final int DEAD = -1;
+
+    private static final String[] SPELLINGS = {
+            "+", "++", "+=",
+            "-", "--", "-=", "->",
+            "*", "*=",
+            "/", "/=", "//", "/*",
+            "%", "%=",
+            "&", "&&", "&=",
+            "|", "||", "|=",
+            "^", "^=",
+            "~", "~=",
+            "=", "==",
+            "<", "<=", "<<", "<<=",
+            ">", ">=", ">>", ">>=", ">>>", ">>>=",
+    };
+
+    private static final EnumCvaToken[] KINDS = {
+            EnumCvaToken.ADD, EnumCvaToken.INCREMENT, EnumCvaToken.ADD_ASSIGN,
+            EnumCvaToken.SUB, EnumCvaToken.DECREMENT, EnumCvaToken.SUB_ASSIGN, EnumCvaToken.ARROW,
+            EnumCvaToken.STAR, EnumCvaToken.MULTIPLY_ASSIGN,
+            EnumCvaToken.DIV, EnumCvaToken.DIV_ASSIGN, null, null,
+            EnumCvaToken.REMAINDER, EnumCvaToken.REMAINDER_ASSIGN,
+            EnumCvaToken.AND, EnumCvaToken.AND_AND, EnumCvaToken.AND_ASSIGN,
+            EnumCvaToken.OR, EnumCvaToken.OR_OR, EnumCvaToken.OR_ASSIGN,
+            EnumCvaToken.XOR, EnumCvaToken.XOR_ASSIGN,
+            EnumCvaToken.BIT_NEGATE, EnumCvaToken.BIT_NEGATE_ASSIGN,
+            EnumCvaToken.ASSIGN, EnumCvaToken.EQUALS,
+            EnumCvaToken.LESS_THAN, EnumCvaToken.LESS_OR_EQUALS,
+            EnumCvaToken.LEFT_SHIFT, EnumCvaToken.LEFT_SHIFT_ASSIGN,
+            EnumCvaToken.MORE_THAN, EnumCvaToken.MORE_OR_EQUALS,
+            EnumCvaToken.RIGHT_SHIFT, EnumCvaToken.RIGHT_SHIFT_ASSIGN,
+            EnumCvaToken.UNSIGNED_RIGHT_SHIFT, EnumCvaToken.UNSIGNED_RIGHT_SHIFT_ASSIGN,
+    };
+
+    private static final int ASCII_SIZE = 128;
+
+    /**
+     * 字符到列的映射, 不在运算符字母表中的是 -1;
+     */
+    private static final byte[] COLUMN = new byte[ASCII_SIZE];
+
+    private static final int COLUMN_COUNT;
+
+    /**
+     * transition[state * COLUMN_COUNT + column];
+     */
+    private static final int[] TRANSITION;
+
+    /**
+     * 接受状态对应 EnumCvaToken 的 ordinal, 或注释标记;
+     */
+    private static final int[] ACCEPT;
+
+    static
+    {
+        Arrays.fill(COLUMN, (byte) -1);
+        byte columns = 0;
+        for (String spelling : SPELLINGS)
+        {
+            for (int i = 0; i < spelling.length(); i++)
+            {
+                char ch = spelling.charAt(i);
+                if (COLUMN[ch] < 0)
+                {
+                    COLUMN[ch] = columns++;
+                }
+            }
+        }
+        COLUMN_COUNT = columns;
+
+        // 有限串集合的 DFA 就是其 trie, 状态数不超过总字符数 + 1;
+        int maxStates = 1;
+        for (String spelling : SPELLINGS)
+        {
+            maxStates += spelling.length();
+        }
+        int[] transition = new int[maxStates * COLUMN_COUNT];
+        int[] accept = new int[maxStates];
+        Arrays.fill(transition, DEAD);
+        Arrays.fill(accept, NOT_ACCEPT);
+        int stateCount = 1;
+        for (int i = 0; i < SPELLINGS.length; i++)
+        {
+            int state = START;
+            for (int j = 0; j < SPELLINGS[i].length(); j++)
+            {
+                int slot = state * COLUMN_COUNT + COLUMN[SPELLINGS[i].charAt(j)];
+                if (transition[slot] == DEAD)
+                {
+                    transition[slot] = stateCount++;
+                }
+                state = transition[slot];
+            }
+            if (KINDS[i] != null)
+            {
+                accept[state] = KINDS[i].ordinal();
+            }
+            else
+            {
+                accept[state] = SPELLINGS[i].charAt(1) == '/' ? LINE_COMMENT : BLOCK_COMMENT;
+            }
+        }
+        TRANSITION = Arrays.copyOf(transition, stateCount * COLUMN_COUNT);
+        ACCEPT = Arrays.copyOf(accept, stateCount);
+    }
+
+    private OperatorDfa() {}
+
+    static boolean isOperatorStart(char ch)
+    {
+        return ch < ASCII_SIZE && COLUMN[ch] >= 0;
+    }
+
+    /**
+     * @return 下一个状态, 没有转移时是 DEAD;
+     */
+    static int next(int state, char ch)
+    {
+        if (ch >= ASCII_SIZE || COLUMN[ch] < 0)
+        {
+            return DEAD;
+        }
+        return TRANSITION[state * COLUMN_COUNT + COLUMN[ch]];
+    }
+
+    static int accept(int state)
+    {
+        return ACCEPT[state];
+    }
+}
@@ -0,0 +1,363 @@
+package cn.misection.cvac.lexer;
+
+import cn.misection.cvac.constant.LexerCommon;
+import cn.misection.cvac.diagnostic.Diagnostics;
+import cn.misection.cvac.diagnostic.EnumCompilePhase;
+import cn.misection.cvac.io.IBufferedQueue;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName TableLexer
+ * @Description 表驱动的词法分析器, 先查 CharClassTable 分派, 运算符走 OperatorDfa 最长匹配,
+ * 标识符和字符串写进复用的 char 缓冲, 逐字符不分配对象; lexAll 可直接写进 TokenBuffer;
+ * 产出的 token 流与旧 Lexer 一致;
+ * @CreateTime 2026年10月17日 12:00:00
+ */
+public final class TableLexer implements ILexer
+{
+    private static final int INIT_SCRATCH_SIZE = 64;
+
+    private static final EnumCvaToken[] KINDS = EnumCvaToken.values();
+
+    private final IBufferedQueue stream;
+
+    private final Diagnostics diagnostics;
+
+    private int lineNum;
+
+    /**
+     * 当前词素, 跨 token 复用;
+     */
+    private char[] scratch = new char[INIT_SCRATCH_SIZE];
+
+    private int scratchLen;
+
+    /**
+     * 刚扫描的 token 是否带字面量;
+     */
+    private boolean hasLiteral;
+
+    public TableLexer(IBufferedQueue stream)
+    {
+        this(stream, Diagnostics.toStderr());
+    }
+
+    /**
+     * @param stream 源码;
+     * @param diagnostics 报错后产出 UNKNOWN_TOKEN 接着扫, 交给 parser 去恢复;
+     */
+    public TableLexer(IBufferedQueue stream, Diagnostics diagnostics)
+    {
+        this.stream = stream;
+        this.diagnostics = diagnostics;
+        this.lineNum = 1;
+    }
+
+    @Override
+    public CvaToken nextToken()
+    {
+        EnumCvaToken kind = KINDS[scan()];
+        return hasLiteral
+                ? new CvaToken(kind, lineNum, new String(scratch, 0, scratchLen))
+                : new CvaToken(kind, lineNum);
+    }
+
+    /**
+     * 一直扫到 EOF, 直接写进 buffer, 不构造 CvaToken;
+     * @param buffer 目标;
+     */
+    void lexAll(TokenBuffer buffer)
+    {
+        while (true)
+        {
+            int kind = scan();
+            if (hasLiteral)
+            {
+                buffer.add(KINDS[kind], lineNum, scratch, 0, scratchLen);
+            }
+            else
+            {
+                buffer.add(KINDS[kind], lineNum);
+            }
+            if (kind == EnumCvaToken.EOF.ordinal())
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 扫描一个 token, 字面量留在 scratch 中;
+     * @return kind 的 ordinal;
+     */
+    private int scan()
+    {
+        hasLiteral = false;
+        while (true)
+        {
+            char ch = stream.poll();
+            byte clazz = CharClassTable.classOf(ch);
+            switch (clazz)
+            {
+                case CharClassTable.NEW_LINE:
+                {
+                    lineNum++;
+                    continue;
+                }
+                case CharClassTable.WHITE_SPACE:
+                {
+                    continue;
+                }
+                case CharClassTable.EOF:
+                {
+                    return EnumCvaToken.EOF.ordinal();
+                }
+                case CharClassTable.SINGLE:
+                {
+                    return CharClassTable.singleKind(ch).ordinal();
+                }
+                case CharClassTable.OPERATOR:
+                {
+                    int accept = scanOperator(ch);
+                    if (accept == OperatorDfa.LINE_COMMENT)
+                    {
+                        skipLineComment();
+                        continue;
+                    }
+                    if (accept == OperatorDfa.BLOCK_COMMENT)
+                    {
+                        skipBlockComment();
+                        continue;
+                    }
+                    return accept;
+                }
+                case CharClassTable.APOSTROPHE:
+                {
+                    return scanChar();
+                }
+                case CharClassTable.DOUBLE_QUOTE:
+                {
+                    return scanString();
+                }
+                default:
+                {
+                    return scanWord(ch, clazz);
+                }
+            }
+        }
+    }
+
+    /**
+     * 首字符已出队, 沿 DFA 用 peek 向前看, 只把最长匹配的部分出队;
+     * @return 接受状态的 ordinal 或注释标记;
+     */
+    private int scanOperator(char first)
+    {
+        int state = OperatorDfa.next(OperatorDfa.START, first);
+        int lastAccept = OperatorDfa.accept(state);
+        int lastLen = 1;
+        int len = 1;
+        while (true)
+        {
+            int next = OperatorDfa.next(state, stream.peek(len));
+            if (next == OperatorDfa.DEAD)
+            {
+                break;
+            }
+            state = next;
+            len++;
+            if (OperatorDfa.accept(state) != OperatorDfa.NOT_ACCEPT)
+            {
+                lastAccept = OperatorDfa.accept(state);
+                lastLen = len;
+            }
+        }
+        for (int i = 1; i < lastLen; i++)
+        {
+            stream.poll();
+        }
+        return lastAccept;
+    }
+
+    private int scanWord(char first, byte firstClass)
+    {
+        scratchLen = 0;
+        append(first);
+        boolean allDigit = firstClass == CharClassTable.DIGIT;
+        // 关键字都是字母开头, 边扫描边走 trie;
+        int keywordState = firstClass == CharClassTable.LETTER
+                ? KeywordTrie.step(KeywordTrie.START, first)
+                : KeywordTrie.DEAD;
+        while (true)
+        {
+            char ch = stream.peek();
+            byte clazz = CharClassTable.classOf(ch);
+            if (!CharClassTable.isWordPart(clazz))
+            {
+                break;
+            }
+            append(stream.poll());
+            allDigit &= clazz == CharClassTable.DIGIT;
+            keywordState = KeywordTrie.step(keywordState, ch);
+        }
+        EnumCvaToken keyword = KeywordTrie.kindOf(keywordState);
+        if (keyword != null)
+        {
+            return keyword.ordinal();
+        }
+        hasLiteral = true;
+        if (allDigit)
+        {
+            return EnumCvaToken.NUMBER.ordinal();
+        }
+        if (Character.isAlphabetic(first))
+        {
+            return EnumCvaToken.IDENTIFIER.ordinal();
+        }
+        errorLog("identifier or number which can only include alphabet, number or _, $",
+                "an illegal identifier with illegal char");
+        return EnumCvaToken.UNKNOWN_TOKEN.ordinal();
+    }
+
+    private int scanChar()
+    {
+        char chch = stream.poll();
+        if (chch == '\\')
+        {
+            chch = scanEscape();
+        }
+        char eoc = stream.poll();
+        if (eoc != '\'')
+        {
+            errorLog("end of char which refer to '",
+                    String.valueOf(eoc));
+        }
+        scratchLen = 0;
+        append(chch);
+        hasLiteral = true;
+        return EnumCvaToken.CHAR.ordinal();
+    }
+
+    private int scanString()
+    {
+        scratchLen = 0;
+        while (true)
+        {
+            char ch = stream.poll();
+            switch (ch)
+            {
+                case '"':
+                {
+                    hasLiteral = true;
+                    return EnumCvaToken.STRING.ordinal();
+                }
+                case '\\':
+                {
+                    append(scanEscape());
+                    break;
+                }
+                case LexerCommon.EOF:
+                {
+                    errorLog("string literal char or end of string '\"'",
+                            "EOF in error place");
+                    return EnumCvaToken.UNKNOWN_TOKEN.ordinal();
+                }
+                default:
+                {
+                    append(ch);
+                    break;
+                }
+            }
+        }
+    }
+
+    private char scanEscape()
+    {
+        char escapeCh = stream.poll();
+        switch (escapeCh)
+        {
+            case 'r':
+                return '\r';
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case '"':
+                return '"';
+            default:
+            {
+                errorLog("escape char only '\\n', '\\r', '\\t', '\\\"' supported!",
+                        String.valueOf(escapeCh));
+                return 0;
+            }
+        }
+    }
+
+    private void skipLineComment()
+    {
+        while (true)
+        {
+            char ch = stream.poll();
+            if (ch == LexerCommon.NEW_LINE)
+            {
+                lineNum++;
+                return;
+            }
+            if (ch == LexerCommon.EOF)
+            {
+                return;
+            }
+        }
+    }
+
+    private void skipBlockComment()
+    {
+        while (true)
+        {
+            switch (stream.poll())
+            {
+                case '*':
+                {
+                    if (stream.peek() == '/')
+                    {
+                        stream.poll();
+                        return;
+                    }
+                    break;
+                }
+                case LexerCommon.NEW_LINE:
+                {
+                    lineNum++;
+                    break;
+                }
+                case LexerCommon.EOF:
+                {
+                    // 未闭合的注释吃到末尾为止;
+                    return;
+                }
+                default:
+                {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void append(char ch)
+    {
+        if (scratchLen == scratch.length)
+        {
+            scratch = Arrays.copyOf(scratch, scratchLen << 1);
+        }
+        scratch[scratchLen++] = ch;
+    }
+
+    private void errorLog(String excepted, String got)
+    {
+        diagnostics.report(EnumCompilePhase.LEXER, lineNum,
+                String.format("line %d: Excepted: %s, but got %s", lineNum, excepted, got));
+    }
+}
@@ -0,0 +1,186 @@
+package cn.misection.cvac.lexer;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName TokenBuffer
+ * @Description 结构数组形式的 token 流, kind/行号/字面量位置各占一个基本类型数组,
+ * 字面量字符集中放在一个 char 池里, 用到时才切成 String;
+ * 前瞻和回退只是下标移动;
+ * @CreateTime 2026年10月17日 14:00:00
+ */
+public final class TokenBuffer
+{
+    private static final int INIT_CAPACITY = 1024;
+
+    private static final EnumCvaToken[] KINDS = EnumCvaToken.values();
+
+    /**
+     * 无字面量的 token 在 literalLen 中记为 -1;
+     */
+    private static final int NO_LITERAL = -1;
+
+    private short[] kinds = new short[INIT_CAPACITY];
+
+    private int[] lines = new int[INIT_CAPACITY];
+
+    private int[] literalStart = new int[INIT_CAPACITY];
+
+    private int[] literalLen = new int[INIT_CAPACITY];
+
+    private char[] pool = new char[INIT_CAPACITY * 4];
+
+    private int poolSize;
+
+    private int size;
+
+    /**
+     * 把 lexer 产出的 token 一直读到 EOF, EOF 本身也放进来;
+     * TableLexer 直接写数组, 不经过 CvaToken;
+     * @param lexer 词法分析器;
+     * @return 填好的 buffer;
+     */
+    public static TokenBuffer tokenize(ILexer lexer)
+    {
+        TokenBuffer buffer = new TokenBuffer();
+        if (lexer instanceof TableLexer)
+        {
+            ((TableLexer) lexer).lexAll(buffer);
+        }
+        else
+        {
+            CvaToken token;
+            do
+            {
+                token = lexer.nextToken();
+                buffer.add(token);
+            } while (token.toEnum() != EnumCvaToken.EOF);
+        }
+        buffer.trim();
+        return buffer;
+    }
+
+    public void add(CvaToken token)
+    {
+        String literal = token.getLiteral();
+        if (literal == null)
+        {
+            add(token.toEnum(), token.getLineNum());
+        }
+        else
+        {
+            add(token.toEnum(), token.getLineNum(), literal.toCharArray(), 0, literal.length());
+        }
+    }
+
+    public void add(EnumCvaToken kind, int lineNum)
+    {
+        ensureCapacity();
+        kinds[size] = (short) kind.ordinal();
+        lines[size] = lineNum;
+        literalLen[size] = NO_LITERAL;
+        size++;
+    }
+
+    public void add(EnumCvaToken kind, int lineNum, char[] chars, int offset, int length)
+    {
+        ensureCapacity();
+        if (poolSize + length > pool.length)
+        {
+            pool = Arrays.copyOf(pool, Math.max(pool.length << 1, poolSize + length));
+        }
+        System.arraycopy(chars, offset, pool, poolSize, length);
+        kinds[size] = (short) kind.ordinal();
+        lines[size] = lineNum;
+        literalStart[size] = poolSize;
+        literalLen[size] = length;
+        poolSize += length;
+        size++;
+    }
+
+    private void ensureCapacity()
+    {
+        if (size == kinds.length)
+        {
+            int capacity = size << 1;
+            kinds = Arrays.copyOf(kinds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            literalStart = Arrays.copyOf(literalStart, capacity);
+            literalLen = Arrays.copyOf(literalLen, capacity);
+        }
+    }
+
+    /**
+     * 读完后收缩到实际大小;
+     */
+    public void trim()
+    {
+        kinds = Arrays.copyOf(kinds, size);
+        lines = Arrays.copyOf(lines, size);
+        literalStart = Arrays.copyOf(literalStart, size);
+        literalLen = Arrays.copyOf(literalLen, size);
+        pool = Arrays.copyOf(pool, poolSize);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public EnumCvaToken kind(int index)
+    {
+        return KINDS[kinds[index]];
+    }
+
+    public int lineNum(int index)
+    {
+        return lines[index];
+    }
+
+    public boolean hasLiteral(int index)
+    {
+        return literalLen[index] != NO_LITERAL;
+    }
+
+    /**
+     * 每次都从池里现切, 不缓存, 留不留这个 String 由调用者决定;
+     * @param index 下标;
+     * @return 字面量, 无字面量为 null;
+     */
+    public String literal(int index)
+    {
+        return literalLen[index] == NO_LITERAL
+                ? null
+                : new String(pool, literalStart[index], literalLen[index]);
+    }
+
+    /**
+     * 还原成对象, 只给报错和调试用;
+     */
+    public CvaToken token(int index)
+    {
+        return hasLiteral(index)
+                ? new CvaToken(kind(index), lineNum(index), literal(index))
+                : new CvaToken(kind(index), lineNum(index));
+    }
+
+    /**
+     * @return 数组占用的大致字节数, 不含对象头;
+     */
+    public long footprint()
+    {
+        return (long) kinds.length * Short.BYTES
+                + (long) lines.length * Integer.BYTES
+                + (long) literalStart.length * Integer.BYTES
+                + (long) literalLen.length * Integer.BYTES
+                + (long) pool.length * Character.BYTES;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("TokenBuffer{size=%d, pool=%d}", size, poolSize);
+    }
+}
@@ -0,0 +1,248 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.symbol.IntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName AstCopier
+ * @Description 深拷贝方法体, 顺手把局部变量按表改名, 字段和没在表里的名字原样留着;
+ * 语义检查填上的类型一起拷过去, 拷出来的树不用再检查就能翻译;
+ * @CreateTime 2026年10月18日 05:35:00
+ */
+final class AstCopier
+{
+    /**
+     * 局部变量 symbol -> 新名字;
+     */
+    private final IntMap<String> renames;
+
+    AstCopier(IntMap<String> renames)
+    {
+        this.renames = renames;
+    }
+
+    /**
+     * @return 拷贝, 有不认识的结点时为 null;
+     */
+    List<AbstractStatement> copyList(List<AbstractStatement> stmList)
+    {
+        List<AbstractStatement> copyList = new ArrayList<>(stmList.size());
+        for (AbstractStatement stm : stmList)
+        {
+            AbstractStatement copy = copy(stm);
+            if (copy == null)
+            {
+                return null;
+            }
+            copyList.add(copy);
+        }
+        return copyList;
+    }
+
+    /**
+     * @return 拷贝, 有不认识的结点时为 null;
+     */
+    AbstractStatement copy(AbstractStatement stm)
+    {
+        int line = stm.getLineNum();
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                CvaAssignStatement assign = (CvaAssignStatement) stm;
+                AbstractExpression expr = copy(assign.getExpr());
+                if (expr == null)
+                {
+                    return null;
+                }
+                CvaAssignStatement copy = new CvaAssignStatement(line,
+                        rename(assign.getSymbol(), assign.getLiteral()), expr);
+                copy.setType(assign.getType());
+                return copy;
+            }
+            case INCREMENT:
+            {
+                CvaIncreStatement incre = (CvaIncreStatement) stm;
+                return new CvaIncreStatement(line,
+                        rename(incre.getSymbol(), incre.getLiteral()), incre.getDirection());
+            }
+            case WRITE:
+            {
+                CvaWriteStatement write = (CvaWriteStatement) stm;
+                AbstractExpression expr = copy(write.getExpr());
+                return expr == null ? null : new CvaWriteStatement(line, expr, write.getWriteMode());
+            }
+            case BLOCK:
+            {
+                List<AbstractStatement> stmList = copyList(((CvaBlockStatement) stm).getStatementList());
+                return stmList == null ? null : new CvaBlockStatement(line, stmList);
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                AbstractExpression condition = copy(ifStm.getCondition());
+                AbstractStatement thenStm = copy(ifStm.getThenStatement());
+                AbstractStatement elseStm = ifStm.getElseStatement() == null
+                        ? null : copy(ifStm.getElseStatement());
+                if (condition == null || thenStm == null
+                        || (elseStm == null && ifStm.getElseStatement() != null))
+                {
+                    return null;
+                }
+                return new CvaIfStatement(line, condition, thenStm, elseStm);
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                AbstractExpression condition = copy(whileStm.getCondition());
+                AbstractStatement body = copy(whileStm.getBody());
+                return condition == null || body == null
+                        ? null : new CvaWhileStatement(line, condition, body);
+            }
+            default:
+            {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return 拷贝, 有不认识的结点时为 null;
+     */
+    AbstractExpression copy(AbstractExpression expr)
+    {
+        int line = expr.getLineNum();
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+            AbstractExpression left = copy(binary.getLeft());
+            AbstractExpression right = copy(binary.getRight());
+            return left == null || right == null ? null : copyBinary(binary, left, right);
+        }
+        switch (expr.toEnum())
+        {
+            case IDENTIFIER:
+            {
+                CvaIdentifierExpr id = (CvaIdentifierExpr) expr;
+                String literal = id.isField() ? id.getLiteral() : rename(id.getSymbol(), id.getLiteral());
+                return new CvaIdentifierExpr(line, literal, id.getType(), id.isField());
+            }
+            case CALL:
+            {
+                CvaCallExpr call = (CvaCallExpr) expr;
+                AbstractExpression receiver = copy(call.getExpr());
+                List<AbstractExpression> args = new ArrayList<>(call.getArgs().size());
+                for (AbstractExpression arg : call.getArgs())
+                {
+                    AbstractExpression copy = copy(arg);
+                    if (copy == null)
+                    {
+                        return null;
+                    }
+                    args.add(copy);
+                }
+                if (receiver == null)
+                {
+                    return null;
+                }
+                CvaCallExpr copy = new CvaCallExpr(line, call.getFuncName(), receiver, args);
+                copy.setType(call.getType());
+                copy.setArgTypeList(call.getArgTypeList() == null
+                        ? null : new ArrayList<>(call.getArgTypeList()));
+                copy.setRetType(call.getRetType());
+                return copy;
+            }
+            case NEGATE:
+            {
+                AbstractExpression child = copy(((CvaNegateExpr) expr).getExpr());
+                return child == null ? null : new CvaNegateExpr(line, child);
+            }
+            case BIT_NEGATE:
+            {
+                AbstractExpression child = copy(((CvaBitNegateExpr) expr).getExpr());
+                return child == null ? null : new CvaBitNegateExpr(line, child);
+            }
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                AbstractExpression condition = copy(condExpr.getCondition());
+                AbstractExpression trueExpr = copy(condExpr.getTrueExpr());
+                AbstractExpression falseExpr = copy(condExpr.getFalseExpr());
+                return condition == null || trueExpr == null || falseExpr == null
+                        ? null : new CvaConditionCalcExpr(line, condition, trueExpr, falseExpr);
+            }
+            case CONST_INT:
+                return new CvaConstIntExpr(line, ((CvaConstIntExpr) expr).getValue());
+            case CONST_TRUE:
+                return new CvaConstTrueExpr(line);
+            case CONST_FALSE:
+                return new CvaConstFalseExpr(line);
+            case CONST_NULL:
+                return new CvaConstNullExpr(line);
+            case CONST_STRING:
+                return new CvaConstStringExpr(line, ((CvaConstStringExpr) expr).getLiteral());
+            case NEW:
+                return new CvaNewExpr(line, ((CvaNewExpr) expr).getNewClassName());
+            case THIS:
+                return new CvaThisExpr(line);
+            default:
+                return null;
+        }
+    }
+
+    private static AbstractExpression copyBinary(AbstractBinaryExpr binary,
+                                                 AbstractExpression left, AbstractExpression right)
+    {
+        int line = binary.getLineNum();
+        switch (binary.toEnum())
+        {
+            case ADD:
+                return new CvaAddExpr(line, left, right);
+            case SUB:
+                return new CvaSubExpr(line, left, right);
+            case MUL:
+                return new CvaMulExpr(line, left, right);
+            case DIV:
+                return new CvaDivExpr(line, left, right);
+            case REMAINDER:
+                return new CvaRemainderExpr(line, left, right);
+            case BIT_AND:
+                return new CvaBitAndExpr(line, left, right);
+            case BIT_OR:
+                return new CvaBitOrExpr(line, left, right);
+            case BIT_XOR:
+                return new CvaXorExpr(line, left, right);
+            case LEFT_SHIFT:
+                return new CvaLeftShiftExpr(line, left, right);
+            case RIGHT_SHIFT:
+                return new CvaRightShiftExpr(line, left, right);
+            case UNSIGNED_RIGHT_SHIFT:
+                return new CvaUnsignedRightShiftExpr(line, left, right);
+            case LESS_THAN:
+                return new CvaLessThanExpr(line, left, right);
+            case MORE_THAN:
+                return new CvaMoreThanExpr(line, left, right);
+            case AND_AND:
+                return new CvaAndAndExpr(line, left, right);
+            case OR_OR:
+                return new CvaOrOrExpr(line, left, right);
+            default:
+                return null;
+        }
+    }
+
+    private String rename(int symbol, String literal)
+    {
+        String renamed = renames.get(symbol);
+        return renamed == null ? literal : renamed;
+    }
+}
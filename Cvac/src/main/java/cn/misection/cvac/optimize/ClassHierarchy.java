@@ -0,0 +1,228 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.clas.AbstractCvaClass;
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.method.AbstractMethod;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.semantic.ClassBinding;
+import cn.misection.cvac.semantic.ClassMap;
+import cn.misection.cvac.symbol.IntMap;
+import cn.misection.cvac.symbol.IntSet;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName ClassHierarchy
+ * @Description 全程序的类层次分析, 继承关系交给 ClassMap, 这里再记着每个类自己声明的方法体;
+ * 一次调用按接收者的静态类型能落到哪些方法体上, 由声明处往上找到的实现加上子类里的覆盖组成;
+ * @CreateTime 2026年10月18日 04:00:00
+ */
+public final class ClassHierarchy
+{
+    private final ClassMap classMap = new ClassMap();
+
+    /**
+     * 按源程序顺序的类;
+     */
+    private final List<Integer> classSymbolList = new ArrayList<>();
+
+    private final IntMap<AbstractCvaClass> classes = new IntMap<>();
+
+    /**
+     * 类 -> 方法名 -> 本类声明的方法;
+     */
+    private final IntMap<IntMap<CvaMethod>> declared = new IntMap<>();
+
+    /**
+     * 类 -> 本类声明的字段;
+     */
+    private final IntMap<IntSet> declaredFields = new IntMap<>();
+
+    /**
+     * 方法 -> 声明它的类;
+     */
+    private final Map<CvaMethod, Integer> owners = new IdentityHashMap<>();
+
+    private ClassHierarchy() {}
+
+    public static ClassHierarchy of(AbstractProgram program)
+    {
+        ClassHierarchy hierarchy = new ClassHierarchy();
+        program.getClassList().forEach(hierarchy::addClass);
+        hierarchy.classMap.prepareConcurrentLookup();
+        return hierarchy;
+    }
+
+    private void addClass(AbstractCvaClass cla)
+    {
+        int symbol = SymbolTable.getInstance().intern(cla.name());
+        if (!classMap.putClassBinding(cla.name(), new ClassBinding(cla.parent())))
+        {
+            // 重名的类语义检查已经报过了;
+            return;
+        }
+        classSymbolList.add(symbol);
+        classes.put(symbol, cla);
+        IntMap<CvaMethod> methods = new IntMap<>();
+        for (AbstractMethod method : cla.getMethodList())
+        {
+            int methodSymbol = SymbolTable.getInstance().intern(method.name());
+            if (!methods.containsKey(methodSymbol))
+            {
+                methods.put(methodSymbol, (CvaMethod) method);
+                owners.put((CvaMethod) method, symbol);
+            }
+        }
+        declared.put(symbol, methods);
+        IntSet fields = new IntSet();
+        for (AbstractDeclaration field : cla.getFieldList())
+        {
+            fields.add(field.symbol());
+        }
+        declaredFields.put(symbol, fields);
+    }
+
+    public AbstractCvaClass classOf(int classSymbol)
+    {
+        return classSymbol == SymbolTable.NO_SYMBOL ? null : classes.get(classSymbol);
+    }
+
+    /**
+     * @return 源程序里的类, 按出现顺序;
+     */
+    public List<Integer> getClassSymbolList()
+    {
+        return classSymbolList;
+    }
+
+    public CvaMethod declaredMethod(int classSymbol, int methodSymbol)
+    {
+        IntMap<CvaMethod> methods = classSymbol == SymbolTable.NO_SYMBOL
+                ? null : declared.get(classSymbol);
+        return methods == null ? null : methods.get(methodSymbol);
+    }
+
+    /**
+     * @param method 方法;
+     * @return 声明它的类, 不是类里的方法就是 NO_SYMBOL;
+     */
+    public int ownerOf(CvaMethod method)
+    {
+        Integer owner = owners.get(method);
+        return owner == null ? SymbolTable.NO_SYMBOL : owner;
+    }
+
+    /**
+     * 字节码里的字段按 类名/字段名 从这个类往上找, 这里照着找一遍;
+     * @param classSymbol 类;
+     * @param fieldSymbol 字段;
+     * @return 本类或最近的祖先里声明它的类, 没有或父链成环就是 NO_SYMBOL;
+     */
+    public int fieldOwner(int classSymbol, int fieldSymbol)
+    {
+        if (classOf(classSymbol) == null || classMap.isInCycle(classSymbol))
+        {
+            return SymbolTable.NO_SYMBOL;
+        }
+        int current = classSymbol;
+        while (current != SymbolTable.NO_SYMBOL && classOf(current) != null)
+        {
+            if (declaredFields.get(current).contains(fieldSymbol))
+            {
+                return current;
+            }
+            current = classMap.getClassBinding(current).getParentSymbol();
+        }
+        return SymbolTable.NO_SYMBOL;
+    }
+
+    /**
+     * @param classSymbol 接收者的类;
+     * @param methodSymbol 方法;
+     * @return 本类或最近的祖先里的实现, 没有或父链成环就是 null;
+     */
+    public CvaMethod resolve(int classSymbol, int methodSymbol)
+    {
+        if (classOf(classSymbol) == null || classMap.isInCycle(classSymbol))
+        {
+            return null;
+        }
+        int current = classSymbol;
+        while (current != SymbolTable.NO_SYMBOL && classOf(current) != null)
+        {
+            CvaMethod method = declaredMethod(current, methodSymbol);
+            if (method != null)
+            {
+                return method;
+            }
+            current = classMap.getClassBinding(current).getParentSymbol();
+        }
+        return null;
+    }
+
+    /**
+     * @param classSymbol 类;
+     * @param methodSymbol 方法;
+     * @return 静态类型是 classSymbol 的调用可能执行的方法体, 找不到实现时为空;
+     */
+    public List<CvaMethod> targetsOf(int classSymbol, int methodSymbol)
+    {
+        List<CvaMethod> targets = new ArrayList<>(2);
+        CvaMethod resolved = resolve(classSymbol, methodSymbol);
+        if (resolved == null)
+        {
+            return targets;
+        }
+        targets.add(resolved);
+        for (int sub : classSymbolList)
+        {
+            if (sub != classSymbol && classMap.isSubclass(sub, classSymbol))
+            {
+                CvaMethod override = declaredMethod(sub, methodSymbol);
+                if (override != null)
+                {
+                    targets.add(override);
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @return 有没有别的类继承它;
+     */
+    public boolean hasSubclass(int classSymbol)
+    {
+        for (int sub : classSymbolList)
+        {
+            if (sub != classSymbol && classMap.isSubclass(sub, classSymbol))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 子类里有没有覆盖它;
+     */
+    public boolean isOverridden(int classSymbol, int methodSymbol)
+    {
+        for (int sub : classSymbolList)
+        {
+            if (sub != classSymbol && classMap.isSubclass(sub, classSymbol)
+                    && declaredMethod(sub, methodSymbol) != null)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
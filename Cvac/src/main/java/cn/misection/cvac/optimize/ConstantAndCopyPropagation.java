@@ -6,6 +6,7 @@ import cn.misection.cvac.ast.decl.*;
 import cn.misection.cvac.ast.entry.*;
 import cn.misection.cvac.ast.expr.*;
 import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.*;
 import cn.misection.cvac.ast.expr.unary.*;
 import cn.misection.cvac.ast.method.*;
 import cn.misection.cvac.ast.program.*;
@@ -13,28 +14,26 @@ import cn.misection.cvac.ast.statement.*;
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
 import cn.misection.cvac.ast.type.reference.CvaClassType;
 import cn.misection.cvac.ast.type.advance.CvaStringType;
-
-
-import java.util.HashMap;
-import java.util.Map;
+import cn.misection.cvac.symbol.IntMap;
+import cn.misection.cvac.symbol.IntSet;
 
 /**
  * Created by MI6 root 1/28.
  */
 public final class ConstantAndCopyPropagation
-        implements IVisitor, Optimizable
+        implements IVisitor, IMethodPass
 {
     /**
      * // constant or copy in current method;
      */
-    private Map<String, AbstractExpression> conorcopy;
+    private IntMap<AbstractExpression> conorcopy;
     private AbstractExpression curExpr;
     private boolean canChange;
 
     /**
-     * // if in while body, the left of assign should be delete from conorcopy
+     * 当前方法的参数和局部变量, 字段可能被调用改掉, 不传播;
      */
-    private boolean inWhile;
+    private IntSet localVars;
     private boolean isOptimizing;
 
     private boolean isEqual(AbstractExpression fir, AbstractExpression sec)
@@ -44,15 +43,15 @@ public final class ConstantAndCopyPropagation
                 && ((CvaConstIntExpr) fir).getValue() == ((CvaConstIntExpr) sec).getValue())
                 || (fir instanceof CvaIdentifierExpr
                 && sec instanceof CvaIdentifierExpr
-                && ((CvaIdentifierExpr) fir).getLiteral().equals(((CvaIdentifierExpr) sec).getLiteral()));
+                && ((CvaIdentifierExpr) fir).getSymbol() == ((CvaIdentifierExpr) sec).getSymbol());
 
     }
 
-    private Map<String, AbstractExpression> intersection(
-            Map<String, AbstractExpression> first,
-            Map<String, AbstractExpression> second)
+    private IntMap<AbstractExpression> intersection(
+            IntMap<AbstractExpression> first,
+            IntMap<AbstractExpression> second)
     {
-        Map<String, AbstractExpression> result = new HashMap<>();
+        IntMap<AbstractExpression> result = new IntMap<>();
         first.forEach((k, v) ->
         {
             if (second.containsKey(k) && isEqual(v, second.get(k)))
@@ -63,6 +62,43 @@ public final class ConstantAndCopyPropagation
         return result;
     }
 
+    /**
+     * 双目表达式的左右都试着替换;
+     * @param expr 双目表达式;
+     */
+    private void propagate(AbstractBinaryExpr expr)
+    {
+        this.visit(expr.getLeft());
+        if (this.canChange)
+        {
+            expr.setLeft(this.curExpr);
+        }
+        this.visit(expr.getRight());
+        if (this.canChange)
+        {
+            expr.setRight(this.curExpr);
+        }
+        this.canChange = false;
+    }
+
+    /**
+     * sym 被改写, 它自己的值和以它为源的复写都失效;
+     * @param sym 被写的变量;
+     */
+    private void kill(int sym)
+    {
+        this.conorcopy.remove(sym);
+        IntSet copies = new IntSet();
+        this.conorcopy.forEach((k, v) ->
+        {
+            if (v instanceof CvaIdentifierExpr && ((CvaIdentifierExpr) v).getSymbol() == sym)
+            {
+                copies.add(k);
+            }
+        });
+        copies.forEach(this.conorcopy::remove);
+    }
+
     @Override
     public void visit(EnumCvaType basicType) {}
 
@@ -132,11 +168,12 @@ public final class ConstantAndCopyPropagation
     @Override
     public void visit(CvaIdentifierExpr expr)
     {
-        if (this.conorcopy.containsKey(expr.getLiteral()))
+        AbstractExpression replacement = this.conorcopy.get(expr.getSymbol());
+        if (replacement != null)
         {
             this.isOptimizing = true;
             this.canChange = true;
-            this.curExpr = this.conorcopy.get(expr.getLiteral());
+            this.curExpr = replacement;
         }
         else
         {
@@ -236,25 +273,118 @@ public final class ConstantAndCopyPropagation
     }
 
     @Override
-    public void visit(CvaAssignStatement stm)
+    public void visit(CvaDivExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaRemainderExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaBitAndExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaBitOrExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaXorExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaLeftShiftExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaRightShiftExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaUnsignedRightShiftExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaMoreThanExpr expr)
+    {
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaOrOrExpr expr)
     {
-        if (this.inWhile)
+        propagate(expr);
+    }
+
+    @Override
+    public void visit(CvaBitNegateExpr expr)
+    {
+        this.visit(expr.getExpr());
+        if (this.canChange)
         {
-            this.conorcopy.remove(stm.getLiteral());
-            return;
+            expr.setExpr(this.curExpr);
         }
+        this.canChange = false;
+    }
 
-        if (stm.getExpr() instanceof CvaIdentifierExpr || stm.getExpr() instanceof CvaConstIntExpr)
+    @Override
+    public void visit(CvaConditionCalcExpr expr)
+    {
+        this.visit(expr.getCondition());
+        if (this.canChange)
         {
-            this.conorcopy.put(stm.getLiteral(), stm.getExpr());
+            expr.setCondition(this.curExpr);
         }
-        else
+        this.visit(expr.getTrueExpr());
+        if (this.canChange)
         {
-            this.visit(stm.getExpr());
-            if (this.canChange)
-            {
-                stm.setExpr(this.curExpr);
-            }
+            expr.setTrueExpr(this.curExpr);
+        }
+        this.visit(expr.getFalseExpr());
+        if (this.canChange)
+        {
+            expr.setFalseExpr(this.curExpr);
+        }
+        this.canChange = false;
+    }
+
+    @Override
+    public void visit(CvaAssignStatement stm)
+    {
+        this.visit(stm.getExpr());
+        if (this.canChange)
+        {
+            stm.setExpr(this.curExpr);
+        }
+        this.canChange = false;
+        if (!this.localVars.contains(stm.getSymbol()))
+        {
+            return;
+        }
+        kill(stm.getSymbol());
+        AbstractExpression value = stm.getExpr();
+        if (value instanceof CvaConstIntExpr
+                || (value instanceof CvaIdentifierExpr
+                && ((CvaIdentifierExpr) value).getSymbol() != stm.getSymbol()
+                && this.localVars.contains(((CvaIdentifierExpr) value).getSymbol())))
+        {
+            this.conorcopy.put(stm.getSymbol(), value);
         }
     }
 
@@ -267,22 +397,17 @@ public final class ConstantAndCopyPropagation
     @Override
     public void visit(CvaIfStatement stm)
     {
-        if (this.inWhile)
-        {
-            return;
-        }
-
         this.visit(stm.getCondition());
         if (this.canChange)
         {
             stm.setCondition(this.curExpr);
         }
+        this.canChange = false;
 
-        Map<String, AbstractExpression> originalMap = new HashMap<>();
-        this.conorcopy.forEach(originalMap::put);
+        IntMap<AbstractExpression> originalMap = new IntMap<>(this.conorcopy);
         this.visit(stm.getThenStatement());
 
-        Map<String, AbstractExpression> leftMap = this.conorcopy;
+        IntMap<AbstractExpression> leftMap = this.conorcopy;
         this.conorcopy = originalMap;
         if (stm.getElseStatement() != null)
         {
@@ -291,51 +416,55 @@ public final class ConstantAndCopyPropagation
         this.conorcopy = intersection(leftMap, this.conorcopy);
     }
 
-
     @Override
     public void visit(CvaWriteStatement stm)
     {
-        if (this.inWhile)
-        {
-            return;
-        }
-
         this.visit(stm.getExpr());
         if (this.canChange)
         {
             stm.setExpr(curExpr);
         }
+        this.canChange = false;
     }
 
     @Override
     public void visit(CvaWhileStatement stm)
     {
-        // TODO: it is wrong when in multi-layer-loop
-        // delete the var which be changed
-        this.inWhile = true;
-        this.visit(stm.getBody());
-        this.inWhile = false;
-
+        // 循环里写过的变量在每次进入时都不确定, 先全部作废;
+        UseDefCollector.of(stm).getDefs().forEach(this::kill);
         this.visit(stm.getCondition());
+        if (this.canChange)
+        {
+            stm.setCondition(this.curExpr);
+        }
+        this.canChange = false;
+
+        // 循环可能一次也不跑, 出来后只剩进入前的事实;
+        IntMap<AbstractExpression> entryMap = new IntMap<>(this.conorcopy);
         this.visit(stm.getBody());
+        this.conorcopy = entryMap;
     }
 
     @Override
     public void visit(CvaIncreStatement stm)
     {
-        // TODO;
+        kill(stm.getSymbol());
     }
 
     @Override
     public void visit(CvaMethod cvaMethod)
     {
-        this.conorcopy = new HashMap<>();
+        this.conorcopy = new IntMap<>();
+        this.localVars = new IntSet();
+        cvaMethod.getArgumentList().forEach(f -> localVars.add(f.symbol()));
+        cvaMethod.getLocalVarList().forEach(l -> localVars.add(l.symbol()));
         cvaMethod.getStatementList().forEach(this::visit);
         this.visit(cvaMethod.getRetExpr());
         if (this.canChange)
         {
             cvaMethod.setRetExpr(this.curExpr);
         }
+        this.canChange = false;
     }
 
     @Override
@@ -366,6 +495,14 @@ public final class ConstantAndCopyPropagation
         program.getClassList().forEach(this::visit);
     }
 
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        this.isOptimizing = false;
+        this.canChange = false;
+        this.visit(method);
+    }
+
     @Override
     public boolean isOptimizing()
     {
@@ -1,357 +1,188 @@
 package cn.misection.cvac.optimize;
 
-import cn.misection.cvac.ast.IVisitor;
-import cn.misection.cvac.ast.clas.*;
-import cn.misection.cvac.ast.decl.*;
-import cn.misection.cvac.ast.entry.*;
-import cn.misection.cvac.ast.expr.*;
-import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
 import cn.misection.cvac.ast.expr.unary.*;
-import cn.misection.cvac.ast.method.*;
-import cn.misection.cvac.ast.program.*;
-import cn.misection.cvac.ast.statement.*;
-import cn.misection.cvac.ast.type.basic.EnumCvaType;
-import cn.misection.cvac.ast.type.reference.CvaClassType;
-import cn.misection.cvac.ast.type.advance.CvaStringType;
+import cn.misection.cvac.ast.method.CvaMethod;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.IntBinaryOperator;
 
 /**
  * Created by MI6 root 1/23.
  */
-public final class ConstantFolder
-        implements IVisitor, Optimizable
+public final class ConstantFolder implements IRewriter
 {
-    private AbstractExpression lastExpr;
     private boolean isOptimizing;
 
-    private boolean isConstant()
+    /**
+     * 整数双目运算, 两边都是常量就折叠;
+     * @param expr 双目表达式, 孩子已经折叠过;
+     * @param operator 运算;
+     */
+    private AbstractExpression foldInt(AbstractBinaryExpr expr, IntBinaryOperator operator)
     {
-        return isConstant(lastExpr);
-    }
-
-    private boolean isConstant(AbstractExpression expr)
-    {
-        return expr instanceof CvaConstIntExpr
-                || expr instanceof CvaConstTrueExpr
-                || expr instanceof CvaConstFalseExpr;
-    }
-
-
-    @Override
-    public void visit(EnumCvaType basicType) {}
-
-    @Override
-    public void visit(CvaStringType type) {}
-
-    @Override
-    public void visit(CvaClassType type) {}
-
-
-    @Override
-    public void visit(CvaDeclaration decl) {}
-
-    @Override
-    public void visit(CvaAddExpr expr)
-    {
-        this.visit(expr.getLeft());
-        if (isConstant())
+        if (expr.getLeft() instanceof CvaConstIntExpr && expr.getRight() instanceof CvaConstIntExpr)
         {
-            CvaConstIntExpr temLeft = (CvaConstIntExpr) this.lastExpr;
-            this.visit(expr.getRight());
-            if (isConstant())
+            try
             {
+                int value = operator.applyAsInt(((CvaConstIntExpr) expr.getLeft()).getValue(),
+                        ((CvaConstIntExpr) expr.getRight()).getValue());
                 this.isOptimizing = true;
-                this.lastExpr = new CvaConstIntExpr(
-                        temLeft.getValue() + ((CvaConstIntExpr) this.lastExpr).getValue(),
-                        this.lastExpr.getLineNum());
+                return new CvaConstIntExpr(expr.getLineNum(), value);
             }
-            else
+            catch (ArithmeticException e)
             {
-                this.lastExpr = new CvaAddExpr(
-                        this.lastExpr.getLineNum(),
-                        temLeft,
-                        this.lastExpr);
+                // 除零留到运行时抛;
             }
         }
-        else
-        {
-            this.lastExpr = expr;
-        }
+        return expr;
     }
 
-    @Override
-    public void visit(CvaAndAndExpr expr)
+    /**
+     * 整数比较, 两边都是常量就折叠成 true/false;
+     * @param expr 比较表达式;
+     * @param operator 比较;
+     */
+    private AbstractExpression foldCompare(AbstractBinaryExpr expr, IntComparator operator)
     {
-        this.visit(expr.getLeft());
-        AbstractExpression temLeft = this.lastExpr;
-        this.visit(expr.getRight());
-        AbstractExpression temRight = this.lastExpr;
-
-        this.isOptimizing = true;
-        if (temLeft instanceof CvaConstFalseExpr
-                || temRight instanceof CvaConstFalseExpr)
+        if (expr.getLeft() instanceof CvaConstIntExpr && expr.getRight() instanceof CvaConstIntExpr)
         {
-            this.lastExpr = new CvaConstFalseExpr(expr.getLineNum());
-        }
-        else if (temLeft instanceof CvaConstTrueExpr
-                && temRight instanceof CvaConstTrueExpr)
-        {
-            this.lastExpr = temLeft;
-        }
-        else if (temLeft instanceof CvaConstTrueExpr)
-        {
-            this.lastExpr = temRight;
-        }
-        else if (temRight instanceof CvaConstTrueExpr)
-        {
-            this.lastExpr = temLeft;
-        }
-        else
-        {
-            this.isOptimizing = false;
-            this.lastExpr = expr;
+            this.isOptimizing = true;
+            return operator.test(((CvaConstIntExpr) expr.getLeft()).getValue(),
+                    ((CvaConstIntExpr) expr.getRight()).getValue())
+                    ? new CvaConstTrueExpr(expr.getLineNum())
+                    : new CvaConstFalseExpr(expr.getLineNum());
         }
+        return expr;
     }
 
-    @Override
-    public void visit(CvaCallExpr expr)
-    {
-        List<AbstractExpression> argList = new ArrayList<>();
-        expr.getArgs().forEach(arg ->
-        {
-            this.visit(arg);
-            argList.add(this.lastExpr);
-        });
-        expr.setArgs(argList);
-        this.lastExpr = expr;
-    }
-
-    @Override
-    public void visit(CvaConstFalseExpr expr)
+    /**
+     * 短路运算, 常量一边决定结果时另一边的调用还是要执行;
+     * @param expr && 或者 ||;
+     * @param isAnd 是不是 &&;
+     */
+    private AbstractExpression foldLogic(AbstractBinaryExpr expr, boolean isAnd)
     {
-        this.lastExpr = expr;
-    }
-
-    @Override
-    public void visit(CvaIdentifierExpr expr)
-    {
-        this.lastExpr = expr;
-    }
-
-    @Override
-    public void visit(CvaLessThanExpr expr)
-    {
-        this.visit(expr.getLeft());
-        if (isConstant())
-        {
-            CvaConstIntExpr temLeft = (CvaConstIntExpr) this.lastExpr;
-            this.visit(expr.getRight());
-            if (isConstant())
-            {
-                this.isOptimizing = true;
-                this.lastExpr = temLeft.getValue() < ((CvaConstIntExpr) this.lastExpr).getValue()
-                        ? new CvaConstTrueExpr(this.lastExpr.getLineNum())
-                        : new CvaConstFalseExpr(this.lastExpr.getLineNum());
-            }
-            else
-            {
-                this.lastExpr = new CvaLessThanExpr(
-                        this.lastExpr.getLineNum(),
-                        temLeft,
-                        this.lastExpr);
-            }
-        }
-        else
+        AbstractExpression left = expr.getLeft();
+        AbstractExpression right = expr.getRight();
+        // && 里 false 决定结果, true 可以去掉, || 反过来;
+        Class<?> decides = isAnd ? CvaConstFalseExpr.class : CvaConstTrueExpr.class;
+        Class<?> vanishes = isAnd ? CvaConstTrueExpr.class : CvaConstFalseExpr.class;
+        if (decides.isInstance(left)
+                || (decides.isInstance(right) && !hasCall(left)))
         {
-            this.lastExpr = expr;
+            this.isOptimizing = true;
+            return isAnd
+                    ? new CvaConstFalseExpr(expr.getLineNum())
+                    : new CvaConstTrueExpr(expr.getLineNum());
         }
-    }
-
-    @Override
-    public void visit(CvaNewExpr expr)
-    {
-        this.lastExpr = expr;
-    }
-
-    @Override
-    public void visit(CvaNegateExpr expr)
-    {
-        this.visit(expr.getExpr());
-        if (isConstant())
+        if (vanishes.isInstance(left))
         {
             this.isOptimizing = true;
-            this.lastExpr = this.lastExpr instanceof CvaConstTrueExpr
-                    ? new CvaConstFalseExpr(this.lastExpr.getLineNum())
-                    : new CvaConstTrueExpr(this.lastExpr.getLineNum());
+            return right;
         }
-        else
+        if (vanishes.isInstance(right))
         {
-            this.lastExpr = expr;
+            this.isOptimizing = true;
+            return left;
         }
+        return expr;
     }
 
-    @Override
-    public void visit(CvaConstIntExpr expr)
+    private static boolean hasCall(AbstractExpression expr)
     {
-        this.lastExpr = expr;
+        return UseDefCollector.ofExpr(expr).containsCall();
     }
 
-    @Override
-    public void visit(CvaConstStringExpr expr)
+    @FunctionalInterface
+    private interface IntComparator
     {
-        this.lastExpr = expr;
+        boolean test(int left, int right);
     }
 
     @Override
-    public void visit(CvaSubExpr expr)
+    public void enterMethod(CvaMethod method)
     {
-        this.visit(expr.getLeft());
-        if (isConstant())
-        {
-            CvaConstIntExpr temLeft = (CvaConstIntExpr) this.lastExpr;
-            this.visit(expr.getRight());
-            if (isConstant())
-            {
-                this.isOptimizing = true;
-                this.lastExpr = new CvaConstIntExpr(
-                        temLeft.getValue() - ((CvaConstIntExpr) this.lastExpr).getValue(),
-                        this.lastExpr.getLineNum());
-            }
-            else
-            {
-                this.lastExpr = new CvaSubExpr(
-                        this.lastExpr.getLineNum(),
-                        temLeft,
-                        this.lastExpr);
-            }
-        }
-        else
-        {
-            this.lastExpr = expr;
-        }
-    }
-
-    @Override
-    public void visit(CvaThisExpr expr)
-    {
-        this.lastExpr = expr;
+        this.isOptimizing = false;
     }
 
     @Override
-    public void visit(CvaMulExpr expr)
-    {
-        this.visit(expr.getLeft());
-        if (isConstant())
-        {
-            CvaConstIntExpr temLeft = (CvaConstIntExpr) this.lastExpr;
-            this.visit(expr.getRight());
-            if (isConstant())
+    public AbstractExpression rewrite(AbstractExpression expr)
+    {
+        switch (expr.toEnum())
+        {
+            case ADD:
+                return foldInt((AbstractBinaryExpr) expr, Integer::sum);
+            case SUB:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l - r);
+            case MUL:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l * r);
+            case DIV:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l / r);
+            case REMAINDER:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l % r);
+            case BIT_AND:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l & r);
+            case BIT_OR:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l | r);
+            case BIT_XOR:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l ^ r);
+            case LEFT_SHIFT:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l << r);
+            case RIGHT_SHIFT:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l >> r);
+            case UNSIGNED_RIGHT_SHIFT:
+                return foldInt((AbstractBinaryExpr) expr, (l, r) -> l >>> r);
+            case LESS_THAN:
+                return foldCompare((AbstractBinaryExpr) expr, (l, r) -> l < r);
+            case MORE_THAN:
+                return foldCompare((AbstractBinaryExpr) expr, (l, r) -> l > r);
+            case AND_AND:
+                return foldLogic((AbstractBinaryExpr) expr, true);
+            case OR_OR:
+                return foldLogic((AbstractBinaryExpr) expr, false);
+            case NEGATE:
             {
-                this.isOptimizing = true;
-                this.lastExpr = new CvaConstIntExpr(
-                        temLeft.getValue() * ((CvaConstIntExpr) this.lastExpr).getValue(),
-                        this.lastExpr.getLineNum());
+                AbstractExpression inner = ((CvaNegateExpr) expr).getExpr();
+                if (inner instanceof CvaConstTrueExpr || inner instanceof CvaConstFalseExpr)
+                {
+                    this.isOptimizing = true;
+                    return inner instanceof CvaConstTrueExpr
+                            ? new CvaConstFalseExpr(expr.getLineNum())
+                            : new CvaConstTrueExpr(expr.getLineNum());
+                }
+                return expr;
             }
-            else
+            case BIT_NEGATE:
             {
-                this.lastExpr = new CvaMulExpr(
-                        this.lastExpr.getLineNum(),
-                        temLeft,
-                        this.lastExpr);
+                AbstractExpression inner = ((CvaBitNegateExpr) expr).getExpr();
+                if (inner instanceof CvaConstIntExpr)
+                {
+                    this.isOptimizing = true;
+                    return new CvaConstIntExpr(expr.getLineNum(),
+                            ~((CvaConstIntExpr) inner).getValue());
+                }
+                return expr;
             }
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                if (condExpr.getCondition() instanceof CvaConstTrueExpr)
+                {
+                    this.isOptimizing = true;
+                    return condExpr.getTrueExpr();
+                }
+                if (condExpr.getCondition() instanceof CvaConstFalseExpr)
+                {
+                    this.isOptimizing = true;
+                    return condExpr.getFalseExpr();
+                }
+                return expr;
+            }
+            default:
+                return expr;
         }
-        else
-        {
-            this.lastExpr = expr;
-        }
-    }
-
-    @Override
-    public void visit(CvaConstTrueExpr expr)
-    {
-        this.lastExpr = expr;
-    }
-
-    @Override
-    public void visit(CvaAssignStatement stm)
-    {
-        this.visit(stm.getExpr());
-        stm.setExpr(this.lastExpr);
-    }
-
-    @Override
-    public void visit(CvaBlockStatement stm)
-    {
-        stm.getStatementList().forEach(this::visit);
-    }
-
-    @Override
-    public void visit(CvaIfStatement stm)
-    {
-        this.visit(stm.getCondition());
-        stm.setCondition(this.lastExpr);
-        this.visit(stm.getThenStatement());
-        if (stm.getElseStatement() != null)
-        {
-            this.visit(stm.getElseStatement());
-        }
-    }
-
-    @Override
-    public void visit(CvaWriteStatement stm)
-    {
-        this.visit(stm.getExpr());
-        stm.setExpr(this.lastExpr);
-    }
-
-    @Override
-    public void visit(CvaWhileStatement stm)
-    {
-        this.visit(stm.getCondition());
-        stm.setCondition(this.lastExpr);
-        this.visit(stm.getBody());
-    }
-
-    @Override
-    public void visit(CvaIncreStatement stm)
-    {
-        // TODO;
-    }
-
-    @Override
-    public void visit(CvaMethod cvaMethod)
-    {
-        cvaMethod.getStatementList().forEach(this::visit);
-        this.visit(cvaMethod.getRetExpr());
-        cvaMethod.setRetExpr(this.lastExpr);
-    }
-
-    @Override
-    public void visit(CvaMainMethod entryMethod)
-    {
-        // FIXME;
-    }
-
-    @Override
-    public void visit(CvaClass cvaClass)
-    {
-        cvaClass.getMethodList().forEach(this::visit);
-    }
-
-    @Override
-    public void visit(CvaEntryClass entryClass)
-    {
-        this.visit((CvaMainMethod) entryClass.getMainMethod());
-    }
-
-    @Override
-    public void visit(CvaProgram program)
-    {
-        this.isOptimizing = false;
-        this.visit(program.getEntryClass());
-        program.getClassList().forEach(this::visit);
     }
 
     @Override
@@ -5,6 +5,7 @@ import cn.misection.cvac.ast.clas.*;
 import cn.misection.cvac.ast.decl.*;
 import cn.misection.cvac.ast.entry.*;
 import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.*;
 import cn.misection.cvac.ast.expr.unary.*;
 import cn.misection.cvac.ast.method.*;
 import cn.misection.cvac.ast.program.*;
@@ -14,23 +15,29 @@ import cn.misection.cvac.ast.type.reference.CvaClassType;
 import cn.misection.cvac.ast.type.advance.CvaStringType;
 
 
-import java.util.HashSet;
-import java.util.Set;
+import cn.misection.cvac.symbol.IntSet;
+
+import java.util.ArrayList;
 
 /**
  * Created by MI6 root 1/27.
  */
 public final class DeadCodeDel
-        implements IVisitor, Optimizable
+        implements IVisitor, IMethodPass
 {
-    private Set<String> curFields;  // the fields of current class
-    private Set<String> localVars;  // the local variables and formals in current method
-    private Set<String> localLiveness;  // the living id in current statement
+    private IntSet localVars;  // the local variables and formals in current method
+    private IntSet localLiveness;  // the living id in current statement
     // private boolean isAssign;   // current id is in the left of assign(true), or is being evaluated(false)
     private boolean containsCall;   // current statement contains method call?
     private boolean shouldDel;  // should delete current statement?
     private boolean isOptimizing;
 
+    private static boolean isEmptyBlock(AbstractStatement stm)
+    {
+        return stm instanceof CvaBlockStatement
+                && ((CvaBlockStatement) stm).getStatementList().isEmpty();
+    }
+
     @Override
     public void visit(EnumCvaType basicType) {}
 
@@ -73,9 +80,9 @@ public final class DeadCodeDel
     @Override
     public void visit(CvaIdentifierExpr expr)
     {
-        if (this.localVars.contains(expr.getLiteral()))
+        if (this.localVars.contains(expr.getSymbol()))
         {
-            this.localLiveness.add(expr.getLiteral());
+            this.localLiveness.add(expr.getSymbol());
         }
     }
 
@@ -130,13 +137,98 @@ public final class DeadCodeDel
     {
     }
 
+    @Override
+    public void visit(CvaDivExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaRemainderExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaBitAndExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaBitOrExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaXorExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaLeftShiftExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaRightShiftExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaUnsignedRightShiftExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaMoreThanExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaOrOrExpr expr)
+    {
+        visit(expr.getLeft());
+        visit(expr.getRight());
+    }
+
+    @Override
+    public void visit(CvaBitNegateExpr expr)
+    {
+        visit(expr.getExpr());
+    }
+
+    @Override
+    public void visit(CvaConditionCalcExpr expr)
+    {
+        visit(expr.getCondition());
+        visit(expr.getTrueExpr());
+        visit(expr.getFalseExpr());
+    }
+
     @Override
     public void visit(CvaAssignStatement stm)
     {
-        if (this.localLiveness.contains(stm.getLiteral())
-                || this.curFields.contains(stm.getLiteral()))
+        // 字段包括继承来的都不在 localVars 里, 写字段不能删;
+        if (this.localLiveness.contains(stm.getSymbol())
+                || !this.localVars.contains(stm.getSymbol()))
         {
-            this.localLiveness.remove(stm.getLiteral());
+            this.localLiveness.remove(stm.getSymbol());
             visit(stm.getExpr());
             this.shouldDel = false;
             return;
@@ -144,10 +236,7 @@ public final class DeadCodeDel
 
         this.containsCall = false;
         visit(stm.getExpr());
-        if (this.containsCall)
-        {
-            this.shouldDel = false;
-        }
+        this.shouldDel = !this.containsCall;
     }
 
     @Override
@@ -168,32 +257,39 @@ public final class DeadCodeDel
     @Override
     public void visit(CvaIfStatement stm)
     {
-        Set<String> temOriginal = new HashSet<>(localLiveness);
+        IntSet temOriginal = new IntSet(localLiveness);
         visit(stm.getThenStatement());
-        if (this.shouldDel)
+        if (this.shouldDel && !isEmptyBlock(stm.getThenStatement()))
         {
-            stm.setThenStatement(null);
+            // 翻译时 then 分支不能缺, 换成空块;
+            this.isOptimizing = true;
+            stm.setThenStatement(new CvaBlockStatement(
+                    stm.getThenStatement().getLineNum(), new ArrayList<>()));
         }
-        Set<String> tehLeftLiveness = this.localLiveness;
+        boolean thenDead = this.shouldDel;
+        IntSet temThenLiveness = this.localLiveness;
 
-        this.localLiveness = temOriginal;
+        this.localLiveness = new IntSet(temOriginal);
+        boolean elseDead = true;
         if (stm.getElseStatement() != null)
         {
             visit(stm.getElseStatement());
+            elseDead = this.shouldDel;
+            if (elseDead)
+            {
+                this.isOptimizing = true;
+                stm.setElseStatement(null);
+            }
         }
-        if (this.shouldDel)
-        {
-            stm.setElseStatement(null);
-        }
-        this.localLiveness.addAll(tehLeftLiveness);
+        this.localLiveness.addAll(temThenLiveness);
 
-        this.shouldDel = stm.getThenStatement() == null;
+        this.containsCall = false;
+        visit(stm.getCondition());
+        this.shouldDel = thenDead && elseDead && !this.containsCall;
         if (this.shouldDel)
         {
             this.localLiveness = temOriginal;
-            return;
         }
-        visit(stm.getCondition());
     }
 
     @Override
@@ -206,34 +302,39 @@ public final class DeadCodeDel
     @Override
     public void visit(CvaWhileStatement stm)
     {
-        Set<String> temOriginal = new HashSet<>(localLiveness);
+        // 回边: 循环里读到的变量在循环体末尾都还活着;
+        this.localLiveness.addAll(UseDefCollector.of(stm).getUses());
         visit(stm.getBody());
-        if (this.shouldDel) // this statement will be deleted totally
+        if (this.shouldDel && !isEmptyBlock(stm.getBody()))
         {
-            this.localLiveness = temOriginal;
-            return;         // so return is safe.
+            this.isOptimizing = true;
+            stm.setBody(new CvaBlockStatement(
+                    stm.getBody().getLineNum(), new ArrayList<>()));
         }
-        // this.isAssign = false;
         visit(stm.getCondition());
+        // 空循环可能是死循环, 不删;
+        this.shouldDel = false;
     }
 
     @Override
     public void visit(CvaIncreStatement stm)
     {
-        // TODO;
+        // 自增既读又写, 活跃集合不变;
+        this.shouldDel = this.localVars.contains(stm.getSymbol())
+                && !this.localLiveness.contains(stm.getSymbol());
     }
 
     @Override
     public void visit(CvaMethod m)
     {
-        this.localVars = new HashSet<>();
+        this.localVars = new IntSet();
         m.getArgumentList().forEach(f ->
-                localVars.add((f.literal())));
+                localVars.add(f.symbol()));
 
         m.getLocalVarList().forEach(l ->
-                localVars.add((l.literal())));
+                localVars.add(l.symbol()));
 
-        localLiveness = new HashSet<>();
+        localLiveness = new IntSet();
 
         visit(m.getRetExpr());
         for (int i = m.getStatementList().size() - 1; i >= 0; i--)
@@ -256,10 +357,6 @@ public final class DeadCodeDel
     @Override
     public void visit(CvaClass c)
     {
-        this.curFields = new HashSet<>();
-        c.getFieldList().forEach(f ->
-                this.curFields.add((f.literal())));
-
         c.getMethodList().forEach(this::visit);
     }
 
@@ -275,6 +372,13 @@ public final class DeadCodeDel
         program.getClassList().forEach(this::visit);
     }
 
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        this.isOptimizing = false;
+        this.visit(method);
+    }
+
     @Override
     public boolean isOptimizing()
     {
@@ -0,0 +1,200 @@
+package cn.misection.cvac.optimize;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName EnumOptimizePass
+ * @Description 各个优化, 声明顺序就是一轮里的运行顺序;
+ * 每个优化记着它改动一个方法后, 哪些优化在这个方法上可能又有事做, 只有这些会被重新排上;
+ * 内联打头, 拷进来的方法体一轮里后面的优化都能看到, 紧接着的几个是 IRewriter, 可以合成一遍走;
+ * @CreateTime 2026年10月17日 23:40:00
+ */
+public enum EnumOptimizePass
+{
+    /**
+     * 方法内联, 拷进来的方法体什么优化都可能有事做, 里面的调用下一轮再展开;
+     */
+    METHOD_INLINING,
+
+    /**
+     * 常量折叠, 条件变成常量, 操作数消失都会影响后面的;
+     */
+    CONSTANT_FOLDER,
+
+    /**
+     * 删常量条件下走不到的分支, 少了读写;
+     */
+    UN_REACHABLE_DEL,
+
+    /**
+     * 删没用过的局部变量声明, 不影响别人, 合成一遍时排在最后才看得到前面改完的树;
+     */
+    UN_USED_VAR_DECL,
+
+    /**
+     * 删死赋值, 删掉的赋值里的读也没了, 自己可能还有下一层;
+     */
+    DEAD_CODE_DEL,
+
+    /**
+     * 常量和复写传播, 传出的常量要折叠, 替换后的复写可能还能再传;
+     * 默认的生成不走 SSA, 复写只能在这里消掉;
+     */
+    CONSTANT_AND_COPY_PROPAGATION,
+
+    /**
+     * 稀疏条件常量传播, 一遍就到不动点, 传出的常量要折叠, 删了分支会多出死赋值;
+     */
+    SPARSE_CONSTANT_PROPAGATION,
+
+    /**
+     * 循环不变量外提, 提出去的临时变量交给值编号合并;
+     */
+    LOOP_INVARIANT_CODE_MOTION,
+
+    /**
+     * 强度削减, 归纳变量的乘法换成加法, 2 的幂换成移位, 多出的初值和移位交给外提和值编号;
+     */
+    STRENGTH_REDUCTION,
+
+    /**
+     * 全局值编号, 重复的计算换成读临时变量, 换下来的副本可能成了死赋值;
+     */
+    GLOBAL_VALUE_NUMBERING,
+    ;
+
+    private static final EnumOptimizePass[] VALUES = values();
+
+    /**
+     * 第 i 个优化改动后要重新排上的优化, 按 ordinal 的位集合;
+     */
+    private static final int[] AFFECTS = new int[VALUES.length];
+
+    static
+    {
+        affects(UN_USED_VAR_DECL);
+        affects(METHOD_INLINING, VALUES);
+        affects(CONSTANT_FOLDER,
+                UN_USED_VAR_DECL, UN_REACHABLE_DEL, DEAD_CODE_DEL, CONSTANT_AND_COPY_PROPAGATION,
+                SPARSE_CONSTANT_PROPAGATION,
+                LOOP_INVARIANT_CODE_MOTION, STRENGTH_REDUCTION, GLOBAL_VALUE_NUMBERING);
+        affects(UN_REACHABLE_DEL,
+                UN_USED_VAR_DECL, DEAD_CODE_DEL, CONSTANT_AND_COPY_PROPAGATION,
+                SPARSE_CONSTANT_PROPAGATION,
+                LOOP_INVARIANT_CODE_MOTION, STRENGTH_REDUCTION, GLOBAL_VALUE_NUMBERING);
+        affects(DEAD_CODE_DEL,
+                UN_USED_VAR_DECL, DEAD_CODE_DEL, CONSTANT_AND_COPY_PROPAGATION,
+                SPARSE_CONSTANT_PROPAGATION,
+                LOOP_INVARIANT_CODE_MOTION, STRENGTH_REDUCTION, GLOBAL_VALUE_NUMBERING);
+        affects(CONSTANT_AND_COPY_PROPAGATION,
+                UN_USED_VAR_DECL, CONSTANT_FOLDER, DEAD_CODE_DEL, CONSTANT_AND_COPY_PROPAGATION,
+                LOOP_INVARIANT_CODE_MOTION, STRENGTH_REDUCTION, GLOBAL_VALUE_NUMBERING);
+        affects(SPARSE_CONSTANT_PROPAGATION,
+                UN_USED_VAR_DECL, CONSTANT_FOLDER, DEAD_CODE_DEL,
+                LOOP_INVARIANT_CODE_MOTION, STRENGTH_REDUCTION, GLOBAL_VALUE_NUMBERING);
+        affects(LOOP_INVARIANT_CODE_MOTION,
+                STRENGTH_REDUCTION, GLOBAL_VALUE_NUMBERING);
+        affects(STRENGTH_REDUCTION,
+                DEAD_CODE_DEL, LOOP_INVARIANT_CODE_MOTION, GLOBAL_VALUE_NUMBERING);
+        affects(GLOBAL_VALUE_NUMBERING,
+                UN_USED_VAR_DECL, DEAD_CODE_DEL, LOOP_INVARIANT_CODE_MOTION);
+    }
+
+    private static void affects(EnumOptimizePass pass, EnumOptimizePass... affected)
+    {
+        for (EnumOptimizePass target : affected)
+        {
+            AFFECTS[pass.ordinal()] |= target.bit();
+        }
+    }
+
+    public static EnumOptimizePass valueOf(int ordinal)
+    {
+        return VALUES[ordinal];
+    }
+
+    public static int count()
+    {
+        return VALUES.length;
+    }
+
+    /**
+     * @return 全部优化的位集合;
+     */
+    public static int all()
+    {
+        return (1 << VALUES.length) - 1;
+    }
+
+    public int bit()
+    {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @return 本优化改动后要重新排上的位集合;
+     */
+    public int affects()
+    {
+        return AFFECTS[ordinal()];
+    }
+
+    /**
+     * @return 能不能和别的 IRewriter 合成一遍;
+     */
+    public boolean isFusable()
+    {
+        return this == CONSTANT_FOLDER
+                || this == UN_REACHABLE_DEL
+                || this == UN_USED_VAR_DECL;
+    }
+
+    /**
+     * @return 可合并的优化的改写;
+     * @throws IllegalStateException 不可合并;
+     */
+    public IRewriter createRewriter()
+    {
+        switch (this)
+        {
+            case CONSTANT_FOLDER:
+                return new ConstantFolder();
+            case UN_REACHABLE_DEL:
+                return new UnReachableDel();
+            case UN_USED_VAR_DECL:
+            {
+                UnUsedVarDecl varDeler = new UnUsedVarDecl();
+                varDeler.givesWarning = true;
+                return varDeler;
+            }
+            default:
+                throw new IllegalStateException(String.format("%s is not a rewriter", this));
+        }
+    }
+
+    public IMethodPass create()
+    {
+        if (isFusable())
+        {
+            return new RewriteWalker(createRewriter());
+        }
+        switch (this)
+        {
+            case METHOD_INLINING:
+                return new MethodInliner();
+            case DEAD_CODE_DEL:
+                return new DeadCodeDel();
+            case CONSTANT_AND_COPY_PROPAGATION:
+                return new ConstantAndCopyPropagation();
+            case SPARSE_CONSTANT_PROPAGATION:
+                return new SparseConstantPropagation();
+            case LOOP_INVARIANT_CODE_MOTION:
+                return new LoopInvariantCodeMotion();
+            case STRENGTH_REDUCTION:
+                return new StrengthReduction();
+            case GLOBAL_VALUE_NUMBERING:
+            default:
+                return new GlobalValueNumbering();
+        }
+    }
+}
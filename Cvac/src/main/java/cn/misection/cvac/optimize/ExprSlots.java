@@ -0,0 +1,155 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.CvaBitNegateExpr;
+import cn.misection.cvac.ast.expr.unary.CvaCallExpr;
+import cn.misection.cvac.ast.expr.unary.CvaNegateExpr;
+import cn.misection.cvac.ast.statement.*;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName ExprSlots
+ * @Description 语句和表达式里挂表达式的位置, 连同换掉它的办法, 在原树上就地改写的优化共用;
+ * @CreateTime 2026年10月18日 04:55:00
+ */
+final class ExprSlots
+{
+    private ExprSlots() {}
+
+    @FunctionalInterface
+    interface ISlotConsumer
+    {
+        /**
+         * @param expr 语句里的一个表达式;
+         * @param replacer 换掉它;
+         * @param isWritten 是不是 println 的整个操作数;
+         */
+        void accept(AbstractExpression expr, Consumer<AbstractExpression> replacer, boolean isWritten);
+    }
+
+    @FunctionalInterface
+    interface IChildConsumer
+    {
+        void accept(AbstractExpression child, Consumer<AbstractExpression> replacer);
+    }
+
+    static void forEachExpr(AbstractStatement stm, Consumer<AbstractExpression> consumer)
+    {
+        forEachSlot(stm, (expr, replacer, isWritten) -> consumer.accept(expr));
+    }
+
+    /**
+     * 语句连同子语句里直接挂着的表达式;
+     */
+    static void forEachSlot(AbstractStatement stm, ISlotConsumer consumer)
+    {
+        if (stm == null)
+        {
+            return;
+        }
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                CvaAssignStatement assign = (CvaAssignStatement) stm;
+                consumer.accept(assign.getExpr(), assign::setExpr, false);
+                break;
+            }
+            case WRITE:
+            {
+                CvaWriteStatement write = (CvaWriteStatement) stm;
+                consumer.accept(write.getExpr(), write::setExpr, true);
+                break;
+            }
+            case BLOCK:
+            {
+                // 走的时候不能往这个列表里插语句;
+                for (AbstractStatement child : ((CvaBlockStatement) stm).getStatementList())
+                {
+                    forEachSlot(child, consumer);
+                }
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                consumer.accept(ifStm.getCondition(), ifStm::setCondition, false);
+                forEachSlot(ifStm.getThenStatement(), consumer);
+                forEachSlot(ifStm.getElseStatement(), consumer);
+                break;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                consumer.accept(whileStm.getCondition(), whileStm::setCondition, false);
+                forEachSlot(whileStm.getBody(), consumer);
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+    }
+
+    static void forEachChild(AbstractExpression expr, Consumer<AbstractExpression> consumer)
+    {
+        forEachChildSlot(expr, (child, replacer) -> consumer.accept(child));
+    }
+
+    static void forEachChildSlot(AbstractExpression expr, IChildConsumer consumer)
+    {
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+            consumer.accept(binary.getLeft(), binary::setLeft);
+            consumer.accept(binary.getRight(), binary::setRight);
+            return;
+        }
+        switch (expr.toEnum())
+        {
+            case NEGATE:
+            {
+                CvaNegateExpr negate = (CvaNegateExpr) expr;
+                consumer.accept(negate.getExpr(), negate::setExpr);
+                break;
+            }
+            case BIT_NEGATE:
+            {
+                CvaBitNegateExpr negate = (CvaBitNegateExpr) expr;
+                consumer.accept(negate.getExpr(), negate::setExpr);
+                break;
+            }
+            case CALL:
+            {
+                CvaCallExpr call = (CvaCallExpr) expr;
+                consumer.accept(call.getExpr(), call::setExpr);
+                List<AbstractExpression> args = call.getArgs();
+                for (int i = 0; i < args.size(); i++)
+                {
+                    final int index = i;
+                    consumer.accept(args.get(i), arg -> args.set(index, arg));
+                }
+                break;
+            }
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                consumer.accept(condExpr.getCondition(), condExpr::setCondition);
+                consumer.accept(condExpr.getTrueExpr(), condExpr::setTrueExpr);
+                consumer.accept(condExpr.getFalseExpr(), condExpr::setFalseExpr);
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+    }
+}
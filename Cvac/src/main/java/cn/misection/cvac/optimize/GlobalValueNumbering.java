@@ -0,0 +1,777 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.decl.CvaDeclaration;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.EnumCvaExpr;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.symbol.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName GlobalValueNumbering
+ * @Description 全局值编号加公共子表达式消除: 按支配顺序走语句, 值编号相同且前面算过的表达式换成存着它的局部变量;
+ * 前面的值还在原来的变量里就直接读变量, 否则在第一次计算的语句前面插一个 $cse 临时变量;
+ * 字段读带着字段的版本和调用的纪元, 写字段升版本, 有调用升纪元, 之前读到的值就不再复用;
+ * @CreateTime 2026年10月18日 03:20:00
+ */
+public final class GlobalValueNumbering implements IMethodPass
+{
+    private static final String TEMP_PREFIX = "$cse";
+
+    private static final int NOT_LOCAL = -1;
+
+    private static final int NO_HOLDER = -1;
+
+    private CvaMethod method;
+
+    /**
+     * 参数和局部变量在 varValues 里的下标;
+     */
+    private IntIntMap slotOf;
+
+    /**
+     * 每个变量当前的值编号;
+     */
+    private int[] varValues;
+
+    /**
+     * 临时变量只赋值一次, 值编号不随分支和循环作废;
+     */
+    private IntIntMap tempValues;
+
+    /**
+     * 字段的版本, 写一次加一;
+     */
+    private IntIntMap fieldVersions;
+
+    /**
+     * 调用纪元, 有调用就加一, 之前读的字段都作废;
+     */
+    private int epoch;
+
+    private int nextValue;
+
+    private int nextTemp;
+
+    private final Map<ValueKey, Integer> valueTable = new HashMap<>();
+
+    /**
+     * 可用表达式, 按作用域一层一层, 进 if 分支和循环体时压栈;
+     */
+    private final List<Map<Integer, Entry>> scopeList = new ArrayList<>();
+
+    /**
+     * 当前语句里表达式的值编号, 一条语句内变量的值不变;
+     */
+    private final Map<AbstractExpression, Integer> memo = new IdentityHashMap<>();
+
+    /**
+     * 当前语句所在的语句列表, 为 null 时没处插临时变量, 只复用不记录;
+     */
+    private List<AbstractStatement> ownerList;
+
+    private AbstractStatement anchor;
+
+    private boolean statementHasCall;
+
+    private boolean isOptimizing;
+
+    /**
+     * 一个已经算过的值;
+     */
+    private static final class Entry
+    {
+        private final int value;
+
+        private final AbstractExpression node;
+
+        /**
+         * 把 node 在父结点里换掉;
+         */
+        private final Consumer<AbstractExpression> replacer;
+
+        private final List<AbstractStatement> ownerList;
+
+        /**
+         * 插临时变量的位置, 在它前面插;
+         */
+        private AbstractStatement anchor;
+
+        private final ICvaType type;
+
+        /**
+         * node 子树里记录的值, node 搬走时它们的插入点跟着搬;
+         */
+        private final List<Entry> nestedList = new ArrayList<>();
+
+        /**
+         * node 整个赋给的局部变量;
+         */
+        private int holder = NO_HOLDER;
+
+        private String holderLiteral;
+
+        private ICvaType holderType;
+
+        private String tempLiteral;
+
+        private Entry(int value, AbstractExpression node, Consumer<AbstractExpression> replacer,
+                      List<AbstractStatement> ownerList, AbstractStatement anchor, ICvaType type)
+        {
+            this.value = value;
+            this.node = node;
+            this.replacer = replacer;
+            this.ownerList = ownerList;
+            this.anchor = anchor;
+            this.type = type;
+        }
+
+        private void moveAnchor(AbstractStatement anchor)
+        {
+            this.anchor = anchor;
+            nestedList.forEach(nested -> nested.moveAnchor(anchor));
+        }
+    }
+
+    /**
+     * 值编号的结构键, 运算加操作数的编号;
+     */
+    private static final class ValueKey
+    {
+        private final int op;
+
+        private final int first;
+
+        private final int second;
+
+        private final int third;
+
+        private ValueKey(int op, int first, int second, int third)
+        {
+            this.op = op;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof ValueKey))
+            {
+                return false;
+            }
+            ValueKey other = (ValueKey) obj;
+            return op == other.op
+                    && first == other.first
+                    && second == other.second
+                    && third == other.third;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return ((op * 31 + first) * 31 + second) * 31 + third;
+        }
+    }
+
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        this.method = method;
+        this.isOptimizing = false;
+        this.slotOf = new IntIntMap();
+        this.tempValues = new IntIntMap();
+        this.fieldVersions = new IntIntMap();
+        this.epoch = 0;
+        this.nextValue = 0;
+        this.nextTemp = 0;
+        valueTable.clear();
+        scopeList.clear();
+        method.getArgumentList().forEach(this::declare);
+        method.getLocalVarList().forEach(this::declare);
+        this.varValues = new int[slotOf.size()];
+        for (int i = 0; i < varValues.length; i++)
+        {
+            varValues[i] = fresh();
+        }
+
+        scopeList.add(new HashMap<>());
+        visitList(method.getStatementList());
+        // return 后面没有语句, 只复用;
+        this.ownerList = null;
+        this.anchor = null;
+        this.statementHasCall = UseDefCollector.ofExpr(method.getRetExpr()).containsCall();
+        memo.clear();
+        visitExpr(method.getRetExpr(), method::setRetExpr, false, false, null);
+        memo.clear();
+        scopeList.clear();
+        this.method = null;
+    }
+
+    @Override
+    public boolean isOptimizing()
+    {
+        return this.isOptimizing;
+    }
+
+    private void declare(AbstractDeclaration decl)
+    {
+        CvaDeclaration d = (CvaDeclaration) decl;
+        if (d.literal().startsWith(TEMP_PREFIX))
+        {
+            // 上一遍留下的临时变量, 编号接着往后排;
+            try
+            {
+                nextTemp = Math.max(nextTemp,
+                        Integer.parseInt(d.literal().substring(TEMP_PREFIX.length())) + 1);
+            }
+            catch (NumberFormatException e)
+            {
+                // 不是这里起的名字;
+            }
+        }
+        slotOf.put(d.symbol(), slotOf.size());
+    }
+
+    private int fresh()
+    {
+        return nextValue++;
+    }
+
+    private int valueOfKey(int op, int first, int second, int third)
+    {
+        return valueTable.computeIfAbsent(new ValueKey(op, first, second, third), k -> fresh());
+    }
+
+    private void visitList(List<AbstractStatement> stmList)
+    {
+        for (int i = 0; i < stmList.size(); i++)
+        {
+            AbstractStatement stm = stmList.get(i);
+            visitStatement(stm, stmList);
+            // 前面可能插了临时变量, 按引用重新找;
+            i = indexOf(stmList, stm);
+        }
+    }
+
+    private static int indexOf(List<AbstractStatement> stmList, AbstractStatement stm)
+    {
+        for (int i = 0; i < stmList.size(); i++)
+        {
+            if (stmList.get(i) == stm)
+            {
+                return i;
+            }
+        }
+        throw new IllegalStateException("statement lost while numbering values");
+    }
+
+    /**
+     * 分支和循环体, 是块就能在里面插临时变量;
+     */
+    private void visitArm(AbstractStatement stm)
+    {
+        if (stm instanceof CvaBlockStatement)
+        {
+            visitList(((CvaBlockStatement) stm).getStatementList());
+        }
+        else if (stm != null)
+        {
+            visitStatement(stm, null);
+        }
+    }
+
+    private void visitStatement(AbstractStatement stm, List<AbstractStatement> owner)
+    {
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                CvaAssignStatement assign = (CvaAssignStatement) stm;
+                enterStatement(stm, owner, assign.getExpr());
+                Entry entry = visitExpr(assign.getExpr(), assign::setExpr, true, false, null);
+                int value = valueOf(assign.getExpr());
+                leaveStatement();
+                int slot = slotOf.get(assign.getSymbol(), NOT_LOCAL);
+                if (slot == NOT_LOCAL)
+                {
+                    killField(assign.getSymbol());
+                }
+                else
+                {
+                    varValues[slot] = value;
+                    if (entry != null)
+                    {
+                        entry.holder = assign.getSymbol();
+                        entry.holderLiteral = assign.getLiteral();
+                        entry.holderType = assign.getType();
+                    }
+                }
+                break;
+            }
+            case WRITE:
+            {
+                CvaWriteStatement write = (CvaWriteStatement) stm;
+                enterStatement(stm, owner, write.getExpr());
+                visitExpr(write.getExpr(), write::setExpr, true, true, null);
+                leaveStatement();
+                break;
+            }
+            case INCREMENT:
+            {
+                kill(((CvaIncreStatement) stm).getSymbol());
+                break;
+            }
+            case BLOCK:
+            {
+                visitList(((CvaBlockStatement) stm).getStatementList());
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                enterStatement(stm, owner, ifStm.getCondition());
+                visitExpr(ifStm.getCondition(), ifStm::setCondition, true, false, null);
+                leaveStatement();
+
+                int[] before = varValues.clone();
+                scopeList.add(new HashMap<>());
+                visitArm(ifStm.getThenStatement());
+                scopeList.remove(scopeList.size() - 1);
+                this.varValues = before.clone();
+                scopeList.add(new HashMap<>());
+                visitArm(ifStm.getElseStatement());
+                scopeList.remove(scopeList.size() - 1);
+                this.varValues = before;
+                // 两边汇合, 任一边写过的都作废;
+                UseDefCollector arms = new UseDefCollector();
+                arms.addStatement(ifStm.getThenStatement());
+                arms.addStatement(ifStm.getElseStatement());
+                killAll(arms);
+                break;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                UseDefCollector loop = UseDefCollector.of(whileStm);
+                // 回边带回来的值在进循环时就不一样了;
+                killAll(loop);
+                // 条件每一轮都算, 插到循环前面只算一次, 所以只复用不记录;
+                enterStatement(stm, null, whileStm.getCondition());
+                visitExpr(whileStm.getCondition(), whileStm::setCondition, false, false, null);
+                leaveStatement();
+
+                scopeList.add(new HashMap<>());
+                visitArm(whileStm.getBody());
+                scopeList.remove(scopeList.size() - 1);
+                killAll(loop);
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param stm 语句, 临时变量插在它前面;
+     * @param owner 语句所在的列表;
+     * @param expr 语句自己算的表达式;
+     */
+    private void enterStatement(AbstractStatement stm, List<AbstractStatement> owner,
+                                AbstractExpression expr)
+    {
+        this.ownerList = owner;
+        this.anchor = stm;
+        this.statementHasCall = UseDefCollector.ofExpr(expr).containsCall();
+        if (statementHasCall)
+        {
+            // 调用前读的字段和调用后读的不一定一样;
+            epoch++;
+        }
+        memo.clear();
+    }
+
+    private void leaveStatement()
+    {
+        if (statementHasCall)
+        {
+            epoch++;
+        }
+        memo.clear();
+        this.ownerList = null;
+        this.anchor = null;
+    }
+
+    private void kill(int symbol)
+    {
+        int slot = slotOf.get(symbol, NOT_LOCAL);
+        if (slot == NOT_LOCAL)
+        {
+            killField(symbol);
+        }
+        else
+        {
+            varValues[slot] = fresh();
+        }
+    }
+
+    private void killField(int symbol)
+    {
+        fieldVersions.put(symbol, fieldVersions.get(symbol, 0) + 1);
+    }
+
+    private void killAll(UseDefCollector collector)
+    {
+        collector.getDefs().forEach(this::kill);
+        if (collector.containsCall())
+        {
+            epoch++;
+        }
+    }
+
+    private Entry lookup(int value)
+    {
+        for (int i = scopeList.size() - 1; i >= 0; i--)
+        {
+            Entry entry = scopeList.get(i).get(value);
+            if (entry != null)
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 表达式的值编号, 操作数先编号, 可交换的运算按编号排好;
+     */
+    private int valueOf(AbstractExpression expr)
+    {
+        Integer cached = memo.get(expr);
+        if (cached != null)
+        {
+            return cached;
+        }
+        int value;
+        EnumCvaExpr op = expr.toEnum();
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            int left = valueOf(((AbstractBinaryExpr) expr).getLeft());
+            int right = valueOf(((AbstractBinaryExpr) expr).getRight());
+            if (op == EnumCvaExpr.MORE_THAN)
+            {
+                // a > b 就是 b < a;
+                op = EnumCvaExpr.LESS_THAN;
+                int swap = left;
+                left = right;
+                right = swap;
+            }
+            else if (isCommutative(op) && left > right)
+            {
+                int swap = left;
+                left = right;
+                right = swap;
+            }
+            value = valueOfKey(op.ordinal(), left, right, 0);
+        }
+        else
+        {
+            switch (op)
+            {
+                case NEGATE:
+                    value = valueOfKey(op.ordinal(), valueOf(((CvaNegateExpr) expr).getExpr()), 0, 0);
+                    break;
+                case BIT_NEGATE:
+                    value = valueOfKey(op.ordinal(), valueOf(((CvaBitNegateExpr) expr).getExpr()), 0, 0);
+                    break;
+                case CONST_INT:
+                    value = valueOfKey(op.ordinal(), ((CvaConstIntExpr) expr).getValue(), 0, 0);
+                    break;
+                case CONST_TRUE:
+                case CONST_FALSE:
+                case THIS:
+                    value = valueOfKey(op.ordinal(), 0, 0, 0);
+                    break;
+                case IDENTIFIER:
+                    value = valueOfIdentifier((CvaIdentifierExpr) expr);
+                    break;
+                case CONDITION_CALC:
+                {
+                    CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                    value = valueOfKey(op.ordinal(), valueOf(condExpr.getCondition()),
+                            valueOf(condExpr.getTrueExpr()), valueOf(condExpr.getFalseExpr()));
+                    break;
+                }
+                default:
+                    // 调用, new, 字符串每次都是新值;
+                    value = fresh();
+                    break;
+            }
+        }
+        memo.put(expr, value);
+        return value;
+    }
+
+    private int valueOfIdentifier(CvaIdentifierExpr id)
+    {
+        int symbol = id.getSymbol();
+        if (id.isField())
+        {
+            return valueOfKey(EnumCvaExpr.IDENTIFIER.ordinal(), symbol,
+                    fieldVersions.get(symbol, 0), epoch);
+        }
+        int temp = tempValues.get(symbol, NOT_LOCAL);
+        if (temp != NOT_LOCAL)
+        {
+            return temp;
+        }
+        int slot = slotOf.get(symbol, NOT_LOCAL);
+        return slot == NOT_LOCAL ? fresh() : varValues[slot];
+    }
+
+    private static boolean isCommutative(EnumCvaExpr op)
+    {
+        switch (op)
+        {
+            case ADD:
+            case MUL:
+            case BIT_AND:
+            case BIT_OR:
+            case BIT_XOR:
+            case XOR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return 值能放进局部变量的类型, 不能就是 null;
+     */
+    private static ICvaType candidateType(AbstractExpression expr)
+    {
+        if (expr instanceof CvaIdentifierExpr)
+        {
+            CvaIdentifierExpr id = (CvaIdentifierExpr) expr;
+            if (!id.isField() || id.getType() == null)
+            {
+                return null;
+            }
+            ICvaType type = id.getType();
+            return type instanceof CvaClassType || isPrimitive(type.toEnum()) ? type : null;
+        }
+        if (expr instanceof AbstractBinaryExpr
+                || expr instanceof CvaNegateExpr
+                || expr instanceof CvaBitNegateExpr)
+        {
+            EnumCvaType type = expr.resType();
+            return isPrimitive(type) ? type : null;
+        }
+        return null;
+    }
+
+    private static boolean isPrimitive(EnumCvaType type)
+    {
+        return type == EnumCvaType.CVA_INT || type == EnumCvaType.CVA_BOOLEAN;
+    }
+
+    /**
+     * 除零会抛, 字段读的是调用前还是后的, 所以有调用的语句里这些不能提到语句前面;
+     */
+    private static boolean dependsOnOrder(AbstractExpression expr)
+    {
+        switch (expr.toEnum())
+        {
+            case DIV:
+            case REMAINDER:
+                return true;
+            case IDENTIFIER:
+                return ((CvaIdentifierExpr) expr).isField();
+            case NEGATE:
+                return dependsOnOrder(((CvaNegateExpr) expr).getExpr());
+            case BIT_NEGATE:
+                return dependsOnOrder(((CvaBitNegateExpr) expr).getExpr());
+            default:
+                break;
+        }
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            return dependsOnOrder(((AbstractBinaryExpr) expr).getLeft())
+                    || dependsOnOrder(((AbstractBinaryExpr) expr).getRight());
+        }
+        return false;
+    }
+
+    /**
+     * 自顶向下, 整个表达式前面算过就整个换掉, 否则看孩子, 最后把自己记下来;
+     * @param expr 表达式;
+     * @param replacer 在父结点里换掉它;
+     * @param hoistable 每次执行语句都会算到, 能提到语句前面;
+     * @param isWritten 是 println 的整个操作数, 打印的类型看它;
+     * @param parent 外层记录的值;
+     * @return 本结点记下的值;
+     */
+    private Entry visitExpr(AbstractExpression expr, Consumer<AbstractExpression> replacer,
+                            boolean hoistable, boolean isWritten, Entry parent)
+    {
+        if (expr == null)
+        {
+            return null;
+        }
+        ICvaType type = candidateType(expr);
+        int value = valueOf(expr);
+        if (type != null)
+        {
+            Entry available = lookup(value);
+            if (available != null && reuse(available, replacer, isWritten, expr.getLineNum()))
+            {
+                return null;
+            }
+        }
+
+        Entry entry = null;
+        if (type != null && hoistable && ownerList != null
+                && !(statementHasCall && dependsOnOrder(expr)))
+        {
+            entry = new Entry(value, expr, replacer, ownerList, anchor, type);
+        }
+        visitChildren(expr, hoistable, entry);
+        if (entry != null)
+        {
+            scopeList.get(scopeList.size() - 1).put(value, entry);
+            if (parent != null)
+            {
+                parent.nestedList.add(entry);
+            }
+        }
+        return entry;
+    }
+
+    private void visitChildren(AbstractExpression expr, boolean hoistable, Entry entry)
+    {
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+            boolean isShortCircuit = expr.toEnum() == EnumCvaExpr.AND_AND
+                    || expr.toEnum() == EnumCvaExpr.OR_OR;
+            visitExpr(binary.getLeft(), binary::setLeft, hoistable, false, entry);
+            // 短路的右边不一定算;
+            visitExpr(binary.getRight(), binary::setRight, hoistable && !isShortCircuit, false, entry);
+            return;
+        }
+        switch (expr.toEnum())
+        {
+            case NEGATE:
+            {
+                CvaNegateExpr negate = (CvaNegateExpr) expr;
+                visitExpr(negate.getExpr(), negate::setExpr, hoistable, false, entry);
+                break;
+            }
+            case BIT_NEGATE:
+            {
+                CvaBitNegateExpr negate = (CvaBitNegateExpr) expr;
+                visitExpr(negate.getExpr(), negate::setExpr, hoistable, false, entry);
+                break;
+            }
+            case CALL:
+            {
+                CvaCallExpr call = (CvaCallExpr) expr;
+                visitExpr(call.getExpr(), call::setExpr, hoistable, false, entry);
+                List<AbstractExpression> args = call.getArgs();
+                for (int i = 0; i < args.size(); i++)
+                {
+                    final int index = i;
+                    visitExpr(args.get(i), arg -> args.set(index, arg), hoistable, false, entry);
+                }
+                break;
+            }
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                visitExpr(condExpr.getCondition(), condExpr::setCondition, hoistable, false, entry);
+                visitExpr(condExpr.getTrueExpr(), condExpr::setTrueExpr, false, false, entry);
+                visitExpr(condExpr.getFalseExpr(), condExpr::setFalseExpr, false, false, entry);
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 用前面算过的值换掉当前结点;
+     * @return 换没换;
+     */
+    private boolean reuse(Entry entry, Consumer<AbstractExpression> replacer,
+                          boolean isWritten, int lineNum)
+    {
+        String literal;
+        ICvaType type;
+        int holderSlot = entry.holder == NO_HOLDER ? NOT_LOCAL : slotOf.get(entry.holder, NOT_LOCAL);
+        if (entry.tempLiteral == null && holderSlot != NOT_LOCAL
+                && varValues[holderSlot] == entry.value && entry.holderType != null)
+        {
+            // 值还在赋给的变量里;
+            literal = entry.holderLiteral;
+            type = entry.holderType;
+        }
+        else
+        {
+            literal = entry.tempLiteral;
+            type = entry.type;
+        }
+        // println 按操作数的类型选重载, 只认 int 变量;
+        if (isWritten && type.toEnum() != EnumCvaType.CVA_INT)
+        {
+            return false;
+        }
+        if (literal == null)
+        {
+            materialize(entry);
+            literal = entry.tempLiteral;
+        }
+        replacer.accept(new CvaIdentifierExpr(lineNum, literal, type, false));
+        this.isOptimizing = true;
+        return true;
+    }
+
+    /**
+     * 在第一次计算的语句前面插 $cse = 表达式, 原处换成读临时变量;
+     */
+    private void materialize(Entry entry)
+    {
+        String literal = TEMP_PREFIX + nextTemp++;
+        int lineNum = entry.node.getLineNum();
+        CvaDeclaration decl = new CvaDeclaration(lineNum, literal, entry.type);
+        method.getLocalVarList().add(decl);
+        CvaAssignStatement assign = new CvaAssignStatement(lineNum, literal, entry.node);
+        assign.setType(entry.type);
+        entry.ownerList.add(indexOf(entry.ownerList, entry.anchor), assign);
+        entry.replacer.accept(new CvaIdentifierExpr(lineNum, literal, entry.type, false));
+        // 子树里记下的值现在在新语句里算;
+        entry.nestedList.forEach(nested -> nested.moveAnchor(assign));
+        entry.tempLiteral = literal;
+        tempValues.put(decl.symbol(), entry.value);
+    }
+}
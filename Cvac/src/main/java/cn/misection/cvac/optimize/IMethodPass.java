@@ -0,0 +1,26 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IMethodPass
+ * @Description 可以一次只跑一个方法的优化, PassManager 按方法调度;
+ * @CreateTime 2026年10月17日 23:35:00
+ */
+public interface IMethodPass extends Optimizable
+{
+    /**
+     * 只优化这一个方法, 之后 isOptimizing 表示这个方法有没有被改动;
+     * @param method 方法;
+     */
+    void optimize(CvaMethod method);
+
+    /**
+     * 开始优化整个程序前调一次, 要看别的方法的优化在这里建全程序的信息;
+     * @param program 程序;
+     */
+    default void enterProgram(AbstractProgram program) {}
+}
@@ -0,0 +1,47 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IRewriter
+ * @Description 只看一个结点的改写, 由 RewriteWalker 遍历, 几个改写可以串在同一遍里;
+ * 表达式交给它时孩子已经改写完, 语句交给它时自己的表达式已经改写完, 子语句还没有;
+ * @CreateTime 2026年10月18日 00:10:00
+ */
+public interface IRewriter extends Optimizable
+{
+    /**
+     * 进入方法, 要清掉 isOptimizing;
+     * @param method 方法;
+     */
+    void enterMethod(CvaMethod method);
+
+    /**
+     * @param expr 表达式;
+     * @return 换上的表达式, 不改就返回原来的;
+     */
+    default AbstractExpression rewrite(AbstractExpression expr)
+    {
+        return expr;
+    }
+
+    /**
+     * 换成别的语句时, 新语句会从头再走一遍;
+     * @param stm 语句;
+     * @return 换上的语句, null 表示删掉;
+     */
+    default AbstractStatement rewrite(AbstractStatement stm)
+    {
+        return stm;
+    }
+
+    /**
+     * 方法走完, 整棵树都交过一遍了;
+     * @param method 方法;
+     */
+    default void exitMethod(CvaMethod method) {}
+}
@@ -0,0 +1,312 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.decl.CvaDeclaration;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.symbol.IntSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName LoopInvariantCodeMotion
+ * @Description 循环不变量外提: 按 LoopNest 找出的循环嵌套树, 每层循环记下自己(连同内层)写的变量和字段, 有没有不纯的调用;
+ * 从外往里, 循环里每轮都一样的计算提到 while 前面的 $licm 临时变量里, 也就是条件判断的标号前;
+ * 循环可能一次也不走, 所以只提不会抛, 没有副作用的计算, 除法要除以非零常量, 调用要是 PureMethods 认的;
+ * @CreateTime 2026年10月18日 04:20:00
+ */
+public final class LoopInvariantCodeMotion implements IMethodPass
+{
+    private static final String TEMP_PREFIX = "$licm";
+
+    /**
+     * 没有全程序信息时为 null, 调用一律不提;
+     */
+    private PureMethods pureMethods;
+
+    private CvaMethod method;
+
+    private IntSet locals;
+
+    private int nextTemp;
+
+    private boolean isOptimizing;
+
+    /**
+     * 一层循环(连同内层)里写了什么;
+     */
+    private static final class Loop
+    {
+        /**
+         * 循环里赋值过的局部变量;
+         */
+        private final IntSet defs = new IntSet();
+
+        private final IntSet writtenFields = new IntSet();
+
+        /**
+         * 有调用不纯时, 字段都可能被改;
+         */
+        private boolean hasImpureCall;
+    }
+
+    @Override
+    public void enterProgram(AbstractProgram program)
+    {
+        this.pureMethods = new PureMethods(ClassHierarchy.of(program));
+    }
+
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        this.method = method;
+        this.isOptimizing = false;
+        this.locals = new IntSet();
+        this.nextTemp = 0;
+        method.getArgumentList().forEach(this::declare);
+        method.getLocalVarList().forEach(this::declare);
+
+        LoopNest.find(method.getStatementList()).forEach(root ->
+                root.forEachPreOrder(this::hoistLoop));
+        this.method = null;
+    }
+
+    @Override
+    public boolean isOptimizing()
+    {
+        return this.isOptimizing;
+    }
+
+    private void declare(AbstractDeclaration decl)
+    {
+        locals.add(decl.symbol());
+        String literal = decl.literal();
+        if (literal.startsWith(TEMP_PREFIX))
+        {
+            try
+            {
+                nextTemp = Math.max(nextTemp,
+                        Integer.parseInt(literal.substring(TEMP_PREFIX.length())) + 1);
+            }
+            catch (NumberFormatException e)
+            {
+                // 不是这里起的名字;
+            }
+        }
+    }
+
+    private Loop summarize(CvaWhileStatement whileStm)
+    {
+        Loop loop = new Loop();
+        UseDefCollector collector = UseDefCollector.of(whileStm);
+        collector.getDefs().forEach(symbol ->
+        {
+            if (locals.contains(symbol))
+            {
+                loop.defs.add(symbol);
+            }
+            else
+            {
+                loop.writtenFields.add(symbol);
+            }
+        });
+        if (collector.containsCall())
+        {
+            List<CvaCallExpr> callList = new ArrayList<>();
+            ExprSlots.forEachExpr(whileStm, expr -> collectCalls(expr, callList));
+            for (CvaCallExpr call : callList)
+            {
+                if (pureMethods == null || !pureMethods.isPure(call))
+                {
+                    loop.hasImpureCall = true;
+                    break;
+                }
+            }
+        }
+        return loop;
+    }
+
+    private static void collectCalls(AbstractExpression expr, List<CvaCallExpr> callList)
+    {
+        ExprSlots.forEachChild(expr, child -> collectCalls(child, callList));
+        if (expr instanceof CvaCallExpr)
+        {
+            callList.add((CvaCallExpr) expr);
+        }
+    }
+
+    /**
+     * 先序调用, 先提外层, 外层不变的内层一定也不变, 剩下的再交给内层;
+     * 提出去的赋值都在本层循环外面, 内层的读写集合不受影响;
+     */
+    private void hoistLoop(LoopNest nest)
+    {
+        Loop loop = summarize(nest.getWhileStm());
+        ExprSlots.forEachSlot(nest.getWhileStm(), (expr, replacer, isWritten) ->
+                hoist(nest, loop, expr, replacer, isWritten));
+    }
+
+    private void hoist(LoopNest nest, Loop loop, AbstractExpression expr,
+                       Consumer<AbstractExpression> replacer, boolean isWritten)
+    {
+        ICvaType type = hoistedType(expr);
+        // println 按操作数的类型选重载, 只认 int 变量;
+        if (type != null && !(isWritten && type.toEnum() != EnumCvaType.CVA_INT)
+                && hasVariable(expr) && isInvariant(loop, expr))
+        {
+            String literal = TEMP_PREFIX + nextTemp++;
+            int lineNum = expr.getLineNum();
+            CvaDeclaration decl = new CvaDeclaration(lineNum, literal, type);
+            method.getLocalVarList().add(decl);
+            locals.add(decl.symbol());
+            CvaAssignStatement assign = new CvaAssignStatement(lineNum, literal, expr);
+            assign.setType(type);
+            nest.insertPreheader(assign);
+            replacer.accept(new CvaIdentifierExpr(lineNum, literal, type, false));
+            this.isOptimizing = true;
+            return;
+        }
+        ExprSlots.forEachChildSlot(expr, (child, childReplacer) ->
+                hoist(nest, loop, child, childReplacer, false));
+    }
+
+    /**
+     * @return 提出去要用的临时变量类型, 不值得提或者放不进局部变量时为 null;
+     */
+    private static ICvaType hoistedType(AbstractExpression expr)
+    {
+        switch (expr.toEnum())
+        {
+            case IDENTIFIER:
+            {
+                CvaIdentifierExpr id = (CvaIdentifierExpr) expr;
+                if (!id.isField() || id.getType() == null)
+                {
+                    return null;
+                }
+                return id.getType() instanceof CvaClassType || isPrimitive(id.getType().toEnum())
+                        ? id.getType() : null;
+            }
+            case CALL:
+            {
+                // 返回引用的调用每次可能是新对象, 不提;
+                ICvaType retType = ((CvaCallExpr) expr).getRetType();
+                return retType != null && isPrimitive(retType.toEnum()) ? retType : null;
+            }
+            case NEGATE:
+            case BIT_NEGATE:
+            case CONDITION_CALC:
+                break;
+            default:
+                if (!(expr instanceof AbstractBinaryExpr))
+                {
+                    return null;
+                }
+                break;
+        }
+        EnumCvaType type = expr.resType();
+        return isPrimitive(type) ? type : null;
+    }
+
+    private static boolean isPrimitive(EnumCvaType type)
+    {
+        return type == EnumCvaType.CVA_INT || type == EnumCvaType.CVA_BOOLEAN;
+    }
+
+    /**
+     * 全是常量的留给常量折叠;
+     */
+    private static boolean hasVariable(AbstractExpression expr)
+    {
+        if (expr instanceof CvaIdentifierExpr || expr instanceof CvaCallExpr)
+        {
+            return true;
+        }
+        boolean[] found = {false};
+        ExprSlots.forEachChild(expr, child -> found[0] |= hasVariable(child));
+        return found[0];
+    }
+
+    /**
+     * @return 在整个循环里值不变, 而且提前算不会抛也没有副作用;
+     */
+    private boolean isInvariant(Loop loop, AbstractExpression expr)
+    {
+        switch (expr.toEnum())
+        {
+            case IDENTIFIER:
+            {
+                CvaIdentifierExpr id = (CvaIdentifierExpr) expr;
+                if (id.isField())
+                {
+                    return !loop.hasImpureCall && !loop.writtenFields.contains(id.getSymbol());
+                }
+                return locals.contains(id.getSymbol()) && !loop.defs.contains(id.getSymbol());
+            }
+            case CALL:
+            {
+                CvaCallExpr call = (CvaCallExpr) expr;
+                IntSet reads = pureMethods == null ? null : pureMethods.readFieldsOf(call);
+                if (reads == null || loop.hasImpureCall || !areInvariant(loop, call.getArgs()))
+                {
+                    return false;
+                }
+                boolean[] clobbered = {false};
+                reads.forEach(field -> clobbered[0] |= loop.writtenFields.contains(field));
+                return !clobbered[0];
+            }
+            case CONST_INT:
+            case CONST_TRUE:
+            case CONST_FALSE:
+            case THIS:
+                return true;
+            case NEGATE:
+                return isInvariant(loop, ((CvaNegateExpr) expr).getExpr());
+            case BIT_NEGATE:
+                return isInvariant(loop, ((CvaBitNegateExpr) expr).getExpr());
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                return isInvariant(loop, condExpr.getCondition())
+                        && isInvariant(loop, condExpr.getTrueExpr())
+                        && isInvariant(loop, condExpr.getFalseExpr());
+            }
+            default:
+            {
+                if (expr instanceof AbstractBinaryExpr)
+                {
+                    AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+                    return !PureMethods.isTrapping(binary)
+                            && isInvariant(loop, binary.getLeft())
+                            && isInvariant(loop, binary.getRight());
+                }
+                // new 每次是新对象, 字符串和 null 不值得提;
+                return false;
+            }
+        }
+    }
+
+    private boolean areInvariant(Loop loop, List<AbstractExpression> exprList)
+    {
+        for (AbstractExpression expr : exprList)
+        {
+            if (!isInvariant(loop, expr))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,169 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.statement.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName LoopNest
+ * @Description 循环嵌套树的一个结点, 一条 while 连同它所在的语句列表和里面直接嵌套的循环;
+ * 找循环时单独一条 while 做分支或循环体的会包成块, 每个循环前面都有地方放前置块;
+ * @CreateTime 2026年10月18日 04:50:00
+ */
+final class LoopNest
+{
+    private final CvaWhileStatement whileStm;
+
+    /**
+     * while 所在的语句列表, 前置块就插在它前面;
+     */
+    private final List<AbstractStatement> ownerList;
+
+    private final LoopNest parent;
+
+    private final List<LoopNest> childList = new ArrayList<>(2);
+
+    private LoopNest(CvaWhileStatement whileStm, List<AbstractStatement> ownerList, LoopNest parent)
+    {
+        this.whileStm = whileStm;
+        this.ownerList = ownerList;
+        this.parent = parent;
+    }
+
+    /**
+     * @param stmList 方法的语句;
+     * @return 最外层的循环, 按出现顺序;
+     */
+    static List<LoopNest> find(List<AbstractStatement> stmList)
+    {
+        List<LoopNest> rootList = new ArrayList<>();
+        findInList(stmList, null, rootList);
+        return rootList;
+    }
+
+    private static void findInList(List<AbstractStatement> stmList, LoopNest parent,
+                                   List<LoopNest> loopList)
+    {
+        for (AbstractStatement stm : stmList)
+        {
+            findIn(stm, stmList, parent, loopList);
+        }
+    }
+
+    private static void findIn(AbstractStatement stm, List<AbstractStatement> owner,
+                               LoopNest parent, List<LoopNest> loopList)
+    {
+        switch (stm.toEnum())
+        {
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                LoopNest loop = new LoopNest(whileStm, owner, parent);
+                loopList.add(loop);
+                findInArm(whileStm.getBody(), whileStm::setBody, loop, loop.childList);
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                findInArm(ifStm.getThenStatement(), ifStm::setThenStatement, parent, loopList);
+                findInArm(ifStm.getElseStatement(), ifStm::setElseStatement, parent, loopList);
+                break;
+            }
+            case BLOCK:
+            {
+                findInList(((CvaBlockStatement) stm).getStatementList(), parent, loopList);
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+    }
+
+    private static void findInArm(AbstractStatement arm, Consumer<AbstractStatement> setter,
+                                  LoopNest parent, List<LoopNest> loopList)
+    {
+        if (arm == null)
+        {
+            return;
+        }
+        if (arm instanceof CvaWhileStatement)
+        {
+            List<AbstractStatement> wrapped = new ArrayList<>(2);
+            wrapped.add(arm);
+            arm = new CvaBlockStatement(arm.getLineNum(), wrapped);
+            setter.accept(arm);
+        }
+        if (arm instanceof CvaBlockStatement)
+        {
+            findInList(((CvaBlockStatement) arm).getStatementList(), parent, loopList);
+        }
+        else
+        {
+            findIn(arm, null, parent, loopList);
+        }
+    }
+
+    CvaWhileStatement getWhileStm()
+    {
+        return whileStm;
+    }
+
+    LoopNest getParent()
+    {
+        return parent;
+    }
+
+    List<LoopNest> getChildList()
+    {
+        return childList;
+    }
+
+    /**
+     * @return 循环体是块时块里的语句, 否则 null;
+     */
+    List<AbstractStatement> getBodyList()
+    {
+        AbstractStatement body = whileStm.getBody();
+        return body instanceof CvaBlockStatement
+                ? ((CvaBlockStatement) body).getStatementList()
+                : null;
+    }
+
+    /**
+     * 放进前置块, 也就是 while 前面, 翻译出来在循环头的标号之前;
+     * @param stm 语句;
+     */
+    void insertPreheader(AbstractStatement stm)
+    {
+        ownerList.add(indexOf(ownerList, whileStm), stm);
+    }
+
+    /**
+     * 先序, 外层在内层前面;
+     * @param consumer 对每个循环;
+     */
+    void forEachPreOrder(Consumer<LoopNest> consumer)
+    {
+        consumer.accept(this);
+        childList.forEach(child -> child.forEachPreOrder(consumer));
+    }
+
+    static int indexOf(List<AbstractStatement> stmList, AbstractStatement stm)
+    {
+        for (int i = 0; i < stmList.size(); i++)
+        {
+            if (stmList.get(i) == stm)
+            {
+                return i;
+            }
+        }
+        throw new IllegalStateException("statement lost while rewriting a loop");
+    }
+}
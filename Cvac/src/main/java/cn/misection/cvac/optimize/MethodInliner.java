@@ -0,0 +1,613 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.decl.CvaDeclaration;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.symbol.IntMap;
+import cn.misection.cvac.symbol.IntSet;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName MethodInliner
+ * @Description 方法内联: 按 ClassHierarchy 只有一个可能目标, 方法体够小的调用, 把方法体拷进调用者;
+ * 参数和局部变量改名成调用者新声明的 $inl 局部变量, 翻译时就是调用者栈帧里新的槽位;
+ * 拷过来的语句放在调用所在语句前面, 调用换成装返回值的临时变量, 之后的优化接着在上面跑;
+ * 只展开求值顺序上前面没有调用, 字段读和可能抛的计算的调用, 挪到语句前面看不出来;
+ * 接收者只认 this 和 new, 别的引用可能是 null, 展开了就少抛一次空指针;
+ * @CreateTime 2026年10月18日 05:40:00
+ */
+public final class MethodInliner implements IMethodPass
+{
+    private static final String TEMP_PREFIX = "$inl";
+
+    /**
+     * 被调方法的语句和表达式结点数上限;
+     */
+    public static final int DEFAULT_BUDGET = 40;
+
+    /**
+     * 调用者长到这么大就不再往里展开;
+     */
+    private static final int MAX_CALLER_SIZE = 800;
+
+    private final int budget;
+
+    /**
+     * 没有全程序信息时为 null, 什么都不展开;
+     */
+    private ClassHierarchy hierarchy;
+
+    private CvaMethod method;
+
+    private int classSymbol;
+
+    private IntSet locals;
+
+    private int nextTemp;
+
+    private int callerSize;
+
+    private boolean isOptimizing;
+
+    /**
+     * 找到的调用;
+     */
+    private static final class Site
+    {
+        /**
+         * 求值顺序上已经走过的部分里有没有调用, 字段读或可能抛的计算;
+         */
+        private boolean dirty;
+
+        private CvaCallExpr call;
+
+        private Consumer<AbstractExpression> replacer;
+
+        private CvaMethod callee;
+    }
+
+    public MethodInliner()
+    {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param budget 被调方法的结点数上限;
+     */
+    public MethodInliner(int budget)
+    {
+        this.budget = budget;
+    }
+
+    @Override
+    public void enterProgram(AbstractProgram program)
+    {
+        this.hierarchy = ClassHierarchy.of(program);
+    }
+
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        this.isOptimizing = false;
+        if (hierarchy == null)
+        {
+            return;
+        }
+        this.method = method;
+        this.classSymbol = hierarchy.ownerOf(method);
+        this.locals = new IntSet();
+        this.nextTemp = 0;
+        method.getArgumentList().forEach(this::declare);
+        method.getLocalVarList().forEach(this::declare);
+        this.callerSize = sizeOf(method, Integer.MAX_VALUE);
+
+        List<AbstractStatement> stmList = method.getStatementList();
+        inlineList(stmList);
+        // 返回值在所有语句之后求值, 拷过来的语句接在最后;
+        inlineOwn(stmList, stmList.size(), method::getRetExpr, method::setRetExpr);
+        this.method = null;
+    }
+
+    @Override
+    public boolean isOptimizing()
+    {
+        return this.isOptimizing;
+    }
+
+    private void declare(AbstractDeclaration decl)
+    {
+        locals.add(decl.symbol());
+        String literal = decl.literal();
+        if (literal.startsWith(TEMP_PREFIX))
+        {
+            try
+            {
+                nextTemp = Math.max(nextTemp,
+                        Integer.parseInt(literal.substring(TEMP_PREFIX.length())) + 1);
+            }
+            catch (NumberFormatException e)
+            {
+                // 不是这里起的名字;
+            }
+        }
+    }
+
+    private void inlineList(List<AbstractStatement> stmList)
+    {
+        for (int i = 0; i < stmList.size(); i++)
+        {
+            AbstractStatement stm = stmList.get(i);
+            switch (stm.toEnum())
+            {
+                case ASSIGN:
+                {
+                    CvaAssignStatement assign = (CvaAssignStatement) stm;
+                    i = inlineOwn(stmList, i, assign::getExpr, assign::setExpr);
+                    break;
+                }
+                case WRITE:
+                {
+                    CvaWriteStatement write = (CvaWriteStatement) stm;
+                    i = inlineOwn(stmList, i, write::getExpr, write::setExpr);
+                    break;
+                }
+                case IF:
+                {
+                    CvaIfStatement ifStm = (CvaIfStatement) stm;
+                    i = inlineOwn(stmList, i, ifStm::getCondition, ifStm::setCondition);
+                    inlineArm(ifStm.getThenStatement(), ifStm::setThenStatement);
+                    inlineArm(ifStm.getElseStatement(), ifStm::setElseStatement);
+                    break;
+                }
+                case WHILE:
+                {
+                    // 条件每轮都要算, 拷过来的语句没地方放, 只展开循环体;
+                    CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                    inlineArm(whileStm.getBody(), whileStm::setBody);
+                    break;
+                }
+                case BLOCK:
+                {
+                    inlineList(((CvaBlockStatement) stm).getStatementList());
+                    break;
+                }
+                default:
+                {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 单独一条语句做分支或循环体的, 展开了才包成块;
+     */
+    private void inlineArm(AbstractStatement arm, Consumer<AbstractStatement> setter)
+    {
+        if (arm == null)
+        {
+            return;
+        }
+        if (arm instanceof CvaBlockStatement)
+        {
+            inlineList(((CvaBlockStatement) arm).getStatementList());
+            return;
+        }
+        List<AbstractStatement> stmList = new ArrayList<>(1);
+        stmList.add(arm);
+        inlineList(stmList);
+        if (stmList.size() != 1)
+        {
+            setter.accept(new CvaBlockStatement(arm.getLineNum(), stmList));
+        }
+    }
+
+    /**
+     * 展开一条语句自己的表达式里的调用, 一次一个, 直到找不到;
+     * @param index 语句的位置, 拷过来的语句插在这里;
+     * @return 语句现在的位置, 拷过来的语句这一遍不再看, 下一轮再展开;
+     */
+    private int inlineOwn(List<AbstractStatement> stmList, int index,
+                          Supplier<AbstractExpression> getter, Consumer<AbstractExpression> setter)
+    {
+        while (getter.get() != null && callerSize <= MAX_CALLER_SIZE)
+        {
+            Site site = new Site();
+            if (!find(getter.get(), setter, site))
+            {
+                break;
+            }
+            List<AbstractStatement> prelude = expand(site);
+            if (prelude == null)
+            {
+                break;
+            }
+            stmList.addAll(index, prelude);
+            index += prelude.size();
+            this.isOptimizing = true;
+        }
+        return index;
+    }
+
+    /**
+     * 按求值顺序找第一个能展开的调用;
+     * @return 找到了没有;
+     */
+    private boolean find(AbstractExpression expr, Consumer<AbstractExpression> replacer, Site site)
+    {
+        switch (expr.toEnum())
+        {
+            case AND_AND:
+            case OR_OR:
+            {
+                // 右边不一定算, 不能挪到语句前面;
+                AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+                if (find(binary.getLeft(), binary::setLeft, site))
+                {
+                    return true;
+                }
+                site.dirty |= !isClean(binary.getRight());
+                return false;
+            }
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                if (find(condExpr.getCondition(), condExpr::setCondition, site))
+                {
+                    return true;
+                }
+                site.dirty |= !isClean(condExpr.getTrueExpr()) || !isClean(condExpr.getFalseExpr());
+                return false;
+            }
+            case CALL:
+            {
+                CvaCallExpr call = (CvaCallExpr) expr;
+                // 接收者和参数挪进前面的临时变量, 顺序不变, 只看调用外面先算的部分;
+                boolean dirtyBefore = site.dirty;
+                if (find(call.getExpr(), call::setExpr, site))
+                {
+                    return true;
+                }
+                List<AbstractExpression> args = call.getArgs();
+                for (int i = 0; i < args.size(); i++)
+                {
+                    final int index = i;
+                    if (find(args.get(i), arg -> args.set(index, arg), site))
+                    {
+                        return true;
+                    }
+                }
+                if (!dirtyBefore)
+                {
+                    CvaMethod callee = calleeOf(call);
+                    if (callee != null)
+                    {
+                        site.call = call;
+                        site.replacer = replacer;
+                        site.callee = callee;
+                        return true;
+                    }
+                }
+                site.dirty = true;
+                return false;
+            }
+            case IDENTIFIER:
+            {
+                site.dirty |= ((CvaIdentifierExpr) expr).isField();
+                return false;
+            }
+            default:
+            {
+                boolean[] found = {false};
+                ExprSlots.forEachChildSlot(expr, (child, childReplacer) ->
+                        found[0] = found[0] || find(child, childReplacer, site));
+                if (found[0])
+                {
+                    return true;
+                }
+                if (expr instanceof AbstractBinaryExpr)
+                {
+                    site.dirty |= PureMethods.isTrapping((AbstractBinaryExpr) expr);
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return 没有调用, 字段读和可能抛的计算;
+     */
+    private static boolean isClean(AbstractExpression expr)
+    {
+        switch (expr.toEnum())
+        {
+            case CALL:
+                return false;
+            case IDENTIFIER:
+                return !((CvaIdentifierExpr) expr).isField();
+            default:
+            {
+                if (expr instanceof AbstractBinaryExpr && PureMethods.isTrapping((AbstractBinaryExpr) expr))
+                {
+                    return false;
+                }
+                boolean[] clean = {true};
+                ExprSlots.forEachChild(expr, child -> clean[0] &= isClean(child));
+                return clean[0];
+            }
+        }
+    }
+
+    /**
+     * @return 能展开时的被调方法, 否则 null;
+     */
+    private CvaMethod calleeOf(CvaCallExpr call)
+    {
+        AbstractExpression receiver = call.getExpr();
+        boolean isThis = receiver instanceof CvaThisExpr;
+        if (call.getType() == null || !(isThis || receiver instanceof CvaNewExpr))
+        {
+            return null;
+        }
+        List<CvaMethod> targets = hierarchy.targetsOf(
+                SymbolTable.getInstance().lookup(call.getType()), call.getFuncSymbol());
+        if (targets.size() != 1)
+        {
+            return null;
+        }
+        CvaMethod callee = targets.get(0);
+        if (callee == method || callee.getRetExpr() == null
+                || callee.getArgumentList().size() != call.getArgs().size()
+                || sizeOf(callee, budget) > budget)
+        {
+            return null;
+        }
+        Body body = new Body(callee);
+        if (body.isRecursive)
+        {
+            return null;
+        }
+        if (!body.fields.isEmpty() || body.usesThis)
+        {
+            // new 出来的对象不是调用者的 this;
+            if (!isThis)
+            {
+                return null;
+            }
+            // 字段按调用者的类名找, 要落在同一个声明上, 也不能被调用者的局部变量遮住;
+            int calleeClass = hierarchy.ownerOf(callee);
+            boolean[] clash = {false};
+            body.fields.forEach(field -> clash[0] |= locals.contains(field)
+                    || hierarchy.fieldOwner(classSymbol, field) == SymbolTable.NO_SYMBOL
+                    || hierarchy.fieldOwner(classSymbol, field) != hierarchy.fieldOwner(calleeClass, field));
+            if (clash[0])
+            {
+                return null;
+            }
+        }
+        return callee;
+    }
+
+    /**
+     * 被调方法体里用到的字段和 this;
+     */
+    private final class Body
+    {
+        private final IntSet calleeLocals = new IntSet();
+
+        private final IntSet fields = new IntSet();
+
+        private final CvaMethod callee;
+
+        private boolean usesThis;
+
+        private boolean isRecursive;
+
+        private Body(CvaMethod callee)
+        {
+            this.callee = callee;
+            callee.getArgumentList().forEach(decl -> calleeLocals.add(decl.symbol()));
+            callee.getLocalVarList().forEach(decl -> calleeLocals.add(decl.symbol()));
+            callee.getStatementList().forEach(this::scan);
+            if (callee.getRetExpr() != null)
+            {
+                scan(callee.getRetExpr());
+            }
+        }
+
+        private void scan(AbstractStatement stm)
+        {
+            scanDefs(stm);
+            ExprSlots.forEachExpr(stm, this::scan);
+        }
+
+        /**
+         * 不是局部变量的赋值就是写字段;
+         */
+        private void scanDefs(AbstractStatement stm)
+        {
+            UseDefCollector.of(stm).getDefs().forEach(symbol ->
+            {
+                if (!calleeLocals.contains(symbol))
+                {
+                    fields.add(symbol);
+                }
+            });
+        }
+
+        private void scan(AbstractExpression expr)
+        {
+            switch (expr.toEnum())
+            {
+                case IDENTIFIER:
+                {
+                    CvaIdentifierExpr id = (CvaIdentifierExpr) expr;
+                    if (id.isField())
+                    {
+                        fields.add(id.getSymbol());
+                    }
+                    break;
+                }
+                case THIS:
+                {
+                    usesThis = true;
+                    break;
+                }
+                case CALL:
+                {
+                    // 自己调自己的展开不完;
+                    CvaCallExpr call = (CvaCallExpr) expr;
+                    if (call.getType() == null || hierarchy.targetsOf(
+                            SymbolTable.getInstance().lookup(call.getType()),
+                            call.getFuncSymbol()).contains(callee))
+                    {
+                        isRecursive = true;
+                    }
+                    break;
+                }
+                default:
+                {
+                    break;
+                }
+            }
+            ExprSlots.forEachChild(expr, this::scan);
+        }
+    }
+
+    /**
+     * 拷方法体, 把调用换成返回值的临时变量;
+     * @return 要插在语句前面的语句, 拷不了时为 null, 树没动;
+     */
+    private List<AbstractStatement> expand(Site site)
+    {
+        CvaCallExpr call = site.call;
+        CvaMethod callee = site.callee;
+        int line = call.getLineNum();
+        IntMap<String> renames = new IntMap<>();
+        List<CvaDeclaration> declList = new ArrayList<>();
+        List<AbstractDeclaration> paramList = callee.getArgumentList();
+        int temp = nextTemp;
+        for (AbstractDeclaration decl : paramList)
+        {
+            temp = fresh(decl, line, temp, renames, declList);
+        }
+        for (AbstractDeclaration decl : callee.getLocalVarList())
+        {
+            temp = fresh(decl, line, temp, renames, declList);
+        }
+        AstCopier copier = new AstCopier(renames);
+        List<AbstractStatement> body = copier.copyList(callee.getStatementList());
+        AbstractExpression ret = copier.copy(callee.getRetExpr());
+        if (body == null || ret == null)
+        {
+            return null;
+        }
+        String retLiteral = TEMP_PREFIX + temp++;
+        declList.add(new CvaDeclaration(line, retLiteral, callee.getRetType()));
+        this.nextTemp = temp;
+        for (CvaDeclaration decl : declList)
+        {
+            method.getLocalVarList().add(decl);
+            locals.add(decl.symbol());
+        }
+
+        List<AbstractStatement> prelude = new ArrayList<>(paramList.size() + body.size() + 1);
+        // 参数按顺序先算, new 出来的接收者没人用就丢了;
+        List<AbstractExpression> args = call.getArgs();
+        for (int i = 0; i < paramList.size(); i++)
+        {
+            prelude.add(assign(declList.get(i), args.get(i)));
+        }
+        prelude.addAll(body);
+        CvaDeclaration retDecl = declList.get(declList.size() - 1);
+        prelude.add(assign(retDecl, ret));
+        site.replacer.accept(new CvaIdentifierExpr(line, retLiteral, callee.getRetType(), false));
+        this.callerSize += sizeOf(callee, Integer.MAX_VALUE);
+        return prelude;
+    }
+
+    private static int fresh(AbstractDeclaration decl, int line, int temp,
+                             IntMap<String> renames, List<CvaDeclaration> declList)
+    {
+        String literal = TEMP_PREFIX + temp;
+        renames.put(decl.symbol(), literal);
+        declList.add(new CvaDeclaration(line, literal, decl.type()));
+        return temp + 1;
+    }
+
+    private static CvaAssignStatement assign(CvaDeclaration decl, AbstractExpression expr)
+    {
+        CvaAssignStatement assign = new CvaAssignStatement(expr.getLineNum(), decl.literal(), expr);
+        ICvaType type = decl.type();
+        assign.setType(type);
+        return assign;
+    }
+
+    /**
+     * @param limit 数到超过它就停;
+     * @return 语句和表达式的结点数;
+     */
+    private static int sizeOf(CvaMethod method, int limit)
+    {
+        int[] size = {method.getRetExpr() == null ? 0 : sizeOf(method.getRetExpr())};
+        for (AbstractStatement stm : method.getStatementList())
+        {
+            if (size[0] > limit)
+            {
+                break;
+            }
+            size[0] += sizeOf(stm);
+        }
+        return size[0];
+    }
+
+    private static int sizeOf(AbstractStatement stm)
+    {
+        if (stm == null)
+        {
+            return 0;
+        }
+        int[] size = {1};
+        switch (stm.toEnum())
+        {
+            case BLOCK:
+                ((CvaBlockStatement) stm).getStatementList().forEach(child -> size[0] += sizeOf(child));
+                return size[0];
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                return size[0] + sizeOf(ifStm.getCondition())
+                        + sizeOf(ifStm.getThenStatement()) + sizeOf(ifStm.getElseStatement());
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                return size[0] + sizeOf(whileStm.getCondition()) + sizeOf(whileStm.getBody());
+            }
+            default:
+                ExprSlots.forEachExpr(stm, expr -> size[0] += sizeOf(expr));
+                return size[0];
+        }
+    }
+
+    private static int sizeOf(AbstractExpression expr)
+    {
+        int[] size = {1};
+        ExprSlots.forEachChild(expr, child -> size[0] += sizeOf(child));
+        return size[0];
+    }
+}
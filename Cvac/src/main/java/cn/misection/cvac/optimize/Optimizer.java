@@ -1,5 +1,6 @@
 package cn.misection.cvac.optimize;
 
+import cn.misection.cvac.ast.method.CvaMethod;
 import cn.misection.cvac.ast.program.AbstractProgram;
 
 /**
@@ -7,29 +8,43 @@ import cn.misection.cvac.ast.program.AbstractProgram;
  */
 public final class Optimizer
 {
+    private final PassManager manager;
+
+    public Optimizer()
+    {
+        this.manager = new PassManager();
+    }
+
+    /**
+     * @param maxRoundsPerMethod 每个方法最多跑几轮;
+     * @param maxPassRuns 整个程序最多跑几次优化;
+     */
+    public Optimizer(int maxRoundsPerMethod, int maxPassRuns)
+    {
+        this(maxRoundsPerMethod, maxPassRuns, true);
+    }
+
+    /**
+     * @param maxRoundsPerMethod 每个方法最多跑几轮;
+     * @param maxPassRuns 整个程序最多跑几次优化;
+     * @param fuses 要不要把可合并的优化合成一遍;
+     */
+    public Optimizer(int maxRoundsPerMethod, int maxPassRuns, boolean fuses)
+    {
+        this.manager = new PassManager(maxRoundsPerMethod, maxPassRuns, fuses);
+    }
+
     public void optimize(AbstractProgram cvaProgram)
     {
-        UnUsedVarDecl varDeler = new UnUsedVarDecl();
-        varDeler.givesWarning = true;
-        ConstantFolder folder = new ConstantFolder();
-        UnReachableDel deler = new UnReachableDel();
-        DeadCodeDel deadDeler = new DeadCodeDel();
-        ConstantAndCopyPropagation proper = new ConstantAndCopyPropagation();
+        manager.enterProgram(cvaProgram);
+        // 主方法各优化都还没实现, 只跑类里的方法;
+        cvaProgram.getClassList().forEach(c ->
+                c.getMethodList().forEach(m ->
+                        manager.run((CvaMethod) m)));
+    }
 
-        boolean flag;
-        do
-        {
-            varDeler.visit(cvaProgram);
-            varDeler.givesWarning = false;
-            folder.visit(cvaProgram);
-            deler.visit(cvaProgram);
-            deadDeler.visit(cvaProgram);
-            proper.visit(cvaProgram);
-            flag = varDeler.isOptimizing()
-                    || folder.isOptimizing()
-                    || deler.isOptimizing()
-                    || deadDeler.isOptimizing()
-                    || proper.isOptimizing();
-        } while (flag);
+    public PassStatistics getStatistics()
+    {
+        return manager.getStatistics();
     }
 }
@@ -0,0 +1,202 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName PassManager
+ * @Description 按方法跑优化到不动点, 每个方法一张待跑集合;
+ * 一个优化改动了方法, 只把受它影响的优化重新排上, 没改动的不再重跑;
+ * 相邻的几个 IRewriter 优化同时待跑时合成一遍走, 改写顺序不变;
+ * 每个方法的轮数和整个程序的优化次数都有上限, 到了就停, 已经做的改动都是对的;
+ * @CreateTime 2026年10月17日 23:50:00
+ */
+public final class PassManager
+{
+    public static final int DEFAULT_MAX_ROUNDS_PER_METHOD = 16;
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * 可合并的优化是 null, 走 rewriters;
+     */
+    private final IMethodPass[] passes = new IMethodPass[EnumOptimizePass.count()];
+
+    private final IRewriter[] rewriters = new IRewriter[EnumOptimizePass.count()];
+
+    /**
+     * 按待跑的位集合缓存合成后的一遍;
+     */
+    private final RewriteWalker[] walkers = new RewriteWalker[1 << EnumOptimizePass.count()];
+
+    private final int maxRoundsPerMethod;
+
+    /**
+     * 剩余的优化次数, 所有方法共用, 合成的一遍按里面的优化个数算;
+     */
+    private int runBudget;
+
+    private final boolean fuses;
+
+    private final PassStatistics statistics = new PassStatistics();
+
+    public PassManager()
+    {
+        this(DEFAULT_MAX_ROUNDS_PER_METHOD, UNLIMITED, true);
+    }
+
+    /**
+     * @param maxRoundsPerMethod 每个方法最多跑几轮;
+     * @param maxPassRuns 整个程序最多跑几次优化;
+     * @param fuses 要不要把可合并的优化合成一遍;
+     */
+    public PassManager(int maxRoundsPerMethod, int maxPassRuns, boolean fuses)
+    {
+        if (maxRoundsPerMethod <= 0 || maxPassRuns < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                    "bad optimize caps: rounds %d, runs %d", maxRoundsPerMethod, maxPassRuns));
+        }
+        this.maxRoundsPerMethod = maxRoundsPerMethod;
+        this.runBudget = maxPassRuns;
+        this.fuses = fuses;
+        for (int i = 0; i < passes.length; i++)
+        {
+            EnumOptimizePass pass = EnumOptimizePass.valueOf(i);
+            if (pass.isFusable())
+            {
+                rewriters[i] = pass.createRewriter();
+            }
+            else
+            {
+                passes[i] = pass.create();
+            }
+        }
+    }
+
+    /**
+     * 各优化建全程序的信息, 跑方法之前调;
+     * @param program 程序;
+     */
+    public void enterProgram(AbstractProgram program)
+    {
+        for (IMethodPass pass : passes)
+        {
+            if (pass != null)
+            {
+                pass.enterProgram(program);
+            }
+        }
+    }
+
+    public void run(CvaMethod method)
+    {
+        int pending = EnumOptimizePass.all();
+        int rounds = 0;
+        while (pending != 0 && rounds < maxRoundsPerMethod && runBudget > 0)
+        {
+            rounds++;
+            // 一轮按声明顺序走一遍, 本轮后面的优化被排上就在本轮跑;
+            for (int i = 0; i < passes.length && runBudget > 0; i++)
+            {
+                EnumOptimizePass pass = EnumOptimizePass.valueOf(i);
+                if ((pending & pass.bit()) == 0)
+                {
+                    continue;
+                }
+                int group = pass.bit();
+                if (fuses && pass.isFusable())
+                {
+                    int last = i;
+                    int size = 1;
+                    while (last + 1 < passes.length
+                            && EnumOptimizePass.valueOf(last + 1).isFusable()
+                            && size < runBudget)
+                    {
+                        last++;
+                        EnumOptimizePass next = EnumOptimizePass.valueOf(last);
+                        if ((pending & next.bit()) != 0)
+                        {
+                            group |= next.bit();
+                            size++;
+                        }
+                    }
+                    i = last;
+                }
+                pending = runGroup(method, group, pending);
+            }
+        }
+        statistics.recordMethod(rounds, pending != 0);
+    }
+
+    /**
+     * 跑一个或合成的几个优化;
+     * @return 新的待跑集合;
+     */
+    private int runGroup(CvaMethod method, int group, int pending)
+    {
+        pending &= ~group;
+        IMethodPass runner = runnerOf(group);
+        long start = System.nanoTime();
+        runner.optimize(method);
+        long elapsed = System.nanoTime() - start;
+        boolean fused = Integer.bitCount(group) > 1;
+        if (fused)
+        {
+            statistics.recordFusedWalk(elapsed);
+        }
+        for (int i = 0; i < passes.length; i++)
+        {
+            EnumOptimizePass pass = EnumOptimizePass.valueOf(i);
+            if ((group & pass.bit()) == 0)
+            {
+                continue;
+            }
+            runBudget--;
+            boolean changed = passes[i] != null
+                    ? passes[i].isOptimizing()
+                    : rewriters[i].isOptimizing();
+            statistics.recordRun(pass, changed, fused ? 0 : elapsed);
+            if (changed)
+            {
+                // 同一遍里排在后面的改写已经看到了这次改动;
+                int seen = group & ~((pass.bit() << 1) - 1);
+                pending |= pass.affects() & ~seen;
+            }
+        }
+        return pending;
+    }
+
+    private IMethodPass runnerOf(int group)
+    {
+        if (Integer.bitCount(group) == 1)
+        {
+            int index = Integer.numberOfTrailingZeros(group);
+            if (passes[index] != null)
+            {
+                return passes[index];
+            }
+        }
+        if (walkers[group] == null)
+        {
+            IRewriter[] chain = new IRewriter[Integer.bitCount(group)];
+            int n = 0;
+            for (int i = 0; i < rewriters.length; i++)
+            {
+                if ((group & (1 << i)) != 0)
+                {
+                    chain[n++] = rewriters[i];
+                }
+            }
+            walkers[group] = new RewriteWalker(chain);
+        }
+        return walkers[group];
+    }
+
+    public PassStatistics getStatistics()
+    {
+        return statistics;
+    }
+}
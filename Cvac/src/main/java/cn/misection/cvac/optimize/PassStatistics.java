@@ -0,0 +1,121 @@
+package cn.misection.cvac.optimize;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName PassStatistics
+ * @Description PassManager 一次运行的统计, 每个优化跑了几次, 改了几次, 花了多久;
+ * @CreateTime 2026年10月17日 23:45:00
+ */
+public final class PassStatistics
+{
+    private final int[] runs = new int[EnumOptimizePass.count()];
+
+    private final int[] changes = new int[EnumOptimizePass.count()];
+
+    private final long[] nanos = new long[EnumOptimizePass.count()];
+
+    private int methodCount;
+
+    private int roundCount;
+
+    /**
+     * 轮数到上限还没收敛的方法数;
+     */
+    private int cappedCount;
+
+    /**
+     * 几个优化合成一遍的次数和时间, 这些优化各自的时间不单算;
+     */
+    private int fusedWalkCount;
+
+    private long fusedNanos;
+
+    void recordRun(EnumOptimizePass pass, boolean changed, long elapsed)
+    {
+        runs[pass.ordinal()]++;
+        nanos[pass.ordinal()] += elapsed;
+        if (changed)
+        {
+            changes[pass.ordinal()]++;
+        }
+    }
+
+    void recordFusedWalk(long elapsed)
+    {
+        fusedWalkCount++;
+        fusedNanos += elapsed;
+    }
+
+    void recordMethod(int rounds, boolean capped)
+    {
+        methodCount++;
+        roundCount += rounds;
+        if (capped)
+        {
+            cappedCount++;
+        }
+    }
+
+    public int runs(EnumOptimizePass pass)
+    {
+        return runs[pass.ordinal()];
+    }
+
+    public int changes(EnumOptimizePass pass)
+    {
+        return changes[pass.ordinal()];
+    }
+
+    public long nanos(EnumOptimizePass pass)
+    {
+        return nanos[pass.ordinal()];
+    }
+
+    public int totalRuns()
+    {
+        int total = 0;
+        for (int run : runs)
+        {
+            total += run;
+        }
+        return total;
+    }
+
+    public int getMethodCount()
+    {
+        return methodCount;
+    }
+
+    public int getRoundCount()
+    {
+        return roundCount;
+    }
+
+    public int getCappedCount()
+    {
+        return cappedCount;
+    }
+
+    public int getFusedWalkCount()
+    {
+        return fusedWalkCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder(String.format(
+                "optimized %d method(s) in %d round(s), %d pass run(s), %d hit the cap%n",
+                methodCount, roundCount, totalRuns(), cappedCount));
+        builder.append(String.format("%-32s %8s %8s %12s%n", "pass", "runs", "changed", "time(us)"));
+        for (int i = 0; i < EnumOptimizePass.count(); i++)
+        {
+            builder.append(String.format("%-32s %8d %8d %12d%n",
+                    EnumOptimizePass.valueOf(i), runs[i], changes[i], nanos[i] / 1000));
+        }
+        builder.append(String.format("%-32s %8d %8s %12d%n",
+                "(fused walks)", fusedWalkCount, "-", fusedNanos / 1000));
+        return builder.toString();
+    }
+}
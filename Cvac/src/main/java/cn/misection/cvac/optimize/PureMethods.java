@@ -0,0 +1,251 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.symbol.IntSet;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName PureMethods
+ * @Description 找出可以提前或者多算一次的方法: 不写字段, 不打印, 没有循环, 不会抛, 调用的也都是这样的方法;
+ * 这样的调用只看参数和它读到的字段, 挪到循环前面即使循环一次也不走也看不出来;
+ * 接收者只认 this 和 new, 别的引用可能是 null;
+ * @CreateTime 2026年10月18日 04:10:00
+ */
+public final class PureMethods
+{
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * 算完的方法, 值是读到的字段, 不纯的是 IMPURE;
+     */
+    private final Map<CvaMethod, IntSet> summaries = new IdentityHashMap<>();
+
+    /**
+     * 正在算的方法, 递归的按不纯算;
+     */
+    private final Map<CvaMethod, Boolean> visiting = new IdentityHashMap<>();
+
+    private static final IntSet IMPURE = new IntSet();
+
+    public PureMethods(ClassHierarchy hierarchy)
+    {
+        this.hierarchy = hierarchy;
+    }
+
+    public ClassHierarchy getHierarchy()
+    {
+        return hierarchy;
+    }
+
+    /**
+     * @param call 调用;
+     * @return 所有可能执行的方法体都纯, 接收者也不会是 null;
+     */
+    public boolean isPure(CvaCallExpr call)
+    {
+        return readFieldsOf(call) != null;
+    }
+
+    /**
+     * @param call 调用;
+     * @return 调用可能读到的字段名, 不纯就是 null;
+     */
+    public IntSet readFieldsOf(CvaCallExpr call)
+    {
+        AbstractExpression receiver = call.getExpr();
+        if (call.getType() == null
+                || !(receiver instanceof CvaThisExpr || receiver instanceof CvaNewExpr))
+        {
+            return null;
+        }
+        List<CvaMethod> targets = hierarchy.targetsOf(
+                SymbolTable.getInstance().lookup(call.getType()), call.getFuncSymbol());
+        if (targets.isEmpty())
+        {
+            return null;
+        }
+        IntSet reads = new IntSet();
+        for (CvaMethod target : targets)
+        {
+            IntSet summary = summaryOf(target);
+            if (summary == IMPURE)
+            {
+                return null;
+            }
+            reads.addAll(summary);
+        }
+        return reads;
+    }
+
+    private IntSet summaryOf(CvaMethod method)
+    {
+        IntSet summary = summaries.get(method);
+        if (summary != null)
+        {
+            return summary;
+        }
+        if (visiting.containsKey(method))
+        {
+            return IMPURE;
+        }
+        visiting.put(method, Boolean.TRUE);
+        Checker checker = new Checker(method);
+        boolean pure = checker.checkList(method.getStatementList())
+                && checker.checkExpr(method.getRetExpr());
+        visiting.remove(method);
+        summary = pure ? checker.reads : IMPURE;
+        summaries.put(method, summary);
+        return summary;
+    }
+
+    /**
+     * 检查一个方法体;
+     */
+    private final class Checker
+    {
+        private final IntSet locals = new IntSet();
+
+        private final IntSet reads = new IntSet();
+
+        private Checker(CvaMethod method)
+        {
+            method.getArgumentList().forEach(this::addLocal);
+            method.getLocalVarList().forEach(this::addLocal);
+        }
+
+        private void addLocal(AbstractDeclaration decl)
+        {
+            locals.add(decl.symbol());
+        }
+
+        private boolean checkList(List<AbstractStatement> stmList)
+        {
+            for (AbstractStatement stm : stmList)
+            {
+                if (!checkStatement(stm))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean checkStatement(AbstractStatement stm)
+        {
+            if (stm == null)
+            {
+                return true;
+            }
+            switch (stm.toEnum())
+            {
+                case ASSIGN:
+                {
+                    CvaAssignStatement assign = (CvaAssignStatement) stm;
+                    return locals.contains(assign.getSymbol()) && checkExpr(assign.getExpr());
+                }
+                case INCREMENT:
+                    return locals.contains(((CvaIncreStatement) stm).getSymbol());
+                case BLOCK:
+                    return checkList(((CvaBlockStatement) stm).getStatementList());
+                case IF:
+                {
+                    CvaIfStatement ifStm = (CvaIfStatement) stm;
+                    return checkExpr(ifStm.getCondition())
+                            && checkStatement(ifStm.getThenStatement())
+                            && checkStatement(ifStm.getElseStatement());
+                }
+                default:
+                    // 打印有副作用, 循环不一定停;
+                    return false;
+            }
+        }
+
+        private boolean checkExpr(AbstractExpression expr)
+        {
+            if (expr == null)
+            {
+                return true;
+            }
+            if (expr instanceof AbstractBinaryExpr)
+            {
+                AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+                return !isTrapping(binary)
+                        && checkExpr(binary.getLeft())
+                        && checkExpr(binary.getRight());
+            }
+            switch (expr.toEnum())
+            {
+                case IDENTIFIER:
+                {
+                    CvaIdentifierExpr id = (CvaIdentifierExpr) expr;
+                    if (id.isField())
+                    {
+                        reads.add(id.getSymbol());
+                    }
+                    return true;
+                }
+                case CALL:
+                {
+                    CvaCallExpr call = (CvaCallExpr) expr;
+                    IntSet callReads = readFieldsOf(call);
+                    if (callReads == null)
+                    {
+                        return false;
+                    }
+                    reads.addAll(callReads);
+                    for (AbstractExpression arg : call.getArgs())
+                    {
+                        if (!checkExpr(arg))
+                        {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                case NEGATE:
+                    return checkExpr(((CvaNegateExpr) expr).getExpr());
+                case BIT_NEGATE:
+                    return checkExpr(((CvaBitNegateExpr) expr).getExpr());
+                case CONDITION_CALC:
+                {
+                    CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                    return checkExpr(condExpr.getCondition())
+                            && checkExpr(condExpr.getTrueExpr())
+                            && checkExpr(condExpr.getFalseExpr());
+                }
+                default:
+                    // 常量, this, new;
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * @param expr 双目表达式;
+     * @return 会不会抛, 只有除以非零常量的除法和取余不会;
+     */
+    public static boolean isTrapping(AbstractBinaryExpr expr)
+    {
+        switch (expr.toEnum())
+        {
+            case DIV:
+            case REMAINDER:
+                return !(expr.getRight() instanceof CvaConstIntExpr)
+                        || ((CvaConstIntExpr) expr.getRight()).getValue() == 0;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.CvaBitNegateExpr;
+import cn.misection.cvac.ast.expr.unary.CvaCallExpr;
+import cn.misection.cvac.ast.expr.unary.CvaNegateExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.statement.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName RewriteWalker
+ * @Description 一遍走完方法, 每个结点依次交给各个改写;
+ * 只有一个改写时就是单独的优化, 几个改写串起来就把几遍合成一遍;
+ * @CreateTime 2026年10月18日 00:15:00
+ */
+public final class RewriteWalker implements IMethodPass
+{
+    private final IRewriter[] rewriters;
+
+    public RewriteWalker(IRewriter... rewriters)
+    {
+        this.rewriters = rewriters;
+    }
+
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        for (IRewriter rewriter : rewriters)
+        {
+            rewriter.enterMethod(method);
+        }
+        method.setStatementList(walkList(method.getStatementList()));
+        method.setRetExpr(walkExpr(method.getRetExpr()));
+        for (IRewriter rewriter : rewriters)
+        {
+            rewriter.exitMethod(method);
+        }
+    }
+
+    @Override
+    public boolean isOptimizing()
+    {
+        for (IRewriter rewriter : rewriters)
+        {
+            if (rewriter.isOptimizing())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<AbstractStatement> walkList(List<AbstractStatement> stmList)
+    {
+        List<AbstractStatement> result = new ArrayList<>(stmList.size());
+        for (AbstractStatement stm : stmList)
+        {
+            AbstractStatement walked = walkStatement(stm);
+            if (walked == null)
+            {
+                continue;
+            }
+            if (walked != stm && walked instanceof CvaBlockStatement)
+            {
+                // 改写换上来的块直接摊平到外层;
+                result.addAll(((CvaBlockStatement) walked).getStatementList());
+            }
+            else
+            {
+                result.add(walked);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * then 分支和循环体不能缺, 被删掉时换成空块;
+     */
+    private AbstractStatement walkBranch(AbstractStatement stm)
+    {
+        AbstractStatement walked = walkStatement(stm);
+        return walked == null
+                ? new CvaBlockStatement(stm.getLineNum(), new ArrayList<>())
+                : walked;
+    }
+
+    private AbstractStatement walkStatement(AbstractStatement stm)
+    {
+        walkOwnExpr(stm);
+        AbstractStatement result = stm;
+        for (IRewriter rewriter : rewriters)
+        {
+            result = rewriter.rewrite(result);
+            if (result != stm)
+            {
+                return result == null ? null : walkStatement(result);
+            }
+        }
+        switch (stm.toEnum())
+        {
+            case BLOCK:
+            {
+                CvaBlockStatement block = (CvaBlockStatement) stm;
+                block.setStatementList(walkList(block.getStatementList()));
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                ifStm.setThenStatement(walkBranch(ifStm.getThenStatement()));
+                if (ifStm.getElseStatement() != null)
+                {
+                    ifStm.setElseStatement(walkStatement(ifStm.getElseStatement()));
+                }
+                break;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                whileStm.setBody(walkBranch(whileStm.getBody()));
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+        return stm;
+    }
+
+    private void walkOwnExpr(AbstractStatement stm)
+    {
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                CvaAssignStatement assign = (CvaAssignStatement) stm;
+                assign.setExpr(walkExpr(assign.getExpr()));
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                ifStm.setCondition(walkExpr(ifStm.getCondition()));
+                break;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                whileStm.setCondition(walkExpr(whileStm.getCondition()));
+                break;
+            }
+            case WRITE:
+            {
+                CvaWriteStatement write = (CvaWriteStatement) stm;
+                write.setExpr(walkExpr(write.getExpr()));
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+    }
+
+    private AbstractExpression walkExpr(AbstractExpression expr)
+    {
+        if (expr == null)
+        {
+            return null;
+        }
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+            binary.setLeft(walkExpr(binary.getLeft()));
+            binary.setRight(walkExpr(binary.getRight()));
+        }
+        else
+        {
+            switch (expr.toEnum())
+            {
+                case CALL:
+                {
+                    CvaCallExpr call = (CvaCallExpr) expr;
+                    call.setExpr(walkExpr(call.getExpr()));
+                    List<AbstractExpression> args = call.getArgs();
+                    for (int i = 0; i < args.size(); i++)
+                    {
+                        args.set(i, walkExpr(args.get(i)));
+                    }
+                    break;
+                }
+                case NEGATE:
+                {
+                    CvaNegateExpr negate = (CvaNegateExpr) expr;
+                    negate.setExpr(walkExpr(negate.getExpr()));
+                    break;
+                }
+                case BIT_NEGATE:
+                {
+                    CvaBitNegateExpr negate = (CvaBitNegateExpr) expr;
+                    negate.setExpr(walkExpr(negate.getExpr()));
+                    break;
+                }
+                case CONDITION_CALC:
+                {
+                    CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                    condExpr.setCondition(walkExpr(condExpr.getCondition()));
+                    condExpr.setTrueExpr(walkExpr(condExpr.getTrueExpr()));
+                    condExpr.setFalseExpr(walkExpr(condExpr.getFalseExpr()));
+                    break;
+                }
+                default:
+                {
+                    break;
+                }
+            }
+        }
+        AbstractExpression result = expr;
+        for (IRewriter rewriter : rewriters)
+        {
+            result = rewriter.rewrite(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.unary.CvaConstFalseExpr;
+import cn.misection.cvac.ast.expr.unary.CvaConstIntExpr;
+import cn.misection.cvac.ast.expr.unary.CvaConstTrueExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.CvaIfStatement;
+import cn.misection.cvac.ast.statement.CvaWhileStatement;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ir.BasicBlock;
+import cn.misection.cvac.ir.IrBuilder;
+import cn.misection.cvac.ir.IrInstruction;
+import cn.misection.cvac.ir.IrMethod;
+import cn.misection.cvac.ir.IrOrigins;
+import cn.misection.cvac.ir.SparseConditionalConstants;
+import cn.misection.cvac.ir.SsaBuilder;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName SparseConstantPropagation
+ * @Description 稀疏条件常量传播: 方法降成 SSA 分析一遍, 再回到语法树上改;
+ * 在可执行路径上恒为常量的表达式换成常量, 走不到的 if 分支和一次也进不去的 while 一起删掉;
+ * 循环里的变量按回边求不动点, 不用整个作废, 分支汇合也只看走得到的一边;
+ * @CreateTime 2026年10月18日 02:45:00
+ */
+public final class SparseConstantPropagation implements IMethodPass, IRewriter
+{
+    private final RewriteWalker walker = new RewriteWalker(this);
+
+    private IrOrigins origins;
+
+    private SparseConditionalConstants constants;
+
+    private boolean isOptimizing;
+
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        this.origins = new IrOrigins();
+        // 只做分析, 用不到类名;
+        IrMethod irMethod = IrBuilder.build(method, null, origins);
+        SsaBuilder.build(irMethod);
+        this.constants = SparseConditionalConstants.analyze(irMethod);
+        walker.optimize(method);
+        this.origins = null;
+        this.constants = null;
+    }
+
+    @Override
+    public void enterMethod(CvaMethod method)
+    {
+        this.isOptimizing = false;
+    }
+
+    @Override
+    public AbstractExpression rewrite(AbstractExpression expr)
+    {
+        if (expr instanceof CvaConstIntExpr
+                || expr instanceof CvaConstTrueExpr
+                || expr instanceof CvaConstFalseExpr)
+        {
+            return expr;
+        }
+        IrInstruction value = origins.valueOf(expr);
+        if (value == null || value.getBlock() == null || !constants.isConstant(value)
+                // 结果定了, 里面的调用还是要做;
+                || UseDefCollector.ofExpr(expr).containsCall())
+        {
+            return expr;
+        }
+        this.isOptimizing = true;
+        int result = constants.constantOf(value);
+        if (value.getType() == EnumCvaType.CVA_BOOLEAN)
+        {
+            return result != 0
+                    ? new CvaConstTrueExpr(expr.getLineNum())
+                    : new CvaConstFalseExpr(expr.getLineNum());
+        }
+        return new CvaConstIntExpr(expr.getLineNum(), result);
+    }
+
+    @Override
+    public AbstractStatement rewrite(AbstractStatement stm)
+    {
+        switch (stm.toEnum())
+        {
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                BasicBlock[] arms = origins.armsOf(stm);
+                if (arms == null || UseDefCollector.ofExpr(ifStm.getCondition()).containsCall())
+                {
+                    return stm;
+                }
+                boolean thenReached = constants.isReachable(arms[0]);
+                boolean elseReached = constants.isReachable(arms[1]);
+                if (thenReached && !elseReached)
+                {
+                    this.isOptimizing = true;
+                    return ifStm.getThenStatement();
+                }
+                if (elseReached && !thenReached)
+                {
+                    this.isOptimizing = true;
+                    return ifStm.getElseStatement();
+                }
+                return stm;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                BasicBlock[] arms = origins.armsOf(stm);
+                if (arms != null
+                        && !constants.isReachable(arms[0])
+                        && constants.isReachable(arms[1])
+                        && !UseDefCollector.ofExpr(whileStm.getCondition()).containsCall())
+                {
+                    // 第一次判断就不成立;
+                    this.isOptimizing = true;
+                    return null;
+                }
+                return stm;
+            }
+            default:
+                return stm;
+        }
+    }
+
+    @Override
+    public boolean isOptimizing()
+    {
+        return this.isOptimizing;
+    }
+}
@@ -0,0 +1,548 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.decl.CvaDeclaration;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.EnumCvaExpr;
+import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.unary.CvaConstIntExpr;
+import cn.misection.cvac.ast.expr.unary.CvaIdentifierExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.symbol.IntMap;
+import cn.misection.cvac.symbol.IntSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName StrengthReduction
+ * @Description 归纳变量和强度削减: 循环体顶层每轮固定加减常量的 int 局部变量是基本归纳变量;
+ * 循环里的 i * c 是派生归纳变量, 换成 $iv 临时变量, 前置块里算一次初值, i 每次改完跟着加 步长 * c;
+ * 再把乘除余 2 的幂换成移位和按位与, 有符号的除和余要先给负数加上偏置, 才是向零取整;
+ * @CreateTime 2026年10月18日 05:05:00
+ */
+public final class StrengthReduction implements IMethodPass, IRewriter
+{
+    private static final String TEMP_PREFIX = "$iv";
+
+    private final RewriteWalker walker = new RewriteWalker(this);
+
+    private CvaMethod method;
+
+    /**
+     * int 类型的参数和局部变量;
+     */
+    private IntSet intLocals;
+
+    private int nextTemp;
+
+    private boolean isOptimizing;
+
+    /**
+     * 一个基本归纳变量在循环体顶层的一次更新;
+     */
+    private static final class Update
+    {
+        private final AbstractStatement stm;
+
+        private final int step;
+
+        private Update(AbstractStatement stm, int step)
+        {
+            this.stm = stm;
+            this.step = step;
+        }
+    }
+
+    /**
+     * 一个派生归纳变量 i * factor;
+     */
+    private static final class Derived
+    {
+        private final CvaIdentifierExpr base;
+
+        /**
+         * 常量或者循环里不变的局部变量;
+         */
+        private final AbstractExpression factor;
+
+        private final String tempLiteral;
+
+        private Derived(CvaIdentifierExpr base, AbstractExpression factor, String tempLiteral)
+        {
+            this.base = base;
+            this.factor = factor;
+            this.tempLiteral = tempLiteral;
+        }
+    }
+
+    @Override
+    public void optimize(CvaMethod method)
+    {
+        this.method = method;
+        this.intLocals = new IntSet();
+        this.nextTemp = 0;
+        method.getArgumentList().forEach(this::declare);
+        method.getLocalVarList().forEach(this::declare);
+        // 先削减归纳变量的乘法, 剩下的乘除再看是不是 2 的幂;
+        boolean reduced = false;
+        for (LoopNest root : LoopNest.find(method.getStatementList()))
+        {
+            List<LoopNest> nestList = new ArrayList<>();
+            root.forEachPreOrder(nestList::add);
+            for (LoopNest nest : nestList)
+            {
+                reduced |= reduceLoop(nest);
+            }
+        }
+        walker.optimize(method);
+        this.isOptimizing |= reduced;
+        this.method = null;
+    }
+
+    @Override
+    public void enterMethod(CvaMethod method)
+    {
+        this.isOptimizing = false;
+    }
+
+    @Override
+    public boolean isOptimizing()
+    {
+        return this.isOptimizing;
+    }
+
+    private void declare(AbstractDeclaration decl)
+    {
+        if (decl.type() != null && decl.type().toEnum() == EnumCvaType.CVA_INT)
+        {
+            intLocals.add(decl.symbol());
+        }
+        String literal = decl.literal();
+        if (literal.startsWith(TEMP_PREFIX))
+        {
+            try
+            {
+                nextTemp = Math.max(nextTemp,
+                        Integer.parseInt(literal.substring(TEMP_PREFIX.length())) + 1);
+            }
+            catch (NumberFormatException e)
+            {
+                // 不是这里起的名字;
+            }
+        }
+    }
+
+    /**
+     * @return 这个循环有没有改动;
+     */
+    private boolean reduceLoop(LoopNest nest)
+    {
+        List<AbstractStatement> bodyList = nest.getBodyList();
+        if (bodyList == null)
+        {
+            return false;
+        }
+        IntMap<List<Update>> inductions = findInductions(nest, bodyList);
+        if (inductions.isEmpty())
+        {
+            return false;
+        }
+        IntSet loopDefs = UseDefCollector.of(nest.getWhileStm()).getDefs();
+        List<Derived> derivedList = new ArrayList<>();
+        ExprSlots.forEachSlot(nest.getWhileStm(), (expr, replacer, isWritten) ->
+                replaceDerived(expr, replacer, inductions, loopDefs, derivedList));
+        if (derivedList.isEmpty())
+        {
+            return false;
+        }
+        for (Derived derived : derivedList)
+        {
+            int line = derived.base.getLineNum();
+            // 进循环时 t = i * c;
+            nest.insertPreheader(assignTemp(derived.tempLiteral,
+                    new CvaMulExpr(line, copyOf(derived.base), copyFactor(derived.factor))));
+            for (Update update : inductions.get(derived.base.getSymbol()))
+            {
+                bodyList.add(LoopNest.indexOf(bodyList, update.stm) + 1,
+                        assignTemp(derived.tempLiteral, stepOf(derived, update.step)));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 循环体顶层的 i++, i--, i = i + c, i = i - c, 而且 i 在循环里别处没有赋值;
+     * @return 归纳变量 -> 它的各次更新;
+     */
+    private IntMap<List<Update>> findInductions(LoopNest nest, List<AbstractStatement> bodyList)
+    {
+        IntMap<List<Update>> inductions = new IntMap<>();
+        IntSet rejected = new IntSet();
+        for (AbstractStatement stm : bodyList)
+        {
+            int symbol;
+            int step;
+            if (stm instanceof CvaIncreStatement)
+            {
+                symbol = ((CvaIncreStatement) stm).getSymbol();
+                step = ((CvaIncreStatement) stm).getDirection().direction();
+            }
+            else if (stm instanceof CvaAssignStatement)
+            {
+                CvaAssignStatement assign = (CvaAssignStatement) stm;
+                symbol = assign.getSymbol();
+                Integer constStep = stepOf(symbol, assign.getExpr());
+                if (constStep == null)
+                {
+                    rejected.add(symbol);
+                    continue;
+                }
+                step = constStep;
+            }
+            else
+            {
+                continue;
+            }
+            if (!intLocals.contains(symbol))
+            {
+                continue;
+            }
+            List<Update> updateList = inductions.get(symbol);
+            if (updateList == null)
+            {
+                updateList = new ArrayList<>(1);
+                inductions.put(symbol, updateList);
+            }
+            updateList.add(new Update(stm, step));
+        }
+        // 分支和内层循环里还有赋值的不算;
+        int[] defCounts = countDefs(nest.getWhileStm());
+        IntMap<List<Update>> result = new IntMap<>();
+        inductions.forEach((symbol, updateList) ->
+        {
+            if (!rejected.contains(symbol) && defCountOf(defCounts, symbol) == updateList.size())
+            {
+                result.put(symbol, updateList);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return expr 是 symbol + c, c + symbol 或 symbol - c 时的步长, 否则 null;
+     */
+    private static Integer stepOf(int symbol, AbstractExpression expr)
+    {
+        if (!(expr instanceof CvaAddExpr || expr instanceof CvaSubExpr))
+        {
+            return null;
+        }
+        AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+        boolean isAdd = expr instanceof CvaAddExpr;
+        if (isLocal(binary.getLeft(), symbol) && binary.getRight() instanceof CvaConstIntExpr)
+        {
+            int c = ((CvaConstIntExpr) binary.getRight()).getValue();
+            return isAdd ? c : -c;
+        }
+        if (isAdd && isLocal(binary.getRight(), symbol) && binary.getLeft() instanceof CvaConstIntExpr)
+        {
+            return ((CvaConstIntExpr) binary.getLeft()).getValue();
+        }
+        return null;
+    }
+
+    private static boolean isLocal(AbstractExpression expr, int symbol)
+    {
+        return expr instanceof CvaIdentifierExpr
+                && !((CvaIdentifierExpr) expr).isField()
+                && ((CvaIdentifierExpr) expr).getSymbol() == symbol;
+    }
+
+    /**
+     * 按符号数循环里的赋值次数, 用一张符号表大小的数组;
+     */
+    private static int[] countDefs(AbstractStatement stm)
+    {
+        List<Integer> defList = new ArrayList<>();
+        collectDefs(stm, defList);
+        int max = -1;
+        for (int symbol : defList)
+        {
+            max = Math.max(max, symbol);
+        }
+        int[] counts = new int[max + 1];
+        defList.forEach(symbol -> counts[symbol]++);
+        return counts;
+    }
+
+    private static int defCountOf(int[] counts, int symbol)
+    {
+        return symbol < counts.length ? counts[symbol] : 0;
+    }
+
+    private static void collectDefs(AbstractStatement stm, List<Integer> defList)
+    {
+        if (stm == null)
+        {
+            return;
+        }
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+                defList.add(((CvaAssignStatement) stm).getSymbol());
+                break;
+            case INCREMENT:
+                defList.add(((CvaIncreStatement) stm).getSymbol());
+                break;
+            case BLOCK:
+                ((CvaBlockStatement) stm).getStatementList().forEach(s -> collectDefs(s, defList));
+                break;
+            case IF:
+                collectDefs(((CvaIfStatement) stm).getThenStatement(), defList);
+                collectDefs(((CvaIfStatement) stm).getElseStatement(), defList);
+                break;
+            case WHILE:
+                collectDefs(((CvaWhileStatement) stm).getBody(), defList);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 自顶向下找 i * c, 换成临时变量;
+     */
+    private void replaceDerived(AbstractExpression expr,
+                                Consumer<AbstractExpression> replacer,
+                                IntMap<List<Update>> inductions, IntSet loopDefs,
+                                List<Derived> derivedList)
+    {
+        if (expr instanceof CvaMulExpr)
+        {
+            CvaMulExpr mul = (CvaMulExpr) expr;
+            Derived derived = match(mul.getLeft(), mul.getRight(), inductions, loopDefs, derivedList);
+            if (derived == null)
+            {
+                derived = match(mul.getRight(), mul.getLeft(), inductions, loopDefs, derivedList);
+            }
+            if (derived != null)
+            {
+                replacer.accept(new CvaIdentifierExpr(expr.getLineNum(),
+                        derived.tempLiteral, EnumCvaType.CVA_INT, false));
+                return;
+            }
+        }
+        ExprSlots.forEachChildSlot(expr, (child, childReplacer) ->
+                replaceDerived(child, childReplacer, inductions, loopDefs, derivedList));
+    }
+
+    /**
+     * @return base * factor 是派生归纳变量时的记录, 同样的 base 和 factor 共用一个;
+     */
+    private Derived match(AbstractExpression base, AbstractExpression factor,
+                          IntMap<List<Update>> inductions, IntSet loopDefs,
+                          List<Derived> derivedList)
+    {
+        if (!(base instanceof CvaIdentifierExpr) || ((CvaIdentifierExpr) base).isField())
+        {
+            return null;
+        }
+        int symbol = ((CvaIdentifierExpr) base).getSymbol();
+        List<Update> updateList = inductions.get(symbol);
+        if (updateList == null)
+        {
+            return null;
+        }
+        if (factor instanceof CvaConstIntExpr)
+        {
+            int c = ((CvaConstIntExpr) factor).getValue();
+            // 2 的幂移位一样快, 留给后面;
+            if (c == 0 || Integer.bitCount(c) == 1)
+            {
+                return null;
+            }
+        }
+        else if (factor instanceof CvaIdentifierExpr
+                && !((CvaIdentifierExpr) factor).isField()
+                && intLocals.contains(((CvaIdentifierExpr) factor).getSymbol())
+                && !loopDefs.contains(((CvaIdentifierExpr) factor).getSymbol()))
+        {
+            // 步长乘不变量要再算一次乘法, 只收步长是 1 的;
+            for (Update update : updateList)
+            {
+                if (Math.abs(update.step) != 1)
+                {
+                    return null;
+                }
+            }
+        }
+        else
+        {
+            return null;
+        }
+        for (Derived derived : derivedList)
+        {
+            if (derived.base.getSymbol() == symbol && sameFactor(derived.factor, factor))
+            {
+                return derived;
+            }
+        }
+        String literal = TEMP_PREFIX + nextTemp++;
+        CvaDeclaration decl = new CvaDeclaration(base.getLineNum(), literal, EnumCvaType.CVA_INT);
+        method.getLocalVarList().add(decl);
+        Derived derived = new Derived((CvaIdentifierExpr) base, factor, literal);
+        derivedList.add(derived);
+        return derived;
+    }
+
+    private static boolean sameFactor(AbstractExpression a, AbstractExpression b)
+    {
+        if (a instanceof CvaConstIntExpr && b instanceof CvaConstIntExpr)
+        {
+            return ((CvaConstIntExpr) a).getValue() == ((CvaConstIntExpr) b).getValue();
+        }
+        return a instanceof CvaIdentifierExpr && b instanceof CvaIdentifierExpr
+                && ((CvaIdentifierExpr) a).getSymbol() == ((CvaIdentifierExpr) b).getSymbol();
+    }
+
+    /**
+     * @return t + 步长 * c, 不变量因子的步长只会是 1 或 -1;
+     */
+    private static AbstractExpression stepOf(Derived derived, int step)
+    {
+        int line = derived.base.getLineNum();
+        CvaIdentifierExpr temp = new CvaIdentifierExpr(line, derived.tempLiteral,
+                EnumCvaType.CVA_INT, false);
+        if (derived.factor instanceof CvaConstIntExpr)
+        {
+            return new CvaAddExpr(line, temp,
+                    new CvaConstIntExpr(line, step * ((CvaConstIntExpr) derived.factor).getValue()));
+        }
+        return step > 0
+                ? new CvaAddExpr(line, temp, copyFactor(derived.factor))
+                : new CvaSubExpr(line, temp, copyFactor(derived.factor));
+    }
+
+    private static CvaAssignStatement assignTemp(String literal, AbstractExpression expr)
+    {
+        CvaAssignStatement assign = new CvaAssignStatement(expr.getLineNum(), literal, expr);
+        assign.setType(EnumCvaType.CVA_INT);
+        return assign;
+    }
+
+    private static CvaIdentifierExpr copyOf(CvaIdentifierExpr id)
+    {
+        return new CvaIdentifierExpr(id.getLineNum(), id.getLiteral(), id.getType(), id.isField());
+    }
+
+    private static AbstractExpression copyFactor(AbstractExpression factor)
+    {
+        return factor instanceof CvaIdentifierExpr
+                ? copyOf((CvaIdentifierExpr) factor)
+                : new CvaConstIntExpr(factor.getLineNum(), ((CvaConstIntExpr) factor).getValue());
+    }
+
+    /**
+     * 乘除余 2 的幂, 孩子已经改写过;
+     */
+    @Override
+    public AbstractExpression rewrite(AbstractExpression expr)
+    {
+        EnumCvaExpr op = expr.toEnum();
+        if (op != EnumCvaExpr.MUL && op != EnumCvaExpr.DIV && op != EnumCvaExpr.REMAINDER)
+        {
+            return expr;
+        }
+        AbstractBinaryExpr binary = (AbstractBinaryExpr) expr;
+        int line = expr.getLineNum();
+        AbstractExpression left = binary.getLeft();
+        AbstractExpression right = binary.getRight();
+        if (op == EnumCvaExpr.MUL)
+        {
+            // x * 2^k 按补码回绕和 x << k 一样, MIN_VALUE 也是;
+            if (isPowerOfTwo(left) && !isPowerOfTwo(right))
+            {
+                AbstractExpression swap = left;
+                left = right;
+                right = swap;
+            }
+            if (!isPowerOfTwo(right))
+            {
+                return expr;
+            }
+            this.isOptimizing = true;
+            int shift = Integer.numberOfTrailingZeros(((CvaConstIntExpr) right).getValue());
+            return shift == 0 ? left : new CvaLeftShiftExpr(line, left, new CvaConstIntExpr(line, shift));
+        }
+        // 除数是正的 2 的幂, 2 到 2^30;
+        if (!isPowerOfTwo(right) || ((CvaConstIntExpr) right).getValue() <= 1)
+        {
+            return expr;
+        }
+        int divisor = ((CvaConstIntExpr) right).getValue();
+        int shift = Integer.numberOfTrailingZeros(divisor);
+        if (isNonNegative(left))
+        {
+            this.isOptimizing = true;
+            return op == EnumCvaExpr.DIV
+                    ? new CvaRightShiftExpr(line, left, new CvaConstIntExpr(line, shift))
+                    : new CvaBitAndExpr(line, left, new CvaConstIntExpr(line, divisor - 1));
+        }
+        // 负数要向零取整, 被除数用两次, 只收局部变量;
+        if (!(left instanceof CvaIdentifierExpr) || ((CvaIdentifierExpr) left).isField())
+        {
+            return expr;
+        }
+        this.isOptimizing = true;
+        CvaIdentifierExpr x = (CvaIdentifierExpr) left;
+        // 负数时 bias = 2^k - 1, 否则 0;
+        AbstractExpression bias = new CvaUnsignedRightShiftExpr(line,
+                new CvaRightShiftExpr(line, copyOf(x), new CvaConstIntExpr(line, 31)),
+                new CvaConstIntExpr(line, 32 - shift));
+        AbstractExpression biased = new CvaAddExpr(line, copyOf(x), bias);
+        if (op == EnumCvaExpr.DIV)
+        {
+            return new CvaRightShiftExpr(line, biased, new CvaConstIntExpr(line, shift));
+        }
+        // x % 2^k = x - ((x + bias) & -2^k);
+        return new CvaSubExpr(line, x,
+                new CvaBitAndExpr(line, biased, new CvaConstIntExpr(line, -divisor)));
+    }
+
+    private static boolean isPowerOfTwo(AbstractExpression expr)
+    {
+        return expr instanceof CvaConstIntExpr
+                && Integer.bitCount(((CvaConstIntExpr) expr).getValue()) == 1;
+    }
+
+    /**
+     * 不看值的范围, 只认一眼能看出来不是负数的;
+     */
+    private static boolean isNonNegative(AbstractExpression expr)
+    {
+        switch (expr.toEnum())
+        {
+            case CONST_INT:
+                return ((CvaConstIntExpr) expr).getValue() >= 0;
+            case BIT_AND:
+            {
+                AbstractBinaryExpr and = (AbstractBinaryExpr) expr;
+                return isNonNegative(and.getLeft()) || isNonNegative(and.getRight());
+            }
+            case UNSIGNED_RIGHT_SHIFT:
+            {
+                AbstractExpression shift = ((AbstractBinaryExpr) expr).getRight();
+                return shift instanceof CvaConstIntExpr
+                        && (((CvaConstIntExpr) shift).getValue() & 31) != 0;
+            }
+            default:
+                return false;
+        }
+    }
+}
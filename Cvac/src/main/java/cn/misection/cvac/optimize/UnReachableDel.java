@@ -1,213 +1,74 @@
 package cn.misection.cvac.optimize;
 
-import cn.misection.cvac.ast.IVisitor;
-import cn.misection.cvac.ast.clas.*;
-import cn.misection.cvac.ast.decl.*;
-import cn.misection.cvac.ast.entry.*;
-import cn.misection.cvac.ast.expr.binary.*;
-import cn.misection.cvac.ast.expr.unary.*;
-import cn.misection.cvac.ast.method.*;
-import cn.misection.cvac.ast.program.*;
-import cn.misection.cvac.ast.statement.*;
-import cn.misection.cvac.ast.type.basic.EnumCvaType;
-import cn.misection.cvac.ast.type.reference.CvaClassType;
-import cn.misection.cvac.ast.type.advance.CvaStringType;
+import cn.misection.cvac.ast.expr.unary.CvaConstFalseExpr;
+import cn.misection.cvac.ast.expr.unary.CvaConstTrueExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.CvaIfStatement;
+import cn.misection.cvac.ast.statement.CvaWhileStatement;
 
-
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 /**
  * Created by MI6 root 1/25.
  */
-public final class UnReachableDel
-        implements IVisitor, Optimizable
+public final class UnReachableDel implements IRewriter
 {
-    private AbstractStatement curStm;
     private boolean isOptimizing;
 
-    @Override
-    public void visit(EnumCvaType basicType) {}
-
-    @Override
-    public void visit(CvaStringType type) {}
-
-    @Override
-    public void visit(CvaClassType type) {}
-
-    @Override
-    public void visit(CvaDeclaration decl) {}
-
-    @Override
-    public void visit(CvaAddExpr expr) {}
-
-    @Override
-    public void visit(CvaAndAndExpr expr) {}
-
-    @Override
-    public void visit(CvaCallExpr expr) {}
-
-    @Override
-    public void visit(CvaConstFalseExpr expr) {}
-
-    @Override
-    public void visit(CvaIdentifierExpr expr) {}
-
-    @Override
-    public void visit(CvaLessThanExpr expr) {}
-
-    @Override
-    public void visit(CvaNewExpr expr) {}
-
-    @Override
-    public void visit(CvaNegateExpr expr) {}
-
-    @Override
-    public void visit(CvaConstIntExpr expr) {}
-
-    @Override
-    public void visit(CvaConstStringExpr expr) {}
-
-    @Override
-    public void visit(CvaSubExpr expr) {}
-
-    @Override
-    public void visit(CvaThisExpr expr) {}
-
-    @Override
-    public void visit(CvaMulExpr expr) {}
-
-    @Override
-    public void visit(CvaConstTrueExpr expr) {}
+    /**
+     * 死循环每轮都会碰到, 只警告一次;
+     */
+    private final Set<AbstractStatement> warnedLoops =
+            Collections.newSetFromMap(new IdentityHashMap<>());
 
     @Override
-    public void visit(CvaAssignStatement stm)
+    public void enterMethod(CvaMethod method)
     {
-        this.curStm = stm;
+        this.isOptimizing = false;
     }
 
     @Override
-    public void visit(CvaBlockStatement s)
+    public AbstractStatement rewrite(AbstractStatement stm)
     {
-        ArrayList<AbstractStatement> stmList = new ArrayList<>();
-        s.getStatementList().forEach(stm ->
+        switch (stm.toEnum())
         {
-            this.visit(stm);
-            if (curStm != null)
+            case IF:
             {
-                if (curStm instanceof CvaBlockStatement)
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                if (ifStm.getCondition() instanceof CvaConstTrueExpr)
                 {
-                    stmList.addAll(((CvaBlockStatement) curStm).getStatementList());
+                    this.isOptimizing = true;
+                    return ifStm.getThenStatement();
                 }
-                else
+                if (ifStm.getCondition() instanceof CvaConstFalseExpr)
                 {
-                    stmList.add(curStm);
+                    this.isOptimizing = true;
+                    return ifStm.getElseStatement();
                 }
+                return stm;
             }
-        });
-        s.setStatementList(stmList);
-        this.curStm = s;
-    }
-
-    @Override
-    public void visit(CvaIfStatement stm)
-    {
-        if (stm.getCondition() instanceof CvaConstTrueExpr)
-        {
-            this.isOptimizing = true;
-            this.curStm = stm.getThenStatement();
-            this.visit(this.curStm);
-        }
-        else if (stm.getCondition() instanceof CvaConstFalseExpr)
-        {
-            this.isOptimizing = true;
-            this.curStm = stm.getElseStatement();
-            this.visit(this.curStm);
-        }
-        else
-        {
-            this.curStm = stm;
-        }
-    }
-
-    @Override
-    public void visit(CvaWriteStatement stm)
-    {
-        this.curStm = stm;
-    }
-
-    @Override
-    public void visit(CvaWhileStatement stm)
-    {
-        if (stm.getCondition() instanceof CvaConstFalseExpr)
-        {
-            this.isOptimizing = true;
-            this.curStm = null;
-        }
-        else if (stm.getCondition() instanceof CvaConstTrueExpr)
-        {
-            System.out.printf("Warning: at Line %d:  unend-loop!%n",
-                    stm.getLineNum());
-            this.curStm = stm;
-        }
-        else
-        {
-            this.curStm = stm;
-        }
-    }
-
-    @Override
-    public void visit(CvaIncreStatement stm)
-    {
-        // TODO;
-    }
-
-    @Override
-    public void visit(CvaMethod m)
-    {
-        ArrayList<AbstractStatement> stmList = new ArrayList<>();
-        m.getStatementList().forEach(stm ->
-        {
-            this.visit(stm);
-            if (this.curStm != null)
+            case WHILE:
             {
-                if (this.curStm instanceof CvaBlockStatement)
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                if (whileStm.getCondition() instanceof CvaConstFalseExpr)
                 {
-                    stmList.addAll(((CvaBlockStatement) this.curStm).getStatementList());
+                    this.isOptimizing = true;
+                    return null;
                 }
-                else
+                if (whileStm.getCondition() instanceof CvaConstTrueExpr
+                        && warnedLoops.add(stm))
                 {
-                    stmList.add(curStm);
+                    System.out.printf("Warning: at Line %d:  unend-loop!%n",
+                            stm.getLineNum());
                 }
+                return stm;
             }
-        });
-        m.setStatementList(stmList);
-    }
-
-    @Override
-    public void visit(CvaClass c)
-    {
-        c.getMethodList().forEach(this::visit);
-    }
-
-    @Override
-    public void visit(CvaEntryClass entryClass)
-    {
-        this.visit((CvaMainMethod) entryClass.getMainMethod());
-        entryClass.setStatement(this.curStm);
-    }
-
-    @Override
-    public void visit(CvaMainMethod entryMethod)
-    {
-        // FIXME;
-    }
-
-    @Override
-    public void visit(CvaProgram program)
-    {
-        this.isOptimizing = false;
-        this.visit(program.getEntryClass());
-        program.getClassList().forEach(this::visit);
+            default:
+                return stm;
+        }
     }
 
     @Override
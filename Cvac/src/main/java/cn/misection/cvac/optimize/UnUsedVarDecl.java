@@ -1,238 +1,122 @@
 package cn.misection.cvac.optimize;
 
-import cn.misection.cvac.ast.IVisitor;
-import cn.misection.cvac.ast.clas.CvaClass;
 import cn.misection.cvac.ast.decl.CvaDeclaration;
-import cn.misection.cvac.ast.entry.CvaEntryClass;
-import cn.misection.cvac.ast.expr.binary.*;
-import cn.misection.cvac.ast.expr.unary.*;
-import cn.misection.cvac.ast.method.CvaMainMethod;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.unary.CvaIdentifierExpr;
 import cn.misection.cvac.ast.method.CvaMethod;
-import cn.misection.cvac.ast.program.CvaProgram;
-import cn.misection.cvac.ast.statement.*;
-import cn.misection.cvac.ast.type.basic.EnumCvaType;
-import cn.misection.cvac.ast.type.reference.CvaClassType;
-import cn.misection.cvac.ast.type.advance.CvaStringType;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.CvaAssignStatement;
+import cn.misection.cvac.ast.statement.CvaIncreStatement;
+import cn.misection.cvac.symbol.IntMap;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 /**
  * Created by MI6 root 1/24.
  */
-public final class UnUsedVarDecl
-        implements IVisitor, Optimizable
+public final class UnUsedVarDecl implements IRewriter
 {
-    private Map<String, CvaDeclaration> unUsedLocals;
-    private Map<String, CvaDeclaration> unUsedArgs;
+    private IntMap<CvaDeclaration> unUsedLocals;
+    private IntMap<CvaDeclaration> unUsedArgs;
     private boolean isOptimizing;
     public boolean givesWarning;
 
-    @Override
-    public void visit(EnumCvaType basicType) {}
-
-    @Override
-    public void visit(CvaStringType type) {}
-
-    @Override
-    public void visit(CvaClassType type) {}
-
-    @Override
-    public void visit(CvaDeclaration decl) {}
+    /**
+     * 只在每个方法第一次检查时警告, 后面各轮删掉的是优化出来的;
+     */
+    private final Set<CvaMethod> warnedMethods =
+            Collections.newSetFromMap(new IdentityHashMap<>());
 
-    @Override
-    public void visit(CvaAddExpr expr)
+    private void use(int symbol)
     {
-        this.visit(expr.getLeft());
-        this.visit(expr.getRight());
-    }
-
-    @Override
-    public void visit(CvaAndAndExpr expr)
-    {
-        this.visit(expr.getLeft());
-        this.visit(expr.getRight());
-    }
-
-    @Override
-    public void visit(CvaCallExpr expr)
-    {
-        this.visit(expr.getExpr());
-        expr.getArgs().forEach(this::visit);
-    }
-
-    @Override
-    public void visit(CvaConstFalseExpr expr) {}
-
-    @Override
-    public void visit(CvaIdentifierExpr expr)
-    {
-        if (this.unUsedLocals.containsKey(expr.getLiteral()))
-        {
-            this.unUsedLocals.remove(expr.getLiteral());
-        }
-        else
+        if (this.unUsedLocals.remove(symbol) == null)
         {
-            this.unUsedArgs.remove(expr.getLiteral());
+            this.unUsedArgs.remove(symbol);
         }
     }
 
     @Override
-    public void visit(CvaLessThanExpr expr)
-    {
-        this.visit(expr.getLeft());
-        this.visit(expr.getRight());
-    }
-
-    @Override
-    public void visit(CvaNewExpr expr) {}
-
-    @Override
-    public void visit(CvaNegateExpr expr)
-    {
-        this.visit(expr.getExpr());
-    }
-
-    @Override
-    public void visit(CvaConstIntExpr expr) {}
-
-    @Override
-    public void visit(CvaConstStringExpr expr)
+    public void enterMethod(CvaMethod m)
     {
-        // FIXME
-    }
-
-    @Override
-    public void visit(CvaSubExpr expr)
-    {
-        this.visit(expr.getLeft());
-        this.visit(expr.getRight());
-    }
-
-    @Override
-    public void visit(CvaThisExpr expr) {}
-
-    @Override
-    public void visit(CvaMulExpr expr)
-    {
-        this.visit(expr.getLeft());
-        this.visit(expr.getRight());
-    }
-
-    @Override
-    public void visit(CvaConstTrueExpr expr) {}
-
-    @Override
-    public void visit(CvaAssignStatement stm)
-    {
-        this.visit(new CvaIdentifierExpr(stm.getLineNum(), stm.getLiteral()));
-        this.visit(stm.getExpr());
-    }
+        this.isOptimizing = false;
+        this.unUsedLocals = new IntMap<>();
+        m.getLocalVarList().forEach(local ->
+        {
+            CvaDeclaration l = (CvaDeclaration) local;
+            this.unUsedLocals.put(l.symbol(), l);
+        });
 
-    @Override
-    public void visit(CvaBlockStatement stm)
-    {
-        stm.getStatementList().forEach(this::visit);
+        this.unUsedArgs = new IntMap<>();
+        m.getArgumentList().forEach(formal ->
+        {
+            CvaDeclaration f = (CvaDeclaration) formal;
+            this.unUsedArgs.put(f.symbol(), f);
+        });
     }
 
     @Override
-    public void visit(CvaIfStatement stm)
+    public AbstractExpression rewrite(AbstractExpression expr)
     {
-        this.visit(stm.getCondition());
-        this.visit(stm.getThenStatement());
-        if (stm.getElseStatement() != null)
+        if (expr instanceof CvaIdentifierExpr)
         {
-            this.visit(stm.getElseStatement());
+            use(((CvaIdentifierExpr) expr).getSymbol());
         }
+        return expr;
     }
 
     @Override
-    public void visit(CvaWriteStatement stm)
-    {
-        this.visit(stm.getExpr());
-    }
-
-    @Override
-    public void visit(CvaWhileStatement stm)
+    public AbstractStatement rewrite(AbstractStatement stm)
     {
-        this.visit(stm.getCondition());
-        this.visit(stm.getBody());
-    }
-
-    @Override
-    public void visit(CvaIncreStatement stm)
-    {
-        // TODO;
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                use(((CvaAssignStatement) stm).getSymbol());
+                break;
+            }
+            case INCREMENT:
+            {
+                use(((CvaIncreStatement) stm).getSymbol());
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+        return stm;
     }
 
     @Override
-    public void visit(CvaMethod m)
+    public void exitMethod(CvaMethod m)
     {
-        this.unUsedLocals = new HashMap<>();
-        m.getLocalVarList().forEach(local ->
-        {
-            CvaDeclaration l = (CvaDeclaration) local;
-            this.unUsedLocals.put(l.literal(), l);
-        });
-
-        this.unUsedArgs = new HashMap<>();
-        m.getArgumentList().forEach(formal ->
-        {
-            CvaDeclaration f = (CvaDeclaration) formal;
-            this.unUsedArgs.put(f.literal(), f);
-        });
-
-        m.getStatementList().forEach(this::visit);
-        this.visit(m.getRetExpr());
-
-        this.isOptimizing = this.unUsedArgs.size() > 0
-                || this.unUsedLocals.size() > 0;
+        // 参数删不掉, 只有删了局部变量才算改动;
+        this.isOptimizing = this.unUsedLocals.size() > 0;
+        boolean warns = givesWarning && warnedMethods.add(m);
         this.unUsedArgs.forEach((uak, uao) ->
         {
-            if (givesWarning)
+            if (warns)
             {
                 System.out.printf("Warning: at Line %d:  the argument \"%s\" of" +
                                 " method \"%s\" you have never used.%n",
-                        uao.getLineNum(), uak, m.name());
+                        uao.getLineNum(), uao.literal(), m.name());
             }
         });
 
         this.unUsedLocals.forEach((ulk, ulo) ->
         {
-            if (givesWarning)
+            if (warns)
             {
                 System.out.printf("Warning: at Line %d:  the local variable " +
                                 "\"%s\" you have never used. Now we delete it.%n",
-                        ulo.getLineNum(), ulk);
+                        ulo.getLineNum(), ulo.literal());
             }
             m.getLocalVarList().remove(ulo);
         });
     }
 
-    @Override
-    public void visit(CvaMainMethod entryMethod)
-    {
-        // FIXME;
-    }
-
-    @Override
-    public void visit(CvaClass c)
-    {
-        c.getMethodList().forEach(this::visit);
-    }
-
-    @Override
-    public void visit(CvaEntryClass entryClass)
-    {
-    }
-
-    @Override
-    public void visit(CvaProgram program)
-    {
-        this.isOptimizing = false;
-        program.getClassList().forEach(this::visit);
-    }
-
     @Override
     public boolean isOptimizing()
     {
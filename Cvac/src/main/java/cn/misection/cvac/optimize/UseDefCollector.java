@@ -0,0 +1,165 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.CvaBitNegateExpr;
+import cn.misection.cvac.ast.expr.unary.CvaCallExpr;
+import cn.misection.cvac.ast.expr.unary.CvaIdentifierExpr;
+import cn.misection.cvac.ast.expr.unary.CvaNegateExpr;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.symbol.IntSet;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName UseDefCollector
+ * @Description 收集一段语句或表达式里读到和写到的变量名, 以及有没有方法调用;
+ * 循环体要按回边处理时, 各优化用它拿整个循环的读写集合;
+ * @CreateTime 2026年10月17日 23:30:00
+ */
+public final class UseDefCollector
+{
+    private final IntSet uses = new IntSet();
+
+    private final IntSet defs = new IntSet();
+
+    private boolean containsCall;
+
+    public static UseDefCollector of(AbstractStatement stm)
+    {
+        UseDefCollector collector = new UseDefCollector();
+        collector.addStatement(stm);
+        return collector;
+    }
+
+    public static UseDefCollector ofExpr(AbstractExpression expr)
+    {
+        UseDefCollector collector = new UseDefCollector();
+        collector.addExpr(expr);
+        return collector;
+    }
+
+    public void addStatement(AbstractStatement stm)
+    {
+        if (stm == null)
+        {
+            return;
+        }
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                CvaAssignStatement assign = (CvaAssignStatement) stm;
+                addExpr(assign.getExpr());
+                defs.add(assign.getSymbol());
+                break;
+            }
+            case BLOCK:
+            {
+                ((CvaBlockStatement) stm).getStatementList().forEach(this::addStatement);
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                addExpr(ifStm.getCondition());
+                addStatement(ifStm.getThenStatement());
+                addStatement(ifStm.getElseStatement());
+                break;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                addExpr(whileStm.getCondition());
+                addStatement(whileStm.getBody());
+                break;
+            }
+            case WRITE:
+            {
+                addExpr(((CvaWriteStatement) stm).getExpr());
+                break;
+            }
+            case INCREMENT:
+            {
+                // 自增既读又写;
+                int symbol = ((CvaIncreStatement) stm).getSymbol();
+                uses.add(symbol);
+                defs.add(symbol);
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+    }
+
+    public void addExpr(AbstractExpression expr)
+    {
+        if (expr == null)
+        {
+            return;
+        }
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            addExpr(((AbstractBinaryExpr) expr).getLeft());
+            addExpr(((AbstractBinaryExpr) expr).getRight());
+            return;
+        }
+        switch (expr.toEnum())
+        {
+            case IDENTIFIER:
+            {
+                uses.add(((CvaIdentifierExpr) expr).getSymbol());
+                break;
+            }
+            case CALL:
+            {
+                CvaCallExpr call = (CvaCallExpr) expr;
+                containsCall = true;
+                addExpr(call.getExpr());
+                call.getArgs().forEach(this::addExpr);
+                break;
+            }
+            case NEGATE:
+            {
+                addExpr(((CvaNegateExpr) expr).getExpr());
+                break;
+            }
+            case BIT_NEGATE:
+            {
+                addExpr(((CvaBitNegateExpr) expr).getExpr());
+                break;
+            }
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                addExpr(condExpr.getCondition());
+                addExpr(condExpr.getTrueExpr());
+                addExpr(condExpr.getFalseExpr());
+                break;
+            }
+            default:
+            {
+                // 常量, this, new 都是叶子;
+                break;
+            }
+        }
+    }
+
+    public IntSet getUses()
+    {
+        return uses;
+    }
+
+    public IntSet getDefs()
+    {
+        return defs;
+    }
+
+    public boolean containsCall()
+    {
+        return containsCall;
+    }
+}
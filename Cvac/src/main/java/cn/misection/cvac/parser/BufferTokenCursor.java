@@ -0,0 +1,83 @@
+package cn.misection.cvac.parser;
+
+import cn.misection.cvac.lexer.CvaToken;
+import cn.misection.cvac.lexer.EnumCvaToken;
+import cn.misection.cvac.lexer.TokenBuffer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName BufferTokenCursor
+ * @Description TokenBuffer 上的游标, 前进和前瞻都只是下标运算;
+ * @CreateTime 2026年10月17日 14:40:00
+ */
+public final class BufferTokenCursor implements ITokenCursor
+{
+    private final TokenBuffer buffer;
+
+    /**
+     * 最后一个是 EOF, 游标停在那里;
+     */
+    private final int last;
+
+    private int index;
+
+    public BufferTokenCursor(TokenBuffer buffer)
+    {
+        this.buffer = buffer;
+        this.last = buffer.size() - 1;
+    }
+
+    @Override
+    public EnumCvaToken kind()
+    {
+        return buffer.kind(index);
+    }
+
+    @Override
+    public int lineNum()
+    {
+        return buffer.lineNum(index);
+    }
+
+    @Override
+    public String literal()
+    {
+        return buffer.literal(index);
+    }
+
+    @Override
+    public CvaToken token()
+    {
+        return buffer.token(index);
+    }
+
+    @Override
+    public void advance()
+    {
+        if (index < last)
+        {
+            index++;
+        }
+    }
+
+    @Override
+    public EnumCvaToken peekKind(int k)
+    {
+        return buffer.kind(Math.min(index + k, last));
+    }
+
+    @Override
+    public CvaToken peekToken(int k)
+    {
+        return buffer.token(Math.min(index + k, last));
+    }
+
+    /**
+     * @return 当前下标;
+     */
+    public int position()
+    {
+        return index;
+    }
+}
@@ -0,0 +1,22 @@
+package cn.misection.cvac.parser;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName EnumParseMode
+ * @Description 选择表达式和嵌套语句的解析方式, 两者产出相同的语法树;
+ * @CreateTime 2026年10月17日 16:10:00
+ */
+public enum EnumParseMode
+{
+    /**
+     * 递归下降, 嵌套深度受线程栈限制;
+     */
+    RECURSIVE,
+
+    /**
+     * 显式栈, 嵌套深度只受堆限制, 用于生成的深层代码;
+     */
+    EXPLICIT_STACK,
+    ;
+}
@@ -0,0 +1,59 @@
+package cn.misection.cvac.parser;
+
+import cn.misection.cvac.lexer.CvaToken;
+import cn.misection.cvac.lexer.EnumCvaToken;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName ITokenCursor
+ * @Description Parser 看到的 token 流, 只暴露当前 token 的各个字段, 不要求 token 是对象;
+ * @CreateTime 2026年10月17日 14:30:00
+ */
+public interface ITokenCursor
+{
+    /**
+     * 语法判定需要的最大前瞻, 声明只需要 type id ; 三个;
+     */
+    int MAX_LOOKAHEAD = 3;
+
+    /**
+     * @return 当前 token 的种类;
+     */
+    EnumCvaToken kind();
+
+    /**
+     * @return 当前 token 所在行;
+     */
+    int lineNum();
+
+    /**
+     * @return 当前 token 的字面量, 没有为 null;
+     */
+    String literal();
+
+    /**
+     * 当前 token 的对象形式, 只用于报错;
+     * @return token;
+     */
+    CvaToken token();
+
+    /**
+     * 前进一个;
+     */
+    void advance();
+
+    /**
+     * 向前看, 不移动游标;
+     * @param k 0 就是当前 token, 不超过 MAX_LOOKAHEAD;
+     * @return 第 k 个 token 的种类, 过了末尾一律是 EOF;
+     */
+    EnumCvaToken peekKind(int k);
+
+    /**
+     * 向前看的对象形式, 只用于报错;
+     * @param k 同 peekKind;
+     * @return 第 k 个 token;
+     */
+    CvaToken peekToken(int k);
+}
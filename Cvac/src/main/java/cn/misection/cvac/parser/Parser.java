@@ -8,6 +8,7 @@ import cn.misection.cvac.ast.entry.AbstractEntryClass;
 import cn.misection.cvac.ast.entry.CvaEntryClass;
 import cn.misection.cvac.ast.expr.AbstractExpression;
 import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
 import cn.misection.cvac.ast.expr.unary.*;
 import cn.misection.cvac.ast.method.AbstractMethod;
 import cn.misection.cvac.ast.method.CvaMainMethod;
@@ -18,13 +19,17 @@ import cn.misection.cvac.ast.type.ICvaType;
 import cn.misection.cvac.ast.type.advance.CvaStringType;
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
 import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.config.Macro;
 import cn.misection.cvac.constant.EnumIncDirection;
 import cn.misection.cvac.constant.LexerCommon;
 import cn.misection.cvac.constant.WriteOptionCode;
+import cn.misection.cvac.diagnostic.Diagnostics;
+import cn.misection.cvac.diagnostic.EnumCompilePhase;
 import cn.misection.cvac.io.IBufferedQueue;
 import cn.misection.cvac.lexer.EnumCvaToken;
 import cn.misection.cvac.lexer.CvaToken;
-import cn.misection.cvac.lexer.Lexer;
+import cn.misection.cvac.lexer.EnumLexerMode;
+import cn.misection.cvac.lexer.TokenBuffer;
 
 import java.util.*;
 
@@ -33,132 +38,318 @@ import java.util.*;
  */
 public final class Parser
 {
-    private final Lexer lexer;
+    /**
+     * 双目运算符的绑定力, 与 C 一致, 越大越紧, 0 不是双目运算符;
+     */
+    private static final byte[] BINDING_POWER = new byte[EnumCvaToken.values().length];
+
+    static
+    {
+        bind(1, EnumCvaToken.QUEST);
+        bind(2, EnumCvaToken.OR_OR);
+        bind(3, EnumCvaToken.AND_AND);
+        bind(4, EnumCvaToken.OR);
+        bind(5, EnumCvaToken.XOR);
+        bind(6, EnumCvaToken.AND);
+        bind(7, EnumCvaToken.LESS_THAN, EnumCvaToken.MORE_THAN);
+        bind(8, EnumCvaToken.LEFT_SHIFT, EnumCvaToken.RIGHT_SHIFT, EnumCvaToken.UNSIGNED_RIGHT_SHIFT);
+        bind(9, EnumCvaToken.ADD, EnumCvaToken.SUB);
+        bind(10, EnumCvaToken.STAR, EnumCvaToken.DIV, EnumCvaToken.REMAINDER);
+    }
 
-    private CvaToken curToken;
+    private static void bind(int power, EnumCvaToken... kinds)
+    {
+        for (EnumCvaToken kind : kinds)
+        {
+            BINDING_POWER[kind.ordinal()] = (byte) power;
+        }
+    }
 
     /**
-     * for varDecl cn.misection.cvac.parser;
+     * 显式栈模式下操作符栈里的标记和一元操作, 双目操作直接存 token 的 ordinal;
      */
-    private boolean valDeclFlag;
+    private static final int MARK_PAREN = -1;
 
-    private boolean markingFlag;
+    private static final int MARK_CALL = -2;
 
-    private boolean hasEntry;
+    private static final int MARK_QUEST = -3;
+
+    private static final int OP_COLON = -4;
+
+    private static final int OP_NEGATE = -5;
+
+    private static final int OP_BIT_NEGATE = -6;
+
+    /**
+     * 一元操作比任何双目都紧;
+     */
+    private static final int PREFIX_POWER = Byte.MAX_VALUE;
 
-    private final Queue<CvaToken> markedTokenQueue;
+    /**
+     * 报完错后跳回最近的恢复点, 不带栈, 共用一个;
+     */
+    private static final class SyntaxError extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private static final SyntaxError INSTANCE = new SyntaxError();
+
+        private SyntaxError()
+        {
+            super(null, null, false, false);
+        }
+    }
 
+    private final ITokenCursor cursor;
+
+    private final EnumParseMode parseMode;
+
+    private final Diagnostics diagnostics;
+
+    private boolean hasEntry;
+
+    /**
+     * 已经吃掉的大括号深度, 出错恢复时用来找方法的结尾;
+     */
+    private int braceDepth;
 
     public Parser(IBufferedQueue queueStream)
     {
-        lexer = new Lexer(queueStream);
-        curToken = lexer.nextToken();
-        markingFlag = false;
-        markedTokenQueue = new LinkedList<>();
+        this(queueStream, Diagnostics.toStderr());
     }
 
-    public CvaProgram parse()
+    public Parser(IBufferedQueue queueStream, Diagnostics diagnostics)
     {
-        return parseProgram();
+        this(queueStream, Macro.LEXER_MODE, diagnostics);
+    }
+
+    public Parser(IBufferedQueue queueStream, EnumLexerMode lexerMode)
+    {
+        this(queueStream, lexerMode, Diagnostics.toStderr());
     }
 
     /**
-     * utility methods;
+     * @param diagnostics lexer 和 parser 共用, 报错后都接着往下走;
      */
-    private void advance()
+    public Parser(IBufferedQueue queueStream, EnumLexerMode lexerMode, Diagnostics diagnostics)
     {
-        if (markingFlag)
-        {
-            curToken = lexer.nextToken();
-            markedTokenQueue.offer(curToken);
-        }
-        else if (!markedTokenQueue.isEmpty())
-        {
-            curToken = markedTokenQueue.poll();
-        }
-        else
-        {
-            curToken = lexer.nextToken();
-        }
+        this(Macro.TOKEN_BUFFER_FLAG
+                ? new BufferTokenCursor(TokenBuffer.tokenize(lexerMode.create(queueStream, diagnostics)))
+                : new StreamTokenCursor(lexerMode.create(queueStream, diagnostics)),
+                Macro.PARSE_MODE,
+                diagnostics);
+    }
+
+    public Parser(ITokenCursor cursor)
+    {
+        this(cursor, Macro.PARSE_MODE);
+    }
+
+    public Parser(ITokenCursor cursor, EnumParseMode parseMode)
+    {
+        this(cursor, parseMode, Diagnostics.toStderr());
+    }
+
+    public Parser(ITokenCursor cursor, EnumParseMode parseMode, Diagnostics diagnostics)
+    {
+        this.cursor = cursor;
+        this.parseMode = parseMode;
+        this.diagnostics = diagnostics;
     }
 
     /**
-     * start recording the tokens;
+     * 有语法错时返回的树是残缺的, 先看 getDiagnostics().hasErrors();
+     * @return 语法树;
      */
-    private void mark()
+    public CvaProgram parse()
     {
-        markingFlag = true;
-        markedTokenQueue.offer(curToken);
+        return parseProgram();
+    }
+
+    public Diagnostics getDiagnostics()
+    {
+        return diagnostics;
     }
 
     /**
-     * stop recording the tokens and clear recorded
+     * utility methods;
      */
-    private void deMark()
+    private void advance()
     {
-        markingFlag = false;
-        markedTokenQueue.clear();
+        switch (cursor.kind())
+        {
+            case OPEN_CURLY_BRACE:
+            {
+                braceDepth++;
+                break;
+            }
+            case CLOSE_CURLY_BRACE:
+            {
+                braceDepth--;
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+        cursor.advance();
     }
 
     /**
-     * reset current token and stop recording
+     * look ahead without consuming, 0 is current token;
      */
-    private void reset()
+    private EnumCvaToken peekKind(int k)
     {
-        markingFlag = false;
-        advance();
+        return cursor.peekKind(k);
     }
 
     private void eatToken(EnumCvaToken kind)
     {
         // FIXME, 写成 遇到EOF就走, 尾巴上那个-1暂时还没解决;
-        if (kind == curToken.toEnum())
+        if (kind == cursor.kind())
         {
             advance();
         }
         else
         {
             errorLog(String.valueOf(kind),
-                    curToken.toEnum());
+                    cursor.kind());
         }
     }
 
     private void eatEof()
     {
-        if (curToken.toEnum() != EnumCvaToken.EOF)
+        if (cursor.kind() != EnumCvaToken.EOF)
         {
             errorLog("end of file",
-                    curToken);
+                    cursor.token());
         }
     }
 
+    /**
+     * errorLog 报完都抛 SyntaxError, 由语句, 方法, 类三级的恢复点接住;
+     */
     private void errorLog()
     {
-        System.err.printf("Syntax error at line %s compilation aborting...\n%n",
-                curToken != null ? curToken.getLineNum() : "unknown");
-        System.exit(1);
+        report(String.format("Syntax error at line %d", cursor.lineNum()));
+        throw SyntaxError.INSTANCE;
     }
 
     private void errorLog(String expected, CvaToken got)
     {
-        System.err.printf("Line %d: Expects: %s, but got: %s which literal is %s%n",
-                curToken.getLineNum(), expected, got.toEnum(), got.getLiteral());
-        System.exit(1);
+        report(String.format("Line %d: Expects: %s, but got: %s which literal is %s",
+                cursor.lineNum(), expected, got.toEnum(), got.getLiteral()));
+        throw SyntaxError.INSTANCE;
     }
 
     private void errorLog(String expected, EnumCvaToken got)
     {
-        System.err.printf("Line %d: Expects: %s, but got: %s%n",
-                curToken.getLineNum(), expected, got);
-        System.exit(1);
+        report(String.format("Line %d: Expects: %s, but got: %s",
+                cursor.lineNum(), expected, got));
+        throw SyntaxError.INSTANCE;
     }
 
 
     private void errorLog(String expected, String got)
     {
-        System.err.printf("Line %d: Expects: %s, but got: %s%n",
-                curToken.getLineNum(), expected, got);
-        System.exit(1);
+        report(String.format("Line %d: Expects: %s, but got: %s",
+                cursor.lineNum(), expected, got));
+        throw SyntaxError.INSTANCE;
+    }
+
+    private void report(String message)
+    {
+        // 坏 token lexer 已经报过了, 不再重复;
+        if (cursor.kind() != EnumCvaToken.UNKNOWN_TOKEN)
+        {
+            diagnostics.report(EnumCompilePhase.PARSER, cursor.lineNum(), message);
+        }
+    }
+
+    /**
+     * 语句级恢复, 跳到本条语句结尾的分号(吃掉), 中途的块整个跳过,
+     * 遇到外层块的右大括号就停在它前面;
+     */
+    private void syncStatement()
+    {
+        int depth = 0;
+        while (true)
+        {
+            switch (cursor.kind())
+            {
+                case EOF:
+                case CLASS_DECL:
+                {
+                    return;
+                }
+                case SEMI:
+                {
+                    advance();
+                    if (depth == 0)
+                    {
+                        return;
+                    }
+                    continue;
+                }
+                case OPEN_CURLY_BRACE:
+                {
+                    depth++;
+                    advance();
+                    continue;
+                }
+                case CLOSE_CURLY_BRACE:
+                {
+                    if (depth == 0)
+                    {
+                        return;
+                    }
+                    advance();
+                    if (--depth == 0)
+                    {
+                        return;
+                    }
+                    continue;
+                }
+                default:
+                {
+                    advance();
+                    continue;
+                }
+            }
+        }
+    }
+
+    /**
+     * 方法级恢复, 吃到把大括号深度降回 depth 的那个右大括号为止,
+     * 错在方法头时会连方法体一起跳过;
+     * @param depth 类体的深度;
+     */
+    private void syncMember(int depth)
+    {
+        while (cursor.kind() != EnumCvaToken.EOF
+                && cursor.kind() != EnumCvaToken.CLASS_DECL)
+        {
+            boolean close = cursor.kind() == EnumCvaToken.CLOSE_CURLY_BRACE;
+            advance();
+            if (close && braceDepth <= depth)
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 类级恢复, 跳到下一个类声明或者文件尾;
+     */
+    private void syncClass()
+    {
+        while (cursor.kind() != EnumCvaToken.EOF
+                && cursor.kind() != EnumCvaToken.CLASS_DECL)
+        {
+            advance();
+        }
+        braceDepth = 0;
     }
 
     /**
@@ -173,18 +364,18 @@ public final class Parser
     private List<AbstractExpression> parseExprList()
     {
         List<AbstractExpression> expList = new ArrayList<>();
-        if (curToken.toEnum() == EnumCvaToken.CLOSE_PAREN)
+        if (cursor.kind() == EnumCvaToken.CLOSE_PAREN)
         {
             return expList;
         }
         AbstractExpression tem = parseExpr();
-        tem.setLineNum(curToken.getLineNum());
+        tem.setLineNum(cursor.lineNum());
         expList.add(tem);
-        while (curToken.toEnum() == EnumCvaToken.COMMA)
+        while (cursor.kind() == EnumCvaToken.COMMA)
         {
             advance();
             tem = parseExpr();
-            tem.setLineNum(curToken.getLineNum());
+            tem.setLineNum(cursor.lineNum());
             expList.add(tem);
         }
         return expList;
@@ -205,57 +396,57 @@ public final class Parser
     private AbstractExpression parseAtomExpr()
     {
         AbstractExpression expr;
-        switch (curToken.toEnum())
+        switch (cursor.kind())
         {
             case OPEN_PAREN:
             {
                 advance();
                 expr = parseExpr();
-                expr.setLineNum(curToken.getLineNum());
+                expr.setLineNum(cursor.lineNum());
                 //advance();
                 eatToken(EnumCvaToken.CLOSE_PAREN);
                 return expr;
             }
             case NUMBER:
             {
-                expr = new CvaConstIntExpr(curToken.getLineNum(), Integer.parseInt(curToken.getLiteral()));
+                expr = new CvaConstIntExpr(cursor.lineNum(), Integer.parseInt(cursor.literal()));
                 advance();
                 return expr;
             }
             case STRING:
             {
-                expr = new CvaConstStringExpr(curToken.getLineNum(), curToken.getLiteral());
+                expr = new CvaConstStringExpr(cursor.lineNum(), cursor.literal());
                 advance();
                 return expr;
             }
             case TRUE:
             {
-                expr = new CvaConstTrueExpr(curToken.getLineNum());
+                expr = new CvaConstTrueExpr(cursor.lineNum());
                 advance();
                 return expr;
             }
             case FALSE:
             {
-                expr = new CvaConstFalseExpr(curToken.getLineNum());
+                expr = new CvaConstFalseExpr(cursor.lineNum());
                 advance();
                 return expr;
             }
             case THIS:
             {
-                expr = new CvaThisExpr(curToken.getLineNum());
+                expr = new CvaThisExpr(cursor.lineNum());
                 advance();
                 return expr;
             }
             case IDENTIFIER:
             {
-                expr = new CvaIdentifierExpr(curToken.getLineNum(), curToken.getLiteral());
+                expr = new CvaIdentifierExpr(cursor.lineNum(), cursor.literal());
                 advance();
                 return expr;
             }
             case NEW:
             {
                 advance();
-                expr = new CvaNewExpr(curToken.getLineNum(), curToken.getLiteral());
+                expr = new CvaNewExpr(cursor.lineNum(), cursor.literal());
                 advance();
                 eatToken(EnumCvaToken.OPEN_PAREN);
                 eatToken(EnumCvaToken.CLOSE_PAREN);
@@ -270,18 +461,18 @@ public final class Parser
     }
 
     /**
-     * // NotExp -> AtomExp
+     * // PostfixExpr -> AtomExp
      * //  -> AtomExp.id(expList)
      *
-     * @return negateExpr
+     * @return postfix expr;
      */
-    private AbstractExpression parseNegateExpr()
+    private AbstractExpression parsePostfixExpr()
     {
         AbstractExpression expr = parseAtomExpr();
-        while (curToken.toEnum() == EnumCvaToken.DOT)
+        while (cursor.kind() == EnumCvaToken.DOT)
         {
             advance();
-            CvaToken token = curToken;
+            CvaToken token = cursor.token();
             eatToken(EnumCvaToken.IDENTIFIER);
             eatToken(EnumCvaToken.OPEN_PAREN);
             expr = new CvaCallExpr(
@@ -296,116 +487,374 @@ public final class Parser
     }
 
     /**
-     * // MulExpr -> ! MulExpr
-     * //  -> NegateExpr
+     * // PrefixExpr -> ! PrefixExpr
+     * //  -> ~ PrefixExpr
+     * //  -> PostfixExpr
      *
-     * @return MulExpr
+     * @return prefix expr;
      */
-    private AbstractExpression parseMulExpr()
+    private AbstractExpression parsePrefixExpr()
     {
-        int i = 0;
-        while (curToken.toEnum() == EnumCvaToken.NEGATE)
+        switch (cursor.kind())
         {
-            advance();
-            i++;
+            case NEGATE:
+            {
+                // 连续的 ! 两两抵消;
+                int i = 0;
+                while (cursor.kind() == EnumCvaToken.NEGATE)
+                {
+                    advance();
+                    i++;
+                }
+                AbstractExpression expr = parsePrefixExpr();
+                return i % 2 == 0 ? expr : new CvaNegateExpr(expr.getLineNum(), expr);
+            }
+            case BIT_NEGATE:
+            {
+                int lineNum = cursor.lineNum();
+                advance();
+                return new CvaBitNegateExpr(lineNum, parsePrefixExpr());
+            }
+            default:
+            {
+                return parsePostfixExpr();
+            }
         }
-        AbstractExpression expr = parseNegateExpr();
-        AbstractExpression tem = new CvaNegateExpr(
-                expr.getLineNum(), expr);
-        return i % 2 == 0 ? expr : tem;
     }
 
     /**
-     * // AddSubExp -> TimesExp * TimesExp
-     * //  -> TimesExp
+     * 按绑定力爬升, 只有遇到更紧的运算符才递归一层;
+     * // BinaryExpr -> PrefixExpr (op BinaryExpr)*
+     * //  -> BinaryExpr ? Expr : BinaryExpr
      *
-     * @return AddSubExpr
+     * @param minPower 只吃绑定力大于它的运算符;
+     * @return expr;
      */
-    private AbstractExpression parseAddSubExpr()
+    private AbstractExpression parseBinaryExpr(int minPower)
     {
-        AbstractExpression tem = parseMulExpr();
-        AbstractExpression expr = tem;
-        while (curToken.toEnum() == EnumCvaToken.STAR)
+        AbstractExpression expr = parsePrefixExpr();
+        while (true)
         {
+            EnumCvaToken op = cursor.kind();
+            int power = BINDING_POWER[op.ordinal()];
+            if (power <= minPower)
+            {
+                return expr;
+            }
             advance();
-            tem = parseMulExpr();
-            expr = new CvaMulExpr(tem.getLineNum(), expr, tem);
+            if (op == EnumCvaToken.QUEST)
+            {
+                AbstractExpression trueExpr = parseBinaryExpr(0);
+                eatToken(EnumCvaToken.COLON);
+                // 三目右结合;
+                AbstractExpression falseExpr = parseBinaryExpr(power - 1);
+                expr = new CvaConditionCalcExpr(expr.getLineNum(), expr, trueExpr, falseExpr);
+            }
+            else
+            {
+                // 左结合, 同级的留给本层循环;
+                expr = makeBinaryExpr(op, expr, parseBinaryExpr(power));
+            }
         }
-        return expr;
     }
 
-    /**
-     * // LtExp -> AddSubExp + AddSubExp
-     * //  -> AddSubExp - AddSubExp
-     * //  -> AddSubExp
-     *
-     * @return LessThanExpr
-     */
-    private AbstractExpression parseLessThanExpr()
+    private AbstractExpression makeBinaryExpr(EnumCvaToken op,
+                                              AbstractExpression left,
+                                              AbstractExpression right)
     {
-        AbstractExpression expr = parseAddSubExpr();
-        while (curToken.toEnum() == EnumCvaToken.ADD || curToken.toEnum() == EnumCvaToken.SUB)
+        switch (op)
         {
-            boolean addFlag = curToken.toEnum() == EnumCvaToken.ADD;
-            advance();
-            AbstractExpression tem = parseAddSubExpr();
-            if (addFlag)
+            case OR_OR:
             {
-                expr = new CvaAddExpr(expr.getLineNum(), expr, tem);
+                return new CvaOrOrExpr(left.getLineNum(), left, right);
             }
-            else
+            case AND_AND:
             {
-                if (tem instanceof CvaConstIntExpr)
-                {
-                    expr = new CvaAddExpr(
-                            tem.getLineNum(),
-                            expr,
-                            new CvaConstIntExpr(tem.getLineNum(),
-                                    -((CvaConstIntExpr) tem).getValue()));
-                }
-                else
+                return new CvaAndAndExpr(left.getLineNum(), left, right);
+            }
+            case OR:
+            {
+                return new CvaBitOrExpr(left.getLineNum(), left, right);
+            }
+            case XOR:
+            {
+                return new CvaXorExpr(left.getLineNum(), left, right);
+            }
+            case AND:
+            {
+                return new CvaBitAndExpr(left.getLineNum(), left, right);
+            }
+            case LESS_THAN:
+            {
+                return new CvaLessThanExpr(left.getLineNum(), left, right);
+            }
+            case MORE_THAN:
+            {
+                return new CvaMoreThanExpr(left.getLineNum(), left, right);
+            }
+            case LEFT_SHIFT:
+            {
+                return new CvaLeftShiftExpr(left.getLineNum(), left, right);
+            }
+            case RIGHT_SHIFT:
+            {
+                return new CvaRightShiftExpr(left.getLineNum(), left, right);
+            }
+            case UNSIGNED_RIGHT_SHIFT:
+            {
+                return new CvaUnsignedRightShiftExpr(left.getLineNum(), left, right);
+            }
+            case ADD:
+            {
+                return new CvaAddExpr(left.getLineNum(), left, right);
+            }
+            case SUB:
+            {
+                // 减常量当作加负数;
+                if (right instanceof CvaConstIntExpr)
                 {
-                    expr = new CvaSubExpr(expr.getLineNum(), expr, tem);
+                    return new CvaAddExpr(
+                            right.getLineNum(),
+                            left,
+                            new CvaConstIntExpr(right.getLineNum(),
+                                    -((CvaConstIntExpr) right).getValue()));
                 }
+                return new CvaSubExpr(left.getLineNum(), left, right);
+            }
+            case STAR:
+            {
+                return new CvaMulExpr(right.getLineNum(), left, right);
+            }
+            case DIV:
+            {
+                return new CvaDivExpr(left.getLineNum(), left, right);
+            }
+            case REMAINDER:
+            {
+                return new CvaRemainderExpr(left.getLineNum(), left, right);
+            }
+            default:
+            {
+                errorLog("binary operator", op);
+                return null;
             }
         }
-        return expr;
     }
 
     /**
-     * // AndExp -> LtExp < LtExp
-     * // -> LtExp
+     * // Exp -> BinaryExpr
+     *
+     * @return Single Expr
+     */
+    private AbstractExpression parseExpr()
+    {
+        return parseMode == EnumParseMode.EXPLICIT_STACK
+                ? parseExprByStack()
+                : parseBinaryExpr(0);
+    }
+
+    /**
+     * 与 parseBinaryExpr 相同的文法, 括号, 实参和三目中段都压标记, 不递归;
      *
-     * @return AndAndExpr;
+     * @return Single Expr
      */
-    private AbstractExpression parseAndAndExpr()
+    private AbstractExpression parseExprByStack()
     {
-        AbstractExpression expr = parseLessThanExpr();
-        while (curToken.toEnum() == EnumCvaToken.LESS_THAN)
+        ExprStack stack = new ExprStack();
+        while (true)
         {
-            advance();
-            AbstractExpression tem = parseLessThanExpr();
-            expr = new CvaLessThanExpr(expr.getLineNum(), expr, tem);
+            // 等操作数, 先收前缀;
+            switch (cursor.kind())
+            {
+                case OPEN_PAREN:
+                {
+                    stack.pushOp(MARK_PAREN, cursor.lineNum());
+                    advance();
+                    continue;
+                }
+                case NEGATE:
+                {
+                    // 连续的 ! 两两抵消;
+                    int i = 0;
+                    while (cursor.kind() == EnumCvaToken.NEGATE)
+                    {
+                        advance();
+                        i++;
+                    }
+                    if (i % 2 != 0)
+                    {
+                        stack.pushOp(OP_NEGATE, cursor.lineNum());
+                    }
+                    continue;
+                }
+                case BIT_NEGATE:
+                {
+                    stack.pushOp(OP_BIT_NEGATE, cursor.lineNum());
+                    advance();
+                    continue;
+                }
+                default:
+                {
+                    stack.operands.add(parseAtomExpr());
+                    break;
+                }
+            }
+
+            // 有了操作数, 看后缀和运算符;
+            while (true)
+            {
+                EnumCvaToken kind = cursor.kind();
+                if (kind == EnumCvaToken.DOT)
+                {
+                    advance();
+                    CvaToken token = cursor.token();
+                    eatToken(EnumCvaToken.IDENTIFIER);
+                    eatToken(EnumCvaToken.OPEN_PAREN);
+                    AbstractExpression receiver = stack.popOperand();
+                    if (cursor.kind() == EnumCvaToken.CLOSE_PAREN)
+                    {
+                        stack.operands.add(new CvaCallExpr(
+                                token.getLineNum(), token.getLiteral(), receiver, new ArrayList<>()));
+                        advance();
+                        continue;
+                    }
+                    stack.calls.add(new CallFrame(token, receiver));
+                    stack.pushOp(MARK_CALL, token.getLineNum());
+                    break;
+                }
+                int power = BINDING_POWER[kind.ordinal()];
+                if (power > 0)
+                {
+                    // 三目右结合, 其余左结合;
+                    reduceStack(stack, kind == EnumCvaToken.QUEST ? power + 1 : power);
+                    stack.pushOp(kind == EnumCvaToken.QUEST ? MARK_QUEST : kind.ordinal(),
+                            cursor.lineNum());
+                    advance();
+                    break;
+                }
+
+                // 不是运算符, 先归约到最近的标记, 再看它属于谁;
+                reduceStack(stack, 1);
+                int mark = stack.size == 0 ? 0 : stack.ops[stack.size - 1];
+                if (kind == EnumCvaToken.CLOSE_PAREN && mark == MARK_PAREN)
+                {
+                    stack.size--;
+                    stack.peekOperand().setLineNum(cursor.lineNum());
+                    advance();
+                    continue;
+                }
+                if ((kind == EnumCvaToken.CLOSE_PAREN || kind == EnumCvaToken.COMMA)
+                        && mark == MARK_CALL)
+                {
+                    CallFrame call = stack.calls.get(stack.calls.size() - 1);
+                    AbstractExpression arg = stack.popOperand();
+                    arg.setLineNum(cursor.lineNum());
+                    call.args.add(arg);
+                    advance();
+                    if (kind == EnumCvaToken.COMMA)
+                    {
+                        break;
+                    }
+                    stack.size--;
+                    stack.calls.remove(stack.calls.size() - 1);
+                    stack.operands.add(new CvaCallExpr(
+                            call.lineNum, call.funcName, call.receiver, call.args));
+                    continue;
+                }
+                if (kind == EnumCvaToken.COLON && mark == MARK_QUEST)
+                {
+                    stack.ops[stack.size - 1] = OP_COLON;
+                    advance();
+                    break;
+                }
+                switch (mark)
+                {
+                    case 0:
+                    {
+                        return stack.popOperand();
+                    }
+                    case MARK_QUEST:
+                    {
+                        errorLog(String.valueOf(EnumCvaToken.COLON), kind);
+                        return null;
+                    }
+                    default:
+                    {
+                        errorLog(String.valueOf(EnumCvaToken.CLOSE_PAREN), kind);
+                        return null;
+                    }
+                }
+            }
         }
-        return expr;
     }
 
     /**
-     * // Exp -> AndExp && AndExp
-     * //  -> AndExp
+     * 归约栈顶绑定力不小于 minPower 的操作, 标记的绑定力是 0, 所以不会越过标记;
      *
-     * @return Single Expr
+     * @param stack 表达式栈;
+     * @param minPower 最小绑定力;
      */
-    private AbstractExpression parseExpr()
+    private void reduceStack(ExprStack stack, int minPower)
     {
-        AbstractExpression expr = parseAndAndExpr();
-        while (curToken.toEnum() == EnumCvaToken.AND_AND)
+        while (stack.size > 0)
         {
-            advance();
-            AbstractExpression tem = parseAndAndExpr();
-            expr = new CvaAndAndExpr(expr.getLineNum(), expr, tem);
+            int op = stack.ops[stack.size - 1];
+            int power;
+            switch (op)
+            {
+                case OP_NEGATE:
+                case OP_BIT_NEGATE:
+                {
+                    power = PREFIX_POWER;
+                    break;
+                }
+                case OP_COLON:
+                {
+                    power = BINDING_POWER[EnumCvaToken.QUEST.ordinal()];
+                    break;
+                }
+                default:
+                {
+                    power = op < 0 ? 0 : BINDING_POWER[op];
+                    break;
+                }
+            }
+            if (power < minPower || power == 0)
+            {
+                return;
+            }
+            int lineNum = stack.lines[--stack.size];
+            switch (op)
+            {
+                case OP_NEGATE:
+                {
+                    AbstractExpression expr = stack.popOperand();
+                    stack.operands.add(new CvaNegateExpr(expr.getLineNum(), expr));
+                    break;
+                }
+                case OP_BIT_NEGATE:
+                {
+                    stack.operands.add(new CvaBitNegateExpr(lineNum, stack.popOperand()));
+                    break;
+                }
+                case OP_COLON:
+                {
+                    AbstractExpression falseExpr = stack.popOperand();
+                    AbstractExpression trueExpr = stack.popOperand();
+                    AbstractExpression condition = stack.popOperand();
+                    stack.operands.add(new CvaConditionCalcExpr(
+                            condition.getLineNum(), condition, trueExpr, falseExpr));
+                    break;
+                }
+                default:
+                {
+                    AbstractExpression right = stack.popOperand();
+                    AbstractExpression left = stack.popOperand();
+                    stack.operands.add(makeBinaryExpr(EnumCvaToken.values()[op], left, right));
+                    break;
+                }
+            }
         }
-        return expr;
     }
 
     /**
@@ -419,7 +868,11 @@ public final class Parser
      */
     private AbstractStatement parseStatement()
     {
-        switch (curToken.toEnum())
+        if (parseMode == EnumParseMode.EXPLICIT_STACK)
+        {
+            return parseStatementByStack();
+        }
+        switch (cursor.kind())
         {
             case OPEN_CURLY_BRACE:
             {
@@ -454,10 +907,137 @@ public final class Parser
                 errorLog();
             }
         }
-        // 做成抛错;
+        // 不可达, errorLog 会抛出;
         return null;
     }
 
+    /**
+     * 与 parseStatement 相同的文法, 块, if, while 压帧, 不递归;
+     *
+     * @return single Statement;
+     */
+    private AbstractStatement parseStatementByStack()
+    {
+        Deque<StatementFrame> frames = new ArrayDeque<>();
+        while (true)
+        {
+            AbstractStatement statement;
+            StatementFrame top = frames.peek();
+            if (top != null && top.kind == EnumCvaToken.OPEN_CURLY_BRACE
+                    && !isStatementStart(cursor.kind()))
+            {
+                frames.pop();
+                eatToken(EnumCvaToken.CLOSE_CURLY_BRACE);
+                statement = new CvaBlockStatement(top.lineNum, top.statementList);
+            }
+            else
+            {
+                switch (cursor.kind())
+                {
+                    case OPEN_CURLY_BRACE:
+                    {
+                        eatToken(EnumCvaToken.OPEN_CURLY_BRACE);
+                        frames.push(new StatementFrame(EnumCvaToken.OPEN_CURLY_BRACE, cursor.lineNum(), null));
+                        continue;
+                    }
+                    case IF_STATEMENT:
+                    case WHILE_STATEMENT:
+                    {
+                        EnumCvaToken kind = cursor.kind();
+                        int lineNum = cursor.lineNum();
+                        eatToken(kind);
+                        eatToken(EnumCvaToken.OPEN_PAREN);
+                        AbstractExpression condition = parseExpr();
+                        eatToken(EnumCvaToken.CLOSE_PAREN);
+                        frames.push(new StatementFrame(kind, lineNum, condition));
+                        continue;
+                    }
+                    case WRITE:
+                    {
+                        statement = handleWriteOp(WriteOptionCode.CONSOLE_WRITE);
+                        break;
+                    }
+                    case WRITE_LINE:
+                    {
+                        statement = handleWriteOp(WriteOptionCode.CONSOLE_WRITELN);
+                        break;
+                    }
+                    case WRITE_FORMAT:
+                    {
+                        statement = handleWriteOp(WriteOptionCode.CONSOLE_WRITE_FORMAT);
+                        break;
+                    }
+                    case IDENTIFIER:
+                    {
+                        statement = handleIdentifier();
+                        break;
+                    }
+                    default:
+                    {
+                        errorLog();
+                        return null;
+                    }
+                }
+            }
+
+            // 一条语句完成, 逐层交给外面的帧;
+            while (true)
+            {
+                top = frames.peek();
+                if (top == null)
+                {
+                    return statement;
+                }
+                if (top.kind == EnumCvaToken.OPEN_CURLY_BRACE)
+                {
+                    top.statementList.add(statement);
+                    break;
+                }
+                if (top.kind == EnumCvaToken.IF_STATEMENT && top.thenStatement == null
+                        && cursor.kind() == EnumCvaToken.ELSE_STATEMENT)
+                {
+                    eatToken(EnumCvaToken.ELSE_STATEMENT);
+                    top.thenStatement = statement;
+                    break;
+                }
+                frames.pop();
+                if (top.kind == EnumCvaToken.WHILE_STATEMENT)
+                {
+                    statement = new CvaWhileStatement(top.lineNum, top.condition, statement);
+                }
+                else if (top.thenStatement == null)
+                {
+                    statement = new CvaIfStatement(top.lineNum, top.condition, statement);
+                }
+                else
+                {
+                    statement = new CvaIfStatement(top.lineNum, top.condition, top.thenStatement, statement);
+                }
+            }
+        }
+    }
+
+    private static boolean isStatementStart(EnumCvaToken kind)
+    {
+        switch (kind)
+        {
+            case OPEN_CURLY_BRACE:
+            case IF_STATEMENT:
+            case WHILE_STATEMENT:
+            case IDENTIFIER:
+            case WRITE:
+            case WRITE_LINE:
+            case WRITE_FORMAT:
+            {
+                return true;
+            }
+            default:
+            {
+                return false;
+            }
+        }
+    }
+
     /**
      * // StatementList -> Statement Statements
      * //  ->
@@ -469,7 +1049,7 @@ public final class Parser
         List<AbstractStatement> statementList = new ArrayList<>();
         while (true)
         {
-            switch (curToken.toEnum())
+            switch (cursor.kind())
             {
                 case OPEN_CURLY_BRACE:
                 case IF_STATEMENT:
@@ -480,7 +1060,14 @@ public final class Parser
                 case WRITE_LINE:
                 case WRITE_FORMAT:
                 {
-                    statementList.add(parseStatement());
+                    try
+                    {
+                        statementList.add(parseStatement());
+                    }
+                    catch (SyntaxError e)
+                    {
+                        syncStatement();
+                    }
                     continue;
                 }
                 default:
@@ -505,7 +1092,7 @@ public final class Parser
     {
         ICvaType type = null;
         // 放map只能反射, 不放了还是;
-        switch (curToken.toEnum())
+        switch (cursor.kind())
         {
             case VOID:
             {
@@ -560,13 +1147,13 @@ public final class Parser
             case IDENTIFIER:
             {
                 // 应该是type;
-                type = new CvaClassType(curToken.getLiteral());
+                type = new CvaClassType(cursor.literal());
                 break;
             }
             default:
             {
                 errorLog("type",
-                        curToken);
+                        cursor.token());
                 // 不需要break打断虚拟机了已经;
             }
         }
@@ -575,6 +1162,21 @@ public final class Parser
         return type;
     }
 
+    /**
+     * // VarDecl -> Type id;
+     * 只用前瞻判定, type 总是一个 token, 所以 type id ; 就是声明,
+     * 其余 (赋值, 自增, 方法) 都留给后面;
+     *
+     * @return 是否是 VarDecl;
+     */
+    private boolean isVarDecl()
+    {
+        return (EnumCvaToken.isType(cursor.kind())
+                || cursor.kind() == EnumCvaToken.IDENTIFIER)
+                && peekKind(1) == EnumCvaToken.IDENTIFIER
+                && peekKind(2) == EnumCvaToken.SEMI;
+    }
+
     /**
      * // VarDecl -> Type id;
      *
@@ -582,51 +1184,12 @@ public final class Parser
      */
     private AbstractDeclaration parseVarDecl()
     {
-        mark();
         ICvaType type = parseType();
-        // maybe a assign statement in method;
-        switch (curToken.toEnum())
-        {
-            case ASSIGN:
-            {
-                this.reset();
-                valDeclFlag = false;
-                return null;
-            }
-            case IDENTIFIER:
-            {
-                String literal = curToken.getLiteral();
-                advance();
-                switch (curToken.toEnum())
-                {
-                    case SEMI:
-                    {
-                        this.deMark();
-                        valDeclFlag = true;
-                        AbstractDeclaration decl = new CvaDeclaration(curToken.getLineNum(), literal, type);
-                        eatToken(EnumCvaToken.SEMI);
-                        return decl;
-                    }
-                    // maybe a method in class;
-                    case OPEN_PAREN:
-                    {
-                        valDeclFlag = false;
-                        this.reset();
-                        return null;
-                    }
-                    default:
-                    {
-                        errorLog();
-                        return null;
-                    }
-                }
-            }
-            default:
-            {
-                errorLog();
-                return null;
-            }
-        }
+        String literal = cursor.literal();
+        eatToken(EnumCvaToken.IDENTIFIER);
+        AbstractDeclaration decl = new CvaDeclaration(cursor.lineNum(), literal, type);
+        eatToken(EnumCvaToken.SEMI);
+        return decl;
     }
 
     /**
@@ -638,19 +1201,9 @@ public final class Parser
     private List<AbstractDeclaration> parseVarDeclList()
     {
         List<AbstractDeclaration> declList = new ArrayList<>();
-        valDeclFlag = true;
-        while (EnumCvaToken.isType(curToken.toEnum())
-                || curToken.toEnum() == EnumCvaToken.IDENTIFIER)
+        while (isVarDecl())
         {
-            AbstractDeclaration decl = parseVarDecl();
-            if (decl != null)
-            {
-                declList.add(decl);
-            }
-            if (!valDeclFlag)
-            {
-                break;
-            }
+            declList.add(parseVarDecl());
         }
         return declList;
     }
@@ -665,19 +1218,19 @@ public final class Parser
     private List<AbstractDeclaration> parseFormalList()
     {
         List<AbstractDeclaration> declList = new ArrayList<>();
-        if (EnumCvaToken.isType(curToken.toEnum()))
+        if (EnumCvaToken.isType(cursor.kind()))
         {
             // 这里非常坑. 必须要先parser;
             // parse的副作用是推一个token, 所以给new decl传参的时候先后顺序换了会导致意想不到的bug;
             // 保存上一个token的type, 拿取下一个token的literal;
             ICvaType type = parseType();
-            declList.add(new CvaDeclaration(curToken.getLineNum(), curToken.getLiteral(), type));
+            declList.add(new CvaDeclaration(cursor.lineNum(), cursor.literal(), type));
             eatToken(EnumCvaToken.IDENTIFIER);
-            while (curToken.toEnum() == EnumCvaToken.COMMA)
+            while (cursor.kind() == EnumCvaToken.COMMA)
             {
                 advance();
                 ICvaType argType = parseType();
-                declList.add(new CvaDeclaration(curToken.getLineNum(), curToken.getLiteral(), argType));
+                declList.add(new CvaDeclaration(cursor.lineNum(), cursor.literal(), argType));
                 eatToken(EnumCvaToken.IDENTIFIER);
             }
         }
@@ -695,7 +1248,7 @@ public final class Parser
         // 第一个是返回值;
         ICvaType retType = parseType();
         // 解析函数名;
-        String literal = curToken.getLiteral();
+        String literal = cursor.literal();
         // 吃掉函数名和开小括号;
         eatToken(EnumCvaToken.IDENTIFIER);
         eatToken(EnumCvaToken.OPEN_PAREN);
@@ -712,7 +1265,7 @@ public final class Parser
         AbstractExpression retExpr;
         if (retType.toEnum() == EnumCvaType.CVA_VOID)
         {
-            retExpr = new CvaConstNullExpr(curToken.getLineNum());
+            retExpr = new CvaConstNullExpr(cursor.lineNum());
         }
         else
         {
@@ -771,11 +1324,18 @@ public final class Parser
     private List<AbstractMethod> parseMethodDeclList()
     {
         List<AbstractMethod> methodList = new ArrayList<>();
-
-        while (EnumCvaToken.isType(curToken.toEnum())
-                || curToken.toEnum() == EnumCvaToken.IDENTIFIER)
+        int depth = braceDepth;
+        while (EnumCvaToken.isType(cursor.kind())
+                || cursor.kind() == EnumCvaToken.IDENTIFIER)
         {
-            methodList.add(parseMethod());
+            try
+            {
+                methodList.add(parseMethod());
+            }
+            catch (SyntaxError e)
+            {
+                syncMember(depth);
+            }
         }
         return methodList;
     }
@@ -789,13 +1349,13 @@ public final class Parser
     private AbstractCvaClass parseClassDecl()
     {
         eatToken(EnumCvaToken.CLASS_DECL);
-        String literal = curToken.getLiteral();
+        String literal = cursor.literal();
         eatToken(EnumCvaToken.IDENTIFIER);
         String superClass = null;
-        if (curToken.toEnum() == EnumCvaToken.EXTENDS)
+        if (cursor.kind() == EnumCvaToken.EXTENDS)
         {
             advance();
-            superClass = curToken.getLiteral();
+            superClass = cursor.literal();
             eatToken(EnumCvaToken.IDENTIFIER);
         }
         eatToken(EnumCvaToken.OPEN_CURLY_BRACE);
@@ -818,9 +1378,16 @@ public final class Parser
     private List<AbstractCvaClass> parseClassDeclList()
     {
         List<AbstractCvaClass> classList = new ArrayList<>();
-        while (curToken.toEnum() == EnumCvaToken.CLASS_DECL)
+        while (cursor.kind() == EnumCvaToken.CLASS_DECL)
         {
-            classList.add(parseClassDecl());
+            try
+            {
+                classList.add(parseClassDecl());
+            }
+            catch (SyntaxError e)
+            {
+                syncClass();
+            }
         }
         return classList;
     }
@@ -838,10 +1405,10 @@ public final class Parser
      */
     private CvaEntryClass parseEntryClass()
     {
-        if (curToken.toEnum() == EnumCvaToken.CLASS_DECL)
+        if (cursor.kind() == EnumCvaToken.CLASS_DECL)
         {
             eatToken(EnumCvaToken.CLASS_DECL);
-            String entryName = curToken.getLiteral();
+            String entryName = cursor.literal();
             eatToken(EnumCvaToken.IDENTIFIER);
             eatToken(EnumCvaToken.OPEN_CURLY_BRACE);
 //            AbstractStatement statement = parseMainMethod();
@@ -870,7 +1437,14 @@ public final class Parser
      */
     private CvaProgram parseProgram()
     {
-        parsePackage();
+        try
+        {
+            parsePackage();
+        }
+        catch (SyntaxError e)
+        {
+            syncStatement();
+        }
         parseCallStatement();
         // 直接解析;
 //        CvaEntryClass entryClass = parseEntryClass();
@@ -879,36 +1453,44 @@ public final class Parser
         List<AbstractCvaClass> classList = new ArrayList<>();
         while (true)
         {
-            EnumCvaToken curTokenEnum = curToken.toEnum();
-            switch (curTokenEnum)
+            EnumCvaToken curTokenEnum = cursor.kind();
+            try
             {
-                case CLASS_DECL:
+                switch (curTokenEnum)
                 {
-                    classList.addAll(parseClassDeclList());
-                    continue;
-                }
-                case EOF:
-                {
-                    break;
-                }
-                default:
-                {
-                    if (EnumCvaToken.isType(curTokenEnum))
+                    case CLASS_DECL:
                     {
-                        entryClass = parseEntryClass();
-                        hasEntry = true;
+                        classList.addAll(parseClassDeclList());
                         continue;
                     }
-                    else
+                    case EOF:
                     {
-                        errorLog("EOF or class def or main func def" +
-                                        "(cva only supported main func out the class) ",
-                                curTokenEnum);
+                        break;
+                    }
+                    default:
+                    {
+                        if (EnumCvaToken.isType(curTokenEnum))
+                        {
+                            entryClass = parseEntryClass();
+                            hasEntry = true;
+                            continue;
+                        }
+                        else
+                        {
+                            errorLog("EOF or class def or main func def" +
+                                            "(cva only supported main func out the class) ",
+                                    curTokenEnum);
+                        }
+                        // 不可达;
+                        break;
                     }
-                    // 不可达;
-                    break;
                 }
             }
+            catch (SyntaxError e)
+            {
+                syncClass();
+                continue;
+            }
             break;
         }
         if (!hasEntry)
@@ -934,8 +1516,9 @@ public final class Parser
                 }
             }
         }
-        errorLog("a main method",
-                "null, deny to compile the file!");
+        // 只报不抛, 整个文件已经解析完了;
+        report(String.format("Line %d: Expects: a main method, but got: null, deny to compile the file!",
+                cursor.lineNum()));
         return null;
     }
 
@@ -947,7 +1530,7 @@ public final class Parser
     {
         // 保持统一用list;
         List<AbstractDeclaration> cmdArgsDeclList = new ArrayList<>();
-        if (EnumCvaToken.isType(curToken.toEnum()))
+        if (EnumCvaToken.isType(cursor.kind()))
         {
             // 这里非常坑. 必须要先parser;
             // parse的副作用是推一个token, 所以给new decl传参的时候先后顺序换了会导致意想不到的bug;
@@ -961,29 +1544,29 @@ public final class Parser
             eatToken(EnumCvaToken.CLOSE_BRACKETS);
             cmdArgsDeclList.add(
                     new CvaDeclaration(
-                            curToken.getLineNum(),
-                            curToken.getLiteral(),
+                            cursor.lineNum(),
+                            cursor.literal(),
                             type));
             eatToken(EnumCvaToken.IDENTIFIER);
         }
         else
         {
             errorLog("String[] in main formal args list",
-                    curToken.toEnum());
+                    cursor.kind());
         }
         return cmdArgsDeclList;
     }
 
     private void parsePackage()
     {
-        if (curToken.toEnum() == EnumCvaToken.PACKAGE_DECL)
+        if (cursor.kind() == EnumCvaToken.PACKAGE_DECL)
         {
             eatToken(EnumCvaToken.PACKAGE_DECL);
-            EnumCvaToken memKind = curToken.toEnum();
+            EnumCvaToken memKind = cursor.kind();
             eatToken(EnumCvaToken.IDENTIFIER);
             while (true)
             {
-                switch (curToken.toEnum())
+                switch (cursor.kind())
                 {
                     case DOT:
                     {
@@ -1013,7 +1596,7 @@ public final class Parser
                     default:
                     {
                         errorLog("pkg name or dot or star",
-                                curToken);
+                                cursor.token());
                         break;
                     }
                 }
@@ -1025,9 +1608,16 @@ public final class Parser
     private void parseCallStatement()
     {
         // call 是多条, 所以在这里用;
-        while (curToken.toEnum() == EnumCvaToken.CALL)
+        while (cursor.kind() == EnumCvaToken.CALL)
         {
-            parseCallSentence();
+            try
+            {
+                parseCallSentence();
+            }
+            catch (SyntaxError e)
+            {
+                syncStatement();
+            }
         }
     }
 
@@ -1036,11 +1626,11 @@ public final class Parser
         eatToken(EnumCvaToken.CALL);
         // 规定至少一个pkg., 因为本包内不需要call;
         // 第一个必为 id;
-        EnumCvaToken memKind = curToken.toEnum();
+        EnumCvaToken memKind = cursor.kind();
         eatToken(EnumCvaToken.IDENTIFIER);
         while (true)
         {
-            switch (curToken.toEnum())
+            switch (cursor.kind())
             {
                 case DOT:
                 {
@@ -1080,7 +1670,7 @@ public final class Parser
                 default:
                 {
                     errorLog("pkg name or dot or star",
-                            curToken);
+                            cursor.token());
                     break;
                 }
             }
@@ -1091,11 +1681,11 @@ public final class Parser
     private AbstractStatement handleWriteOp(byte writeMode)
     {
         // 目前 echo expr 实现还稍麻烦, 后面再想法;
-        int lineNum = curToken.getLineNum();
+        int lineNum = cursor.lineNum();
         // 一定是write;
-        eatToken(curToken.toEnum());
+        eatToken(cursor.kind());
         // TODO 解析不带括号的echo;
-        EnumCvaToken curTokenEnum = curToken.toEnum();
+        EnumCvaToken curTokenEnum = cursor.kind();
         if (curTokenEnum == EnumCvaToken.OPEN_PAREN)
         {
             eatToken(EnumCvaToken.OPEN_PAREN);
@@ -1118,13 +1708,13 @@ public final class Parser
      */
     private AbstractStatement handleIf()
     {
-        int lineNum = curToken.getLineNum();
+        int lineNum = cursor.lineNum();
         eatToken(EnumCvaToken.IF_STATEMENT);
         eatToken(EnumCvaToken.OPEN_PAREN);
         AbstractExpression condition = parseExpr();
         eatToken(EnumCvaToken.CLOSE_PAREN);
         AbstractStatement thenStm = parseStatement();
-        if (curToken.toEnum() == EnumCvaToken.ELSE_STATEMENT)
+        if (cursor.kind() == EnumCvaToken.ELSE_STATEMENT)
         {
             AbstractStatement elseStm = handleElse();
             return new CvaIfStatement(lineNum, condition, thenStm, elseStm);
@@ -1140,7 +1730,7 @@ public final class Parser
 
     private AbstractStatement handleWhile()
     {
-        int lineNum = curToken.getLineNum();
+        int lineNum = cursor.lineNum();
         eatToken(EnumCvaToken.WHILE_STATEMENT);
         eatToken(EnumCvaToken.OPEN_PAREN);
         AbstractExpression condition = parseExpr();
@@ -1151,10 +1741,10 @@ public final class Parser
 
     private AbstractStatement handleIdentifier()
     {
-        String idLiteral = curToken.getLiteral();
-        int lineNum = curToken.getLineNum();
+        String idLiteral = cursor.literal();
+        int lineNum = cursor.lineNum();
         eatToken(EnumCvaToken.IDENTIFIER);
-        EnumCvaToken curTokenEnum = curToken.toEnum();
+        EnumCvaToken curTokenEnum = cursor.kind();
         switch (curTokenEnum)
         {
             case ASSIGN:
@@ -1190,9 +1780,90 @@ public final class Parser
     private AbstractStatement handleOpenCurly()
     {
         eatToken(EnumCvaToken.OPEN_CURLY_BRACE);
-        int lineNum = curToken.getLineNum();
+        int lineNum = cursor.lineNum();
         AbstractStatement statement = new CvaBlockStatement(lineNum, parseStatementList());
         eatToken(EnumCvaToken.CLOSE_CURLY_BRACE);
         return statement;
     }
+
+    /**
+     * 显式栈解析表达式用, 操作数一个栈, 操作符和它的行号一个栈, 未完成的调用一个栈;
+     */
+    private static final class ExprStack
+    {
+        private final List<AbstractExpression> operands = new ArrayList<>();
+
+        private final List<CallFrame> calls = new ArrayList<>();
+
+        private int[] ops = new int[16];
+
+        private int[] lines = new int[16];
+
+        private int size;
+
+        private void pushOp(int op, int lineNum)
+        {
+            if (size == ops.length)
+            {
+                ops = Arrays.copyOf(ops, size << 1);
+                lines = Arrays.copyOf(lines, size << 1);
+            }
+            ops[size] = op;
+            lines[size++] = lineNum;
+        }
+
+        private AbstractExpression popOperand()
+        {
+            return operands.remove(operands.size() - 1);
+        }
+
+        private AbstractExpression peekOperand()
+        {
+            return operands.get(operands.size() - 1);
+        }
+    }
+
+    /**
+     * 正在收实参的调用;
+     */
+    private static final class CallFrame
+    {
+        private final int lineNum;
+
+        private final String funcName;
+
+        private final AbstractExpression receiver;
+
+        private final List<AbstractExpression> args = new ArrayList<>();
+
+        private CallFrame(CvaToken token, AbstractExpression receiver)
+        {
+            this.lineNum = token.getLineNum();
+            this.funcName = token.getLiteral();
+            this.receiver = receiver;
+        }
+    }
+
+    /**
+     * 显式栈解析语句用, 块收语句, if 和 while 等子语句;
+     */
+    private static final class StatementFrame
+    {
+        private final EnumCvaToken kind;
+
+        private final int lineNum;
+
+        private final AbstractExpression condition;
+
+        private final List<AbstractStatement> statementList = new ArrayList<>();
+
+        private AbstractStatement thenStatement;
+
+        private StatementFrame(EnumCvaToken kind, int lineNum, AbstractExpression condition)
+        {
+            this.kind = kind;
+            this.lineNum = lineNum;
+            this.condition = condition;
+        }
+    }
 }
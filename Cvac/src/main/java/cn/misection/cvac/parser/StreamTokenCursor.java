@@ -0,0 +1,117 @@
+package cn.misection.cvac.parser;
+
+import cn.misection.cvac.lexer.CvaToken;
+import cn.misection.cvac.lexer.EnumCvaToken;
+import cn.misection.cvac.lexer.ILexer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName StreamTokenCursor
+ * @Description 直接从 lexer 逐个取 CvaToken, 前瞻的 token 放在定长环形缓冲里;
+ * @CreateTime 2026年10月17日 14:35:00
+ */
+public final class StreamTokenCursor implements ITokenCursor
+{
+    /**
+     * 环形缓冲容量, 2 的幂且大于 MAX_LOOKAHEAD;
+     */
+    private static final int CAPACITY = 4;
+
+    private static final int MASK = CAPACITY - 1;
+
+    private final ILexer lexer;
+
+    private final CvaToken[] ring = new CvaToken[CAPACITY];
+
+    /**
+     * 当前 token 在 ring 中的下标;
+     */
+    private int head;
+
+    /**
+     * 已经取出的 token 数, 至少有当前这一个;
+     */
+    private int filled;
+
+    public StreamTokenCursor(ILexer lexer)
+    {
+        this.lexer = lexer;
+        this.ring[0] = lexer.nextToken();
+        this.filled = 1;
+    }
+
+    /**
+     * 保证第 k 个已经取出, 到了 EOF 就不再向 lexer 要;
+     * @param k 前瞻距离;
+     * @return 第 k 个 token;
+     */
+    private CvaToken fill(int k)
+    {
+        if (k > MAX_LOOKAHEAD)
+        {
+            throw new IllegalArgumentException(String.format(
+                    "lookahead %d exceeds %d", k, MAX_LOOKAHEAD));
+        }
+        while (filled <= k)
+        {
+            CvaToken last = ring[(head + filled - 1) & MASK];
+            if (last.toEnum() == EnumCvaToken.EOF)
+            {
+                return last;
+            }
+            ring[(head + filled) & MASK] = lexer.nextToken();
+            filled++;
+        }
+        return ring[(head + k) & MASK];
+    }
+
+    @Override
+    public EnumCvaToken kind()
+    {
+        return ring[head].toEnum();
+    }
+
+    @Override
+    public int lineNum()
+    {
+        return ring[head].getLineNum();
+    }
+
+    @Override
+    public String literal()
+    {
+        return ring[head].getLiteral();
+    }
+
+    @Override
+    public CvaToken token()
+    {
+        return ring[head];
+    }
+
+    @Override
+    public void advance()
+    {
+        if (fill(1) == ring[head])
+        {
+            // 停在 EOF;
+            return;
+        }
+        ring[head] = null;
+        head = (head + 1) & MASK;
+        filled--;
+    }
+
+    @Override
+    public EnumCvaToken peekKind(int k)
+    {
+        return fill(k).toEnum();
+    }
+
+    @Override
+    public CvaToken peekToken(int k)
+    {
+        return fill(k);
+    }
+}
@@ -3,9 +3,8 @@ package cn.misection.cvac.semantic;
 //import cn.misection.cvac.ast.FrontAst;
 
 import cn.misection.cvac.ast.type.ICvaType;
-
-import java.util.HashMap;
-import java.util.Map;
+import cn.misection.cvac.symbol.IntMap;
+import cn.misection.cvac.symbol.SymbolTable;
 
 /**
  * Created by MI6 root 1/13.
@@ -13,49 +12,72 @@ import java.util.Map;
 public final class ClassBinding
 {
     private String parent;
-    private Map<String, ICvaType> fields;
-    private Map<String, MethodType> methods;
+
+    /**
+     * parent 在 SymbolTable 中的 id, 无父类为 NO_SYMBOL;
+     */
+    private int parentSymbol;
+
+    /**
+     * 以字段名的 symbol 为键;
+     */
+    private IntMap<ICvaType> fields;
+
+    /**
+     * 以方法名的 symbol 为键;
+     */
+    private IntMap<MethodType> methods;
+
+    /**
+     * 继承树上的先序和后序编号, ClassMap 建层次时填;
+     */
+    private int preOrder = NO_ORDER;
+
+    private int postOrder = NO_ORDER;
+
+    /**
+     * 还没编号, 或者父链成环;
+     */
+    static final int NO_ORDER = -1;
 
     public ClassBinding(String parent)
     {
-        this.setParent(parent);
-        this.setFields(new HashMap<>());
-        this.setMethods(new HashMap<>());
+        this(parent, new IntMap<>(), new IntMap<>());
     }
 
     public ClassBinding(String parent,
-                        Map<String, ICvaType> fields,
-                        Map<String, MethodType> methods)
+                        IntMap<ICvaType> fields,
+                        IntMap<MethodType> methods)
     {
         this.setParent(parent);
         this.setFields(fields);
         this.setMethods(methods);
     }
 
-    public void putField(String literal, ICvaType type)
+    /**
+     * @return 重名时保留先来的, 返回 false, 由调用者报错;
+     */
+    public boolean putField(int symbol, ICvaType type)
     {
-        if (getFields().get(literal) != null)
-        {
-            System.out.printf("duplicated class field: %s%n", literal);
-            System.exit(1);
-        }
-        else
+        if (getFields().get(symbol) != null)
         {
-            getFields().put(literal, type);
+            return false;
         }
+        getFields().put(symbol, type);
+        return true;
     }
 
-    public void putMethod(String literal, MethodType type)
+    /**
+     * @return 重名时保留先来的, 返回 false, 由调用者报错;
+     */
+    public boolean putMethod(int symbol, MethodType type)
     {
-        if (getMethods().get(literal) != null)
+        if (getMethods().get(symbol) != null)
         {
-            System.out.printf("duplicated class method: %s%n", literal);
-            System.exit(1);
-        }
-        else
-        {
-            getMethods().put(literal, type);
+            return false;
         }
+        getMethods().put(symbol, type);
+        return true;
     }
 
     /**
@@ -66,27 +88,49 @@ public final class ClassBinding
         return parent;
     }
 
+    public int getParentSymbol()
+    {
+        return parentSymbol;
+    }
+
     public void setParent(String parent)
     {
         this.parent = parent;
+        this.parentSymbol = SymbolTable.getInstance().intern(parent);
+    }
+
+    int getPreOrder()
+    {
+        return preOrder;
+    }
+
+    int getPostOrder()
+    {
+        return postOrder;
+    }
+
+    void setOrder(int preOrder, int postOrder)
+    {
+        this.preOrder = preOrder;
+        this.postOrder = postOrder;
     }
 
-    public Map<String, ICvaType> getFields()
+    public IntMap<ICvaType> getFields()
     {
         return fields;
     }
 
-    public void setFields(Map<String, ICvaType> fields)
+    public void setFields(IntMap<ICvaType> fields)
     {
         this.fields = fields;
     }
 
-    public Map<String, MethodType> getMethods()
+    public IntMap<MethodType> getMethods()
     {
         return methods;
     }
 
-    public void setMethods(Map<String, MethodType> methods)
+    public void setMethods(IntMap<MethodType> methods)
     {
         this.methods = methods;
     }
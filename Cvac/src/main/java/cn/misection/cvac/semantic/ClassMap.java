@@ -1,78 +1,271 @@
 package cn.misection.cvac.semantic;
 
 import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.symbol.IntMap;
+import cn.misection.cvac.symbol.IntSet;
+import cn.misection.cvac.symbol.SymbolTable;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * @author MI6 root
- * @FIXME 改继承
+ * 以类名的 symbol 为键, 不再继承 HashMap;
+ * 字段和方法查询走压平的表, 继承来的成员也是一次探查;
  */
-public final class ClassMap extends HashMap<String, ClassBinding>
+public final class ClassMap
 {
+    private final IntMap<ClassBinding> bindings;
+
+    /**
+     * 每个类连同继承来的成员压平后的表, 第一次查询时建;
+     */
+    private final IntMap<IntMap<ICvaType>> flatFields = new IntMap<>();
+
+    private final IntMap<IntMap<MethodType>> flatMethods = new IntMap<>();
+
+    /**
+     * 继承树的编号是否还有效;
+     */
+    private boolean hierarchyBuilt;
+
     public ClassMap()
     {
-        super();
+        this.bindings = new IntMap<>();
     }
 
-    public void putClassBinding(String className, ClassBinding bind)
+    /**
+     * @return 类名重复时保留先来的, 返回 false;
+     */
+    public boolean putClassBinding(String className, ClassBinding bind)
     {
-        if (this.get(className) != null)
+        int symbol = SymbolTable.getInstance().intern(className);
+        if (bindings.get(symbol) != null)
         {
-            System.out.printf("duplicated class: %s%n", className);
-            System.exit(1);
-        }
-        else
-        {
-            this.put(className, bind);
+            return false;
         }
+        bindings.put(symbol, bind);
+        invalidate();
+        return true;
     }
 
-    public void putFieldToClass(String className, String literal, ICvaType type)
+    public boolean putFieldToClass(int classSymbol, int fieldSymbol, ICvaType type)
     {
-        this.get(className).putField(literal, type);
+        invalidate();
+        return bindings.get(classSymbol).putField(fieldSymbol, type);
     }
 
-    public void putMethodToClass(String className, String literal, MethodType type)
+    public boolean putMethodToClass(int classSymbol, int methodSymbol, MethodType type)
     {
-        this.get(className).putMethod(literal, type);
+        invalidate();
+        return bindings.get(classSymbol).putMethod(methodSymbol, type);
+    }
+
+    public ClassBinding getClassBinding(int classSymbol)
+    {
+        return classSymbol == SymbolTable.NO_SYMBOL ? null : bindings.get(classSymbol);
     }
 
     public ClassBinding getClassBinding(String className)
     {
-        return this.get(className);
+        return getClassBinding(SymbolTable.getInstance().lookup(className));
+    }
+
+    /**
+     * @param classSymbol 类;
+     * @param fieldSymbol 字段;
+     * @return 本类或祖先中的字段类型, 本类的优先, 没有就是 null;
+     */
+    public ICvaType getFieldType(int classSymbol, int fieldSymbol)
+    {
+        IntMap<ICvaType> table = flatten(classSymbol, flatFields, ClassBinding::getFields);
+        return table == null ? null : table.get(fieldSymbol);
+    }
+
+    public MethodType getMethodType(int classSymbol, int methodSymbol)
+    {
+        IntMap<MethodType> table = flatten(classSymbol, flatMethods, ClassBinding::getMethods);
+        return table == null ? null : table.get(methodSymbol);
     }
 
-    public ICvaType getFieldType(String className, String literal)
+    /**
+     * 取类连同继承成员的压平表, 没有就先建;
+     * 从本类沿父链往上找到最近一个已经压平的祖先, 再自上而下逐层复制父表并覆盖本类成员,
+     * 所以每个类只建一次, 父链只走一遍;
+     * @param classSymbol 类;
+     * @param memo 已经压平的表;
+     * @param members 取一个类自己声明的成员;
+     * @return 压平的表, 类不存在时为 null;
+     */
+    private <V> IntMap<V> flatten(int classSymbol,
+                                  IntMap<IntMap<V>> memo,
+                                  Function<ClassBinding, IntMap<V>> members)
     {
-        ClassBinding bind = this.get(className);
-        ICvaType type = bind.getFields().get(literal);
-        while (type == null)
+        IntMap<V> table = memo.get(classSymbol);
+        if (table != null)
         {
-            if (bind.getParent() == null)
+            return table;
+        }
+        Deque<ClassBinding> chain = new ArrayDeque<>();
+        Deque<Integer> chainSymbols = new ArrayDeque<>();
+        // 防止继承成环时死循环;
+        IntSet seen = new IntSet();
+        int cur = classSymbol;
+        while (cur != SymbolTable.NO_SYMBOL && seen.add(cur))
+        {
+            ClassBinding bind = bindings.get(cur);
+            if (bind == null)
             {
-                return type;
+                break;
             }
-
-            bind = this.get(bind.getParent());
-            type = bind.getFields().get(literal);
+            table = memo.get(cur);
+            if (table != null)
+            {
+                break;
+            }
+            chain.push(bind);
+            chainSymbols.push(cur);
+            cur = bind.getParentSymbol();
+        }
+        while (!chain.isEmpty())
+        {
+            IntMap<V> flat = table == null ? new IntMap<>() : new IntMap<>(table);
+            members.apply(chain.pop()).forEach(flat::put);
+            memo.put(chainSymbols.pop(), flat);
+            table = flat;
         }
-        return type;
+        return table;
     }
 
-    public MethodType getMethodType(String className, String literal)
+    /**
+     * 从每个根类深度优先, 给继承树编先序和后序号, 之后子类判断只比两个区间端点;
+     * 所有类都只有一个父类, 从根走不到的类父链必然成环, 它们不编号;
+     * @return 父链成环的类;
+     */
+    public IntSet buildHierarchy()
     {
-        ClassBinding bind = this.get(className);
-        MethodType type = bind.getMethods().get(literal);
-        while (type == null)
+        IntMap<List<Integer>> children = new IntMap<>();
+        List<Integer> roots = new ArrayList<>();
+        bindings.forEach((symbol, bind) ->
         {
-            if (bind.getParent() == null)
+            bind.setOrder(ClassBinding.NO_ORDER, ClassBinding.NO_ORDER);
+            int parent = bind.getParentSymbol();
+            if (parent == SymbolTable.NO_SYMBOL || bindings.get(parent) == null)
             {
-                return type;
+                roots.add(symbol);
+                return;
+            }
+            List<Integer> siblings = children.get(parent);
+            if (siblings == null)
+            {
+                siblings = new ArrayList<>();
+                children.put(parent, siblings);
+            }
+            siblings.add(symbol);
+        });
+
+        int order = 0;
+        // 每帧是 {类, 下一个孩子, 先序号};
+        Deque<int[]> stack = new ArrayDeque<>();
+        for (int root : roots)
+        {
+            stack.push(new int[] {root, 0, order++});
+            while (!stack.isEmpty())
+            {
+                int[] frame = stack.peek();
+                List<Integer> kids = children.get(frame[0]);
+                if (kids != null && frame[1] < kids.size())
+                {
+                    stack.push(new int[] {kids.get(frame[1]++), 0, order++});
+                    continue;
+                }
+                stack.pop();
+                bindings.get(frame[0]).setOrder(frame[2], order++);
             }
-            bind = this.get(bind.getParent());
-            type = bind.getMethods().get(literal);
         }
-        return type;
+
+        IntSet cyclic = new IntSet();
+        bindings.forEach((symbol, bind) ->
+        {
+            if (bind.getPreOrder() == ClassBinding.NO_ORDER)
+            {
+                cyclic.add(symbol);
+            }
+        });
+        hierarchyBuilt = true;
+        return cyclic;
+    }
+
+    private void ensureHierarchy()
+    {
+        if (!hierarchyBuilt)
+        {
+            buildHierarchy();
+        }
+    }
+
+    /**
+     * @param classSymbol 类;
+     * @return 父链是否成环;
+     */
+    public boolean isInCycle(int classSymbol)
+    {
+        ensureHierarchy();
+        ClassBinding bind = getClassBinding(classSymbol);
+        return bind != null && bind.getPreOrder() == ClassBinding.NO_ORDER;
+    }
+
+    /**
+     * @param subSymbol 子类;
+     * @param superSymbol 父类;
+     * @return subSymbol 是否是 superSymbol 本身或其后代;
+     */
+    public boolean isSubclass(int subSymbol, int superSymbol)
+    {
+        if (subSymbol == superSymbol)
+        {
+            return true;
+        }
+        ensureHierarchy();
+        ClassBinding sub = getClassBinding(subSymbol);
+        ClassBinding sup = getClassBinding(superSymbol);
+        if (sub == null || sup == null || sub.getPreOrder() == ClassBinding.NO_ORDER
+                || sup.getPreOrder() == ClassBinding.NO_ORDER)
+        {
+            return false;
+        }
+        return sup.getPreOrder() <= sub.getPreOrder()
+                && sub.getPostOrder() <= sup.getPostOrder();
+    }
+
+    /**
+     * 把所有类的压平表和继承树编号一次建好, 之后查询不再写任何状态, 多个线程可以同时查;
+     */
+    public void prepareConcurrentLookup()
+    {
+        ensureHierarchy();
+        bindings.forEach((symbol, bind) ->
+        {
+            flatten(symbol, flatFields, ClassBinding::getFields);
+            flatten(symbol, flatMethods, ClassBinding::getMethods);
+        });
+    }
+
+    /**
+     * 类或成员变了, 压平的表和继承树编号全部作废;
+     */
+    private void invalidate()
+    {
+        flatFields.clear();
+        flatMethods.clear();
+        hierarchyBuilt = false;
+    }
+
+    public int size()
+    {
+        return bindings.size();
     }
 }
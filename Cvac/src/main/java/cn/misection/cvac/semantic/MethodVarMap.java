@@ -3,15 +3,17 @@ package cn.misection.cvac.semantic;
 import cn.misection.cvac.ast.decl.AbstractDeclaration;
 import cn.misection.cvac.ast.type.AbstractType;
 import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.symbol.IntMap;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * @author  MI6 root
+ * 以变量名的 symbol 为键;
  */
 public final class MethodVarMap
-        extends HashMap<String, ICvaType>
+        extends IntMap<ICvaType>
 {
     public MethodVarMap()
     {
@@ -22,11 +24,14 @@ public final class MethodVarMap
      * 暴露给用户, 防止搞忘;
      * @param formalList 方法形参;
      * @param localVarList 方法本地变量;
+     * @return 重名的声明, 保留的是先来的那个, 由调用者报错;
      */
-    public void putVarList(List<AbstractDeclaration> formalList,
-                           List<AbstractDeclaration> localVarList)
+    public List<AbstractDeclaration> putVarList(List<AbstractDeclaration> formalList,
+                                                List<AbstractDeclaration> localVarList)
     {
-        putMulList(formalList, localVarList);
+        List<AbstractDeclaration> duplicates = new ArrayList<>();
+        putMulList(duplicates, formalList, localVarList);
+        return duplicates;
     }
 
     /**
@@ -34,28 +39,27 @@ public final class MethodVarMap
      * @param varListArray varLists;
      */
     @SafeVarargs
-    private final void putMulList(List<AbstractDeclaration>... varListArray)
+    private final void putMulList(List<AbstractDeclaration> duplicates,
+                                  List<AbstractDeclaration>... varListArray)
     {
         for (List<AbstractDeclaration> varList : varListArray)
         {
-            putSingleList(varList);
+            putSingleList(varList, duplicates);
         }
     }
 
-    private void putSingleList(List<AbstractDeclaration> declList)
+    private void putSingleList(List<AbstractDeclaration> declList,
+                               List<AbstractDeclaration> duplicates)
     {
         for (AbstractDeclaration decl : declList)
         {
-            // FIXME 不知道有无隐患!;
-            if (this.get(decl.literal()) != null)
+            if (this.get(decl.symbol()) != null)
             {
-                System.err.printf("duplicated parameter: %s at line %d%n",
-                        decl.literal(), decl.getLineNum());
-                System.exit(1);
+                duplicates.add(decl);
             }
             else
             {
-                this.put(decl.literal(), decl.type());
+                this.put(decl.symbol(), decl.type());
             }
         }
     }
@@ -3,10 +3,14 @@ package cn.misection.cvac.semantic;
 import cn.misection.cvac.ast.IVisitor;
 import cn.misection.cvac.ast.clas.AbstractCvaClass;
 import cn.misection.cvac.ast.clas.CvaClass;
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
 import cn.misection.cvac.ast.decl.CvaDeclaration;
+import cn.misection.cvac.ast.entry.AbstractEntryClass;
 import cn.misection.cvac.ast.entry.CvaEntryClass;
 import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.ternary.*;
 import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.AbstractMethod;
 import cn.misection.cvac.ast.method.CvaMainMethod;
 import cn.misection.cvac.ast.method.CvaMethod;
 import cn.misection.cvac.ast.program.CvaProgram;
@@ -16,10 +20,17 @@ import cn.misection.cvac.ast.type.advance.CvaStringType;
 import cn.misection.cvac.ast.type.basic.EnumCvaType;
 import cn.misection.cvac.ast.type.reference.CvaClassType;
 
+import cn.misection.cvac.config.Macro;
+import cn.misection.cvac.diagnostic.Diagnostic;
+import cn.misection.cvac.diagnostic.Diagnostics;
+import cn.misection.cvac.diagnostic.EnumCompilePhase;
+import cn.misection.cvac.symbol.IntSet;
+import cn.misection.cvac.symbol.SymbolTable;
+
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 /**
@@ -28,9 +39,15 @@ import java.util.Set;
  */
 public final class SemanticVisitor implements IVisitor
 {
+    /**
+     * 方法数不到这个就顺序检查, 分任务不划算;
+     */
+    private static final int PARALLEL_METHOD_THRESHOLD = 64;
+
     private final ClassMap classMap;
     private MethodVarMap methodVarMap;
     private String currentClass;
+    private int currentClassSymbol;
     private ICvaType type;
 
     /**
@@ -41,15 +58,43 @@ public final class SemanticVisitor implements IVisitor
     /**
      * //current method locals;
      */
-    private Set<String> curMethodLocalSet;
+    private IntSet curMethodLocalSet;
+
+    /**
+     * 方法检查任务用的是只收集不打印的, 汇总时按源码顺序并入主检查器的;
+     */
+    private final Diagnostics diagnostics;
 
     public SemanticVisitor()
+    {
+        this(Diagnostics.toStderr());
+    }
+
+    public SemanticVisitor(Diagnostics diagnostics)
     {
         this.classMap = new ClassMap();
         this.methodVarMap = new MethodVarMap();
         this.currentClass = null;
+        this.currentClassSymbol = SymbolTable.NO_SYMBOL;
+        this.type = null;
+        this.okFlag = true;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * 检查单个方法用的, 类表共享且只读, 其余状态各自一份;
+     * @param classMap 已经收集完的类表;
+     * @param currentClass 方法所在的类;
+     */
+    private SemanticVisitor(ClassMap classMap, String currentClass)
+    {
+        this.classMap = classMap;
+        this.methodVarMap = new MethodVarMap();
+        this.currentClass = currentClass;
+        this.currentClassSymbol = SymbolTable.getInstance().intern(currentClass);
         this.type = null;
         this.okFlag = true;
+        this.diagnostics = new Diagnostics();
     }
 
     public boolean isOkay()
@@ -57,31 +102,82 @@ public final class SemanticVisitor implements IVisitor
         return this.okFlag;
     }
 
+    public Diagnostics getDiagnostics()
+    {
+        return diagnostics;
+    }
+
     private void errorLog(int lineNum, String msg)
+    {
+        report(lineNum, String.format("Error: Line %d %s", lineNum, msg));
+    }
+
+    /**
+     * 类声明没有行号, 只报信息;
+     */
+    private void errorLog(String msg)
+    {
+        report(Diagnostic.NO_LINE, String.format("Error: %s", msg));
+    }
+
+    private void report(int lineNum, String message)
     {
         this.okFlag = false;
-        System.err.printf("Error: Line %d %s%n", lineNum, msg);
+        diagnostics.report(EnumCompilePhase.SEMANTIC, lineNum, message);
     }
 
-    private boolean isNotMatch(ICvaType src, ICvaType target)
+    /**
+     * 重名的形参和局部变量报错, 检查接着用先声明的那个;
+     */
+    private void putMethodVars(AbstractMethod method)
     {
-        if (src.toEnum() == target.toEnum())
+        this.methodVarMap = new MethodVarMap();
+        for (AbstractDeclaration duplicate : methodVarMap.putVarList(
+                method.getArgumentList(),
+                method.getLocalVarList()))
         {
-            return false;
+            errorLog(duplicate.getLineNum(),
+                    String.format("duplicated parameter: %s", duplicate.literal()));
         }
+    }
+
+    /**
+     * 整数运算共用的检查, 两边类型相同且是数;
+     * @param expr 双目表达式;
+     * @param opName 运算名, 报错用;
+     */
+    private void checkNumeric(AbstractBinaryExpr expr, String opName)
+    {
+        visit(expr.getLeft());
+        ICvaType leftType = this.type;
+        visit(expr.getRight());
+        if (type.toEnum() != leftType.toEnum())
+        {
+            errorLog(expr.getLineNum(),
+                    String.format("%s expression the type of left is %s, but the type of right is %s",
+                            opName, leftType.toString(), this.type.toString()));
+        }
+        else if (!EnumCvaType.isNumber(type.toEnum()))
+        {
+            errorLog(expr.getLineNum(),
+                    String.format("only numeric type can be used in %s.", opName));
+        }
+    }
+
+    /**
+     * 类之间按继承关系判断, src 必须是 target 本身或祖先, 靠继承树编号 O(1) 判断;
+     * @param src 要求的类型;
+     * @param target 实际的类型;
+     * @return 不能赋值;
+     */
+    private boolean isNotMatch(ICvaType src, ICvaType target)
+    {
         if (src instanceof CvaClassType && target instanceof CvaClassType)
         {
-            String tarName = ((CvaClassType) src).getName();
-            String curName = ((CvaClassType) target).getName();
-            boolean flag = tarName.equals(curName);
-            while (curName != null && !flag)
-            {
-                curName = classMap.getClassBinding(curName).getParent();
-                flag = tarName.equals(curName);
-            }
-            return !flag;
+            return !classMap.isSubclass(((CvaClassType) target).getSymbol(),
+                    ((CvaClassType) src).getSymbol());
         }
-        return true;
+        return src.toEnum() != target.toEnum();
     }
 
     /**
@@ -178,7 +274,7 @@ public final class SemanticVisitor implements IVisitor
             argTypeList.add(this.type);
         });
 
-        MethodType methodType = classMap.getMethodType(expType.getName(), expr.getFuncName());
+        MethodType methodType = classMap.getMethodType(expType.getSymbol(), expr.getFuncSymbol());
 
         if (methodType == null)
         {
@@ -219,16 +315,15 @@ public final class SemanticVisitor implements IVisitor
     @Override
     public void visit(CvaIdentifierExpr expr)
     {
-        ICvaType varType = this.methodVarMap.get(expr.getLiteral());
+        ICvaType varType = this.methodVarMap.get(expr.getSymbol());
         boolean fieldFlag = varType == null;
-        String className = currentClass;
-        while (varType == null && className != null)
+        if (fieldFlag)
         {
-            varType = classMap.getFieldType(className, expr.getLiteral());
-            className = classMap.getClassBinding(className).getParent();
+            // 压平的表里已经有继承来的字段;
+            varType = classMap.getFieldType(currentClassSymbol, expr.getSymbol());
         }
 
-        if (this.curMethodLocalSet.contains(expr.getLiteral()))
+        if (this.curMethodLocalSet.contains(expr.getSymbol()))
         {
             errorLog(expr.getLineNum(),
                     String.format("you should assign \"%s\" a value before use it.",
@@ -359,6 +454,114 @@ public final class SemanticVisitor implements IVisitor
         this.type = EnumCvaType.CVA_BOOLEAN;
     }
 
+    @Override
+    public void visit(CvaDivExpr expr)
+    {
+        checkNumeric(expr, "div");
+    }
+
+    @Override
+    public void visit(CvaRemainderExpr expr)
+    {
+        checkNumeric(expr, "remainder");
+    }
+
+    @Override
+    public void visit(CvaBitAndExpr expr)
+    {
+        checkNumeric(expr, "bit and");
+    }
+
+    @Override
+    public void visit(CvaBitOrExpr expr)
+    {
+        checkNumeric(expr, "bit or");
+    }
+
+    @Override
+    public void visit(CvaXorExpr expr)
+    {
+        checkNumeric(expr, "xor");
+    }
+
+    @Override
+    public void visit(CvaLeftShiftExpr expr)
+    {
+        checkNumeric(expr, "left shift");
+    }
+
+    @Override
+    public void visit(CvaRightShiftExpr expr)
+    {
+        checkNumeric(expr, "right shift");
+    }
+
+    @Override
+    public void visit(CvaUnsignedRightShiftExpr expr)
+    {
+        checkNumeric(expr, "unsigned right shift");
+    }
+
+    @Override
+    public void visit(CvaMoreThanExpr expr)
+    {
+        checkNumeric(expr, "compare");
+        this.type = EnumCvaType.CVA_BOOLEAN;
+    }
+
+    @Override
+    public void visit(CvaOrOrExpr expr)
+    {
+        visit(expr.getLeft());
+        ICvaType leftType = this.type;
+        visit(expr.getRight());
+        if (type.toEnum() != leftType.toEnum())
+        {
+            errorLog(expr.getLineNum(),
+                    String.format("or expression the type of left is %s, but the type of right is %s",
+                            leftType.toString(), this.type.toString()));
+        }
+        else if (type != EnumCvaType.CVA_BOOLEAN)
+        {
+            errorLog(expr.getLineNum(), "only boolean can be or-ed.");
+        }
+    }
+
+    @Override
+    public void visit(CvaBitNegateExpr expr)
+    {
+        visit(expr.getExpr());
+        if (type.toEnum() != EnumCvaType.CVA_INT)
+        {
+            errorLog(expr.getLineNum(), "only int can be bit negated.");
+        }
+        this.type = EnumCvaType.CVA_INT;
+    }
+
+    @Override
+    public void visit(CvaConditionCalcExpr expr)
+    {
+        visit(expr.getCondition());
+        if (type.toEnum() != EnumCvaType.CVA_BOOLEAN)
+        {
+            errorLog(expr.getLineNum(), "the condition of ?: cannot calculate to a boolean.");
+        }
+        visit(expr.getFalseExpr());
+        ICvaType falseType = this.type;
+        visit(expr.getTrueExpr());
+        // 两个分支有一边是另一边的祖先就行, 整个式子取祖先那边的类型;
+        if (!isNotMatch(falseType, this.type))
+        {
+            this.type = falseType;
+        }
+        else if (isNotMatch(this.type, falseType))
+        {
+            errorLog(expr.getLineNum(),
+                    String.format("the two branches of ?: are %s and %s.",
+                            this.type.toString(), falseType.toString()));
+        }
+    }
+
     @Override
     public void visit(CvaAssignStatement stm)
     {
@@ -366,7 +569,7 @@ public final class SemanticVisitor implements IVisitor
         stm.setType(this.type);
 
         // 移除了不必要的检查;
-        this.curMethodLocalSet.remove(stm.getLiteral());
+        this.curMethodLocalSet.remove(stm.getSymbol());
 
         CvaIdentifierExpr cvaIdentifierExpr = new CvaIdentifierExpr(stm.getLineNum(), stm.getLiteral());
         visit(cvaIdentifierExpr);
@@ -438,14 +641,10 @@ public final class SemanticVisitor implements IVisitor
     @Override
     public void visit(CvaMethod cvaMethod)
     {
-        this.methodVarMap = new MethodVarMap();
-        this.methodVarMap.putVarList(
-                cvaMethod.getArgumentList(),
-                cvaMethod.getLocalVarList()
-        );
-        this.curMethodLocalSet = new HashSet<>();
+        putMethodVars(cvaMethod);
+        this.curMethodLocalSet = new IntSet();
         cvaMethod.getLocalVarList().forEach(local ->
-                this.curMethodLocalSet.add(local.literal()));
+                this.curMethodLocalSet.add(local.symbol()));
         cvaMethod.getStatementList().forEach(this::visit);
         visit(cvaMethod.getRetExpr());
         // if (!this.type.toString().equals(m.retType.toString()))
@@ -463,14 +662,10 @@ public final class SemanticVisitor implements IVisitor
     @Override
     public void visit(CvaMainMethod mainMethod)
     {
-        this.methodVarMap = new MethodVarMap();
-        this.methodVarMap.putVarList(
-                mainMethod.getArgumentList(),
-                mainMethod.getLocalVarList()
-        );
-        this.curMethodLocalSet = new HashSet<>();
+        putMethodVars(mainMethod);
+        this.curMethodLocalSet = new IntSet();
         mainMethod.getLocalVarList().forEach(local ->
-                this.curMethodLocalSet.add((local.literal())));
+                this.curMethodLocalSet.add(local.symbol()));
         mainMethod.getStatementList().forEach(this::visit);
         if (mainMethod.getRetType() != EnumCvaType.CVA_VOID)
         {
@@ -488,6 +683,7 @@ public final class SemanticVisitor implements IVisitor
     public void visit(CvaClass cvaClass)
     {
         this.currentClass = cvaClass.name();
+        this.currentClassSymbol = SymbolTable.getInstance().intern(currentClass);
         cvaClass.getMethodList().forEach(this::visit);
     }
 
@@ -495,6 +691,7 @@ public final class SemanticVisitor implements IVisitor
     public void visit(CvaEntryClass entryClass)
     {
         this.currentClass = entryClass.name();
+        this.currentClassSymbol = SymbolTable.getInstance().intern(currentClass);
         visit((CvaMainMethod) entryClass.getMainMethod());
     }
 
@@ -505,24 +702,144 @@ public final class SemanticVisitor implements IVisitor
         classMap.putClassBinding((program.getEntryClass()).name(),
                 new ClassBinding(null));
 
+        // 重名的类和成员报错后保留先来的, 接着检查;
         for (AbstractCvaClass abstractCvaClass : program.getClassList())
         {
             CvaClass cla = ((CvaClass) abstractCvaClass);
-            classMap.putClassBinding(cla.name(), new ClassBinding(cla.parent()));
-
-            cla.getFieldList().forEach(field -> classMap.putFieldToClass(cla.name(),
-                    field.literal(),
-                    field.type())
-            );
+            if (!classMap.putClassBinding(cla.name(), new ClassBinding(cla.parent())))
+            {
+                errorLog(String.format("duplicated class: %s", cla.name()));
+                continue;
+            }
 
-            cla.getMethodList().forEach(method -> classMap.putMethodToClass(cla.name(),
-                    method.name(),
-                    new MethodType(
-                            method.getRetType(),
-                            method.getArgumentList()))
-            );
+            int classSymbol = SymbolTable.getInstance().intern(cla.name());
+            for (AbstractDeclaration field : cla.getFieldList())
+            {
+                if (!classMap.putFieldToClass(classSymbol, field.symbol(), field.type()))
+                {
+                    errorLog(field.getLineNum(),
+                            String.format("duplicated class field: %s", field.literal()));
+                }
+            }
+            for (AbstractMethod method : cla.getMethodList())
+            {
+                if (!classMap.putMethodToClass(classSymbol,
+                        SymbolTable.getInstance().intern(method.name()),
+                        new MethodType(
+                                method.getRetType(),
+                                method.getArgumentList())))
+                {
+                    errorLog(String.format("duplicated class method: %s.%s",
+                            cla.name(), method.name()));
+                }
+            }
+        }
+        classMap.buildHierarchy();
+        for (AbstractCvaClass abstractCvaClass : program.getClassList())
+        {
+            if (classMap.isInCycle(SymbolTable.getInstance().intern(abstractCvaClass.name())))
+            {
+                errorLog(String.format("class \"%s\" has cyclic inheritance.",
+                        abstractCvaClass.name()));
+            }
+        }
+        if (Macro.PARALLEL_SEMANTIC_FLAG && methodCount(program) >= PARALLEL_METHOD_THRESHOLD)
+        {
+            checkInParallel(program);
+            return;
         }
         visit(program.getEntryClass());
         program.getClassList().forEach(this::visit);
     }
+
+    private static int methodCount(CvaProgram program)
+    {
+        int count = 1;
+        for (AbstractCvaClass cla : program.getClassList())
+        {
+            count += cla.getMethodList().size();
+        }
+        return count;
+    }
+
+    /**
+     * 每个方法一个任务, 各用一个新的 SemanticVisitor, 共享只读的类表;
+     * 全部做完后按与顺序检查相同的次序(先 main, 再各类的方法)输出报错;
+     * @param program 类表已经收集完的程序;
+     */
+    private void checkInParallel(CvaProgram program)
+    {
+        classMap.prepareConcurrentLookup();
+        List<MethodCheckTask> tasks = new ArrayList<>();
+        AbstractEntryClass entryClass = program.getEntryClass();
+        tasks.add(new MethodCheckTask(entryClass.name(), entryClass.getMainMethod()));
+        for (AbstractCvaClass cla : program.getClassList())
+        {
+            for (AbstractMethod method : cla.getMethodList())
+            {
+                tasks.add(new MethodCheckTask(cla.name(), method));
+            }
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(tasks);
+            }
+        });
+        for (MethodCheckTask task : tasks)
+        {
+            if (!task.checker.isOkay())
+            {
+                this.okFlag = false;
+                diagnostics.addAll(task.checker.diagnostics);
+            }
+        }
+    }
+
+    /**
+     * 检查一个方法体;
+     */
+    private final class MethodCheckTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final AbstractMethod method;
+
+        private final SemanticVisitor checker;
+
+        /**
+         * 发任务的线程上的符号表, 池里的线程要先绑上;
+         */
+        private final SymbolTable symbolTable;
+
+        private MethodCheckTask(String className, AbstractMethod method)
+        {
+            this.method = method;
+            this.checker = new SemanticVisitor(classMap, className);
+            this.symbolTable = SymbolTable.getInstance();
+        }
+
+        @Override
+        protected void compute()
+        {
+            SymbolTable previous = SymbolTable.bind(symbolTable);
+            try
+            {
+                if (method instanceof CvaMainMethod)
+                {
+                    checker.visit((CvaMainMethod) method);
+                }
+                else
+                {
+                    checker.visit(method);
+                }
+            }
+            finally
+            {
+                SymbolTable.bind(previous);
+            }
+        }
+    }
 }
@@ -0,0 +1,105 @@
+package cn.misection.cvac.symbol;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IntIntMap
+ * @Description 键值都是 int 的开放寻址表, 局部变量槽位之类的用, 键值都不装箱;
+ * @CreateTime 2026年10月17日 15:25:00
+ */
+public final class IntIntMap
+{
+    private static final int EMPTY = -1;
+
+    private static final int INIT_CAPACITY = 16;
+
+    private int[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    private int mask;
+
+    public IntIntMap()
+    {
+        allocate(INIT_CAPACITY);
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slotOf(int key)
+    {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param key 键;
+     * @param absent 不存在时的返回值;
+     * @return 值;
+     */
+    public int get(int key, int absent)
+    {
+        int slot = slotOf(key);
+        return keys[slot] == EMPTY ? absent : values[slot];
+    }
+
+    public boolean containsKey(int key)
+    {
+        return keys[slotOf(key)] != EMPTY;
+    }
+
+    public void put(int key, int value)
+    {
+        if (key < 0)
+        {
+            throw new IllegalArgumentException(String.format("negative key %d", key));
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY)
+        {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size * 2 > keys.length)
+        {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(keys.length << 1);
+            for (int i = 0; i < oldKeys.length; i++)
+            {
+                if (oldKeys[i] != EMPTY)
+                {
+                    int newSlot = slotOf(oldKeys[i]);
+                    keys[newSlot] = oldKeys[i];
+                    values[newSlot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+}
@@ -0,0 +1,193 @@
+package cn.misection.cvac.symbol;
+
+import java.util.Arrays;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IntMap
+ * @Description 以非负 int 为键的开放寻址哈希表, 线性探测, 删除时回移, 不装箱键;
+ * @CreateTime 2026年10月17日 15:10:00
+ */
+public class IntMap<V>
+{
+    private static final int EMPTY = -1;
+
+    private static final int INIT_CAPACITY = 16;
+
+    private int[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    private int mask;
+
+    public IntMap()
+    {
+        this(INIT_CAPACITY);
+    }
+
+    public IntMap(int expected)
+    {
+        int capacity = INIT_CAPACITY;
+        while (capacity < expected * 2)
+        {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public IntMap(IntMap<? extends V> other)
+    {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.size = other.size;
+        this.mask = other.mask;
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(int key)
+    {
+        // 符号 id 是连续的, 打散一下;
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slotOf(int key)
+    {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key)
+    {
+        int slot = slotOf(key);
+        return keys[slot] == EMPTY ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(int key)
+    {
+        return keys[slotOf(key)] != EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value)
+    {
+        if (key < 0)
+        {
+            throw new IllegalArgumentException(String.format("negative key %d", key));
+        }
+        int slot = slotOf(key);
+        if (keys[slot] != EMPTY)
+        {
+            V old = (V) values[slot];
+            values[slot] = value;
+            return old;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length)
+        {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key)
+    {
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY)
+        {
+            return null;
+        }
+        V old = (V) values[slot];
+        // 回移后面同一探测链上的元素, 不留墓碑;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY)
+        {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask))
+            {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        size--;
+        return old;
+    }
+
+    private void rehash(int capacity)
+    {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != EMPTY)
+            {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(IEntryConsumer<? super V> consumer)
+    {
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (keys[i] != EMPTY)
+            {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface IEntryConsumer<V>
+    {
+        /**
+         * 遍历一项;
+         * @param key 键;
+         * @param value 值;
+         */
+        void accept(int key, V value);
+    }
+}
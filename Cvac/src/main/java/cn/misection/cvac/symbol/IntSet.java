@@ -0,0 +1,147 @@
+package cn.misection.cvac.symbol;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName IntSet
+ * @Description 非负 int 的开放寻址集合, 与 IntMap 同样的探测和回移删除;
+ * @CreateTime 2026年10月17日 15:20:00
+ */
+public final class IntSet
+{
+    private static final int EMPTY = -1;
+
+    private static final int INIT_CAPACITY = 16;
+
+    private int[] keys;
+
+    private int size;
+
+    private int mask;
+
+    public IntSet()
+    {
+        allocate(INIT_CAPACITY);
+    }
+
+    public IntSet(IntSet other)
+    {
+        this.keys = other.keys.clone();
+        this.size = other.size;
+        this.mask = other.mask;
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slotOf(int key)
+    {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    public boolean contains(int key)
+    {
+        return keys[slotOf(key)] != EMPTY;
+    }
+
+    public boolean add(int key)
+    {
+        if (key < 0)
+        {
+            throw new IllegalArgumentException(String.format("negative key %d", key));
+        }
+        int slot = slotOf(key);
+        if (keys[slot] != EMPTY)
+        {
+            return false;
+        }
+        keys[slot] = key;
+        if (++size * 2 > keys.length)
+        {
+            int[] oldKeys = keys;
+            allocate(keys.length << 1);
+            for (int old : oldKeys)
+            {
+                if (old != EMPTY)
+                {
+                    keys[slotOf(old)] = old;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void addAll(IntSet other)
+    {
+        for (int key : other.keys)
+        {
+            if (key != EMPTY)
+            {
+                add(key);
+            }
+        }
+    }
+
+    public boolean remove(int key)
+    {
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY)
+        {
+            return false;
+        }
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY)
+        {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask))
+            {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer consumer)
+    {
+        for (int key : keys)
+        {
+            if (key != EMPTY)
+            {
+                consumer.accept(key);
+            }
+        }
+    }
+}
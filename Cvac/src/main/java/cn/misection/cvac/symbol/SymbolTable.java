@@ -0,0 +1,139 @@
+package cn.misection.cvac.symbol;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName SymbolTable
+ * @Description 一次编译的符号表, 标识符和类名只在这里哈希一次, 换成从 0 开始的稠密 id;
+ * 之后各阶段都用 id 做键; 每次编译开头 open 一张新表绑到当前线程, 上一次编译的名字随旧表一起释放;
+ * 同时进行的编译各用各的表, id 互不相干, 也不抢同一把锁;
+ * @CreateTime 2026年10月17日 15:00:00
+ */
+public final class SymbolTable
+{
+    /**
+     * 不存在的符号;
+     */
+    public static final int NO_SYMBOL = -1;
+
+    private static final int INIT_CAPACITY = 256;
+
+    /**
+     * 当前线程正在进行的编译用的表;
+     */
+    private static final ThreadLocal<SymbolTable> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> idMap = new HashMap<>(INIT_CAPACITY);
+
+    /**
+     * id 到名字, 只在 intern 时写, 换数组时整体替换;
+     */
+    private volatile String[] names = new String[INIT_CAPACITY];
+
+    private int size;
+
+    public SymbolTable() {}
+
+    /**
+     * 当前线程正在进行的编译用的表;
+     * @return 符号表;
+     * @throws IllegalStateException 当前线程没有 open 也没有 bind, 新开一张的话 id 会和树上的对不上;
+     */
+    public static SymbolTable getInstance()
+    {
+        SymbolTable table = CURRENT.get();
+        if (table == null)
+        {
+            throw new IllegalStateException(String.format(
+                    "no symbol table bound to thread %s", Thread.currentThread().getName()));
+        }
+        return table;
+    }
+
+    /**
+     * 开始一次新的编译, 换一张空表绑到当前线程, 之前的 id 都作废;
+     * 一次编译从读源码到生成代码要在同一个线程里, 或者用 bind 把表带过去;
+     * @return 新表;
+     */
+    public static SymbolTable open()
+    {
+        SymbolTable table = new SymbolTable();
+        CURRENT.set(table);
+        return table;
+    }
+
+    /**
+     * 把别的线程上的编译用的表绑到当前线程, 给分出去的任务用;
+     * @param table 要绑的表, null 为解绑;
+     * @return 原来绑着的表, 用完再 bind 回去;
+     */
+    public static SymbolTable bind(SymbolTable table)
+    {
+        SymbolTable previous = CURRENT.get();
+        if (table == null)
+        {
+            CURRENT.remove();
+        }
+        else
+        {
+            CURRENT.set(table);
+        }
+        return previous;
+    }
+
+    /**
+     * 取名字的 id, 没有就新分配一个;
+     * @param name 名字;
+     * @return id, name 为 null 时是 NO_SYMBOL;
+     */
+    public synchronized int intern(String name)
+    {
+        if (name == null)
+        {
+            return NO_SYMBOL;
+        }
+        Integer id = idMap.get(name);
+        if (id != null)
+        {
+            return id;
+        }
+        String[] table = names;
+        if (size == table.length)
+        {
+            table = Arrays.copyOf(table, size << 1);
+        }
+        table[size] = name;
+        names = table;
+        idMap.put(name, size);
+        return size++;
+    }
+
+    /**
+     * 只查不加;
+     * @param name 名字;
+     * @return id, 没有为 NO_SYMBOL;
+     */
+    public synchronized int lookup(String name)
+    {
+        Integer id = idMap.get(name);
+        return id == null ? NO_SYMBOL : id;
+    }
+
+    /**
+     * @param id id;
+     * @return 名字, NO_SYMBOL 为 null;
+     */
+    public String name(int id)
+    {
+        return id == NO_SYMBOL ? null : names[id];
+    }
+
+    public synchronized int size()
+    {
+        return size;
+    }
+}
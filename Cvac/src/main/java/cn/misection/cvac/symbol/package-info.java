@@ -0,0 +1,8 @@
+/**
+ * @ClassName package-info
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @Description 全局符号表, 各阶段共用的 int 键容器;
+ * @CreateTime 2026年10月17日 15:00:00
+ */
+package cn.misection.cvac.symbol;
@@ -0,0 +1,358 @@
+package cn.misection.cvac;
+
+import cn.misection.cvac.ast.clas.AbstractCvaClass;
+import cn.misection.cvac.ast.decl.AbstractDeclaration;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.ternary.CvaConditionCalcExpr;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.ast.method.AbstractMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.ast.statement.*;
+import cn.misection.cvac.ast.type.ICvaType;
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.constant.WriteOptionCode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName AstInterpreter
+ * @Description 测试用的语法树解释器, 直接在检查过的树上跑 main, 收集打印出来的东西;
+ * 优化前后各跑一遍, 输出一样才算没改坏; int 按 32 位回绕, 布尔是 Boolean;
+ * 写的目标是局部变量就写局部变量, 否则写 this 的字段, 和翻译时的判断一样;
+ * @CreateTime 2026年10月17日 23:58:00
+ */
+final class AstInterpreter
+{
+    /**
+     * 执行的结点数上限, 优化写出死循环时测试失败而不是卡住;
+     */
+    private static final long MAX_STEPS = 10_000_000L;
+
+    private final Map<String, AbstractCvaClass> classes = new HashMap<>();
+
+    private final StringBuilder output = new StringBuilder();
+
+    private long steps;
+
+    private static final class Instance
+    {
+        private final AbstractCvaClass cla;
+
+        private final Map<String, Object> fields = new HashMap<>();
+
+        private Instance(AbstractCvaClass cla)
+        {
+            this.cla = cla;
+        }
+    }
+
+    private static final class Frame
+    {
+        private final Instance self;
+
+        private final Map<String, Object> locals = new HashMap<>();
+
+        private Frame(Instance self)
+        {
+            this.self = self;
+        }
+    }
+
+    private AstInterpreter(AbstractProgram program)
+    {
+        program.getClassList().forEach(cla -> classes.put(cla.name(), cla));
+    }
+
+    /**
+     * @param program 检查过的程序;
+     * @return main 打印的全部内容;
+     */
+    static String run(AbstractProgram program)
+    {
+        AstInterpreter interpreter = new AstInterpreter(program);
+        AbstractMethod main = program.getEntryClass().getMainMethod();
+        Frame frame = new Frame(null);
+        main.getArgumentList().forEach(arg -> frame.locals.put(arg.literal(), null));
+        interpreter.invoke(main, frame);
+        return interpreter.output.toString();
+    }
+
+    private Object invoke(AbstractMethod method, Frame frame)
+    {
+        method.getLocalVarList().forEach(decl -> frame.locals.put(decl.literal(), initOf(decl.type())));
+        method.getStatementList().forEach(stm -> exec(stm, frame));
+        return method.getRetExpr() == null ? null : eval(method.getRetExpr(), frame);
+    }
+
+    private static Object initOf(ICvaType type)
+    {
+        if (type == EnumCvaType.CVA_INT)
+        {
+            return 0;
+        }
+        return type == EnumCvaType.CVA_BOOLEAN ? Boolean.FALSE : null;
+    }
+
+    private void tick()
+    {
+        if (++steps > MAX_STEPS)
+        {
+            throw new IllegalStateException("interpreter step limit exceeded");
+        }
+    }
+
+    private void exec(AbstractStatement stm, Frame frame)
+    {
+        tick();
+        switch (stm.toEnum())
+        {
+            case ASSIGN:
+            {
+                CvaAssignStatement assign = (CvaAssignStatement) stm;
+                store(frame, assign.getLiteral(), eval(assign.getExpr(), frame));
+                break;
+            }
+            case INCREMENT:
+            {
+                CvaIncreStatement incre = (CvaIncreStatement) stm;
+                int value = (Integer) load(frame, incre.getLiteral());
+                store(frame, incre.getLiteral(), value + incre.getDirection().direction());
+                break;
+            }
+            case WRITE:
+            {
+                CvaWriteStatement write = (CvaWriteStatement) stm;
+                output.append(eval(write.getExpr(), frame));
+                if (write.getWriteMode() == WriteOptionCode.CONSOLE_WRITELN)
+                {
+                    output.append('\n');
+                }
+                break;
+            }
+            case BLOCK:
+            {
+                ((CvaBlockStatement) stm).getStatementList().forEach(child -> exec(child, frame));
+                break;
+            }
+            case IF:
+            {
+                CvaIfStatement ifStm = (CvaIfStatement) stm;
+                if (isTrue(ifStm.getCondition(), frame))
+                {
+                    exec(ifStm.getThenStatement(), frame);
+                }
+                else if (ifStm.getElseStatement() != null)
+                {
+                    exec(ifStm.getElseStatement(), frame);
+                }
+                break;
+            }
+            case WHILE:
+            {
+                CvaWhileStatement whileStm = (CvaWhileStatement) stm;
+                while (isTrue(whileStm.getCondition(), frame))
+                {
+                    exec(whileStm.getBody(), frame);
+                }
+                break;
+            }
+            default:
+            {
+                throw new IllegalStateException(String.format("unknown statement %s", stm.toEnum()));
+            }
+        }
+    }
+
+    private boolean isTrue(AbstractExpression expr, Frame frame)
+    {
+        return (Boolean) eval(expr, frame);
+    }
+
+    private Object eval(AbstractExpression expr, Frame frame)
+    {
+        tick();
+        if (expr instanceof AbstractBinaryExpr)
+        {
+            return evalBinary((AbstractBinaryExpr) expr, frame);
+        }
+        switch (expr.toEnum())
+        {
+            case CONST_INT:
+                return ((CvaConstIntExpr) expr).getValue();
+            case CONST_TRUE:
+                return Boolean.TRUE;
+            case CONST_FALSE:
+                return Boolean.FALSE;
+            case CONST_NULL:
+                return null;
+            case CONST_STRING:
+                return ((CvaConstStringExpr) expr).getLiteral();
+            case IDENTIFIER:
+                return load(frame, ((CvaIdentifierExpr) expr).getLiteral());
+            case THIS:
+                return frame.self;
+            case NEW:
+                return newInstance(((CvaNewExpr) expr).getNewClassName());
+            case NEGATE:
+                return !isTrue(((CvaNegateExpr) expr).getExpr(), frame);
+            case BIT_NEGATE:
+                return ~(Integer) eval(((CvaBitNegateExpr) expr).getExpr(), frame);
+            case CONDITION_CALC:
+            {
+                CvaConditionCalcExpr condExpr = (CvaConditionCalcExpr) expr;
+                return isTrue(condExpr.getCondition(), frame)
+                        ? eval(condExpr.getTrueExpr(), frame)
+                        : eval(condExpr.getFalseExpr(), frame);
+            }
+            case CALL:
+                return call((CvaCallExpr) expr, frame);
+            default:
+                throw new IllegalStateException(String.format("unknown expression %s", expr.toEnum()));
+        }
+    }
+
+    private Object evalBinary(AbstractBinaryExpr expr, Frame frame)
+    {
+        switch (expr.toEnum())
+        {
+            case AND_AND:
+                return isTrue(expr.getLeft(), frame) && isTrue(expr.getRight(), frame);
+            case OR_OR:
+                return isTrue(expr.getLeft(), frame) || isTrue(expr.getRight(), frame);
+            default:
+                break;
+        }
+        Object left = eval(expr.getLeft(), frame);
+        Object right = eval(expr.getRight(), frame);
+        if (left instanceof Boolean)
+        {
+            boolean a = (Boolean) left;
+            boolean b = (Boolean) right;
+            switch (expr.toEnum())
+            {
+                case BIT_AND:
+                    return a & b;
+                case BIT_OR:
+                    return a | b;
+                case BIT_XOR:
+                    return a ^ b;
+                default:
+                    throw new IllegalStateException(String.format("%s on booleans", expr.toEnum()));
+            }
+        }
+        int a = (Integer) left;
+        int b = (Integer) right;
+        switch (expr.toEnum())
+        {
+            case ADD:
+                return a + b;
+            case SUB:
+                return a - b;
+            case MUL:
+                return a * b;
+            case DIV:
+                return a / b;
+            case REMAINDER:
+                return a % b;
+            case BIT_AND:
+                return a & b;
+            case BIT_OR:
+                return a | b;
+            case BIT_XOR:
+                return a ^ b;
+            case LEFT_SHIFT:
+                return a << b;
+            case RIGHT_SHIFT:
+                return a >> b;
+            case UNSIGNED_RIGHT_SHIFT:
+                return a >>> b;
+            case LESS_THAN:
+                return a < b;
+            case MORE_THAN:
+                return a > b;
+            default:
+                throw new IllegalStateException(String.format("unknown expression %s", expr.toEnum()));
+        }
+    }
+
+    private Object call(CvaCallExpr call, Frame frame)
+    {
+        Instance receiver = (Instance) eval(call.getExpr(), frame);
+        if (receiver == null)
+        {
+            throw new NullPointerException(String.format("call %s on null", call.getFuncName()));
+        }
+        AbstractMethod method = resolve(receiver.cla, call.getFuncName());
+        Frame callee = new Frame(receiver);
+        List<AbstractExpression> args = call.getArgs();
+        for (int i = 0; i < args.size(); i++)
+        {
+            callee.locals.put(method.getArgumentList().get(i).literal(), eval(args.get(i), frame));
+        }
+        return invoke(method, callee);
+    }
+
+    /**
+     * 从实际的类往上找, 虚调用;
+     */
+    private AbstractMethod resolve(AbstractCvaClass cla, String name)
+    {
+        for (AbstractCvaClass cur = cla; cur != null; cur = classes.get(cur.parent()))
+        {
+            for (AbstractMethod method : cur.getMethodList())
+            {
+                if (method.name().equals(name))
+                {
+                    return method;
+                }
+            }
+        }
+        throw new IllegalStateException(String.format("no method %s in %s", name, cla.name()));
+    }
+
+    private Instance newInstance(String className)
+    {
+        Instance instance = new Instance(classes.get(className));
+        for (AbstractCvaClass cur = instance.cla; cur != null; cur = classes.get(cur.parent()))
+        {
+            for (AbstractDeclaration field : cur.getFieldList())
+            {
+                instance.fields.putIfAbsent(field.literal(), initOf(field.type()));
+            }
+        }
+        return instance;
+    }
+
+    private Object load(Frame frame, String name)
+    {
+        if (frame.locals.containsKey(name))
+        {
+            return frame.locals.get(name);
+        }
+        return fieldsOf(frame, name).get(name);
+    }
+
+    private void store(Frame frame, String name, Object value)
+    {
+        if (frame.locals.containsKey(name))
+        {
+            frame.locals.put(name, value);
+            return;
+        }
+        fieldsOf(frame, name).put(name, value);
+    }
+
+    private static Map<String, Object> fieldsOf(Frame frame, String name)
+    {
+        if (frame.self == null || !frame.self.fields.containsKey(name))
+        {
+            throw new IllegalStateException(String.format("unknown variable %s", name));
+        }
+        return frame.self.fields;
+    }
+}
@@ -0,0 +1,84 @@
+package cn.misection.cvac;
+
+import cn.misection.cvac.ast.clas.AbstractCvaClass;
+import cn.misection.cvac.ast.method.AbstractMethod;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.AbstractProgram;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.diagnostic.Diagnostics;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.optimize.IMethodPass;
+import cn.misection.cvac.parser.Parser;
+import cn.misection.cvac.semantic.SemanticVisitor;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName ProgramFixture
+ * @Description 优化和生成代码的测试共用: 开一张新符号表, 解析并检查源码, 以及解释执行检查过的程序;
+ * @CreateTime 2026年10月17日 23:57:00
+ */
+public final class ProgramFixture
+{
+    private ProgramFixture() {}
+
+    /**
+     * @param source 源码;
+     * @return 解析和语义检查都通过的程序, 有错时测试失败;
+     */
+    public static CvaProgram check(String source)
+    {
+        SymbolTable.open();
+        Diagnostics diagnostics = new Diagnostics();
+        CvaProgram program = new Parser(MappedBufferedHandler.ofText(source), diagnostics).parse();
+        SemanticVisitor checker = new SemanticVisitor(diagnostics);
+        checker.visit(program);
+        // 解析出错也会往下走, 错误要一起查;
+        Assert.assertFalse(diagnostics.getDiagnosticList().toString(), diagnostics.hasErrors());
+        Assert.assertTrue(checker.isOkay());
+        return program;
+    }
+
+    /**
+     * @param program 程序;
+     * @param classIndex 第几个类;
+     * @param methodIndex 类里第几个方法;
+     * @return 方法;
+     */
+    public static CvaMethod method(CvaProgram program, int classIndex, int methodIndex)
+    {
+        return (CvaMethod) program.getClassList().get(classIndex).getMethodList().get(methodIndex);
+    }
+
+    /**
+     * @param program 检查过的程序;
+     * @return 解释执行 main 打印出来的全部内容;
+     */
+    public static String run(AbstractProgram program)
+    {
+        return AstInterpreter.run(program);
+    }
+
+    /**
+     * 对每个类的每个方法跑一遍优化, 解释执行的输出要和优化前一样;
+     * @param program 检查过的程序;
+     * @param pass 优化;
+     * @return 优化前的输出;
+     */
+    public static String assertSameResult(CvaProgram program, IMethodPass pass)
+    {
+        String expected = run(program);
+        pass.enterProgram(program);
+        for (AbstractCvaClass cla : program.getClassList())
+        {
+            for (AbstractMethod method : cla.getMethodList())
+            {
+                pass.optimize((CvaMethod) method);
+            }
+        }
+        Assert.assertEquals(expected, run(program));
+        return expected;
+    }
+}
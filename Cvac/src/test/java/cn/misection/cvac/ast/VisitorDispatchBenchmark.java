@@ -0,0 +1,175 @@
+package cn.misection.cvac.ast;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.*;
+import cn.misection.cvac.ast.expr.unary.*;
+import cn.misection.cvac.symbol.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName VisitorDispatchBenchmark
+ * @Description IVisitor 表达式分派的单节点开销, 旧的按类名字符串 switch 对比现在的按 toEnum() switch;
+ * 用法: VisitorDispatchBenchmark [节点数] [轮数];
+ * @CreateTime 2026年10月17日 17:05:00
+ */
+public final class VisitorDispatchBenchmark
+{
+    private static final int WARM_UP_ROUNDS = 20;
+
+    public static void main(String[] args)
+    {
+        SymbolTable.open();
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        AbstractExpression[] nodes = mixedNodes(nodeCount);
+
+        long sink = 0;
+        for (int i = 0; i < WARM_UP_ROUNDS; i++)
+        {
+            sink += byClassName(nodes) + byEnum(nodes);
+        }
+
+        long classNameNanos = 0;
+        long enumNanos = 0;
+        for (int i = 0; i < rounds; i++)
+        {
+            long start = System.nanoTime();
+            sink += byClassName(nodes);
+            classNameNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += byEnum(nodes);
+            enumNanos += System.nanoTime() - start;
+        }
+        double total = (double) nodeCount * rounds;
+        System.out.printf("nodes %d, rounds %d%n", nodeCount, rounds);
+        System.out.printf("class name switch: %.2f ns/node%n", classNameNanos / total);
+        System.out.printf("enum switch:       %.2f ns/node%n", enumNanos / total);
+        // 防止整段被消掉;
+        System.out.printf("(sink %d)%n", sink);
+    }
+
+    /**
+     * 与 parser 输出相近的节点分布, 叶子多, 双目次之;
+     */
+    private static AbstractExpression[] mixedNodes(int count)
+    {
+        Random random = new Random(42);
+        AbstractExpression id = new CvaIdentifierExpr(1, "a");
+        AbstractExpression num = new CvaConstIntExpr(1, 1);
+        AbstractExpression[] nodes = new AbstractExpression[count];
+        for (int i = 0; i < count; i++)
+        {
+            switch (random.nextInt(10))
+            {
+                case 0:
+                case 1:
+                case 2:
+                    nodes[i] = new CvaIdentifierExpr(1, "a");
+                    break;
+                case 3:
+                case 4:
+                    nodes[i] = new CvaConstIntExpr(1, i);
+                    break;
+                case 5:
+                    nodes[i] = new CvaAddExpr(1, id, num);
+                    break;
+                case 6:
+                    nodes[i] = new CvaLessThanExpr(1, id, num);
+                    break;
+                case 7:
+                    nodes[i] = new CvaMulExpr(1, id, num);
+                    break;
+                case 8:
+                    nodes[i] = new CvaCallExpr(1, "f", id, new ArrayList<>());
+                    break;
+                default:
+                    nodes[i] = new CvaNegateExpr(1, id);
+                    break;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * 旧的 IVisitor.visit(AbstractExpression) 的分派方式;
+     */
+    private static long byClassName(AbstractExpression[] nodes)
+    {
+        long sum = 0;
+        for (AbstractExpression expr : nodes)
+        {
+            switch (expr.getClass().getSimpleName())
+            {
+                case "CvaAddExpr":
+                    sum += 1;
+                    break;
+                case "CvaCallExpr":
+                    sum += 2;
+                    break;
+                case "CvaIdentifierExpr":
+                    sum += 3;
+                    break;
+                case "CvaLessThanExpr":
+                    sum += 4;
+                    break;
+                case "CvaNegateExpr":
+                    sum += 5;
+                    break;
+                case "CvaConstIntExpr":
+                    sum += 6;
+                    break;
+                case "CvaMulExpr":
+                    sum += 7;
+                    break;
+                default:
+                    sum += 8;
+                    break;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 现在的分派方式;
+     */
+    private static long byEnum(AbstractExpression[] nodes)
+    {
+        long sum = 0;
+        for (AbstractExpression expr : nodes)
+        {
+            switch (expr.toEnum())
+            {
+                case ADD:
+                    sum += 1;
+                    break;
+                case CALL:
+                    sum += 2;
+                    break;
+                case IDENTIFIER:
+                    sum += 3;
+                    break;
+                case LESS_THAN:
+                    sum += 4;
+                    break;
+                case NEGATE:
+                    sum += 5;
+                    break;
+                case CONST_INT:
+                    sum += 6;
+                    break;
+                case MUL:
+                    sum += 7;
+                    break;
+                default:
+                    sum += 8;
+                    break;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,85 @@
+package cn.misection.cvac.ast.flat;
+
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.parser.Parser;
+import cn.misection.cvac.symbol.SymbolTable;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName AstMemoryReport
+ * @Description 对象树和扁平树每千行源码的内存, 对象树按 GC 后的堆差值量, 扁平树给出堆差值和数组字节数;
+ * 用法: AstMemoryReport [方法数], -Xmx 要给足;
+ * @CreateTime 2026年10月17日 20:35:00
+ */
+public final class AstMemoryReport
+{
+    private static final String METHOD_TEMPLATE =
+            "    int m%1$d(int x, int y)\n"
+            + "    {\n"
+            + "        int t;\n"
+            + "        int u;\n"
+            + "        t = x + y * 2;\n"
+            + "        u = t - x / 3;\n"
+            + "        if (t < u)\n"
+            + "            t = u;\n"
+            + "        else\n"
+            + "            u = t;\n"
+            + "        while (0 < t)\n"
+            + "        {\n"
+            + "            t = t - 1;\n"
+            + "            u = u + t %% 7;\n"
+            + "        }\n"
+            + "        println t ^ u;\n"
+            + "        return this.m%1$d(t, u) + 1;\n"
+            + "    }\n";
+
+    public static void main(String[] args)
+    {
+        SymbolTable.open();
+        int methodCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String source = source(methodCount);
+        long lines = source.chars().filter(ch -> ch == '\n').count();
+        MappedBufferedHandler stream = MappedBufferedHandler.ofText(source);
+        source = null;
+
+        long before = usedAfterGc();
+        CvaProgram program = new Parser(stream).parse();
+        stream = null;
+        long objectBytes = usedAfterGc() - before;
+
+        before = usedAfterGc();
+        FlatAst flat = FlatAst.of(program);
+        long flatBytes = usedAfterGc() - before;
+
+        double perKiloLine = 1000.0 / lines;
+        System.out.printf("lines %d, flat nodes %d%n", lines, flat.size());
+        System.out.printf("object tree:      %10.0f bytes / 1K lines%n", objectBytes * perKiloLine);
+        System.out.printf("flat tree (heap): %10.0f bytes / 1K lines%n", flatBytes * perKiloLine);
+        System.out.printf("flat tree (arrays): %8.0f bytes / 1K lines%n", flat.footprint() * perKiloLine);
+        // 两棵树都要活到量完;
+        System.out.printf("(%s, %d)%n", program.getClass().getSimpleName(), flat.root());
+    }
+
+    private static String source(int methodCount)
+    {
+        StringBuilder source = new StringBuilder("class Big\n{\n    int f;\n");
+        for (int i = 0; i < methodCount; i++)
+        {
+            source.append(String.format(METHOD_TEMPLATE, i));
+        }
+        source.append("}\nint main(string[] args)\n{\n    println 1;\n    return 0;\n}\n");
+        return source.toString();
+    }
+
+    private static long usedAfterGc()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,186 @@
+package cn.misection.cvac.ast.flat;
+
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.lexer.EnumLexerMode;
+import cn.misection.cvac.lexer.TokenBuffer;
+import cn.misection.cvac.parser.BufferTokenCursor;
+import cn.misection.cvac.parser.EnumParseMode;
+import cn.misection.cvac.parser.Parser;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName FlatAstTest
+ * @Description 压平再还原、编码再解码都不丢信息, 游标能走到每个结点;
+ * @CreateTime 2026年10月17日 20:20:00
+ */
+public class FlatAstTest
+{
+    private static final String OPERATORS =
+            "class A extends B\n"
+            + "{\n"
+            + "    int f;\n"
+            + "    string g(int x, A y)\n"
+            + "    {\n"
+            + "        int z;\n"
+            + "        z = x >>> 2;\n"
+            + "        return \"s\";\n"
+            + "    }\n"
+            + "}\n"
+            + "int main(string[] args)\n"
+            + "{\n"
+            + "    int a;\n"
+            + "    println a / b % c & d | e ^ f << 1 >> 2 - 3;\n"
+            + "    println !!a < b && !(c > d) || ~e < f ? g.h(1, (2), new A()) : this.k();\n"
+            + "    if (a) if (b) x = 1; else { y = 2; z++; } else while (c < d) { w--; }\n"
+            + "    return 0;\n"
+            + "}\n";
+
+    @Before
+    public void before()
+    {
+        SymbolTable.open();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        List<String> sources = new ArrayList<>();
+        sources.add(OPERATORS);
+        for (Path path : corpus())
+        {
+            sources.add(new String(Files.readAllBytes(path)));
+        }
+        for (String source : sources)
+        {
+            FlatAst flat = FlatAst.of(parse(source, EnumParseMode.RECURSIVE));
+            assertSameFlat(flat, FlatAst.of(flat.inflate()));
+        }
+    }
+
+    @Test
+    public void testCodecRoundTrip() throws Exception
+    {
+        FlatAst flat = FlatAst.of(parse(OPERATORS, EnumParseMode.RECURSIVE));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FlatAstCodec.write(flat, new DataOutputStream(bytes));
+        FlatAst read = FlatAstCodec.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+        assertSameFlat(flat, read);
+
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() / 2);
+        try
+        {
+            FlatAstCodec.read(new DataInputStream(new ByteArrayInputStream(truncated)));
+            Assert.fail("truncated ast should not load");
+        }
+        catch (IOException expected)
+        {
+            // 截断的缓存要报错, 不能读出半棵树;
+        }
+    }
+
+    @Test
+    public void testCursorVisitsEveryNode()
+    {
+        FlatAst flat = FlatAst.of(parse(OPERATORS, EnumParseMode.RECURSIVE));
+        FlatCursor cursor = flat.cursor();
+        Assert.assertEquals(EnumFlatNode.PROGRAM, cursor.kind());
+        boolean[] seen = new boolean[flat.size()];
+        int visited = 0;
+        do
+        {
+            Assert.assertFalse(seen[cursor.node()]);
+            seen[cursor.node()] = true;
+            visited++;
+        }
+        while (cursor.next());
+        Assert.assertEquals(flat.size(), visited);
+        Assert.assertEquals(0, cursor.depth());
+
+        // 先是 entry, 再是 class A;
+        Assert.assertTrue(cursor.down(1));
+        Assert.assertEquals(EnumFlatNode.CLASS, cursor.kind());
+        Assert.assertEquals("A", cursor.literal());
+        Assert.assertEquals("B", SymbolTable.getInstance().name(cursor.value()));
+        Assert.assertTrue(cursor.down(1));
+        Assert.assertEquals(EnumFlatNode.METHOD, cursor.kind());
+        Assert.assertEquals(2, cursor.value());
+        Assert.assertTrue(cursor.up());
+        Assert.assertTrue(cursor.up());
+        Assert.assertFalse(cursor.up());
+    }
+
+    @Test
+    public void testDeepNesting()
+    {
+        final int depth = 100_000;
+        StringBuilder source = new StringBuilder("int main(string[] args)\n{\n    println a");
+        for (int i = 0; i < depth; i++)
+        {
+            source.append(" - a");
+        }
+        source.append(";\n    return 0;\n}\n");
+        FlatAst flat = FlatAst.of(parse(source.toString(), EnumParseMode.EXPLICIT_STACK));
+        assertSameFlat(flat, FlatAst.of(flat.inflate()));
+        FlatCursor cursor = flat.cursor();
+        int maxDepth = 0;
+        while (cursor.next())
+        {
+            maxDepth = Math.max(maxDepth, cursor.depth());
+        }
+        Assert.assertTrue(maxDepth > depth);
+    }
+
+    private static void assertSameFlat(FlatAst expected, FlatAst actual)
+    {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(expected.root(), actual.root());
+        Assert.assertEquals(expected.footprint(), actual.footprint());
+        for (int node = 0; node < expected.size(); node++)
+        {
+            Assert.assertEquals(expected.kind(node), actual.kind(node));
+            Assert.assertEquals(expected.lineNum(node), actual.lineNum(node));
+            Assert.assertEquals(expected.symbol(node), actual.symbol(node));
+            Assert.assertEquals(expected.value(node), actual.value(node));
+            Assert.assertEquals(expected.childCount(node), actual.childCount(node));
+            for (int i = 0; i < expected.childCount(node); i++)
+            {
+                Assert.assertEquals(expected.child(node, i), actual.child(node, i));
+            }
+        }
+    }
+
+    private static CvaProgram parse(String source, EnumParseMode mode)
+    {
+        return new Parser(new BufferTokenCursor(TokenBuffer.tokenize(
+                EnumLexerMode.TABLE.create(MappedBufferedHandler.ofText(source)))), mode).parse();
+    }
+
+    private static List<Path> corpus() throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(Paths.get("res/cvasrc")))
+        {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
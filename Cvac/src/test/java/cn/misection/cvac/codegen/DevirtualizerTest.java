@@ -0,0 +1,74 @@
+package cn.misection.cvac.codegen;
+
+import cn.misection.cvac.ProgramFixture;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.codegen.bst.bclas.TargetClass;
+import cn.misection.cvac.codegen.bst.instructor.IInstructor;
+import cn.misection.cvac.codegen.bst.instructor.InvokeSpecial;
+import cn.misection.cvac.codegen.bst.instructor.InvokeVirtual;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName DevirtualizerTest
+ * @Description 没有子类的类和没被覆盖的方法是 final, this 上唯一目标的调用翻译成 invokespecial;
+ * @CreateTime 2026年10月18日 06:20:00
+ */
+public class DevirtualizerTest
+{
+    private static final String SOURCE = "class A\n{\n"
+            + "    int f(int x)\n    {\n        return x;\n    }\n"
+            + "    int g(int x)\n    {\n        return x + 1;\n    }\n"
+            + "    int h(int x)\n    {\n        return this.f(x) + this.g(x) + new B().f(x);\n    }\n"
+            + "}\n"
+            + "class B extends A\n{\n"
+            + "    int g(int x)\n    {\n        return x + 2;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().h(1);\n    println new B().h(1);\n    return 0;\n}\n";
+
+    @Test
+    public void testFinalAndDirectCalls()
+    {
+        CvaProgram program = ProgramFixture.check(SOURCE);
+
+        Devirtualizer devirtualizer = Devirtualizer.of(program);
+        Assert.assertFalse(devirtualizer.isFinalClass("A"));
+        Assert.assertTrue(devirtualizer.isFinalClass("B"));
+        Assert.assertTrue(devirtualizer.isFinalMethod("A", "f"));
+        Assert.assertFalse(devirtualizer.isFinalMethod("A", "g"));
+        int g = SymbolTable.getInstance().intern("g");
+        Assert.assertFalse(devirtualizer.isDirectCall("A", "A", g));
+        Assert.assertTrue(devirtualizer.isDirectCall("B", "B", g));
+        // 接收者不是当前类的实例, 不能 invokespecial;
+        Assert.assertFalse(devirtualizer.isDirectCall("A", "B", g));
+
+        TranslatorVisitor translator = new TranslatorVisitor();
+        translator.visit(program);
+        TargetClass a = translator.getTargetProgram().getClassList().get(0);
+        Assert.assertFalse(a.isFinal());
+        Assert.assertTrue(translator.getTargetProgram().getClassList().get(1).isFinal());
+        Assert.assertTrue(a.getMethodList().get(0).isFinal());
+        Assert.assertFalse(a.getMethodList().get(1).isFinal());
+
+        // this.f 直接调, this.g 有覆盖, new B().f 接收者不是 this;
+        List<IInstructor> h = a.getMethodList().get(2).getStatementList();
+        Assert.assertEquals(1, h.stream().filter(i -> i instanceof InvokeSpecial).count());
+        Assert.assertEquals(2, h.stream().filter(i -> i instanceof InvokeVirtual).count());
+    }
+
+    @Test
+    public void testResultUnchanged()
+    {
+        CvaProgram program = ProgramFixture.check(SOURCE);
+        TranslatorVisitor translator = new TranslatorVisitor();
+        translator.visit(program);
+        // B 上调 h, this.g 还得走到 B 的覆盖;
+        Assert.assertEquals("4\n5\n", ProgramFixture.run(program));
+        Assert.assertEquals(ProgramFixture.run(program), TargetInterpreter.run(translator.getTargetProgram()));
+    }
+}
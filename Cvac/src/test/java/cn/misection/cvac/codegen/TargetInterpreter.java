@@ -0,0 +1,263 @@
+package cn.misection.cvac.codegen;
+
+import cn.misection.cvac.codegen.bst.Label;
+import cn.misection.cvac.codegen.bst.bclas.TargetClass;
+import cn.misection.cvac.codegen.bst.bmethod.TargetMethod;
+import cn.misection.cvac.codegen.bst.bprogram.TargetProgram;
+import cn.misection.cvac.codegen.bst.instructor.*;
+import cn.misection.cvac.constant.WriteOptionCode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName TargetInterpreter
+ * @Description 测试用的指令解释器, 直接跑翻译出来的指令, 收集打印的东西;
+ * invokevirtual 从接收者实际的类往上找, invokespecial 从指令上写的类往上找, 和 JVM 一样;
+ * 只认 int 和对象, 布尔就是 0 和 1;
+ * @CreateTime 2026年10月18日 00:20:00
+ */
+final class TargetInterpreter
+{
+    /**
+     * 执行的指令数上限, 跳错了标签时测试失败而不是卡住;
+     */
+    private static final long MAX_STEPS = 10_000_000L;
+
+    private final Map<String, TargetClass> classes = new HashMap<>();
+
+    private final StringBuilder output = new StringBuilder();
+
+    private long steps;
+
+    private static final class Instance
+    {
+        private final String className;
+
+        private final Map<String, Object> fields = new HashMap<>();
+
+        private Instance(String className)
+        {
+            this.className = className;
+        }
+    }
+
+    private TargetInterpreter(TargetProgram program)
+    {
+        program.getClassList().forEach(cla -> classes.put(cla.getLiteral(), cla));
+    }
+
+    /**
+     * @param program 翻译出来的程序;
+     * @return main 打印的全部内容;
+     */
+    static String run(TargetProgram program)
+    {
+        TargetInterpreter interpreter = new TargetInterpreter(program);
+        interpreter.execute(program.getEntryClass().getStatementList(), new HashMap<>());
+        return interpreter.output.toString();
+    }
+
+    private Object execute(List<IInstructor> code, Map<Integer, Object> locals)
+    {
+        Map<Label, Integer> labels = new HashMap<>();
+        for (int i = 0; i < code.size(); i++)
+        {
+            if (code.get(i) instanceof LabelJ)
+            {
+                labels.put(((LabelJ) code.get(i)).getLabel(), i);
+            }
+        }
+        Deque<Object> stack = new ArrayDeque<>();
+        int pc = 0;
+        while (pc < code.size())
+        {
+            if (++steps > MAX_STEPS)
+            {
+                throw new IllegalStateException("interpreter step limit exceeded");
+            }
+            IInstructor instructor = code.get(pc++);
+            if (instructor instanceof EnumInstructor)
+            {
+                EnumInstructor op = (EnumInstructor) instructor;
+                if (op == EnumInstructor.I_RETURN || op == EnumInstructor.A_RETURN)
+                {
+                    return stack.pop();
+                }
+                if (op == EnumInstructor.SWAP)
+                {
+                    Object top = stack.pop();
+                    Object below = stack.pop();
+                    stack.push(top);
+                    stack.push(below);
+                    continue;
+                }
+                int right = (Integer) stack.pop();
+                int left = (Integer) stack.pop();
+                stack.push(arith(op, left, right));
+            }
+            else if (instructor instanceof ILoad)
+            {
+                stack.push(locals.get(((ILoad) instructor).getIndex()));
+            }
+            else if (instructor instanceof ALoad)
+            {
+                stack.push(locals.get(((ALoad) instructor).getIndex()));
+            }
+            else if (instructor instanceof IStore)
+            {
+                locals.put(((IStore) instructor).getIndex(), stack.pop());
+            }
+            else if (instructor instanceof AStore)
+            {
+                locals.put(((AStore) instructor).getIndex(), stack.pop());
+            }
+            else if (instructor instanceof IInc)
+            {
+                IInc inc = (IInc) instructor;
+                locals.put(inc.getIndex(), (Integer) locals.get(inc.getIndex()) + inc.getDirection().direction());
+            }
+            else if (instructor instanceof Ldc)
+            {
+                stack.push(((Ldc<?>) instructor).value());
+            }
+            else if (instructor instanceof LabelJ)
+            {
+                continue;
+            }
+            else if (instructor instanceof Goto)
+            {
+                pc = labels.get(((Goto) instructor).getLabel());
+            }
+            else if (instructor instanceof IfICmpLt)
+            {
+                int right = (Integer) stack.pop();
+                int left = (Integer) stack.pop();
+                if (left < right)
+                {
+                    pc = labels.get(((IfICmpLt) instructor).getLabel());
+                }
+            }
+            else if (instructor instanceof New)
+            {
+                stack.push(new Instance(((New) instructor).getNewClassName()));
+            }
+            else if (instructor instanceof GetField)
+            {
+                Instance self = (Instance) stack.pop();
+                Object value = self.fields.get(fieldName(((GetField) instructor).getFieldSpec()));
+                stack.push(value == null && "I".equals(((GetField) instructor).getDescriptor()) ? 0 : value);
+            }
+            else if (instructor instanceof PutField)
+            {
+                Object value = stack.pop();
+                Instance self = (Instance) stack.pop();
+                self.fields.put(fieldName(((PutField) instructor).getFieldSpec()), value);
+            }
+            else if (instructor instanceof InvokeVirtual)
+            {
+                InvokeVirtual call = (InvokeVirtual) instructor;
+                invoke(stack, call.getFuncName(), call.getArgTypeList().size(), null);
+            }
+            else if (instructor instanceof InvokeSpecial)
+            {
+                InvokeSpecial call = (InvokeSpecial) instructor;
+                invoke(stack, call.getFuncName(), call.getArgTypeList().size(), call.getFirstFieldType());
+            }
+            else if (instructor instanceof WriteInstructor)
+            {
+                output.append(stack.pop());
+                if (((WriteInstructor) instructor).getWriteMode() == WriteOptionCode.CONSOLE_WRITELN)
+                {
+                    output.append('\n');
+                }
+            }
+            else
+            {
+                throw new IllegalStateException(String.format("unknown instructor %s", instructor));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param from null 时按接收者实际的类找;
+     */
+    private void invoke(Deque<Object> stack, String name, int argc, String from)
+    {
+        Object[] args = new Object[argc];
+        for (int i = argc - 1; i >= 0; i--)
+        {
+            args[i] = stack.pop();
+        }
+        Instance receiver = (Instance) stack.pop();
+        if (receiver == null)
+        {
+            throw new NullPointerException(String.format("call %s on null", name));
+        }
+        TargetMethod method = resolve(from == null ? receiver.className : from, name);
+        Map<Integer, Object> locals = new HashMap<>();
+        locals.put(0, receiver);
+        for (int i = 0; i < argc; i++)
+        {
+            locals.put(i + 1, args[i]);
+        }
+        stack.push(execute(method.getStatementList(), locals));
+    }
+
+    private TargetMethod resolve(String className, String name)
+    {
+        for (TargetClass cur = classes.get(className); cur != null; cur = classes.get(cur.getParent()))
+        {
+            for (TargetMethod method : cur.getMethodList())
+            {
+                if (method.getName().equals(name))
+                {
+                    return method;
+                }
+            }
+        }
+        throw new IllegalStateException(String.format("no method %s in %s", name, className));
+    }
+
+    private static String fieldName(String fieldSpec)
+    {
+        return fieldSpec.substring(fieldSpec.indexOf('/') + 1);
+    }
+
+    private static int arith(EnumInstructor op, int left, int right)
+    {
+        switch (op)
+        {
+            case I_ADD:
+                return left + right;
+            case I_SUB:
+                return left - right;
+            case I_MUL:
+                return left * right;
+            case I_DIV:
+                return left / right;
+            case I_REM:
+                return left % right;
+            case I_AND:
+                return left & right;
+            case I_OR:
+                return left | right;
+            case I_XOR:
+                return left ^ right;
+            case I_SHL:
+                return left << right;
+            case I_SHR:
+                return left >> right;
+            case I_USHR:
+                return left >>> right;
+            default:
+                throw new IllegalStateException(String.format("unknown instructor %s", op));
+        }
+    }
+}
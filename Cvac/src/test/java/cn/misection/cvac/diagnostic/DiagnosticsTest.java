@@ -0,0 +1,127 @@
+package cn.misection.cvac.diagnostic;
+
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.lexer.EnumLexerMode;
+import cn.misection.cvac.parser.Parser;
+import cn.misection.cvac.semantic.SemanticVisitor;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName DiagnosticsTest
+ * @Description 报错后各阶段接着走, 一个文件的错一次报全, 同一进程里还能接着编译下一个;
+ * @CreateTime 2026年10月17日 23:05:00
+ */
+public class DiagnosticsTest
+{
+    @Before
+    public void before()
+    {
+        SymbolTable.open();
+    }
+
+    @Test
+    public void testParserReportsEveryError()
+    {
+        String source = "class A\n{\n"
+                + "    int f(int x)\n    {\n"
+                + "        x = ;\n"
+                + "        x = x + 1;\n"
+                + "        x 1;\n"
+                + "        return x;\n    }\n"
+                + "    int g(int x,)\n    {\n        while (x < 3) { x = x + 1; }\n        return x;\n    }\n"
+                + "    int h(int x)\n    {\n        return ;\n    }\n"
+                + "}\n"
+                + "int main(string[] args)\n{\n    println new A().f(1);\n    return 0;\n}\n";
+        Diagnostics diagnostics = new Diagnostics();
+        CvaProgram program = new Parser(MappedBufferedHandler.ofText(source), diagnostics).parse();
+
+        Assert.assertEquals(lines(diagnostics).toString(), 4, diagnostics.errorCount());
+        Assert.assertEquals(4, diagnostics.errorCount(EnumCompilePhase.PARSER));
+        List<Integer> lines = lines(diagnostics);
+        Assert.assertEquals(Integer.valueOf(5), lines.get(0));
+        Assert.assertEquals(Integer.valueOf(7), lines.get(1));
+        Assert.assertEquals(Integer.valueOf(10), lines.get(2));
+        Assert.assertEquals(Integer.valueOf(17), lines.get(3));
+        // 出错的方法丢掉, 其余照常;
+        Assert.assertEquals(1, program.getClassList().size());
+        Assert.assertEquals(1, program.getClassList().get(0).getMethodList().size());
+        Assert.assertNotNull(program.getEntryClass());
+    }
+
+    @Test
+    public void testLexerErrorReportedOnce()
+    {
+        String source = "int main(string[] args)\n{\n    int x;\n    x = 1;\n    x = 2_a;\n    x = 3;\n    return x;\n}\n";
+        for (EnumLexerMode mode : EnumLexerMode.values())
+        {
+            Diagnostics diagnostics = new Diagnostics();
+            new Parser(MappedBufferedHandler.ofText(source), mode, diagnostics).parse();
+            Assert.assertEquals(mode.name(), 1, diagnostics.errorCount());
+            Assert.assertEquals(1, diagnostics.errorCount(EnumCompilePhase.LEXER));
+            Assert.assertEquals(5, diagnostics.getDiagnosticList().get(0).getLineNum());
+        }
+    }
+
+    @Test
+    public void testSemanticDuplicatesKeepChecking()
+    {
+        String source = "class A\n{\n    int f;\n    int f;\n"
+                + "    int m(int x, int x)\n    {\n        x = true;\n        return x;\n    }\n"
+                + "    int m(int y)\n    {\n        return y;\n    }\n}\n"
+                + "class A\n{\n}\n"
+                + "int main(string[] args)\n{\n    println new A().m(1, 2);\n    return 0;\n}\n";
+        Diagnostics diagnostics = new Diagnostics();
+        CvaProgram program = new Parser(MappedBufferedHandler.ofText(source), diagnostics).parse();
+        Assert.assertFalse(diagnostics.hasErrors());
+
+        SemanticVisitor checker = new SemanticVisitor(diagnostics);
+        checker.visit(program);
+        Assert.assertFalse(checker.isOkay());
+        List<String> messages = new ArrayList<>();
+        diagnostics.getDiagnosticList().forEach(d -> messages.add(d.getMessage()));
+        Assert.assertTrue(messages.toString(), messages.contains("Error: duplicated class: A"));
+        Assert.assertTrue(messages.toString(), messages.contains("Error: Line 4 duplicated class field: f"));
+        Assert.assertTrue(messages.toString(), messages.contains("Error: duplicated class method: A.m"));
+        Assert.assertTrue(messages.toString(),
+                messages.stream().anyMatch(m -> m.endsWith("duplicated parameter: x")));
+        // 重名之后的类型错误也报了;
+        Assert.assertTrue(messages.toString(),
+                messages.stream().anyMatch(m -> m.startsWith("Error: Line 7 ")));
+    }
+
+    @Test
+    public void testManyUnitsInOneProcess()
+    {
+        String bad = "int main(string[] args)\n{\n    x = ;\n    return 0;\n}\n";
+        String good = "int main(string[] args)\n{\n    int x;\n    x = 1;\n    println x;\n    return 0;\n}\n";
+        for (int i = 0; i < 3; i++)
+        {
+            Diagnostics badDiagnostics = new Diagnostics();
+            new Parser(MappedBufferedHandler.ofText(bad), badDiagnostics).parse();
+            Assert.assertTrue(badDiagnostics.hasErrors());
+
+            Diagnostics goodDiagnostics = new Diagnostics();
+            CvaProgram program = new Parser(MappedBufferedHandler.ofText(good), goodDiagnostics).parse();
+            SemanticVisitor checker = new SemanticVisitor(goodDiagnostics);
+            checker.visit(program);
+            Assert.assertTrue(checker.isOkay());
+            Assert.assertFalse(goodDiagnostics.hasErrors());
+        }
+    }
+
+    private static List<Integer> lines(Diagnostics diagnostics)
+    {
+        List<Integer> lines = new ArrayList<>();
+        diagnostics.getDiagnosticList().forEach(d -> lines.add(d.getLineNum()));
+        return lines;
+    }
+}
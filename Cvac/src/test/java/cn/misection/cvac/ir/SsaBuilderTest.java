@@ -0,0 +1,113 @@
+package cn.misection.cvac.ir;
+
+import cn.misection.cvac.ast.clas.CvaClass;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.codegen.bst.instructor.IInc;
+import cn.misection.cvac.codegen.bst.instructor.IInstructor;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.parser.Parser;
+import cn.misection.cvac.semantic.SemanticVisitor;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName SsaBuilderTest
+ * @Description 降级再建 SSA 后变量读写都没了, 每个使用都被定义支配, 循环头上有 phi;
+ * @CreateTime 2026年10月18日 02:00:00
+ */
+public class SsaBuilderTest
+{
+    private static final String SOURCE = "class A\n{\n"
+            + "    int g(int n)\n    {\n        int i;\n        int s;\n        i = n;\n        s = 0;\n"
+            + "        while (0 < i)\n        {\n"
+            + "            if (i < 3 && !(s > 10))\n            {\n                s = s + i;\n            }\n"
+            + "            s = s + (i < 5 ? 1 : 2);\n"
+            + "            i--;\n"
+            + "        }\n"
+            + "        return s;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().g(4);\n    return 0;\n}\n";
+
+    private static IrMethod lower(String source)
+    {
+        CvaProgram program = new Parser(MappedBufferedHandler.ofText(source)).parse();
+        SemanticVisitor checker = new SemanticVisitor();
+        checker.visit(program);
+        Assert.assertTrue(checker.isOkay());
+        CvaClass cvaClass = (CvaClass) program.getClassList().get(0);
+        return IrBuilder.build((CvaMethod) cvaClass.getMethodList().get(0), cvaClass.name());
+    }
+
+    @Before
+    public void before()
+    {
+        SymbolTable.open();
+    }
+
+    @Test
+    public void testUsesDominatedByDefs()
+    {
+        IrMethod method = lower(SOURCE);
+        SsaBuilder.build(method);
+        Assert.assertTrue(method.isInSsa());
+        int loopPhis = 0;
+        for (BasicBlock block : method.getBlockList())
+        {
+            List<IrInstruction> instructions = block.getInstructionList();
+            for (int i = 0; i < instructions.size(); i++)
+            {
+                IrInstruction instruction = instructions.get(i);
+                Assert.assertFalse(instruction.getOp() == EnumIrOp.LOAD_VAR);
+                Assert.assertFalse(instruction.getOp() == EnumIrOp.STORE_VAR);
+                for (int k = 0; k < instruction.operandCount(); k++)
+                {
+                    IrInstruction operand = instruction.getOperand(k);
+                    Assert.assertTrue(operand.getUserList().contains(instruction));
+                    if (instruction.getOp() == EnumIrOp.PHI)
+                    {
+                        BasicBlock pred = block.getPredList().get(k);
+                        Assert.assertTrue(method.toString(),
+                                Dominators.dominates(operand.getBlock(), pred));
+                    }
+                    else if (operand.getBlock() == block)
+                    {
+                        Assert.assertTrue(instructions.indexOf(operand) < i);
+                    }
+                    else
+                    {
+                        Assert.assertTrue(method.toString(),
+                                Dominators.dominates(operand.getBlock(), block));
+                    }
+                }
+                // 有回边进来的就是循环头;
+                if (instruction.getOp() == EnumIrOp.PHI && block.getPredList().stream()
+                        .anyMatch(pred -> Dominators.dominates(block, pred)))
+                {
+                    loopPhis++;
+                }
+            }
+        }
+        // 循环头上 i 和 s 各一个;
+        Assert.assertEquals(method.toString(), 2, loopPhis);
+    }
+
+    @Test
+    public void testEmitterReusesSlots()
+    {
+        IrMethod method = lower(SOURCE);
+        SsaBuilder.build(method);
+        IrEmitter emitter = new IrEmitter(method);
+        List<IInstructor> instructions = emitter.emit();
+        // i-- 的结果和循环头的 i 同槽位, 变成 iinc;
+        Assert.assertTrue(instructions.stream().anyMatch(instruction -> instruction instanceof IInc));
+        // this, n, 加上 i 和 s 以及 ?: 的一个临时值;
+        Assert.assertTrue(String.valueOf(emitter.getSlotCount()), emitter.getSlotCount() <= 5);
+    }
+}
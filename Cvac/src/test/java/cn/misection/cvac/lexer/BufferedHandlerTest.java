@@ -1,11 +1,16 @@
 package cn.misection.cvac.lexer;
 
 import cn.misection.cvac.io.BufferedHandler;
+import cn.misection.cvac.io.IBufferedQueue;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.io.StreamingBufferedHandler;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.*;
+import java.nio.charset.Charset;
 
 /**
  * BufferedHandler Tester.
@@ -84,6 +89,121 @@ try {
 */
     }
 
+    /**
+     * 旧的 BufferedHandler 只留作对照, 新的 MappedBufferedHandler 必须逐字符一致;
+     */
+    @Test
+    public void testMappedSameAsBuffered() throws Exception
+    {
+        String[] sources = {
+                "",
+                "int main(string[] args)\n{\n    return 0;\n}\n",
+                "class A\r\n{\r\n    int x;\r\n}",
+                "a >>>= b;\rc <<= d;\n\n// comment",
+        };
+        for (String text : sources)
+        {
+            File file = File.createTempFile("cva", ".c");
+            file.deleteOnExit();
+            try (Writer writer = new OutputStreamWriter(
+                    new FileOutputStream(file), Charset.defaultCharset()))
+            {
+                writer.write(text);
+            }
+            assertSameQueue(
+                    new BufferedHandler(file.getPath()),
+                    new MappedBufferedHandler(file.getPath()));
+            assertSameQueue(
+                    new BufferedHandler(file.getPath()),
+                    MappedBufferedHandler.ofText(text));
+            try (StreamingBufferedHandler streaming = new StreamingBufferedHandler(file.getPath()))
+            {
+                assertSameQueue(new BufferedHandler(file.getPath()), streaming);
+            }
+        }
+    }
+
+    /**
+     * 比缓冲大很多的文件, 跨块的 \r\n 和前瞻都要和整体读入一致;
+     */
+    @Test
+    public void testStreamingAcrossChunks() throws Exception
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++)
+        {
+            text.append("int v").append(i).append(" = a >>>= ").append(i).append(";\r\n");
+        }
+        File file = File.createTempFile("cva", ".c");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(file), Charset.defaultCharset()))
+        {
+            writer.write(text.toString());
+        }
+        try (StreamingBufferedHandler streaming = new StreamingBufferedHandler(file.getPath()))
+        {
+            assertSameQueue(MappedBufferedHandler.ofText(text), streaming);
+        }
+    }
+
+    /**
+     * 前瞻正好到上限时 peek 和 hasNext 都能用, poll 超过上限分段取完;
+     */
+    @Test
+    public void testStreamingLookaheadLimit() throws Exception
+    {
+        int limit = StreamingBufferedHandler.MAX_LOOKAHEAD;
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 3 * limit)
+        {
+            text.append("int v").append(text.length()).append(";\n");
+        }
+        File file = File.createTempFile("cva", ".c");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(file), Charset.defaultCharset()))
+        {
+            writer.write(text.toString());
+        }
+        IBufferedQueue expected = MappedBufferedHandler.ofText(text);
+        try (StreamingBufferedHandler streaming = new StreamingBufferedHandler(file.getPath()))
+        {
+            Assert.assertTrue(streaming.hasNext(limit));
+            Assert.assertEquals(expected.peek(limit), streaming.peek(limit));
+            try
+            {
+                streaming.hasNext(limit + 1);
+                Assert.fail("lookahead past the limit");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // 超过上限照样报错;
+            }
+            Assert.assertEquals(expected.poll(2 * limit + 1), streaming.poll(2 * limit + 1));
+            Assert.assertEquals(expected.hasNext(limit), streaming.hasNext(limit));
+            Assert.assertEquals(expected.poll(4 * limit), streaming.poll(4 * limit));
+            Assert.assertTrue(streaming.isEmpty());
+        }
+    }
+
+    private static void assertSameQueue(IBufferedQueue expected, IBufferedQueue actual)
+    {
+        while (!expected.isEmpty())
+        {
+            Assert.assertFalse(actual.isEmpty());
+            Assert.assertEquals(expected.hasNext(), actual.hasNext());
+            for (int i = 1; i <= 4; i++)
+            {
+                Assert.assertEquals(expected.hasNext(i), actual.hasNext(i));
+                Assert.assertEquals(expected.peek(i), actual.peek(i));
+            }
+            Assert.assertEquals(expected.peek(), actual.peek());
+            Assert.assertEquals(expected.poll(), actual.poll());
+        }
+        Assert.assertTrue(actual.isEmpty());
+    }
+
     private static final int MAGIC_NUMBER = 20;
 
     public static void main(String[] args) throws IOException
@@ -1,13 +1,24 @@
 package cn.misection.cvac.lexer;
 
 import cn.misection.cvac.config.DebugMacro;
-import cn.misection.cvac.io.BufferedHandler;
 import cn.misection.cvac.io.IBufferedQueue;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.parser.BufferTokenCursor;
+import cn.misection.cvac.parser.ITokenCursor;
+import cn.misection.cvac.parser.StreamTokenCursor;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Lexer Tester.
@@ -115,6 +126,148 @@ try {
 */
     }
 
+    /**
+     * 表驱动 lexer 与旧 lexer 的 token 流必须一致;
+     */
+    @Test
+    public void testTableSameAsLegacy() throws Exception
+    {
+        String[] sources = {
+                "a+++b-->c;x+=1;y-=2;z*=3;w/=4;v%=5;",
+                "a&&b||c&d|e^f~g;a&=b;c|=d;e^=f;g~=h;a==b=c;!a;",
+                "a<b<=c<<d<<=e>f>=g>>h>>=i>>>j>>>=k;",
+                "int main(string[] args)\n{\n    // comment\n    /* block\n * comment */ return 0;\n}\n",
+                "echo \"hello, \\\"world\\\"!\\n\"; c = 'x'; d = '\\n';",
+                "class A extends B { int x; boolean f(int a1, int b_2$) { return this.x < 10; } }",
+                "while (i1 < 100) { i1++; j--; } pkg a.b; call a.b.*;",
+        };
+        for (String text : sources)
+        {
+            Assert.assertEquals(text,
+                    tokenize(EnumLexerMode.LEGACY, MappedBufferedHandler.ofText(text)),
+                    tokenize(EnumLexerMode.TABLE, MappedBufferedHandler.ofText(text)));
+        }
+        for (Path path : corpus())
+        {
+            Assert.assertEquals(path.toString(),
+                    tokenize(EnumLexerMode.LEGACY, new MappedBufferedHandler(path.toString())),
+                    tokenize(EnumLexerMode.TABLE, new MappedBufferedHandler(path.toString())));
+        }
+    }
+
+    /**
+     * TokenBuffer 中还原的 token 与逐个取的一致, 两种 lexer 填的 buffer 也一致;
+     */
+    @Test
+    public void testTokenBuffer() throws Exception
+    {
+        for (Path path : corpus())
+        {
+            List<String> expected = tokenize(EnumLexerMode.LEGACY, new MappedBufferedHandler(path.toString()));
+            for (EnumLexerMode mode : EnumLexerMode.values())
+            {
+                TokenBuffer buffer = TokenBuffer.tokenize(
+                        mode.create(new MappedBufferedHandler(path.toString())));
+                List<String> actual = new ArrayList<>();
+                for (int i = 0; i < buffer.size(); i++)
+                {
+                    actual.add(buffer.token(i).toString());
+                }
+                Assert.assertEquals(path.toString(), expected, actual);
+            }
+        }
+    }
+
+    /**
+     * trie 与 EnumCvaToken 的 lookup 结果一致;
+     */
+    @Test
+    public void testKeywordTrie() throws Exception
+    {
+        for (EnumCvaToken kind : EnumCvaToken.values())
+        {
+            String literal = kind.getKindLiteral();
+            if (literal != null && Character.isAlphabetic(literal.charAt(0)))
+            {
+                Assert.assertEquals(literal, EnumCvaToken.selectReverse(literal),
+                        KeywordTrie.lookup(literal));
+            }
+        }
+        for (String word : new String[] {"", "i", "in", "ints", "Int", "mainly", "whilex", "_if"})
+        {
+            Assert.assertNull(word, KeywordTrie.lookup(word));
+        }
+    }
+
+    /**
+     * 两种游标的 peekKind 在每个位置都一致, 且不影响 advance;
+     */
+    @Test
+    public void testCursorLookahead() throws Exception
+    {
+        for (Path path : corpus())
+        {
+            ITokenCursor stream = new StreamTokenCursor(
+                    EnumLexerMode.TABLE.create(new MappedBufferedHandler(path.toString())));
+            ITokenCursor buffered = new BufferTokenCursor(TokenBuffer.tokenize(
+                    EnumLexerMode.TABLE.create(new MappedBufferedHandler(path.toString()))));
+            while (true)
+            {
+                for (int k = ITokenCursor.MAX_LOOKAHEAD; k >= 0; k--)
+                {
+                    Assert.assertEquals(path.toString(), buffered.peekKind(k), stream.peekKind(k));
+                }
+                Assert.assertEquals(path.toString(), buffered.token().toString(), stream.token().toString());
+                if (stream.kind() == EnumCvaToken.EOF)
+                {
+                    break;
+                }
+                stream.advance();
+                buffered.advance();
+            }
+            // 停在 EOF;
+            stream.advance();
+            Assert.assertEquals(EnumCvaToken.EOF, stream.kind());
+        }
+    }
+
+    private static List<String> tokenize(EnumLexerMode mode, IBufferedQueue stream)
+    {
+        ILexer lexer = mode.create(stream);
+        List<String> tokens = new ArrayList<>();
+        CvaToken current;
+        do
+        {
+            current = lexer.nextToken();
+            tokens.add(current.toString());
+        } while (current.toEnum() != EnumCvaToken.EOF);
+        return tokens;
+    }
+
+    /**
+     * res/cvasrc 与 sample 下的 Cva 源码, 从工程根或模块目录运行都能找到;
+     * res/tmp 里有故意写错的源码, 旧 lexer 遇错直接退出, 不放进来;
+     */
+    private static List<Path> corpus() throws IOException
+    {
+        List<Path> files = new ArrayList<>();
+        for (String root : new String[] {"res/cvasrc", "sample", "../res/cvasrc", "../sample"})
+        {
+            Path dir = Paths.get(root);
+            if (!Files.isDirectory(dir))
+            {
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(dir))
+            {
+                files.addAll(walk.filter(p -> p.toString().endsWith(".c")
+                        || p.toString().endsWith(".cva"))
+                        .collect(Collectors.toList()));
+            }
+        }
+        return files;
+    }
+
     public static void main(String[] args)
     {
         final String fname;
@@ -130,7 +283,7 @@ try {
         IBufferedQueue fstream = null;
         try
         {
-            fstream = new BufferedHandler(fname);
+            fstream = new MappedBufferedHandler(fname);
         }
         catch (IOException e)
         {
@@ -138,7 +291,11 @@ try {
             System.exit(1);
         }
 
-        Lexer lexer = new Lexer(fstream);
+        // 第二个参数可选 LEGACY / TABLE;
+        EnumLexerMode mode = args.length > 1
+                ? EnumLexerMode.valueOf(args[1])
+                : EnumLexerMode.TABLE;
+        ILexer lexer = mode.create(fstream);
         CvaToken current;
 
         do
@@ -0,0 +1,79 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ProgramFixture;
+import cn.misection.cvac.ast.expr.EnumCvaExpr;
+import cn.misection.cvac.ast.expr.binary.AbstractBinaryExpr;
+import cn.misection.cvac.ast.expr.unary.CvaIdentifierExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.CvaAssignStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName GlobalValueNumberingTest
+ * @Description 重复的计算换成临时变量, 值还在变量里就直接读变量, 调用和写字段之后的字段读不复用;
+ * @CreateTime 2026年10月18日 03:40:00
+ */
+public class GlobalValueNumberingTest
+{
+    private static final String SOURCE = "class A\n{\n    int w;\n"
+            + "    int f(int a, int b)\n    {\n        int x;\n        int y;\n"
+            + "        x = a * b + b * a;\n"
+            + "        y = a * b;\n"
+            + "        return x + y;\n    }\n"
+            + "    int g(int a)\n    {\n        int x;\n        int y;\n        int z;\n"
+            + "        x = w;\n"
+            + "        y = this.f(a, a);\n"
+            + "        z = w;\n"
+            + "        x = w * 2;\n"
+            + "        w = 1;\n"
+            + "        y = w * 2;\n"
+            + "        return x + y + z;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().g(3);\n    println new A().f(0 - 4, 5);\n    return 0;\n}\n";
+
+    private static CvaAssignStatement assign(CvaMethod method, int index)
+    {
+        return (CvaAssignStatement) method.getStatementList().get(index);
+    }
+
+    @Test
+    public void testReuseAndKills()
+    {
+        CvaProgram program = ProgramFixture.check(SOURCE);
+
+        GlobalValueNumbering pass = new GlobalValueNumbering();
+        CvaMethod f = ProgramFixture.method(program, 0, 0);
+        pass.optimize(f);
+        Assert.assertTrue(pass.isOptimizing());
+        // $cse0 = a * b; x = $cse0 + $cse0; y = $cse0;
+        Assert.assertEquals(3, f.getStatementList().size());
+        Assert.assertEquals(3, f.getLocalVarList().size());
+        Assert.assertEquals("$cse0", assign(f, 0).getLiteral());
+        AbstractBinaryExpr sum = (AbstractBinaryExpr) assign(f, 1).getExpr();
+        Assert.assertEquals("$cse0", ((CvaIdentifierExpr) sum.getLeft()).getLiteral());
+        Assert.assertEquals("$cse0", ((CvaIdentifierExpr) sum.getRight()).getLiteral());
+        Assert.assertEquals("$cse0", ((CvaIdentifierExpr) assign(f, 2).getExpr()).getLiteral());
+
+        CvaMethod g = ProgramFixture.method(program, 0, 1);
+        pass.optimize(g);
+        // 调用之后重新读字段;
+        CvaIdentifierExpr z = (CvaIdentifierExpr) assign(g, 2).getExpr();
+        Assert.assertTrue(z.isField());
+        // 写了字段之后重新算;
+        AbstractBinaryExpr product = (AbstractBinaryExpr) assign(g, 5).getExpr();
+        Assert.assertEquals(EnumCvaExpr.MUL, product.toEnum());
+        Assert.assertTrue(((CvaIdentifierExpr) product.getLeft()).isField());
+    }
+
+    @Test
+    public void testResultUnchanged()
+    {
+        String out = ProgramFixture.assertSameResult(
+                ProgramFixture.check(SOURCE), new GlobalValueNumbering());
+        Assert.assertEquals("2\n-60\n", out);
+    }
+}
@@ -0,0 +1,81 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ProgramFixture;
+import cn.misection.cvac.ast.expr.EnumCvaExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.CvaAssignStatement;
+import cn.misection.cvac.ast.statement.CvaBlockStatement;
+import cn.misection.cvac.ast.statement.CvaWhileStatement;
+import cn.misection.cvac.ast.statement.EnumCvaStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName LoopInvariantCodeMotionTest
+ * @Description 不变量提到最外面它不变的那层循环前, 纯调用能提, 有副作用的调用和可能除零的不提;
+ * @CreateTime 2026年10月18日 04:35:00
+ */
+public class LoopInvariantCodeMotionTest
+{
+    private static final String SOURCE = "class A\n{\n    int k;\n"
+            + "    int get(int x)\n    {\n        return x + k;\n    }\n"
+            + "    int show(int x)\n    {\n        println x;\n        return x;\n    }\n"
+            + "    int f(int n, int m, int d)\n    {\n        int i;\n        int j;\n        int s;\n"
+            + "        s = 0;\n        i = 0;\n"
+            + "        while (i < n)\n        {\n"
+            + "            j = 0;\n"
+            + "            while (j < m)\n            {\n"
+            + "                s = s + n * m + i * m + this.get(m) + n / d;\n"
+            + "                j++;\n"
+            + "            }\n"
+            + "            i++;\n"
+            + "        }\n"
+            + "        while (0 < n)\n        {\n"
+            + "            s = s + this.show(m) + k;\n"
+            + "            n--;\n"
+            + "        }\n"
+            + "        return s;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().f(2, 3, 1);\n    println new A().f(3, 2, 0 - 2);\n    return 0;\n}\n";
+
+    @Test
+    public void testHoistThroughNest()
+    {
+        CvaProgram program = ProgramFixture.check(SOURCE);
+
+        LoopInvariantCodeMotion pass = new LoopInvariantCodeMotion();
+        pass.enterProgram(program);
+        CvaMethod f = ProgramFixture.method(program, 0, 2);
+        pass.optimize(f);
+        Assert.assertTrue(pass.isOptimizing());
+
+        // s = 0; i = 0; $licm0 = n * m; $licm1 = this.get(m); while; while;
+        List<AbstractStatement> top = f.getStatementList();
+        Assert.assertEquals(6, top.size());
+        Assert.assertEquals(EnumCvaExpr.MUL, ((CvaAssignStatement) top.get(2)).getExpr().toEnum());
+        Assert.assertEquals(EnumCvaExpr.CALL, ((CvaAssignStatement) top.get(3)).getExpr().toEnum());
+
+        // i * m 只在内层不变, n / d 可能除零不提;
+        List<AbstractStatement> outerBody =
+                ((CvaBlockStatement) ((CvaWhileStatement) top.get(4)).getBody()).getStatementList();
+        Assert.assertEquals(4, outerBody.size());
+        Assert.assertEquals(EnumCvaExpr.MUL, ((CvaAssignStatement) outerBody.get(1)).getExpr().toEnum());
+        Assert.assertEquals(EnumCvaStatement.WHILE, outerBody.get(2).toEnum());
+
+        // 第二个循环里有打印的调用, 字段 k 也不能提;
+        Assert.assertEquals(EnumCvaStatement.WHILE, top.get(5).toEnum());
+        Assert.assertEquals(6, f.getLocalVarList().size());
+    }
+
+    @Test
+    public void testResultUnchanged()
+    {
+        ProgramFixture.assertSameResult(ProgramFixture.check(SOURCE), new LoopInvariantCodeMotion());
+    }
+}
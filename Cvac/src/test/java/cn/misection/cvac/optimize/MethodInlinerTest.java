@@ -0,0 +1,75 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ProgramFixture;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.EnumCvaExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.CvaAssignStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName MethodInlinerTest
+ * @Description 单目标的小方法拷进调用者, 有覆盖的, 递归的和前面先读了字段的调用不展开;
+ * @CreateTime 2026年10月18日 05:55:00
+ */
+public class MethodInlinerTest
+{
+    private static final String SOURCE = "class A\n{\n    int k;\n"
+            + "    int get(int x)\n    {\n        int y;\n        y = x + k;\n        return y;\n    }\n"
+            + "    int shape(int x)\n    {\n        return x;\n    }\n"
+            + "    int fact(int n)\n    {\n        return n < 2 ? 1 : n * this.fact(n - 1);\n    }\n"
+            + "    int f(int n)\n    {\n        int s;\n"
+            + "        s = this.get(n) + this.shape(n) + this.fact(n);\n"
+            + "        s = k + this.get(s);\n"
+            + "        return s;\n    }\n"
+            + "}\n"
+            + "class B extends A\n{\n"
+            + "    int shape(int x)\n    {\n        return x * 2;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().f(3);\n    return 0;\n}\n";
+
+    @Test
+    public void testInlineMonomorphicCall()
+    {
+        CvaProgram program = ProgramFixture.check(SOURCE);
+
+        MethodInliner pass = new MethodInliner();
+        pass.enterProgram(program);
+        CvaMethod f = ProgramFixture.method(program, 0, 3);
+        pass.optimize(f);
+        Assert.assertTrue(pass.isOptimizing());
+
+        // $inl0 = n; $inl1 = $inl0 + k; $inl2 = $inl1; s = $inl2 + this.shape(n) + this.fact(n); s = k + this.get(s);
+        List<AbstractStatement> stmList = f.getStatementList();
+        Assert.assertEquals(5, stmList.size());
+        Assert.assertEquals("$inl0", ((CvaAssignStatement) stmList.get(0)).getLiteral());
+        Assert.assertEquals(EnumCvaExpr.ADD, ((CvaAssignStatement) stmList.get(1)).getExpr().toEnum());
+        Assert.assertEquals("$inl1", ((CvaAssignStatement) stmList.get(1)).getLiteral());
+        // B 覆盖了 shape, fact 递归;
+        Assert.assertEquals(2, countCalls(((CvaAssignStatement) stmList.get(3)).getExpr()));
+        // 前面先读了字段 k, 不展开;
+        Assert.assertEquals(1, countCalls(((CvaAssignStatement) stmList.get(4)).getExpr()));
+        Assert.assertEquals(4, f.getLocalVarList().size());
+    }
+
+    @Test
+    public void testResultUnchanged()
+    {
+        String out = ProgramFixture.assertSameResult(ProgramFixture.check(SOURCE), new MethodInliner());
+        Assert.assertEquals("12\n", out);
+    }
+
+    private static int countCalls(AbstractExpression expr)
+    {
+        int[] n = {expr.toEnum() == EnumCvaExpr.CALL ? 1 : 0};
+        ExprSlots.forEachChild(expr, child -> n[0] += countCalls(child));
+        return n[0];
+    }
+}
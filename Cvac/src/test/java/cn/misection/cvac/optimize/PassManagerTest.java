@@ -0,0 +1,131 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ProgramFixture;
+import cn.misection.cvac.ast.expr.unary.CvaConstIntExpr;
+import cn.misection.cvac.ast.flat.FlatAst;
+import cn.misection.cvac.ast.flat.FlatAstCodec;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName PassManagerTest
+ * @Description 优化按方法收敛, 没改动的优化不重跑, 上限到了就停;
+ * @CreateTime 2026年10月17日 23:55:00
+ */
+public class PassManagerTest
+{
+    private static final String SOURCE = "class A\n{\n"
+            + "    int f(int unused)\n    {\n        int x;\n        int y;\n"
+            + "        x = 2 + 3;\n        y = x * 4;\n        return y;\n    }\n"
+            + "    int g(int n)\n    {\n        int i;\n        i = n;\n"
+            + "        while (0 < i)\n        {\n            println i;\n            i--;\n        }\n"
+            + "        return i;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().f(1);\n    println new A().g(3);\n    return 0;\n}\n";
+
+    private static final String BRANCHY = "class B\n{\n"
+            + "    int h(int n)\n    {\n        int a;\n        int b;\n        int c;\n"
+            + "        a = 3;\n        b = a * 2 - 6;\n"
+            + "        while (b < n)\n        {\n"
+            + "            if (1 < 2 && b < 0)\n            {\n                c = 1;\n            }\n"
+            + "            else\n            {\n                if (false) { c = 2; }\n                b = b + (true ? 1 : c);\n            }\n"
+            + "            while (false) { println b; }\n"
+            + "        }\n"
+            + "        return b + ~(1 << 3);\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new B().h(4);\n    return 0;\n}\n";
+
+    private static CvaProgram parse()
+    {
+        return parse(SOURCE);
+    }
+
+    private static CvaProgram parse(String source)
+    {
+        return ProgramFixture.check(source);
+    }
+
+    @Test
+    public void testConvergesWithUnusedArgument()
+    {
+        CvaProgram program = parse();
+        Optimizer optimizer = new Optimizer();
+        optimizer.optimize(program);
+        PassStatistics statistics = optimizer.getStatistics();
+
+        Assert.assertEquals(2, statistics.getMethodCount());
+        Assert.assertEquals(statistics.toString(), 0, statistics.getCappedCount());
+        CvaMethod f = (CvaMethod) program.getClassList().get(0).getMethodList().get(0);
+        Assert.assertTrue(f.getRetExpr() instanceof CvaConstIntExpr);
+        Assert.assertEquals(20, ((CvaConstIntExpr) f.getRetExpr()).getValue());
+        Assert.assertTrue(f.getStatementList().isEmpty());
+        Assert.assertTrue(f.getLocalVarList().isEmpty());
+        // 循环里的 i-- 不能被传播成常量;
+        CvaMethod g = (CvaMethod) program.getClassList().get(0).getMethodList().get(1);
+        Assert.assertEquals(2, g.getStatementList().size());
+        Assert.assertFalse(g.getRetExpr() instanceof CvaConstIntExpr);
+    }
+
+    @Test
+    public void testCapsStopEarly()
+    {
+        Optimizer optimizer = new Optimizer(1, PassManager.UNLIMITED);
+        optimizer.optimize(parse());
+        PassStatistics statistics = optimizer.getStatistics();
+        Assert.assertEquals(1, statistics.getCappedCount());
+        Assert.assertEquals(2, statistics.getRoundCount());
+
+        optimizer = new Optimizer(PassManager.DEFAULT_MAX_ROUNDS_PER_METHOD, 3);
+        optimizer.optimize(parse());
+        Assert.assertEquals(3, optimizer.getStatistics().totalRuns());
+    }
+
+    @Test
+    public void testFusedWalkGivesSameTree() throws IOException
+    {
+        for (String source : new String[] {SOURCE, BRANCHY})
+        {
+            CvaProgram fusedProgram = parse(source);
+            Optimizer fused = new Optimizer(PassManager.DEFAULT_MAX_ROUNDS_PER_METHOD,
+                    PassManager.UNLIMITED, true);
+            fused.optimize(fusedProgram);
+
+            CvaProgram splitProgram = parse(source);
+            Optimizer split = new Optimizer(PassManager.DEFAULT_MAX_ROUNDS_PER_METHOD,
+                    PassManager.UNLIMITED, false);
+            split.optimize(splitProgram);
+
+            Assert.assertArrayEquals(encode(splitProgram), encode(fusedProgram));
+            Assert.assertTrue(fused.getStatistics().getFusedWalkCount() > 0);
+            Assert.assertEquals(0, split.getStatistics().getFusedWalkCount());
+            Assert.assertTrue(fused.getStatistics().totalRuns() <= split.getStatistics().totalRuns());
+        }
+    }
+
+    @Test
+    public void testResultsUnchanged()
+    {
+        for (String source : new String[] {SOURCE, BRANCHY})
+        {
+            CvaProgram program = parse(source);
+            String expected = ProgramFixture.run(program);
+            new Optimizer().optimize(program);
+            Assert.assertEquals(expected, ProgramFixture.run(program));
+        }
+    }
+
+    private static byte[] encode(CvaProgram program) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FlatAstCodec.write(FlatAst.of(program), new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,72 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ProgramFixture;
+import cn.misection.cvac.ast.expr.unary.CvaConstIntExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.EnumCvaStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName SparseConstantPropagationTest
+ * @Description 循环里一直不变的值也能传出来, 走不到的分支和进不去的循环删掉, 带调用的条件留着;
+ * @CreateTime 2026年10月18日 03:00:00
+ */
+public class SparseConstantPropagationTest
+{
+    private static final String SOURCE = "class A\n{\n"
+            + "    int f(int n)\n    {\n        int x;\n        int i;\n        int y;\n"
+            + "        x = 1;\n        i = 0;\n        y = 0;\n"
+            + "        while (i < n)\n        {\n"
+            + "            if (x < 1)\n            {\n                x = 2;\n            }\n"
+            + "            else\n            {\n                y = y + x;\n            }\n"
+            + "            i++;\n"
+            + "        }\n"
+            + "        while (x > 5 && i < n)\n        {\n            i++;\n        }\n"
+            + "        println y;\n"
+            + "        return x;\n    }\n"
+            + "    int g(int n)\n    {\n        int x;\n        x = 0;\n"
+            + "        if (this.f(n) < 0 && false)\n        {\n            x = 1;\n        }\n"
+            + "        return x;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().f(3);\n    println new A().g(2);\n    return 0;\n}\n";
+
+    private static long count(CvaMethod method, EnumCvaStatement kind)
+    {
+        return method.getStatementList().stream().map(AbstractStatement::toEnum).filter(kind::equals).count();
+    }
+
+    @Test
+    public void testConstantThroughLoop()
+    {
+        CvaProgram program = ProgramFixture.check(SOURCE);
+
+        SparseConstantPropagation pass = new SparseConstantPropagation();
+        CvaMethod f = ProgramFixture.method(program, 0, 0);
+        pass.optimize(f);
+        Assert.assertTrue(pass.isOptimizing());
+        // x 在循环里只可能走 else, 出来还是 1;
+        Assert.assertTrue(f.getRetExpr() instanceof CvaConstIntExpr);
+        Assert.assertEquals(1, ((CvaConstIntExpr) f.getRetExpr()).getValue());
+        // 第二个循环一次也进不去;
+        Assert.assertEquals(1, count(f, EnumCvaStatement.WHILE));
+
+        CvaMethod g = ProgramFixture.method(program, 0, 1);
+        pass.optimize(g);
+        // 条件里有调用, if 不能删, 但 x 还是常量;
+        Assert.assertEquals(1, count(g, EnumCvaStatement.IF));
+        Assert.assertTrue(g.getRetExpr() instanceof CvaConstIntExpr);
+    }
+
+    @Test
+    public void testResultUnchanged()
+    {
+        String out = ProgramFixture.assertSameResult(
+                ProgramFixture.check(SOURCE), new SparseConstantPropagation());
+        Assert.assertEquals("3\n1\n2\n0\n", out);
+    }
+}
@@ -0,0 +1,122 @@
+package cn.misection.cvac.optimize;
+
+import cn.misection.cvac.ProgramFixture;
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.EnumCvaExpr;
+import cn.misection.cvac.ast.method.CvaMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.CvaAssignStatement;
+import cn.misection.cvac.ast.statement.CvaBlockStatement;
+import cn.misection.cvac.ast.statement.CvaWhileStatement;
+import cn.misection.cvac.ast.statement.EnumCvaStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName StrengthReductionTest
+ * @Description 归纳变量的乘法换成每轮加一次, 2 的幂的乘除余换成移位和按位与;
+ * @CreateTime 2026年10月18日 05:20:00
+ */
+public class StrengthReductionTest
+{
+    private static final String SOURCE = "class A\n{\n"
+            + "    int f(int n, int k)\n    {\n        int i;\n        int s;\n"
+            + "        s = 0;\n        i = 0;\n"
+            + "        while (i < n)\n        {\n"
+            + "            s = s + i * 3 + k * i;\n"
+            + "            i++;\n"
+            + "        }\n"
+            + "        return s;\n    }\n"
+            + "    int g(int a)\n    {\n"
+            + "        return a * 8 + a / 4 + a % 4 + (a & 255) / 2;\n    }\n"
+            + "    int d(int a)\n    {\n"
+            + "        println a / 4;\n        println a % 4;\n        println a / 2;\n        println a % 2;\n"
+            + "        return a * 8;\n    }\n"
+            + "}\n"
+            + "int main(string[] args)\n{\n    println new A().f(3, 2);\n"
+            + "    println new A().g(0 - 7);\n"
+            + "    println new A().d(0 - 7);\n"
+            + "    println new A().d(0 - 1);\n"
+            + "    println new A().d(0 - 8);\n"
+            + "    println new A().d(0 - 2147483647 - 1);\n"
+            + "    println new A().d(7);\n"
+            + "    return 0;\n}\n";
+
+    private static CvaProgram parse()
+    {
+        return ProgramFixture.check(SOURCE);
+    }
+
+    @Test
+    public void testInductionVariable()
+    {
+        CvaProgram program = parse();
+        CvaMethod f = ProgramFixture.method(program, 0, 0);
+        StrengthReduction pass = new StrengthReduction();
+        pass.optimize(f);
+        Assert.assertTrue(pass.isOptimizing());
+
+        // s = 0; i = 0; $iv0 = i * 3; $iv1 = i * k; while;
+        List<AbstractStatement> top = f.getStatementList();
+        Assert.assertEquals(5, top.size());
+        Assert.assertEquals(EnumCvaExpr.MUL, ((CvaAssignStatement) top.get(2)).getExpr().toEnum());
+        Assert.assertEquals(EnumCvaExpr.MUL, ((CvaAssignStatement) top.get(3)).getExpr().toEnum());
+        Assert.assertEquals(EnumCvaStatement.WHILE, top.get(4).toEnum());
+
+        // s = s + $iv0 + $iv1; i++; $iv0 = $iv0 + 3; $iv1 = $iv1 + k;
+        List<AbstractStatement> body =
+                ((CvaBlockStatement) ((CvaWhileStatement) top.get(4)).getBody()).getStatementList();
+        Assert.assertEquals(4, body.size());
+        Assert.assertEquals(EnumCvaStatement.INCREMENT, body.get(1).toEnum());
+        Assert.assertEquals(EnumCvaExpr.ADD, ((CvaAssignStatement) body.get(2)).getExpr().toEnum());
+        Assert.assertEquals(EnumCvaExpr.ADD, ((CvaAssignStatement) body.get(3)).getExpr().toEnum());
+        Assert.assertFalse(hasMulDivRem(((CvaAssignStatement) body.get(0)).getExpr()));
+        Assert.assertEquals(4, f.getLocalVarList().size());
+    }
+
+    @Test
+    public void testPowerOfTwo()
+    {
+        CvaProgram program = parse();
+        CvaMethod g = ProgramFixture.method(program, 0, 1);
+        StrengthReduction pass = new StrengthReduction();
+        pass.optimize(g);
+        Assert.assertTrue(pass.isOptimizing());
+        Assert.assertFalse(hasMulDivRem(g.getRetExpr()));
+        // 有符号的除和余要带偏置, 按位与过的非负数直接移位;
+        Assert.assertEquals(2, count(g.getRetExpr(), EnumCvaExpr.UNSIGNED_RIGHT_SHIFT));
+        Assert.assertEquals(4, count(g.getRetExpr(), EnumCvaExpr.RIGHT_SHIFT));
+        Assert.assertEquals(1, count(g.getRetExpr(), EnumCvaExpr.LEFT_SHIFT));
+    }
+
+    @Test
+    public void testNegativeDividends()
+    {
+        // 负数的除和余向零取整, 只移位的话 -7 / 4 会变成 -2;
+        String out = ProgramFixture.assertSameResult(parse(), new StrengthReduction());
+        Assert.assertEquals("15\n64\n"
+                + "-1\n-3\n-3\n-1\n-56\n"
+                + "0\n-1\n0\n-1\n-8\n"
+                + "-2\n0\n-4\n0\n-64\n"
+                + "-536870912\n0\n-1073741824\n0\n0\n"
+                + "1\n3\n3\n1\n56\n", out);
+    }
+
+    private static boolean hasMulDivRem(AbstractExpression expr)
+    {
+        return count(expr, EnumCvaExpr.MUL) + count(expr, EnumCvaExpr.DIV)
+                + count(expr, EnumCvaExpr.REMAINDER) > 0;
+    }
+
+    private static int count(AbstractExpression expr, EnumCvaExpr op)
+    {
+        int[] n = {expr.toEnum() == op ? 1 : 0};
+        ExprSlots.forEachChild(expr, child -> n[0] += count(child, op));
+        return n[0];
+    }
+}
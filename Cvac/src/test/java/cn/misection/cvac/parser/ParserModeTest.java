@@ -0,0 +1,218 @@
+package cn.misection.cvac.parser;
+
+import cn.misection.cvac.ast.expr.AbstractExpression;
+import cn.misection.cvac.ast.expr.binary.CvaAddExpr;
+import cn.misection.cvac.ast.method.CvaMainMethod;
+import cn.misection.cvac.ast.program.CvaProgram;
+import cn.misection.cvac.ast.statement.AbstractStatement;
+import cn.misection.cvac.ast.statement.CvaAssignStatement;
+import cn.misection.cvac.ast.statement.CvaBlockStatement;
+import cn.misection.cvac.ast.statement.CvaIfStatement;
+import cn.misection.cvac.ast.statement.CvaWhileStatement;
+import cn.misection.cvac.ast.statement.CvaWriteStatement;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.lexer.EnumLexerMode;
+import cn.misection.cvac.lexer.TokenBuffer;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName ParserModeTest
+ * @Description 递归和显式栈两种解析方式产出相同的语法树;
+ * @CreateTime 2026年10月17日 16:40:00
+ */
+public class ParserModeTest
+{
+    private static final String OPERATORS =
+            "int main(string[] args)\n"
+            + "{\n"
+            + "    println a / b % c & d | e ^ f << 1 >> 2 >>> 3;\n"
+            + "    println !!a < b && !(c > d) || ~e < f ? g.h(1, (2), i - 3) : j ? k : l * m;\n"
+            + "    if (a) if (b) x = 1; else { y = 2; z++; } else while (c < d) { w--; }\n"
+            + "    return 0;\n"
+            + "}\n";
+
+    @Before
+    public void before()
+    {
+        SymbolTable.open();
+    }
+
+    @Test
+    public void testSameTree() throws Exception
+    {
+        List<String> sources = new ArrayList<>();
+        sources.add(OPERATORS);
+        for (Path path : corpus())
+        {
+            sources.add(new String(Files.readAllBytes(path)));
+        }
+        for (String source : sources)
+        {
+            Assert.assertTrue(source, sameTree(
+                    parse(source, EnumParseMode.RECURSIVE),
+                    parse(source, EnumParseMode.EXPLICIT_STACK)));
+        }
+    }
+
+    @Test
+    public void testDeepNesting() throws Exception
+    {
+        final int depth = 200_000;
+        StringBuilder source = new StringBuilder("int main(string[] args)\n{\n    println a");
+        for (int i = 0; i < depth; i++)
+        {
+            source.append(" + a");
+        }
+        source.append(";\n    println ");
+        for (int i = 0; i < depth; i++)
+        {
+            source.append('(');
+        }
+        source.append('1');
+        for (int i = 0; i < depth; i++)
+        {
+            source.append(')');
+        }
+        source.append(";\n");
+        for (int i = 0; i < depth; i++)
+        {
+            source.append(i % 2 == 0 ? "    if (a < b) {\n" : "    while (a < b) {\n");
+        }
+        source.append("    x = 1;\n");
+        for (int i = 0; i < depth; i++)
+        {
+            source.append("}\n");
+        }
+        source.append("    return 0;\n}\n");
+
+        CvaMainMethod main = (CvaMainMethod) parse(source.toString(), EnumParseMode.EXPLICIT_STACK)
+                .getEntryClass().getMainMethod();
+        List<AbstractStatement> statementList = main.getStatementList();
+        Assert.assertEquals(3, statementList.size());
+
+        AbstractExpression expr = ((CvaWriteStatement) statementList.get(0)).getExpr();
+        int adds = 0;
+        while (expr instanceof CvaAddExpr)
+        {
+            expr = ((CvaAddExpr) expr).getLeft();
+            adds++;
+        }
+        Assert.assertEquals(depth, adds);
+
+        AbstractStatement statement = statementList.get(2);
+        int nested = 0;
+        while (!(statement instanceof CvaAssignStatement))
+        {
+            if (statement instanceof CvaIfStatement)
+            {
+                statement = ((CvaIfStatement) statement).getThenStatement();
+                nested++;
+            }
+            else if (statement instanceof CvaWhileStatement)
+            {
+                statement = ((CvaWhileStatement) statement).getBody();
+                nested++;
+            }
+            else
+            {
+                statement = ((CvaBlockStatement) statement).getStatementList().get(0);
+            }
+        }
+        Assert.assertEquals(depth, nested);
+    }
+
+    private static CvaProgram parse(String source, EnumParseMode mode)
+    {
+        return new Parser(new BufferTokenCursor(TokenBuffer.tokenize(
+                EnumLexerMode.TABLE.create(MappedBufferedHandler.ofText(source)))), mode).parse();
+    }
+
+    private static List<Path> corpus() throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(Paths.get("res/cvasrc")))
+        {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 逐字段比较两棵树, 用工作表而不是递归;
+     */
+    private static boolean sameTree(Object first, Object second) throws IllegalAccessException
+    {
+        Deque<Object[]> work = new ArrayDeque<>();
+        work.push(new Object[] {first, second});
+        while (!work.isEmpty())
+        {
+            Object[] pair = work.pop();
+            Object a = pair[0];
+            Object b = pair[1];
+            if (a == null || b == null)
+            {
+                if (a != b)
+                {
+                    return false;
+                }
+                continue;
+            }
+            if (a.getClass() != b.getClass())
+            {
+                return false;
+            }
+            if (a instanceof String || a instanceof Number || a instanceof Boolean
+                    || a instanceof Character || a instanceof Enum)
+            {
+                if (!a.equals(b))
+                {
+                    return false;
+                }
+                continue;
+            }
+            if (a instanceof List)
+            {
+                List<?> la = (List<?>) a;
+                List<?> lb = (List<?>) b;
+                if (la.size() != lb.size())
+                {
+                    return false;
+                }
+                for (int i = 0; i < la.size(); i++)
+                {
+                    work.push(new Object[] {la.get(i), lb.get(i)});
+                }
+                continue;
+            }
+            for (Class<?> clazz = a.getClass(); clazz != Object.class; clazz = clazz.getSuperclass())
+            {
+                for (Field field : clazz.getDeclaredFields())
+                {
+                    if (Modifier.isStatic(field.getModifiers()))
+                    {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    work.push(new Object[] {field.get(a), field.get(b)});
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+package cn.misection.cvac.semantic;
+
+import cn.misection.cvac.ast.type.basic.EnumCvaType;
+import cn.misection.cvac.ast.type.reference.CvaClassType;
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.parser.Parser;
+import cn.misection.cvac.symbol.IntSet;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName ClassMapTest
+ * @Description 压平后的成员表和继承树编号, 继承来的成员能查到, 子类声明的优先, 成环的类能查出来;
+ * @CreateTime 2026年10月17日 21:40:00
+ */
+public class ClassMapTest
+{
+    private SymbolTable symbols;
+
+    @Before
+    public void before()
+    {
+        symbols = SymbolTable.open();
+    }
+
+    @Test
+    public void testInheritedMembers()
+    {
+        final int depth = 1000;
+        ClassMap classMap = new ClassMap();
+        for (int i = 0; i < depth; i++)
+        {
+            classMap.putClassBinding("C" + i, new ClassBinding(i == 0 ? null : "C" + (i - 1)));
+            int classSymbol = symbols.intern("C" + i);
+            classMap.putFieldToClass(classSymbol, symbols.intern("f" + i), EnumCvaType.CVA_INT);
+            classMap.putMethodToClass(classSymbol, symbols.intern("m" + i),
+                    new MethodType(EnumCvaType.CVA_INT, Collections.emptyList()));
+        }
+        // 叶子重新声明根的字段;
+        int leaf = symbols.intern("C" + (depth - 1));
+        classMap.putFieldToClass(leaf, symbols.intern("f0"), new CvaClassType("C0"));
+
+        int f0 = symbols.intern("f0");
+        Assert.assertEquals(EnumCvaType.CVA_INT, classMap.getFieldType(symbols.intern("C5"), f0));
+        Assert.assertTrue(classMap.getFieldType(leaf, f0) instanceof CvaClassType);
+        for (int i = 0; i < depth; i++)
+        {
+            Assert.assertNotNull(classMap.getFieldType(leaf, symbols.intern("f" + i)));
+            Assert.assertNotNull(classMap.getMethodType(leaf, symbols.intern("m" + i)));
+        }
+        Assert.assertNull(classMap.getFieldType(symbols.intern("C0"), symbols.intern("f1")));
+        Assert.assertNull(classMap.getMethodType(leaf, symbols.intern("nothing")));
+    }
+
+    @Test
+    public void testSubclass()
+    {
+        ClassMap classMap = new ClassMap();
+        classMap.putClassBinding("Animal", new ClassBinding(null));
+        classMap.putClassBinding("Dog", new ClassBinding("Animal"));
+        classMap.putClassBinding("Puppy", new ClassBinding("Dog"));
+        classMap.putClassBinding("Cat", new ClassBinding("Animal"));
+        classMap.putClassBinding("Rock", new ClassBinding(null));
+        int animal = symbols.intern("Animal");
+        int dog = symbols.intern("Dog");
+        int puppy = symbols.intern("Puppy");
+        int cat = symbols.intern("Cat");
+        int rock = symbols.intern("Rock");
+        Assert.assertTrue(classMap.buildHierarchy().isEmpty());
+        Assert.assertTrue(classMap.isSubclass(puppy, animal));
+        Assert.assertTrue(classMap.isSubclass(puppy, dog));
+        Assert.assertTrue(classMap.isSubclass(cat, cat));
+        Assert.assertFalse(classMap.isSubclass(animal, dog));
+        Assert.assertFalse(classMap.isSubclass(puppy, cat));
+        Assert.assertFalse(classMap.isSubclass(cat, rock));
+
+        // 加了类以后编号要重建;
+        classMap.putClassBinding("Kitten", new ClassBinding("Cat"));
+        Assert.assertTrue(classMap.isSubclass(symbols.intern("Kitten"), animal));
+    }
+
+    @Test
+    public void testCyclicInheritanceReported()
+    {
+        String source = "class Ping extends Pong\n{\n    int ball;\n}\n"
+                + "class Pong extends Ping\n{\n    int net;\n}\n"
+                + "class Free extends Ping\n{\n    int x;\n}\n"
+                + "class Fine\n{\n    int y;\n}\n"
+                + "int main(string[] args)\n{\n    println 1;\n    return 0;\n}\n";
+        ClassMap classMap = new ClassMap();
+        classMap.putClassBinding("Ping", new ClassBinding("Pong"));
+        classMap.putClassBinding("Pong", new ClassBinding("Ping"));
+        classMap.putClassBinding("Free", new ClassBinding("Ping"));
+        classMap.putClassBinding("Fine", new ClassBinding(null));
+        IntSet cyclic = classMap.buildHierarchy();
+        Assert.assertEquals(3, cyclic.size());
+        Assert.assertFalse(cyclic.contains(symbols.intern("Fine")));
+
+        SemanticVisitor checker = new SemanticVisitor();
+        checker.visit(new Parser(MappedBufferedHandler.ofText(source)).parse());
+        Assert.assertFalse(checker.isOkay());
+    }
+
+    @Test(timeout = 5000)
+    public void testCyclicParentsTerminate()
+    {
+        ClassMap classMap = new ClassMap();
+        classMap.putClassBinding("Ping", new ClassBinding("Pong"));
+        classMap.putClassBinding("Pong", new ClassBinding("Ping"));
+        int ping = symbols.intern("Ping");
+        classMap.putFieldToClass(symbols.intern("Pong"), symbols.intern("ball"), EnumCvaType.CVA_INT);
+        Assert.assertEquals(EnumCvaType.CVA_INT, classMap.getFieldType(ping, symbols.intern("ball")));
+        Assert.assertNull(classMap.getFieldType(ping, symbols.intern("net")));
+    }
+}
@@ -0,0 +1,96 @@
+package cn.misection.cvac.semantic;
+
+import cn.misection.cvac.io.MappedBufferedHandler;
+import cn.misection.cvac.parser.Parser;
+import cn.misection.cvac.symbol.SymbolTable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author Military Intelligence 6 root
+ * @version 1.0.0
+ * @ClassName SemanticVisitorTest
+ * @Description 方法多时并行检查, 报错内容和次序每次都一样, 且按源码顺序; ?: 的类型取两个分支里的父类;
+ * @CreateTime 2026年10月17日 22:10:00
+ */
+public class SemanticVisitorTest
+{
+    private static final int METHOD_COUNT = 300;
+
+    private static final Pattern LINE = Pattern.compile("Error: Line (\\d+) ");
+
+    @Before
+    public void before()
+    {
+        SymbolTable.open();
+    }
+
+    @Test
+    public void testParallelDiagnosticsInSourceOrder()
+    {
+        StringBuilder source = new StringBuilder("class Many\n{\n    int f;\n");
+        for (int i = 0; i < METHOD_COUNT; i++)
+        {
+            source.append(String.format("    int m%d(int x)%n    {%n", i));
+            // 每隔几个方法放一个类型错误;
+            source.append(i % 7 == 0 ? "        x = true;\n" : "        x = x + 1;\n");
+            source.append("        return this.m0(x) + f;\n    }\n");
+        }
+        source.append("}\nint main(string[] args)\n{\n    println new Many().m1(2);\n    return 0;\n}\n");
+
+        String first = check(source.toString());
+        Assert.assertEquals(first, check(source.toString()));
+
+        Matcher matcher = LINE.matcher(first);
+        int count = 0;
+        int lastLine = 0;
+        while (matcher.find())
+        {
+            int line = Integer.parseInt(matcher.group(1));
+            Assert.assertTrue(line > lastLine);
+            lastLine = line;
+            count++;
+        }
+        Assert.assertEquals((METHOD_COUNT + 6) / 7, count);
+    }
+
+    @Test
+    public void testConditionTakesTheAncestorType()
+    {
+        // 真分支是子类时 ?: 是父类, 不能赋给子类变量;
+        String source = "class A\n{\n    int f(int x)\n    {\n        return x;\n    }\n}\n"
+                + "class B extends A\n{\n"
+                + "    int g(int x)\n    {\n        B y;\n"
+                + "        y = x < 1 ? new B() : new A();\n"
+                + "        return 0;\n    }\n}\n"
+                + "int main(string[] args)\n{\n    println new B().g(1);\n    return 0;\n}\n";
+        Matcher matcher = LINE.matcher(check(source));
+        Assert.assertTrue(matcher.find());
+        Assert.assertEquals("13", matcher.group(1));
+        Assert.assertFalse(matcher.find());
+    }
+
+    private static String check(String source)
+    {
+        PrintStream err = System.err;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        SemanticVisitor checker = new SemanticVisitor();
+        try
+        {
+            System.setErr(new PrintStream(captured, true));
+            checker.visit(new Parser(MappedBufferedHandler.ofText(source)).parse());
+        }
+        finally
+        {
+            System.setErr(err);
+        }
+        Assert.assertFalse(checker.isOkay());
+        return captured.toString();
+    }
+}
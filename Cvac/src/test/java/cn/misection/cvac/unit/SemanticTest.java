@@ -1,8 +1,8 @@
 package cn.misection.cvac.unit;
 
 import cn.misection.cvac.ast.program.AbstractProgram;
-import cn.misection.cvac.io.BufferedHandler;
 import cn.misection.cvac.io.IBufferedQueue;
+import cn.misection.cvac.io.MappedBufferedHandler;
 import cn.misection.cvac.parser.Parser;
 import cn.misection.cvac.semantic.SemanticVisitor;
 
@@ -28,7 +28,7 @@ public class SemanticTest
         IBufferedQueue fstream = null;
         try
         {
-            fstream = new BufferedHandler(fname);
+            fstream = new MappedBufferedHandler(fname);
         }
         catch (IOException e)
         {